@@ -31,12 +31,15 @@ import org.olat.basesecurity.Grant;
 import org.olat.basesecurity.Group;
 import org.olat.basesecurity.GroupMembership;
 import org.olat.basesecurity.GroupMembershipInheritance;
+import org.olat.basesecurity.GroupRoles;
 import org.olat.basesecurity.IdentityRef;
 import org.olat.basesecurity.model.GrantImpl;
 import org.olat.basesecurity.model.GroupImpl;
 import org.olat.basesecurity.model.GroupMembershipImpl;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.id.Identity;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.olat.resource.OLATResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -52,6 +55,10 @@ public class GroupDAO {
 	
 	@Autowired
 	private DB dbInstance;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
 	
 	public Group createGroup() {
 		GroupImpl group = new GroupImpl();
@@ -97,6 +104,7 @@ public class GroupDAO {
 		membership.setRole(role);
 		membership.setInheritanceMode(inheritanceMode);
 		dbInstance.getCurrentEntityManager().persist(membership);
+		membershipChanged(group, identity, role);
 		
 		Set<GroupMembership> members = ((GroupImpl)group).getMembers();
 		if(members == null) {
@@ -131,6 +139,7 @@ public class GroupDAO {
 		membership.setRole(role);
 		membership.setInheritanceMode(inheritanceMode);
 		dbInstance.getCurrentEntityManager().persist(membership);
+		membershipChanged(group, identity, role);
 	}
 	
 	public GroupMembership updateInheritanceMode(GroupMembership membership, GroupMembershipInheritance inheritanceMode) {
@@ -143,13 +152,21 @@ public class GroupDAO {
 		List<GroupMembership> memberships = em.createNamedQuery("membershipsByGroup", GroupMembership.class)
 			.setParameter("groupKey", group.getKey())
 			.getResultList();
+		myCourseDao.invalidateMembersOfGroup(group);
 		for(GroupMembership membership:memberships) {
+			markCoachingStatistics(group, membership.getIdentity(), membership.getRole());
 			em.remove(membership);
 		}
 		return memberships.size();
 	}
 	
 	public int removeMemberships(Group group, String role) {
+		myCourseDao.invalidateMembersOfGroup(group);
+		if(isCoachingRole(role)) {
+			for(Identity member:getMembers(group, role)) {
+				markCoachingStatistics(group, member, role);
+			}
+		}
 		return dbInstance.getCurrentEntityManager().createNamedQuery("deleteMembershipsByGroupAndRole")
 				.setParameter("groupKey", group.getKey())
 				.setParameter("role", role)
@@ -163,6 +180,7 @@ public class GroupDAO {
 			.setParameter("identityKey", identity.getKey())
 			.getResultList();
 		for(GroupMembership membership:memberships) {
+			membershipChanged(group, identity, membership.getRole());
 			em.remove(membership);
 		}
 		return memberships.size();
@@ -176,12 +194,23 @@ public class GroupDAO {
 			.setParameter("role", role)
 			.getResultList();
 		for(GroupMembership membership:memberships) {
+			membershipChanged(group, identity, role);
 			em.remove(membership);
 		}
 		return memberships.size();
 	}
 	
 	public int removeMemberships(IdentityRef identity) {
+		coachingStatisticsWorkDao.markCoach(identity);
+		List<Group> participantGroups = dbInstance.getCurrentEntityManager()
+				.createQuery("select membership.group from bgroupmember as membership where membership.identity.key=:identityKey and membership.role=:role", Group.class)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("role", GroupRoles.participant.name())
+				.getResultList();
+		for(Group participantGroup:participantGroups) {
+			coachingStatisticsWorkDao.markGroup(participantGroup, identity);
+		}
+		myCourseDao.invalidate(identity);
 		String deleteQuery = "delete from bgroupmember as membership where membership.identity.key=:identityKey";
 		
 		return dbInstance.getCurrentEntityManager()
@@ -190,9 +219,35 @@ public class GroupDAO {
 	}
 	
 	public void removeMembership(GroupMembership membership) {
+		membershipChanged(membership.getGroup(), membership.getIdentity(), membership.getRole());
 		dbInstance.getCurrentEntityManager().remove(membership);
 	}
 	
+	private boolean isCoachingRole(String role) {
+		return GroupRoles.participant.name().equals(role)
+				|| GroupRoles.coach.name().equals(role)
+				|| GroupRoles.owner.name().equals(role);
+	}
+	
+	private void membershipChanged(Group group, IdentityRef identity, String role) {
+		markCoachingStatistics(group, identity, role);
+		myCourseDao.invalidate(identity);
+	}
+	
+	/**
+	 * Queue the changes of the memberships which have an influence
+	 * on the statistics of the coaching tool: the statistics of a new or
+	 * removed coach are calculated again, a participant only changes
+	 * the rows of the courses of the group and its own rows.
+	 */
+	private void markCoachingStatistics(Group group, IdentityRef identity, String role) {
+		if(GroupRoles.participant.name().equals(role)) {
+			coachingStatisticsWorkDao.markGroup(group, identity);
+		} else if(GroupRoles.coach.name().equals(role) || GroupRoles.owner.name().equals(role)) {
+			coachingStatisticsWorkDao.markCoach(identity);
+		}
+	}
+	
 	public int countMembers(Group group) {
 		Number count = dbInstance.getCurrentEntityManager()
 			.createNamedQuery("countMembersByGroup", Number.class)
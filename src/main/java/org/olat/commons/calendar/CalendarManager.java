@@ -113,7 +113,8 @@ public interface CalendarManager {
 	public boolean deleteCalendar(String calendarType, String calendarID);
 	
 	/**
-	 * Return the calendar file if it exists or null.
+	 * Return the calendar file if it exists or null. If the events are
+	 * saved in the store, the file is written again if it is out of date.
 	 * 
 	 * @param calendarType
 	 * @param calendarID
@@ -192,7 +193,8 @@ public interface CalendarManager {
 	public File getCalendarFile(String type, String calendarID);
 	
 	/**
-	 * Read the calendar file (.ics) from the olatdata section. 
+	 * Read the calendar file (.ics) from the olatdata section or build it
+	 * from the events saved in the store.
 	 * @param type
 	 * @param calendarID
 	 * @return
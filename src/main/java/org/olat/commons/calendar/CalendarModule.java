@@ -71,6 +71,13 @@ public class CalendarModule extends AbstractSpringModule {
 	@Value("${calendar.managed:false}")
 	private boolean managedCalendars;
 	
+	@Value("${calendar.event.store.enabled:true}")
+	private boolean eventStoreEnabled;
+	@Value("${calendar.event.store.occurrences.past.months:12}")
+	private int occurrencesPastMonths;
+	@Value("${calendar.event.store.occurrences.future.months:24}")
+	private int occurrencesFutureMonths;
+	
 	@Autowired
 	public CalendarModule(CoordinatorManager coordinatorManager) {
 		super(coordinatorManager);
@@ -186,4 +193,32 @@ public class CalendarModule extends AbstractSpringModule {
 		this.managedCalendars = enabled;
 		setStringProperty(MANAGED_CAL_ENABLED, Boolean.toString(enabled), true);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @return true if the events are saved one by one in the database
+	 * 		instead of rewriting the whole iCal file
+	 */
+	public boolean isEventStoreEnabled() {
+		return eventStoreEnabled;
+	}
+
+	public void setEventStoreEnabled(boolean eventStoreEnabled) {
+		this.eventStoreEnabled = eventStoreEnabled;
+	}
+
+	/**
+	 * @return The number of months in the past where the occurrences of
+	 * 		the recurring events are pre-expanded
+	 */
+	public int getOccurrencesPastMonths() {
+		return occurrencesPastMonths;
+	}
+
+	/**
+	 * @return The number of months in the future where the occurrences of
+	 * 		the recurring events are pre-expanded
+	 */
+	public int getOccurrencesFutureMonths() {
+		return occurrencesFutureMonths;
+	}
+}
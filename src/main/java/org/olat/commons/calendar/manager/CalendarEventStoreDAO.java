@@ -0,0 +1,242 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.olat.commons.calendar.model.StoredCalendar;
+import org.olat.commons.calendar.model.StoredCalendarEvent;
+import org.olat.commons.calendar.model.StoredCalendarOccurrence;
+import org.olat.core.commons.persistence.DB;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Save the calendars event per event. The queries of a period use the
+ * begin and end of the events and of the pre-expanded occurrences.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class CalendarEventStoreDAO {
+	
+	private static final int BATCH_SIZE = 500;
+	
+	@Autowired
+	private DB dbInstance;
+	
+	public StoredCalendar createCalendar(String type, String calendarId, Date windowBegin, Date windowEnd) {
+		StoredCalendar calendar = new StoredCalendar();
+		calendar.setCreationDate(new Date());
+		calendar.setLastModified(calendar.getCreationDate());
+		calendar.setType(type);
+		calendar.setCalendarId(calendarId);
+		calendar.setWindowBegin(windowBegin);
+		calendar.setWindowEnd(windowEnd);
+		calendar.setIcsDirty(true);
+		dbInstance.getCurrentEntityManager().persist(calendar);
+		return calendar;
+	}
+	
+	public StoredCalendar getCalendar(String type, String calendarId) {
+		List<StoredCalendar> calendars = dbInstance.getCurrentEntityManager()
+				.createQuery("select cal from storedcalendar cal where cal.type=:type and cal.calendarId=:calendarId", StoredCalendar.class)
+				.setParameter("type", type)
+				.setParameter("calendarId", calendarId)
+				.getResultList();
+		return calendars == null || calendars.isEmpty() ? null : calendars.get(0);
+	}
+	
+	public List<String> getCalendarIds(String type) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select cal.calendarId from storedcalendar cal where cal.type=:type", String.class)
+				.setParameter("type", type)
+				.getResultList();
+	}
+	
+	/**
+	 * @param date The date
+	 * @return The calendars with a window which ends before the specified date
+	 */
+	public List<StoredCalendar> getCalendarsWithWindowEndBefore(Date date) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select cal from storedcalendar cal where cal.windowEnd<:date", StoredCalendar.class)
+				.setParameter("date", date)
+				.getResultList();
+	}
+	
+	public List<StoredCalendar> getCalendarsWithDirtyIcs() {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select cal from storedcalendar cal where cal.icsDirty=true", StoredCalendar.class)
+				.getResultList();
+	}
+	
+	public StoredCalendar updateCalendar(StoredCalendar calendar) {
+		calendar.setLastModified(new Date());
+		return dbInstance.getCurrentEntityManager().merge(calendar);
+	}
+	
+	public StoredCalendarEvent createEvent(StoredCalendar calendar, String uid, String recurrenceId,
+			Date begin, Date end, boolean recurring, Date recurrenceEnd, String vevent) {
+		StoredCalendarEvent event = new StoredCalendarEvent();
+		event.setCreationDate(new Date());
+		event.setLastModified(event.getCreationDate());
+		event.setUid(uid);
+		event.setRecurrenceId(recurrenceId);
+		event.setBegin(begin);
+		event.setEnd(end);
+		event.setRecurring(recurring);
+		event.setRecurrenceEnd(recurrenceEnd);
+		event.setVevent(vevent);
+		event.setCalendar(calendar);
+		dbInstance.getCurrentEntityManager().persist(event);
+		return event;
+	}
+	
+	public StoredCalendarEvent updateEvent(StoredCalendarEvent event) {
+		event.setLastModified(new Date());
+		return dbInstance.getCurrentEntityManager().merge(event);
+	}
+	
+	public List<StoredCalendarEvent> getEvents(StoredCalendar calendar) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select ev from storedcalevent ev where ev.calendar.key=:calendarKey order by ev.key", StoredCalendarEvent.class)
+				.setParameter("calendarKey", calendar.getKey())
+				.getResultList();
+	}
+	
+	public List<StoredCalendarEvent> getEvents(StoredCalendar calendar, Collection<String> uids) {
+		if(uids == null || uids.isEmpty()) return new ArrayList<>();
+		
+		List<String> uidList = new ArrayList<>(uids);
+		List<StoredCalendarEvent> events = new ArrayList<>(uidList.size());
+		for(int i=0; i<uidList.size(); i+=BATCH_SIZE) {
+			List<String> batch = uidList.subList(i, Math.min(uidList.size(), i + BATCH_SIZE));
+			events.addAll(dbInstance.getCurrentEntityManager()
+					.createQuery("select ev from storedcalevent ev where ev.calendar.key=:calendarKey and ev.uid in (:uids)", StoredCalendarEvent.class)
+					.setParameter("calendarKey", calendar.getKey())
+					.setParameter("uids", batch)
+					.getResultList());
+		}
+		return events;
+	}
+	
+	public List<StoredCalendarEvent> getRecurringEvents(StoredCalendar calendar) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select ev from storedcalevent ev where ev.calendar.key=:calendarKey and ev.recurring=true", StoredCalendarEvent.class)
+				.setParameter("calendarKey", calendar.getKey())
+				.getResultList();
+	}
+	
+	/**
+	 * @return The uid of the events without recurrence which overlap the period
+	 */
+	public List<String> getEventUidsInPeriod(StoredCalendar calendar, Date from, Date to) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select ev.uid from storedcalevent ev")
+		  .append(" where ev.calendar.key=:calendarKey and ev.recurring=false and ev.recurrenceId is null")
+		  .append(" and ev.begin<=:to and ev.end>=:from");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), String.class)
+				.setParameter("calendarKey", calendar.getKey())
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+	}
+	
+	/**
+	 * @return The uid of the recurring events which begin before the end of
+	 * 		the period and doesn't end before its begin
+	 */
+	public List<String> getRecurringEventUidsInPeriod(StoredCalendar calendar, Date from, Date to) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select ev.uid from storedcalevent ev")
+		  .append(" where ev.calendar.key=:calendarKey and ev.recurring=true and ev.recurrenceId is null")
+		  .append(" and ev.begin<=:to and (ev.recurrenceEnd is null or ev.recurrenceEnd>=:from)");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), String.class)
+				.setParameter("calendarKey", calendar.getKey())
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+	}
+	
+	public int deleteEvent(StoredCalendarEvent event) {
+		deleteOccurrences(event);
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from storedcalevent ev where ev.key=:eventKey")
+				.setParameter("eventKey", event.getKey())
+				.executeUpdate();
+	}
+	
+	public StoredCalendarOccurrence createOccurrence(StoredCalendarEvent event, Date begin, Date end) {
+		StoredCalendarOccurrence occurrence = new StoredCalendarOccurrence();
+		occurrence.setCreationDate(new Date());
+		occurrence.setUid(event.getUid());
+		occurrence.setBegin(begin);
+		occurrence.setEnd(end);
+		occurrence.setEvent(event);
+		occurrence.setCalendar(event.getCalendar());
+		dbInstance.getCurrentEntityManager().persist(occurrence);
+		return occurrence;
+	}
+	
+	/**
+	 * @return The occurrences which overlap the period
+	 */
+	public List<StoredCalendarOccurrence> getOccurrencesInPeriod(StoredCalendar calendar, Date from, Date to) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select occ from storedcaloccurrence occ")
+		  .append(" where occ.calendar.key=:calendarKey and occ.begin<=:to and occ.end>=:from");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), StoredCalendarOccurrence.class)
+				.setParameter("calendarKey", calendar.getKey())
+				.setParameter("from", from)
+				.setParameter("to", to)
+				.getResultList();
+	}
+	
+	public int deleteOccurrences(StoredCalendarEvent event) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from storedcaloccurrence occ where occ.event.key=:eventKey")
+				.setParameter("eventKey", event.getKey())
+				.executeUpdate();
+	}
+	
+	public void deleteCalendar(StoredCalendar calendar) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("delete from storedcaloccurrence occ where occ.calendar.key=:calendarKey")
+				.setParameter("calendarKey", calendar.getKey())
+				.executeUpdate();
+		dbInstance.getCurrentEntityManager()
+				.createQuery("delete from storedcalevent ev where ev.calendar.key=:calendarKey")
+				.setParameter("calendarKey", calendar.getKey())
+				.executeUpdate();
+		dbInstance.getCurrentEntityManager()
+				.createQuery("delete from storedcalendar cal where cal.key=:calendarKey")
+				.setParameter("calendarKey", calendar.getKey())
+				.executeUpdate();
+	}
+}
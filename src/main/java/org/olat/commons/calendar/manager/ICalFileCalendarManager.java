@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -45,9 +46,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.UUID;
 
@@ -65,8 +68,13 @@ import org.olat.commons.calendar.model.KalendarEvent;
 import org.olat.commons.calendar.model.KalendarEventKey;
 import org.olat.commons.calendar.model.KalendarEventLink;
 import org.olat.commons.calendar.model.KalendarRecurEvent;
+import org.olat.commons.calendar.model.StoredCalendar;
+import org.olat.commons.calendar.model.StoredCalendarEvent;
+import org.olat.commons.calendar.model.StoredCalendarOccurrence;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.commons.calendar.ui.events.CalendarGUIModifiedEvent;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.gui.control.Event;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.OLATRuntimeException;
@@ -76,6 +84,9 @@ import org.olat.core.util.StringHelper;
 import org.olat.core.util.WebappHelper;
 import org.olat.core.util.cache.CacheWrapper;
 import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.event.FrameworkStartedEvent;
+import org.olat.core.util.event.FrameworkStartupEventChannel;
+import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.course.ICourse;
 import org.olat.group.BusinessGroup;
@@ -117,9 +128,10 @@ import net.fortuna.ical4j.model.property.Uid;
 import net.fortuna.ical4j.model.property.Url;
 import net.fortuna.ical4j.model.property.Version;
 import net.fortuna.ical4j.model.property.XProperty;
+import net.fortuna.ical4j.util.Strings;
 
 @Service
-public class ICalFileCalendarManager implements CalendarManager, InitializingBean {
+public class ICalFileCalendarManager implements CalendarManager, InitializingBean, GenericEventListener {
 
 	private static final Logger log = Tracing.createLoggerFor(ICalFileCalendarManager.class);
 
@@ -138,12 +150,16 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	
 	private TimeZone tz;
 	
+	@Autowired
+	private DB dbInstance;
 	@Autowired
 	private UserManager userManager;
 	@Autowired
 	private CalendarModule calendarModule;
 	@Autowired
 	private CalendarUserConfigurationDAO calendarUserConfigDao;
+	@Autowired
+	private CalendarEventStoreDAO calendarEventStoreDao;
 
 	@Override
 	public void afterPropertiesSet() {
@@ -167,6 +183,18 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		// initialize timezone
 		tz = calendarModule.getDefaultTimeZone();
 		calendarCache = CoordinatorManager.getInstance().getCoordinator().getCacher().getCache(CalendarManager.class.getSimpleName(), "calendar");
+		FrameworkStartupEventChannel.registerForStartupEvent(this);
+	}
+	
+	@Override
+	public void event(Event event) {
+		if(event instanceof FrameworkStartedEvent && !calendarModule.isEventStoreEnabled()) {
+			try {
+				exportEventStore();
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
 	}
 	
 	@Override
@@ -189,7 +217,8 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	 */
 	@Override
 	public boolean calendarExists(String calendarType, String calendarID) {
-		return getCalendarFile(calendarType, calendarID).exists();
+		return getCalendarFile(calendarType, calendarID).exists()
+				|| getStoredCalendar(calendarType, calendarID) != null;
 	}
 	
 	/**
@@ -245,6 +274,43 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		return createKalendar(type, calendarID, calendar);
 	}
 
+	/**
+	 * The calendar loads its events from the database the first time
+	 * they are needed. The range queries of getEvents() don't need them.
+	 */
+	private Kalendar loadCalendarFromStore(StoredCalendar storedCalendar) {
+		return new Kalendar(storedCalendar.getCalendarId(), storedCalendar.getType(),
+				kalendar -> addStoredEvents(kalendar, calendarEventStoreDao.getEvents(storedCalendar)));
+	}
+	
+	/**
+	 * Parse the stored events in one pass as a single calendar and add them
+	 * to the specified calendar.
+	 */
+	private void addStoredEvents(Kalendar kalendar, List<StoredCalendarEvent> storedEvents) {
+		StringBuilder sb = new StringBuilder(storedEvents.size() * 512 + 256);
+		sb.append(Calendar.BEGIN).append(':').append(Calendar.VCALENDAR).append(Strings.LINE_SEPARATOR)
+		  .append(new ProdId("-//Ben Fortuna//iCal4j 1.0//EN"))
+		  .append(Version.VERSION_2_0)
+		  .append(CalScale.GREGORIAN);
+		for(StoredCalendarEvent storedEvent:storedEvents) {
+			sb.append(storedEvent.getVevent());
+		}
+		sb.append(Calendar.END).append(':').append(Calendar.VCALENDAR).append(Strings.LINE_SEPARATOR);
+
+		try(StringReader reader = new StringReader(sb.toString())) {
+			Calendar calendar = new CalendarBuilder().build(reader);
+			for (Iterator<?> iter = calendar.getComponents().iterator(); iter.hasNext();) {
+				Object comp = iter.next();
+				if (comp instanceof VEvent) {
+					kalendar.addEvent(getKalendarEvent((VEvent)comp));
+				}
+			}
+		} catch (Exception e) {
+			throw new OLATRuntimeException("Error parsing stored calendar: " + kalendar.getType() + " " + kalendar.getCalendarID(), e);
+		}
+	}
+
 	protected Kalendar createKalendar(String type, String calendarID, Calendar calendar) {
 		Kalendar cal = new Kalendar(calendarID, type);
 		for (Iterator<?> iter = calendar.getComponents().iterator(); iter.hasNext();) {
@@ -273,6 +339,9 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			log.debug("readCalendar from file, type=" + type + "  calendarID=" + calendarID);
 		}
 		
+		if(getStoredCalendar(type, calendarID) != null) {
+			return buildCalendar(getCalendar(type, calendarID));
+		}
 		File calendarFile = getCalendarFile(type, calendarID);
 		return readCalendar(calendarFile);
 	}
@@ -370,12 +439,377 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	// o_clusterOK by:cg only called by Junit-test  
 	@Override
 	public boolean persistCalendar(Kalendar kalendar) {
-		Calendar calendar = buildCalendar(kalendar);
-		boolean success = writeCalendarFile(calendar, kalendar.getType(), kalendar.getCalendarID());
+		boolean success;
+		if(calendarModule.isEventStoreEnabled()) {
+			success = storeCalendar(kalendar);
+		} else {
+			Calendar calendar = buildCalendar(kalendar);
+			success = writeCalendarFile(calendar, kalendar.getType(), kalendar.getCalendarID());
+		}
 		calendarCache.update(getKeyFor(kalendar.getType(), kalendar.getCalendarID()), kalendar);
 		return success;
 	}
 	
+	/**
+	 * Save only the specified events. If the event store is disabled or the
+	 * calendar is not already in the store, the whole calendar is saved.
+	 * This method is not thread-safe. Must be called from a synchronized block.
+	 * 
+	 * @param kalendar The calendar
+	 * @param eventKeys The keys of the added, changed or removed events
+	 * @return true if successful
+	 */
+	private boolean persistEvents(Kalendar kalendar, Collection<KalendarEventKey> eventKeys) {
+		StoredCalendar storedCalendar = getStoredCalendar(kalendar.getType(), kalendar.getCalendarID());
+		if(storedCalendar == null) {
+			return persistCalendar(kalendar);
+		}
+		
+		boolean success;
+		try {
+			Set<String> uids = new HashSet<>();
+			for(KalendarEventKey eventKey:eventKeys) {
+				uids.add(eventKey.getEventId());
+			}
+			Map<KalendarEventKey,StoredCalendarEvent> storedEvents = getStoredEventsMap(calendarEventStoreDao.getEvents(storedCalendar, uids));
+			Set<KalendarEventKey> doneKeys = new HashSet<>();
+			for(KalendarEventKey eventKey:eventKeys) {
+				KalendarEventKey storedKey = getStoredEventKey(eventKey.getEventId(), eventKey.getRecurrenceId());
+				if(!doneKeys.add(storedKey)) {
+					continue;
+				}
+				
+				StoredCalendarEvent storedEvent = storedEvents.get(storedKey);
+				KalendarEvent event = kalendar.getEvent(eventKey.getEventId(), eventKey.getRecurrenceId());
+				if(event == null && storedKey.getRecurrenceId() == null) {
+					event = kalendar.getEvent(eventKey.getEventId(), "");
+				}
+				if(event != null) {
+					storeEvent(storedCalendar, storedEvent, event);
+				} else if(storedEvent != null) {
+					calendarEventStoreDao.deleteEvent(storedEvent);
+				}
+			}
+			markIcsDirty(storedCalendar);
+			dbInstance.commit();
+			success = true;
+		} catch (Exception e) {
+			log.error("Cannot save the events of calendar: {} {}", kalendar.getType(), kalendar.getCalendarID(), e);
+			dbInstance.rollback();
+			success = false;
+		}
+		calendarCache.update(getKeyFor(kalendar.getType(), kalendar.getCalendarID()), kalendar);
+		return success;
+	}
+	
+	/**
+	 * Synchronize all the events of the calendar with the store, only the
+	 * changed events are written.
+	 */
+	private boolean storeCalendar(Kalendar kalendar) {
+		try {
+			StoredCalendar storedCalendar = calendarEventStoreDao.getCalendar(kalendar.getType(), kalendar.getCalendarID());
+			if(storedCalendar == null) {
+				Date[] window = getOccurrencesWindow();
+				storedCalendar = calendarEventStoreDao.createCalendar(kalendar.getType(), kalendar.getCalendarID(), window[0], window[1]);
+			}
+			
+			Map<KalendarEventKey,StoredCalendarEvent> storedEvents = getStoredEventsMap(calendarEventStoreDao.getEvents(storedCalendar));
+			for(KalendarEvent event:kalendar.getEvents()) {
+				StoredCalendarEvent storedEvent = storedEvents.remove(getStoredEventKey(event.getID(), event.getRecurrenceID()));
+				storeEvent(storedCalendar, storedEvent, event);
+			}
+			for(StoredCalendarEvent removedEvent:storedEvents.values()) {
+				calendarEventStoreDao.deleteEvent(removedEvent);
+			}
+			markIcsDirty(storedCalendar);
+			dbInstance.commit();
+			return true;
+		} catch (Exception e) {
+			log.error("Cannot save calendar: {} {}", kalendar.getType(), kalendar.getCalendarID(), e);
+			dbInstance.rollback();
+			return false;
+		}
+	}
+	
+	/**
+	 * Create or update the event and its occurrences if the event changed.
+	 */
+	private StoredCalendarEvent storeEvent(StoredCalendar storedCalendar, StoredCalendarEvent storedEvent, KalendarEvent event) {
+		String vevent = getStoredVEvent(event);
+		if(storedEvent != null && vevent.equals(storedEvent.getVevent())) {
+			return storedEvent;
+		}
+		
+		// the dates are only a filter, the events found are checked again
+		Date begin = event.getBegin();
+		Date end = CalendarUtils.endOf(event);
+		if(end == null) {
+			end = begin;
+		} else if(end.before(begin)) {
+			Date tmp = begin;
+			begin = end;
+			end = tmp;
+		}
+		
+		String recurrenceId = StringHelper.containsNonWhitespace(event.getRecurrenceID()) ? event.getRecurrenceID() : null;
+		boolean recurring = recurrenceId == null && StringHelper.containsNonWhitespace(event.getRecurrenceRule());
+		Date recurrenceEnd = null;
+		if(recurring) {
+			Date until = getRecurrenceEndDate(event.getRecurrenceRule());
+			if(until != null) {
+				recurrenceEnd = new Date(until.getTime() + (end.getTime() - begin.getTime()));
+			}
+		}
+
+		boolean wasRecurring = storedEvent != null && storedEvent.isRecurring();
+		if(storedEvent == null) {
+			storedEvent = calendarEventStoreDao.createEvent(storedCalendar, event.getID(), recurrenceId,
+					begin, end, recurring, recurrenceEnd, vevent);
+		} else {
+			storedEvent.setBegin(begin);
+			storedEvent.setEnd(end);
+			storedEvent.setRecurring(recurring);
+			storedEvent.setRecurrenceEnd(recurrenceEnd);
+			storedEvent.setVevent(vevent);
+			storedEvent = calendarEventStoreDao.updateEvent(storedEvent);
+		}
+		
+		if(wasRecurring) {
+			calendarEventStoreDao.deleteOccurrences(storedEvent);
+		}
+		if(recurring) {
+			expandOccurrences(storedCalendar, storedEvent, event);
+		}
+		return storedEvent;
+	}
+	
+	private void expandOccurrences(StoredCalendar storedCalendar, StoredCalendarEvent storedEvent, KalendarEvent event) {
+		try {
+			List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(event,
+					storedCalendar.getWindowBegin(), storedCalendar.getWindowEnd(), tz);
+			for(KalendarRecurEvent recurringEvent:recurringEvents) {
+				calendarEventStoreDao.createOccurrence(storedEvent, recurringEvent.getBegin(), recurringEvent.getEnd());
+			}
+		} catch (Exception e) {
+			log.warn("Cannot expand the occurrences of event: {}", event.getID(), e);
+		}
+	}
+	
+	private void markIcsDirty(StoredCalendar storedCalendar) {
+		if(!storedCalendar.isIcsDirty()) {
+			storedCalendar.setIcsDirty(true);
+			calendarEventStoreDao.updateCalendar(storedCalendar);
+		}
+	}
+	
+	/**
+	 * The VEVENT without the time stamp, which changes every time.
+	 */
+	private String getStoredVEvent(KalendarEvent kEvent) {
+		VEvent vEvent = getVEvent(kEvent);
+		Property dtStamp = vEvent.getProperty(Property.DTSTAMP);
+		if(dtStamp != null) {
+			vEvent.getProperties().remove(dtStamp);
+		}
+		return vEvent.toString();
+	}
+	
+	private Map<KalendarEventKey,StoredCalendarEvent> getStoredEventsMap(List<StoredCalendarEvent> storedEvents) {
+		Map<KalendarEventKey,StoredCalendarEvent> map = new HashMap<>();
+		for(StoredCalendarEvent storedEvent:storedEvents) {
+			map.put(getStoredEventKey(storedEvent.getUid(), storedEvent.getRecurrenceId()), storedEvent);
+		}
+		return map;
+	}
+	
+	private KalendarEventKey getStoredEventKey(String uid, String recurrenceId) {
+		return new KalendarEventKey(uid, StringHelper.containsNonWhitespace(recurrenceId) ? recurrenceId : null);
+	}
+	
+	private StoredCalendar getStoredCalendar(String type, String calendarID) {
+		if(calendarModule.isEventStoreEnabled()) {
+			return calendarEventStoreDao.getCalendar(type, calendarID);
+		}
+		return null;
+	}
+	
+	private Date[] getOccurrencesWindow() {
+		java.util.Calendar cal = java.util.Calendar.getInstance();
+		cal.setTime(CalendarUtils.startOfDay(new Date()));
+		cal.add(java.util.Calendar.MONTH, -calendarModule.getOccurrencesPastMonths());
+		Date windowBegin = cal.getTime();
+		cal.add(java.util.Calendar.MONTH, calendarModule.getOccurrencesPastMonths() + calendarModule.getOccurrencesFutureMonths());
+		return new Date[] { windowBegin, cal.getTime() };
+	}
+	
+	/**
+	 * Migrate the iCal files which are not in the store, move the window of
+	 * the pre-expanded occurrences which ends in less than half of the future
+	 * months and write the iCal files of the changed calendars.
+	 */
+	public void maintainEventStore() {
+		if(!calendarModule.isEventStoreEnabled()) {
+			exportEventStore();
+			return;
+		}
+		
+		int migrated = 0;
+		for(String type:new String[]{ TYPE_USER, TYPE_GROUP, TYPE_COURSE }) {
+			File[] files = new File(fStorageBase, type).listFiles((dir, name) -> name.endsWith(".ics"));
+			if(files == null || files.length == 0) continue;
+			
+			Set<String> storedIds = new HashSet<>(calendarEventStoreDao.getCalendarIds(type));
+			dbInstance.commitAndCloseSession();
+			for(File file:files) {
+				String calendarId = file.getName().substring(0, file.getName().length() - 4);
+				if(!storedIds.contains(calendarId) && migrateToStore(type, calendarId)) {
+					migrated++;
+				}
+			}
+		}
+		
+		java.util.Calendar cal = java.util.Calendar.getInstance();
+		cal.add(java.util.Calendar.MONTH, calendarModule.getOccurrencesFutureMonths() / 2);
+		List<StoredCalendar> windowsToMove = calendarEventStoreDao.getCalendarsWithWindowEndBefore(cal.getTime());
+		dbInstance.commitAndCloseSession();
+		for(StoredCalendar storedCalendar:windowsToMove) {
+			moveOccurrencesWindow(storedCalendar.getType(), storedCalendar.getCalendarId());
+		}
+		
+		List<StoredCalendar> dirtyCalendars = calendarEventStoreDao.getCalendarsWithDirtyIcs();
+		dbInstance.commitAndCloseSession();
+		for(StoredCalendar storedCalendar:dirtyCalendars) {
+			writeCalendarFileFromStore(storedCalendar.getType(), storedCalendar.getCalendarId());
+		}
+		log.info(Tracing.M_AUDIT, "Calendar event store: {} calendars migrated, {} windows moved, {} iCal files written",
+				migrated, windowsToMove.size(), dirtyCalendars.size());
+	}
+	
+	/**
+	 * The store was switched off after the migration. The iCal files of the
+	 * calendars changed in the store are written and the calendars are
+	 * removed from the store, the files are the master again. It runs at
+	 * startup and with the maintenance job.
+	 */
+	public void exportEventStore() {
+		int exported = 0;
+		for(String type:new String[]{ TYPE_USER, TYPE_GROUP, TYPE_COURSE }) {
+			List<String> calendarIds = calendarEventStoreDao.getCalendarIds(type);
+			dbInstance.commitAndCloseSession();
+			for(String calendarId:calendarIds) {
+				if(exportToFile(type, calendarId)) {
+					exported++;
+				}
+			}
+		}
+		if(exported > 0) {
+			log.info(Tracing.M_AUDIT, "Calendar event store disabled: {} calendars exported to their iCal files", exported);
+		}
+	}
+	
+	private boolean exportToFile(String type, String calendarId) {
+		OLATResourceable calOres = getOresHelperFor(new Kalendar(calendarId, type));
+		try {
+			Boolean exported = CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(calOres, () -> {
+				StoredCalendar storedCalendar = calendarEventStoreDao.getCalendar(type, calendarId);
+				if(storedCalendar == null) {
+					return Boolean.FALSE;
+				}
+				if(storedCalendar.isIcsDirty()) {
+					Kalendar kalendar = new Kalendar(calendarId, type);
+					addStoredEvents(kalendar, calendarEventStoreDao.getEvents(storedCalendar));
+					if(!writeCalendarFile(buildCalendar(kalendar), type, calendarId)) {
+						log.error("Cannot export the calendar: {} {}", type, calendarId);
+						return Boolean.FALSE;
+					}
+				}
+				calendarEventStoreDao.deleteCalendar(storedCalendar);
+				calendarCache.remove(getKeyFor(type, calendarId));
+				return Boolean.TRUE;
+			});
+			dbInstance.commitAndCloseSession();
+			return exported.booleanValue();
+		} catch (Exception e) {
+			log.error("Cannot export calendar: {} {}", type, calendarId, e);
+			dbInstance.rollbackAndCloseSession();
+			return false;
+		}
+	}
+	
+	private boolean migrateToStore(String type, String calendarId) {
+		OLATResourceable calOres = getOresHelperFor(new Kalendar(calendarId, type));
+		try {
+			Boolean migrated = CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(calOres, () -> {
+				if(calendarEventStoreDao.getCalendar(type, calendarId) != null) {
+					return Boolean.FALSE;
+				}
+				Kalendar kalendar = getCalendarFromCache(type, calendarId);
+				boolean stored = storeCalendar(kalendar);
+				if(stored) {
+					StoredCalendar storedCalendar = calendarEventStoreDao.getCalendar(type, calendarId);
+					storedCalendar.setIcsDirty(false);
+					calendarEventStoreDao.updateCalendar(storedCalendar);
+				}
+				return Boolean.valueOf(stored);
+			});
+			dbInstance.commitAndCloseSession();
+			return migrated.booleanValue();
+		} catch (Exception e) {
+			log.error("Cannot migrate calendar: {} {}", type, calendarId, e);
+			dbInstance.rollbackAndCloseSession();
+			return false;
+		}
+	}
+	
+	private void moveOccurrencesWindow(String type, String calendarId) {
+		OLATResourceable calOres = getOresHelperFor(new Kalendar(calendarId, type));
+		try {
+			CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(calOres, () -> {
+				StoredCalendar storedCalendar = calendarEventStoreDao.getCalendar(type, calendarId);
+				if(storedCalendar == null) return;
+				
+				Date[] window = getOccurrencesWindow();
+				storedCalendar.setWindowBegin(window[0]);
+				storedCalendar.setWindowEnd(window[1]);
+				storedCalendar = calendarEventStoreDao.updateCalendar(storedCalendar);
+				
+				Kalendar kalendar = getCalendarFromCache(type, calendarId);
+				for(StoredCalendarEvent storedEvent:calendarEventStoreDao.getRecurringEvents(storedCalendar)) {
+					calendarEventStoreDao.deleteOccurrences(storedEvent);
+					KalendarEvent event = kalendar.getEvent(storedEvent.getUid(), null);
+					if(event != null) {
+						expandOccurrences(storedCalendar, storedEvent, event);
+					}
+				}
+			});
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot move the window of the occurrences of calendar: {} {}", type, calendarId, e);
+			dbInstance.rollbackAndCloseSession();
+		}
+	}
+	
+	private void writeCalendarFileFromStore(String type, String calendarId) {
+		OLATResourceable calOres = getOresHelperFor(new Kalendar(calendarId, type));
+		try {
+			CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(calOres, () -> {
+				StoredCalendar storedCalendar = calendarEventStoreDao.getCalendar(type, calendarId);
+				if(storedCalendar == null || !storedCalendar.isIcsDirty()) return;
+				
+				Calendar calendar = buildCalendar(getCalendarFromCache(type, calendarId));
+				if(writeCalendarFile(calendar, type, calendarId)) {
+					storedCalendar.setIcsDirty(false);
+					calendarEventStoreDao.updateCalendar(storedCalendar);
+				}
+			});
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot write the iCal file of calendar: {} {}", type, calendarId, e);
+			dbInstance.rollbackAndCloseSession();
+		}
+	}
+	
 	private boolean writeCalendarFile(Calendar calendar, String calType, String calId) {
 		File fKalendarFile = getCalendarFile(calType, calId);
 
@@ -394,12 +828,21 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	@Override
 	public boolean deleteCalendar(String type, String calendarID) {
 		calendarCache.remove( getKeyFor(type,calendarID) );
+		StoredCalendar storedCalendar = getStoredCalendar(type, calendarID);
+		if(storedCalendar != null) {
+			calendarEventStoreDao.deleteCalendar(storedCalendar);
+		}
 		File fKalendarFile = getCalendarFile(type, calendarID);
-		return fKalendarFile.delete();
+		return fKalendarFile.delete() || storedCalendar != null;
 	}
 
 	@Override
 	public File getCalendarICalFile(String type, String calendarID) {
+		StoredCalendar storedCalendar = getStoredCalendar(type, calendarID);
+		if(storedCalendar != null && storedCalendar.isIcsDirty()) {
+			// written with the lock of the calendar, as persist and remove
+			writeCalendarFileFromStore(type, calendarID);
+		}
 		File fCalendarICalFile = getCalendarFile(type, calendarID);
 		if (fCalendarICalFile.exists()) return fCalendarICalFile;
 		else return null;
@@ -1016,11 +1459,13 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		OLATResourceable calOres = getOresHelperFor(cal);
 		Boolean persistSuccessful = CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync( calOres, () -> {
 			Kalendar loadedCal = getCalendarFromCache(cal.getType(),cal.getCalendarID());
+			List<KalendarEventKey> eventKeys = new ArrayList<>(kalendarEvents.size());
 			for(KalendarEvent kalendarEvent:kalendarEvents) {
 				loadedCal.addEvent(kalendarEvent);
 				kalendarEvent.resetImmutableDates();
+				eventKeys.add(new KalendarEventKey(kalendarEvent));
 			}
-			boolean successfullyPersist = persistCalendar(loadedCal);
+			boolean successfullyPersist = persistEvents(loadedCal, eventKeys);
 			return Boolean.valueOf(successfullyPersist);
 		});
 		// inform all controller about calendar change for reload
@@ -1033,25 +1478,29 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		OLATResourceable calOres = getOresHelperFor(cal);
 		Boolean removeSuccessful = CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync( calOres, () -> {
 			Kalendar loadedCal = getCalendarFromCache(cal.getType(), cal.getCalendarID());
+			List<KalendarEventKey> eventKeys = new ArrayList<>();
 			for(KalendarEvent kalendarEvent:kalendarEvents) {
 				String uid = kalendarEvent.getID();
 				String recurrenceId = kalendarEvent.getRecurrenceID();
 				if(StringHelper.containsNonWhitespace(recurrenceId)) {
 					loadedCal.removeEvent(kalendarEvent);
+					eventKeys.add(new KalendarEventKey(kalendarEvent));
 					KalendarEvent rootEvent = loadedCal.getEvent(kalendarEvent.getID(), null);
 					if(rootEvent != null && kalendarEvent instanceof KalendarRecurEvent) {
 						Date recurrenceDate = ((KalendarRecurEvent)kalendarEvent).getOccurenceDate();
 						rootEvent.addRecurrenceExc(recurrenceDate);
+						eventKeys.add(new KalendarEventKey(rootEvent));
 					}
 				} else {
 					for(KalendarEvent kEvent:loadedCal.getEvents()) {
 						if(uid.equals(kEvent.getID())) {
 							loadedCal.removeEvent(kEvent);
+							eventKeys.add(new KalendarEventKey(kEvent));
 						}
 					}
 				}
 			}
-			boolean successfullyPersist = persistCalendar(loadedCal);
+			boolean successfullyPersist = persistEvents(loadedCal, eventKeys);
 			return Boolean.valueOf(successfullyPersist);
 		});
 		// inform all controller about calendar change for reload
@@ -1074,15 +1523,18 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			Kalendar loadedCal = getCalendarFromCache(cal.getType(), cal.getCalendarID());
 			KalendarEvent rootEvent = loadedCal.getEvent(kalendarEvent.getID(), null);
 			rootEvent.addRecurrenceExc(kalendarEvent.getBegin());
+			List<KalendarEventKey> eventKeys = new ArrayList<>();
+			eventKeys.add(new KalendarEventKey(rootEvent));
 			
 			for(KalendarEvent kEvent:loadedCal.getEvents()) {
 				if(uid.equals(kEvent.getID())
 						&& kEvent.getOccurenceDate() != null
 						&& occurenceDate.equals(kEvent.getOccurenceDate())) {
 					loadedCal.removeEvent(kEvent);
+					eventKeys.add(new KalendarEventKey(kEvent));
 				}
 			}
-			boolean successfullyPersist = persistCalendar(loadedCal);
+			boolean successfullyPersist = persistEvents(loadedCal, eventKeys);
 			return Boolean.valueOf(successfullyPersist);
 		});
 		// inform all controller about calendar change for reload
@@ -1108,16 +1560,19 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 				recur.setUntil(CalendarUtils.createDate(occurenceDate));
 				RRule rrule = new RRule(recur);
 				rootEvent.setRecurrenceRule(rrule.getValue());
+				List<KalendarEventKey> eventKeys = new ArrayList<>();
+				eventKeys.add(new KalendarEventKey(rootEvent));
 				
 				for(KalendarEvent kEvent:loadedCal.getEvents()) {
 					if(uid.equals(kEvent.getID())
 							&& StringHelper.containsNonWhitespace(kEvent.getRecurrenceID())
 							&& occurenceDate.before(kEvent.getBegin())) {
 						loadedCal.removeEvent(kEvent);
+						eventKeys.add(new KalendarEventKey(kEvent));
 					}
 				}
 				
-				successfullyPersist = persistCalendar(loadedCal);
+				successfullyPersist = persistEvents(loadedCal, eventKeys);
 			} catch (ParseException e) {
 				log.error("", e);
 			}
@@ -1142,11 +1597,13 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		final OLATResourceable calOres = getOresHelperFor(cal);
 		Boolean updatedSuccessful = CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync( calOres, () -> {
 			Kalendar loadedCal = getCalendarFromCache(cal.getType(), cal.getCalendarID());
+			List<KalendarEventKey> eventKeys = new ArrayList<>(kalendarEvents.size());
 			for(KalendarEvent kalendarEvent:kalendarEvents) {
 				loadedCal.removeEvent(kalendarEvent); // remove old event
 				loadedCal.addEvent(kalendarEvent); // add changed event
+				eventKeys.add(new KalendarEventKey(kalendarEvent));
 			}
-			boolean successfullyPersist = persistCalendar(loadedCal);
+			boolean successfullyPersist = persistEvents(loadedCal, eventKeys);
 			// inform all controller about calendar change for reload
 			CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(new CalendarGUIModifiedEvent(cal), OresHelper.lookupType(CalendarManager.class));
 			return successfullyPersist;
@@ -1162,6 +1619,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		OLATResourceable calOres = getOresHelperFor(cal);
 		CoordinatorManager.getInstance().getCoordinator().getSyncer().assertAlreadyDoInSyncFor(calOres);
 		Kalendar reloadedCal = getCalendarFromCache(cal.getType(), cal.getCalendarID());
+		List<KalendarEventKey> eventKeys = new ArrayList<>();
 		
 		if(StringHelper.containsNonWhitespace(kalendarEvent.getRecurrenceRule())) {
 			Date oldBegin = kalendarEvent.getImmutableBegin();
@@ -1194,6 +1652,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 				for(KalendarEvent exEvent:exEvents) {
 					try {
 						reloadedCal.removeEvent(exEvent);
+						eventKeys.add(new KalendarEventKey(exEvent));
 						String recurrenceId = exEvent.getRecurrenceID();
 						
 						RecurrenceId recurId = new RecurrenceId(recurrenceId, tz);
@@ -1218,6 +1677,7 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 						}
 						exEvent.setRecurrenceID(newRecurId.getValue());
 						reloadedCal.addEvent(exEvent);
+						eventKeys.add(new KalendarEventKey(exEvent));
 					} catch (ParseException e) {
 						log.error("", e);
 					}
@@ -1228,8 +1688,9 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		reloadedCal.removeEvent(kalendarEvent); // remove old event
 		kalendarEvent.resetImmutableDates();
 		reloadedCal.addEvent(kalendarEvent); // add changed event
+		eventKeys.add(new KalendarEventKey(kalendarEvent));
 
-		boolean successfullyPersist = persistCalendar(reloadedCal);
+		boolean successfullyPersist = persistEvents(reloadedCal, eventKeys);
 		// inform all controller about calendar change for reload
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(new CalendarGUIModifiedEvent(cal), OresHelper.lookupType(CalendarManager.class));
 		return successfullyPersist;
@@ -1273,7 +1734,10 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	 * @return
 	 */
 	protected Kalendar loadOrCreateCalendar(final String callType, final String callCalendarID) {
-		if (!calendarExists(callType, callCalendarID)) {
+		StoredCalendar storedCalendar = getStoredCalendar(callType, callCalendarID);
+		if(storedCalendar != null) {
+			return loadCalendarFromStore(storedCalendar);
+		} else if (!getCalendarFile(callType, callCalendarID).exists()) {
 			return createCalendar(callType, callCalendarID);
 		} else {
 			return loadCalendarFromFile(callType, callCalendarID);
@@ -1282,6 +1746,11 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	
 	@Override
 	public List<KalendarEvent> getEvents(Kalendar calendar, Date from, Date to, boolean privateEventsVisible) {
+		StoredCalendar storedCalendar = getStoredCalendar(calendar.getType(), calendar.getCalendarID());
+		if(storedCalendar != null) {
+			return getEventsFromStore(storedCalendar, calendar, from, to, privateEventsVisible);
+		}
+		
 		List<KalendarEvent> allEvents = calendar.getEvents();
 		List<KalendarEvent> events = new ArrayList<>(128);
 		
@@ -1308,7 +1777,92 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			}
 		}
 		
-		//process events with recurrenceId
+		attachRecurrenceEvents(allEvents, idToRecurringEvents);
+		return events;
+	}
+	
+	/**
+	 * Search the events in the period with the index of the store. The occurrences
+	 * of the recurring events are read from the database if the period is in the
+	 * window of the calendar, else only the recurring events which overlap the
+	 * period are expanded. The events are taken from the specified calendar if
+	 * it's already loaded, else only the events found are parsed.
+	 */
+	private List<KalendarEvent> getEventsFromStore(StoredCalendar storedCalendar, Kalendar calendar,
+			Date from, Date to, boolean privateEventsVisible) {
+		List<String> uids = calendarEventStoreDao.getEventUidsInPeriod(storedCalendar, from, to);
+		Set<String> allUids = new HashSet<>(uids);
+		List<StoredCalendarOccurrence> occurrences = null;
+		List<String> recurringUids = null;
+		if(storedCalendar.isInWindow(from, to)) {
+			occurrences = calendarEventStoreDao.getOccurrencesInPeriod(storedCalendar, from, to);
+			for(StoredCalendarOccurrence occurrence:occurrences) {
+				allUids.add(occurrence.getUid());
+			}
+		} else {
+			recurringUids = calendarEventStoreDao.getRecurringEventUidsInPeriod(storedCalendar, from, to);
+			allUids.addAll(recurringUids);
+		}
+		
+		Kalendar source = calendar;
+		if(!calendar.isLoaded()) {
+			source = new Kalendar(calendar.getCalendarID(), calendar.getType());
+			addStoredEvents(source, calendarEventStoreDao.getEvents(storedCalendar, allUids));
+		}
+		
+		List<KalendarEvent> events = new ArrayList<>(128);
+		for(String uid:uids) {
+			KalendarEvent event = source.getEvent(uid, null);
+			if(event != null && isVisible(event, privateEventsVisible)
+					&& !StringHelper.containsNonWhitespace(event.getRecurrenceRule())
+					&& isInRange(from, to, event)) {
+				events.add(event);
+			}
+		}
+		
+		Map<String, List<KalendarRecurEvent>> idToRecurringEvents = new HashMap<>();
+		if(occurrences != null) {
+			for(StoredCalendarOccurrence occurrence:occurrences) {
+				KalendarEvent event = source.getEvent(occurrence.getUid(), null);
+				if(event != null && isVisible(event, privateEventsVisible)
+						&& StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
+					// the dates from the database are timestamps which are not equals to dates
+					Date begin = new Date(occurrence.getBegin().getTime());
+					Date end = new Date(occurrence.getEnd().getTime());
+					idToRecurringEvents.computeIfAbsent(event.getID(), id -> new ArrayList<>())
+						.add(createRecurEvent(event, begin, end));
+				}
+			}
+		} else if(recurringUids != null) {
+			for(String uid:recurringUids) {
+				KalendarEvent event = source.getEvent(uid, null);
+				if(event != null && isVisible(event, privateEventsVisible)
+						&& StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
+					List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(event, from, to, tz);
+					if(!recurringEvents.isEmpty()) {
+						idToRecurringEvents.put(event.getID(), recurringEvents);
+					}
+				}
+			}
+		}
+		
+		if(!idToRecurringEvents.isEmpty()) {
+			for(List<KalendarRecurEvent> recurringEvents:idToRecurringEvents.values()) {
+				events.addAll(recurringEvents);
+			}
+			attachRecurrenceEvents(source.getEvents(), idToRecurringEvents);
+		}
+		return events;
+	}
+	
+	private boolean isVisible(KalendarEvent event, boolean privateEventsVisible) {
+		return privateEventsVisible || event.getClassification() != KalendarEvent.CLASS_PRIVATE;
+	}
+	
+	/**
+	 * Replace the occurrences by the events with the same recurrence id.
+	 */
+	private void attachRecurrenceEvents(List<KalendarEvent> allEvents, Map<String, List<KalendarRecurEvent>> idToRecurringEvents) {
 		for(KalendarEvent event:allEvents) {
 			if(!StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
 				continue;
@@ -1339,8 +1893,6 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 				}
 			}
 		}
-		
-		return events;
 	}
 	
 	private final boolean isInRange(Date from, Date to, KalendarEvent event) {
@@ -1410,24 +1962,24 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			endCal.clear();
 			endCal.setTimeInMillis(beginCal.getTimeInMillis() + duration);
 
-			boolean original = false;
-			if(kEvent.getBegin().compareTo(beginCal.getTime()) == 0) {
-				original = true; //prevent doubled events
-			}
-
 			Date recurrenceEnd = getRecurrenceEndDate(kEvent.getRecurrenceRule());
 			if(kEvent.isAllDayEvent() && recurrenceEnd != null && recurStartCal.getTime().after(recurrenceEnd)) {
 				continue; //workaround for ical4j-bug in all day events
 			}
 		
-			KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), beginCal.getTime(), endCal.getTime());
-			recurEvent.setOccurenceDate(beginCal.getTime());
-			recurEvent.setSourceEvent(kEvent);
-			recurringEvents.add(recurEvent);
+			recurringEvents.add(createRecurEvent(kEvent, beginCal.getTime(), endCal.getTime()));
 		}
 		return recurringEvents;
 	}
 	
+	private KalendarRecurEvent createRecurEvent(KalendarEvent kEvent, Date begin, Date end) {
+		boolean original = kEvent.getBegin().compareTo(begin) == 0; //prevent doubled events
+		KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), begin, end);
+		recurEvent.setOccurenceDate(begin);
+		recurEvent.setSourceEvent(kEvent);
+		return recurEvent;
+	}
+	
 	private final DateList getRecurringsInPeriod(Date periodStart, Date periodEnd, KalendarEvent kEvent) {
 		DateList recurDates = null;
 		String recurrenceRule = kEvent.getRecurrenceRule();
@@ -25,6 +25,8 @@
 
 package org.olat.commons.calendar.model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -42,11 +44,51 @@ public class Kalendar implements Serializable {
 	private int managedEvent;
 	private int notManagedEvent;
 	
+	private transient volatile EventsLoader loader;
+	private transient boolean loading;
+	
 	public Kalendar(String calendarID, String type) {
 		this.calendarID = calendarID;
 		this.type = type;
 	}
 	
+	/**
+	 * Create a calendar which loads its events the first time they are needed.
+	 * 
+	 * @param calendarID The calendar ID
+	 * @param type The type
+	 * @param loader The loader which adds the events to the calendar
+	 */
+	public Kalendar(String calendarID, String type, EventsLoader loader) {
+		this(calendarID, type);
+		this.loader = loader;
+	}
+	
+	/**
+	 * @return true if the events of the calendar are loaded
+	 */
+	public boolean isLoaded() {
+		return loader == null;
+	}
+	
+	private void load() {
+		if(loader == null) return;
+		
+		synchronized(this) {
+			EventsLoader eventsLoader = loader;
+			// the loader adds the events with addEvent()
+			if(eventsLoader != null && !loading) {
+				loading = true;
+				try {
+					eventsLoader.load(this);
+					loader = null;
+				} finally {
+					loading = false;
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Return this calendar's ID.
 	 * @return
@@ -56,14 +98,17 @@ public class Kalendar implements Serializable {
 	}
 	
 	public int size() {
+		load();
 		return events.size();
 	}
 	
 	public boolean hasManagedEvents() {
+		load();
 		return managedEvent > 0;
 	}
 	
 	public boolean hasNotManagedEvents() {
+		load();
 		return notManagedEvent > 0;
 	}
 	
@@ -72,6 +117,7 @@ public class Kalendar implements Serializable {
 	 * @param event
 	 */
 	public void addEvent(KalendarEvent event) {
+		load();
 		if(event.isManaged()) {
 			managedEvent++;
 		} else {
@@ -86,6 +132,7 @@ public class Kalendar implements Serializable {
 	 * @param event
 	 */
 	public void removeEvent(KalendarEvent event) {
+		load();
 		if(event.isManaged()) {
 			managedEvent--;
 		} else {
@@ -101,6 +148,7 @@ public class Kalendar implements Serializable {
 	 * @return
 	 */
 	public KalendarEvent getEvent(String eventID, String recurenceID) {
+		load();
 		return events.get(new KalendarEventKey(eventID, recurenceID));
 	}
 	
@@ -109,6 +157,7 @@ public class Kalendar implements Serializable {
 	 * @return
 	 */
 	public List<KalendarEvent> getEvents() {
+		load();
 		return new ArrayList<>(events.values());
 	}
 
@@ -116,8 +165,24 @@ public class Kalendar implements Serializable {
 		return type;
 	}
 	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		load();
+		out.defaultWriteObject();
+	}
+	
 	@Override
 	public String toString() {
 		return "Kalendar[type=" + getType() + ", id=" + getCalendarID() + "]";
 	}
-}
\ No newline at end of file
+	
+	@FunctionalInterface
+	public interface EventsLoader {
+		
+		/**
+		 * Add the events to the calendar.
+		 * 
+		 * @param kalendar The calendar to fill
+		 */
+		public void load(Kalendar kalendar);
+	}
+}
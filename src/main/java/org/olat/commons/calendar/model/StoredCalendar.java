@@ -0,0 +1,181 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.ModifiedInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * A calendar saved event per event in the database. The window is the
+ * period in which the occurrences of the recurring events are expanded.
+ * The flag ics dirty is set at every change and reset when the iCal file
+ * is written again.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Entity(name="storedcalendar")
+@Table(name="o_cal_calendar")
+public class StoredCalendar implements CreateInfo, ModifiedInfo, Persistable {
+
+	private static final long serialVersionUID = -3197486151736404385L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="lastmodified", nullable=false, insertable=true, updatable=true)
+	private Date lastModified;
+
+	@Column(name="c_calendar_id", nullable=false, insertable=true, updatable=false)
+	private String calendarId;
+	@Column(name="c_calendar_type", nullable=false, insertable=true, updatable=false)
+	private String type;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="c_window_begin", nullable=false, insertable=true, updatable=true)
+	private Date windowBegin;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="c_window_end", nullable=false, insertable=true, updatable=true)
+	private Date windowEnd;
+	@Column(name="c_ics_dirty", nullable=false, insertable=true, updatable=true)
+	private boolean icsDirty;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public String getCalendarId() {
+		return calendarId;
+	}
+
+	public void setCalendarId(String calendarId) {
+		this.calendarId = calendarId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return The begin of the period where the occurrences are expanded
+	 */
+	public Date getWindowBegin() {
+		return windowBegin;
+	}
+
+	public void setWindowBegin(Date windowBegin) {
+		this.windowBegin = windowBegin;
+	}
+
+	/**
+	 * @return The end of the period where the occurrences are expanded
+	 */
+	public Date getWindowEnd() {
+		return windowEnd;
+	}
+
+	public void setWindowEnd(Date windowEnd) {
+		this.windowEnd = windowEnd;
+	}
+	
+	public boolean isInWindow(Date from, Date to) {
+		return windowBegin.compareTo(from) <= 0 && windowEnd.compareTo(to) >= 0;
+	}
+
+	/**
+	 * @return true if the iCal file is older than the events
+	 */
+	public boolean isIcsDirty() {
+		return icsDirty;
+	}
+
+	public void setIcsDirty(boolean icsDirty) {
+		this.icsDirty = icsDirty;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 87264 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof StoredCalendar) {
+			StoredCalendar cal = (StoredCalendar)obj;
+			return getKey() != null && getKey().equals(cal.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
@@ -0,0 +1,158 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * A pre-expanded occurrence of a recurring event, within the window of
+ * the calendar. The uid of the event is copied to resolve the event
+ * without join.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Entity(name="storedcaloccurrence")
+@Table(name="o_cal_event_occurrence")
+public class StoredCalendarOccurrence implements CreateInfo, Persistable {
+
+	private static final long serialVersionUID = -2876131480923749125L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+	
+	@Column(name="c_uid", nullable=false, insertable=true, updatable=false)
+	private String uid;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="c_begin", nullable=false, insertable=true, updatable=false)
+	private Date begin;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="c_end", nullable=false, insertable=true, updatable=false)
+	private Date end;
+	
+	@ManyToOne(targetEntity=StoredCalendarEvent.class,fetch=FetchType.LAZY,optional=false)
+	@JoinColumn(name="fk_event", nullable=false, insertable=true, updatable=false)
+	private StoredCalendarEvent event;
+	@ManyToOne(targetEntity=StoredCalendar.class,fetch=FetchType.LAZY,optional=false)
+	@JoinColumn(name="fk_calendar", nullable=false, insertable=true, updatable=false)
+	private StoredCalendar calendar;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	public String getUid() {
+		return uid;
+	}
+
+	public void setUid(String uid) {
+		this.uid = uid;
+	}
+
+	public Date getBegin() {
+		return begin;
+	}
+
+	public void setBegin(Date begin) {
+		this.begin = begin;
+	}
+
+	public Date getEnd() {
+		return end;
+	}
+
+	public void setEnd(Date end) {
+		this.end = end;
+	}
+
+	public StoredCalendarEvent getEvent() {
+		return event;
+	}
+
+	public void setEvent(StoredCalendarEvent event) {
+		this.event = event;
+	}
+
+	public StoredCalendar getCalendar() {
+		return calendar;
+	}
+
+	public void setCalendar(StoredCalendar calendar) {
+		this.calendar = calendar;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 736102 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof StoredCalendarOccurrence) {
+			StoredCalendarOccurrence occurrence = (StoredCalendarOccurrence)obj;
+			return getKey() != null && getKey().equals(occurrence.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
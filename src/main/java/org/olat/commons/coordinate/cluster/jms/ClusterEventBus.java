@@ -28,9 +28,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.JMSException;
@@ -72,6 +75,9 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	// settings
 	private long sendInterval = 1000; // 1000 miliseconds between each "ping/alive/info" message, can be set using spring
 	private long jmsMsgDelayLimit = 5000;  // max duration of ClusterInfoEvent send-receive time in ms
+	private int fullInfoInterval = 20; // send a full snapshot of the listeners every x ClusterInfoEvent, the others only contain the delta
+	private long batchWindow = 0; // 0 send every event in its own message, > 0 collect the events during x milliseconds and send them as a batch
+	private int maxBatchSize = 500; // send the batch without waiting the end of the window if it has reached this size
 	
 	// counters
 	private long latestSentMsgId = -1;
@@ -90,6 +96,8 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	
 	// for bookkeeping how many resources have how many listeners
 	private final BusListenerInfos busInfos = new BusListenerInfos();
+	// set if an other node missed a delta of our listeners
+	private volatile boolean fullInfoRequested = false;
 	protected boolean isClusterInfoEventThreadRunning = true;
 	private ConnectionFactory connectionFactory;
 	private Topic destination;
@@ -106,7 +114,12 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	
 	private final SimpleProbe mrtgProbeJMSEnqueueTime_ = new SimpleProbe();
 	
-	private ExecutorService jmsExecutor;
+	private final SimpleProbe mrtgProbeJMSBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSBatchEncodeTime_ = new SimpleProbe();
+	
+	private ScheduledExecutorService jmsExecutor;
+	// the events waiting for the end of the batch window
+	private final List<JMSWrapper> pendingEvents = new ArrayList<>();
 	
 	/**
 	 * [used by spring]
@@ -118,7 +131,7 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	}
 
 	public void springInit() throws JMSException {
-		jmsExecutor = Executors.newSingleThreadExecutor();
+		jmsExecutor = Executors.newSingleThreadScheduledExecutor();
 		
 		connection = connectionFactory.createConnection();
 		sessionConsumer = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -134,9 +147,23 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		Thread t = new Thread(new Runnable() {
 			public void run() {
 				// send an infopacket to all olat nodes at regular intervals.
+				BusListenerInfo previousInfo = null;
+				long infoSequence = 0;
 				while(isClusterInfoEventThreadRunning) {
 					try {
-						ClusterInfoEvent cie = new ClusterInfoEvent(clusterConfig, createBusListenerInfo());
+						BusListenerInfo currentInfo = createBusListenerInfo();
+						BusListenerInfo info;
+						// send only the changes since the previous info, with a full snapshot from time to time
+						if(previousInfo == null || fullInfoRequested || infoSequence % fullInfoInterval == 0) {
+							fullInfoRequested = false;
+							info = currentInfo;
+						} else {
+							info = currentInfo.createDelta(previousInfo);
+						}
+						info.setSequence(++infoSequence);
+						previousInfo = currentInfo;
+						
+						ClusterInfoEvent cie = new ClusterInfoEvent(clusterConfig, info, busInfos.getOutOfSyncNodeIds());
 						fireEventToListenersOf(cie, CLUSTER_CHANNEL);
 						if (log.isDebugEnabled()) log.debug("sent via jms clusterInfoEvent with timestamp:"+cie.getCreated()+" from node:"+nodeId);
 					} catch (Exception e) {
@@ -182,6 +209,20 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return mrtgProbeJMSEnqueueTime_;
 	}
 	
+	/**
+	 * @return The number of events per batch message
+	 */
+	public SimpleProbe getMrtgProbeJMSBatchSize() {
+		return mrtgProbeJMSBatchSize_;
+	}
+	
+	/**
+	 * @return The time to encode a batch message in microseconds
+	 */
+	public SimpleProbe getMrtgProbeJMSBatchEncodeTime() {
+		return mrtgProbeJMSBatchEncodeTime_;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.olat.core.util.event.GenericEventListener#event(org.olat.core.gui.control.Event)
 	 */
@@ -199,7 +240,14 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		
 		// update the eventBusInfo from the node
 		BusListenerInfo busInfo = cie.getBusListenerInfo();
-		busInfos.updateInfoFor(nodeId, busInfo);
+		if(!busInfos.updateInfoFor(nodeId, busInfo) && log.isDebugEnabled()) {
+			log.debug("Missing delta of bus listener infos from node: {}", nodeId);
+		}
+		// an other node missed one of our deltas
+		Set<Integer> resyncNodeIds = cie.getResyncNodeIds();
+		if(resyncNodeIds != null && resyncNodeIds.contains(clusterConfig.getNodeId())) {
+			fullInfoRequested = true;
+		}
 	}
 	
 	/**
@@ -221,30 +269,33 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		// (the receiver will detect whether messages are from itself and thus can be ignored, since they were already sent directly.
 		final long msgId = ++latestSentMsgId;
 		final Integer nodeId = clusterConfig.getNodeId();
+		final JMSWrapper wrapper = new JMSWrapper(nodeId, msgId, ores, event);
 		
-		jmsExecutor.execute(new Runnable() {
-			@Override
-			public void run() {
+		if(batchWindow > 0) {
+			boolean first;
+			boolean full;
+			synchronized(pendingEvents) {
+				pendingEvents.add(wrapper);
+				first = pendingEvents.size() == 1;
+				full = pendingEvents.size() == maxBatchSize;
+			}
+			if(full) {
+				jmsExecutor.execute(this::sendPendingEvents);
+			} else if(first) {
+				jmsExecutor.schedule(this::sendPendingEvents, batchWindow, TimeUnit.MILLISECONDS);
+			}
+		} else {
+			jmsExecutor.execute(() -> {
 				try {
 					ObjectMessage message = sessionProducer.createObjectMessage();
-					message.setObject(new JMSWrapper(nodeId, msgId, ores, event));
+					message.setObject(wrapper);
 					producer.send(message);
 				} catch (Exception e) {
-					log.error("Cannot send JMS message", e);
-					// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
-					// if we are the only node running, then we could continue.
-					// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
-					// b) or warn in the log/jmx - but surveillance is critical here!!
-					// -> do the more fail-fast option a) at the moment for correctness reasons.
-					System.err.println("###############################################################################################");
-					System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
-					System.err.println("###############################################################################################");
-					
-					throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
+					handleSendError(e);
 				}
 				numOfSentMessages++;
-			}
-		});
+			});
+		}
 
 		// store it for later access by the admin controller
 		String sentMsg = "sent msg: from node:" + nodeId + ", olat-id:" + msgId + ", ores:"	+ ores.getResourceableTypeName() + ":" + ores.getResourceableId()+", event:"+event;
@@ -252,6 +303,49 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		if (log.isDebugEnabled()) log.debug(sentMsg);
 	}
 
+	/**
+	 * Send all the events collected during the batch window in one
+	 * message. Run only in the JMS executor.
+	 */
+	private void sendPendingEvents() {
+		List<JMSWrapper> batch;
+		synchronized(pendingEvents) {
+			if(pendingEvents.isEmpty()) {
+				return;// already sent because the batch was full
+			}
+			batch = new ArrayList<>(pendingEvents);
+			pendingEvents.clear();
+		}
+		
+		try {
+			long startEncode = System.nanoTime();
+			byte[] data = ClusterEventCodec.encode(clusterConfig.getNodeId(), batch);
+			mrtgProbeJMSBatchEncodeTime_.addMeasurement((System.nanoTime() - startEncode) / 1000l);
+			mrtgProbeJMSBatchSize_.addMeasurement(batch.size());
+			
+			BytesMessage message = sessionProducer.createBytesMessage();
+			message.writeBytes(data);
+			producer.send(message);
+		} catch (Exception e) {
+			handleSendError(e);
+		}
+		numOfSentMessages += batch.size();
+	}
+	
+	private void handleSendError(Exception e) {
+		log.error("Cannot send JMS message", e);
+		// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
+		// if we are the only node running, then we could continue.
+		// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
+		// b) or warn in the log/jmx - but surveillance is critical here!!
+		// -> do the more fail-fast option a) at the moment for correctness reasons.
+		System.err.println("###############################################################################################");
+		System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
+		System.err.println("###############################################################################################");
+		
+		throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
+	}
+
 	/**
 	 * called by springs org.springframework.jms.listener.DefaultMessageListenerContainer, see coredefaultconfig.xml
 	 * we receive a message here on the topic reserved for olat system bus messages. 
@@ -300,46 +394,22 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			lastOnMessageFinishTime_ = -1;
 		}
 
-		ObjectMessage om = (ObjectMessage) message;
 		try {
 			// unpack
-			JMSWrapper jmsWrapper = (JMSWrapper) om.getObject();
-			Integer nodeId = jmsWrapper.getNodeId();			
-			MultiUserEvent event = jmsWrapper.getMultiUserEvent();
-			OLATResourceable ores = jmsWrapper.getOres();
-			boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
-
-			String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
-			nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
-			", event:"+event+"}";
-
-			// stats
-			final long jmsTimestamp = om.getJMSTimestamp();
-			if (jmsTimestamp!=0) {
-				final long deliveryTime = receiveTime - jmsTimestamp;
-				if (deliveryTime>1500) {
-					// then issue a log statement
-					log.warn("message received with long delivery time (longer than 1500ms: {}): {}", deliveryTime, recMsg);
-				}
-				mrtgProbeJMSDeliveryTime_.addMeasurement(deliveryTime);
+			List<JMSWrapper> jmsWrappers;
+			if(message instanceof BytesMessage) {
+				BytesMessage bm = (BytesMessage)message;
+				byte[] data = new byte[(int)bm.getBodyLength()];
+				bm.readBytes(data);
+				jmsWrappers = ClusterEventCodec.decode(data);
+			} else {
+				ObjectMessage om = (ObjectMessage) message;
+				jmsWrappers = List.of((JMSWrapper) om.getObject());
 			}
 			
-			addToReceivedScreen(recMsg);
-			if (log.isDebugEnabled()) log.debug(recMsg);
-			
-			// message with destination and source both having this vm are ignored here, since they were already 
-			// "inline routed" when having been sent (direct call within the vm).
-			// distribute the unmarshalled event to all JVM wide listeners for this channel.
-			doFire(event, ores);
-			
-			// stats
-			final long doneTime = System.currentTimeMillis();
-			final long processingTime = doneTime - receiveTime;
-			if (processingTime>500) {
-				// then issue a log statement
-				log.warn("message received with long processing time (longer than 500ms: {}): {}", processingTime, recMsg);
+			for(JMSWrapper jmsWrapper:jmsWrappers) {
+				serveEvent(jmsWrapper, message.getJMSTimestamp(), receiveTime);
 			}
-			mrtgProbeJMSProcessingTime_.addMeasurement(processingTime);
 		} catch (Error er) {
 			log.error("Uncaught Error in ClusterEventBus.onMessage!", er);
 			throw er;
@@ -355,6 +425,45 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			lastOnMessageFinishTime_ = System.currentTimeMillis();
 		}
 	}
+	
+	private void serveEvent(JMSWrapper jmsWrapper, long jmsTimestamp, long receiveTime) {
+		Integer nodeId = jmsWrapper.getNodeId();			
+		MultiUserEvent event = jmsWrapper.getMultiUserEvent();
+		OLATResourceable ores = jmsWrapper.getOres();
+		boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
+
+		String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
+		nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
+		", event:"+event+"}";
+
+		// stats
+		if (jmsTimestamp!=0) {
+			final long deliveryTime = receiveTime - jmsTimestamp;
+			if (deliveryTime>1500) {
+				// then issue a log statement
+				log.warn("message received with long delivery time (longer than 1500ms: {}): {}", deliveryTime, recMsg);
+			}
+			mrtgProbeJMSDeliveryTime_.addMeasurement(deliveryTime);
+		}
+		
+		addToReceivedScreen(recMsg);
+		if (log.isDebugEnabled()) log.debug(recMsg);
+		
+		// message with destination and source both having this vm are ignored here, since they were already 
+		// "inline routed" when having been sent (direct call within the vm).
+		// distribute the unmarshalled event to all JVM wide listeners for this channel.
+		final long startTime = System.currentTimeMillis();
+		doFire(event, ores);
+		
+		// stats
+		final long doneTime = System.currentTimeMillis();
+		final long processingTime = doneTime - startTime;
+		if (processingTime>500) {
+			// then issue a log statement
+			log.warn("message received with long processing time (longer than 500ms: {}): {}", processingTime, recMsg);
+		}
+		mrtgProbeJMSProcessingTime_.addMeasurement(processingTime);
+	}
 
 	private NodeInfo getNodeInfoFor(Integer nodeId) {
 		synchronized (nodeInfos) {//cluster_ok node info is per vm only
@@ -458,6 +567,12 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		log.info("ClusterEventBus: Set stop flag for ClusterInfoEvent-Thread.");
 		isClusterInfoEventThreadRunning = false;
 		try {
+			if(batchWindow > 0) {
+				// send the last collected events
+				jmsExecutor.execute(this::sendPendingEvents);
+				jmsExecutor.shutdown();
+				jmsExecutor.awaitTermination(batchWindow + 1000l, TimeUnit.MILLISECONDS);
+			}
 			jmsExecutor.shutdownNow();
 			sessionProducer.close();
 			sessionConsumer.close();
@@ -465,6 +580,9 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			log.info("ClusterEventBus stopped");
 		} catch (JMSException e) {
 			log.warn("Exception in stop ClusteredSearchProvider, ",e);
+		} catch (InterruptedException e) {
+			log.warn("Interrupted while sending the last events", e);
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -486,6 +604,33 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		this.jmsMsgDelayLimit = jmsMsgDelayLimit;
 	}
 
+	/**
+	 * [used by spring]
+	 * 
+	 * @param fullInfoInterval Send a full snapshot of the listeners every x
+	 * 		info events, the others only contain the changes
+	 */
+	public void setFullInfoInterval(int fullInfoInterval) {
+		this.fullInfoInterval = Math.max(1, fullInfoInterval);
+	}
+
+	/**
+	 * [used by spring]
+	 * 
+	 * @param batchWindow The time in milliseconds during which the events are
+	 * 		collected and sent together in one message, 0 disable the batch
+	 */
+	public void setBatchWindow(long batchWindow) {
+		this.batchWindow = batchWindow;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	/**
 	 * [used by spring]
 	 */
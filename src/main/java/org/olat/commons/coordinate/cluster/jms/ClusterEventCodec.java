@@ -0,0 +1,266 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OLATResourceableJustBeforeDeletedEvent;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.course.config.CourseConfigEvent;
+import org.olat.course.config.CourseConfigEvent.CourseConfigType;
+
+/**
+ * Encode a batch of events in a compact binary format. The events
+ * of the known types (plain MultiUserEvent, deleted events and course
+ * configuration changes) are written field by field, all others are
+ * Java serialized as before. Events of the known types which are sent
+ * several times to the same channel are only sent once per batch, at
+ * the position of their last occurrence.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ClusterEventCodec {
+
+	private static final int VERSION = 1;
+
+	private static final byte KIND_SERIALIZED = 0;
+	private static final byte KIND_MULTI_USER_EVENT = 1;
+	private static final byte KIND_DELETED_EVENT = 2;
+	private static final byte KIND_COURSE_CONFIG_EVENT = 3;
+
+	private ClusterEventCodec() {
+		//
+	}
+
+	/**
+	 * Encode the events, the duplicates of the known types are collapsed.
+	 * The last occurrence is kept, the receivers see the event after all
+	 * the events which were sent before it.
+	 *
+	 * @param nodeId The node which sends the batch
+	 * @param wrappers The events to send
+	 * @return The batch as a byte array
+	 * @throws IOException
+	 */
+	public static byte[] encode(Integer nodeId, List<JMSWrapper> wrappers) throws IOException {
+		// the encoded events of the known types, collapsed by channel and content
+		Map<EventKey,JMSWrapper> events = new LinkedHashMap<>();
+		for(JMSWrapper wrapper:wrappers) {
+			byte[] encodedEvent = encodeEvent(wrapper);
+			boolean collapsible = encodedEvent[0] != KIND_SERIALIZED;
+			EventKey key = new EventKey(wrapper.getMsgId(), encodedEvent, collapsible);
+			// remove first to move the event at the end of the batch
+			events.remove(key);
+			events.put(key, wrapper);
+		}
+
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(128 * events.size());
+		try(DataOutputStream out = new DataOutputStream(bout)) {
+			out.writeByte(VERSION);
+			out.writeInt(nodeId.intValue());
+			out.writeInt(events.size());
+			for(Map.Entry<EventKey,JMSWrapper> entry:events.entrySet()) {
+				out.writeLong(entry.getValue().getMsgId());
+				byte[] encodedEvent = entry.getKey().getEncodedEvent();
+				out.writeInt(encodedEvent.length);
+				out.write(encodedEvent);
+			}
+		}
+		return bout.toByteArray();
+	}
+
+	public static List<JMSWrapper> decode(byte[] data) throws IOException, ClassNotFoundException {
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			int version = in.readByte();
+			if(version != VERSION) {
+				throw new IOException("Unsupported version of cluster event batch: " + version);
+			}
+			Integer nodeId = Integer.valueOf(in.readInt());
+			int numOfEvents = in.readInt();
+			List<JMSWrapper> wrappers = new ArrayList<>(numOfEvents);
+			for(int i=0; i<numOfEvents; i++) {
+				long msgId = in.readLong();
+				byte[] encodedEvent = new byte[in.readInt()];
+				in.readFully(encodedEvent);
+				wrappers.add(decodeEvent(nodeId, msgId, encodedEvent));
+			}
+			return wrappers;
+		}
+	}
+
+	private static byte[] encodeEvent(JMSWrapper wrapper) throws IOException {
+		ByteArrayOutputStream bout = new ByteArrayOutputStream(64);
+		try(DataOutputStream out = new DataOutputStream(bout)) {
+			MultiUserEvent event = wrapper.getMultiUserEvent();
+			Class<?> eventClass = event.getClass();
+			if(eventClass == MultiUserEvent.class) {
+				out.writeByte(KIND_MULTI_USER_EVENT);
+				writeChannel(wrapper.getOres(), out);
+				writeString(event.getCommand(), out);
+				out.writeInt(event.getNodeMarker());
+			} else if(eventClass == OLATResourceableJustBeforeDeletedEvent.class) {
+				OLATResourceableJustBeforeDeletedEvent deletedEvent = (OLATResourceableJustBeforeDeletedEvent)event;
+				out.writeByte(KIND_DELETED_EVENT);
+				writeChannel(wrapper.getOres(), out);
+				writeString(deletedEvent.getOresType(), out);
+				writeLong(deletedEvent.getOresId(), out);
+				out.writeInt(event.getNodeMarker());
+			} else if(eventClass == CourseConfigEvent.class) {
+				CourseConfigEvent configEvent = (CourseConfigEvent)event;
+				out.writeByte(KIND_COURSE_CONFIG_EVENT);
+				writeChannel(wrapper.getOres(), out);
+				writeString(configEvent.getType().name(), out);
+				writeLong(configEvent.getResourceableId(), out);
+				out.writeInt(event.getNodeMarker());
+			} else {
+				out.writeByte(KIND_SERIALIZED);
+				writeChannel(wrapper.getOres(), out);
+				ObjectOutputStream oout = new ObjectOutputStream(out);
+				oout.writeObject(event);
+				oout.flush();
+			}
+		}
+		return bout.toByteArray();
+	}
+
+	private static JMSWrapper decodeEvent(Integer nodeId, long msgId, byte[] encodedEvent)
+	throws IOException, ClassNotFoundException {
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedEvent))) {
+			byte kind = in.readByte();
+			OLATResourceable ores = readChannel(in);
+			MultiUserEvent event;
+			switch(kind) {
+				case KIND_MULTI_USER_EVENT:
+					event = new MultiUserEvent(readString(in));
+					event.setNodeMarker(in.readInt());
+					break;
+				case KIND_DELETED_EVENT:
+					String oresType = readString(in);
+					Long oresId = readLong(in);
+					event = new OLATResourceableJustBeforeDeletedEvent(OresHelper.createOLATResourceableInstanceWithoutCheck(oresType, oresId));
+					event.setNodeMarker(in.readInt());
+					break;
+				case KIND_COURSE_CONFIG_EVENT:
+					CourseConfigType type = CourseConfigType.valueOf(readString(in));
+					event = new CourseConfigEvent(type, readLong(in));
+					event.setNodeMarker(in.readInt());
+					break;
+				case KIND_SERIALIZED:
+					ObjectInputStream oin = new ObjectInputStream(in);
+					event = (MultiUserEvent)oin.readObject();
+					break;
+				default:
+					throw new IOException("Unkown kind of event: " + kind);
+			}
+			return new JMSWrapper(nodeId, msgId, ores, event);
+		}
+	}
+
+	private static void writeChannel(OLATResourceable ores, DataOutputStream out) throws IOException {
+		writeString(ores.getResourceableTypeName(), out);
+		writeLong(ores.getResourceableId(), out);
+	}
+
+	private static OLATResourceable readChannel(DataInputStream in) throws IOException {
+		String resType = readString(in);
+		Long resId = readLong(in);
+		return OresHelper.createOLATResourceableInstanceWithoutCheck(resType, resId);
+	}
+
+	private static void writeString(String val, DataOutputStream out) throws IOException {
+		out.writeBoolean(val != null);
+		if(val != null) {
+			out.writeUTF(val);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeLong(Long val, DataOutputStream out) throws IOException {
+		out.writeBoolean(val != null);
+		if(val != null) {
+			out.writeLong(val.longValue());
+		}
+	}
+
+	private static Long readLong(DataInputStream in) throws IOException {
+		return in.readBoolean() ? Long.valueOf(in.readLong()) : null;
+	}
+
+	/**
+	 * The encoded event of the known types are compared by content,
+	 * the others by message id.
+	 */
+	private static class EventKey {
+
+		private final long msgId;
+		private final byte[] encodedEvent;
+		private final boolean collapsible;
+		private final int hashCode;
+
+		public EventKey(long msgId, byte[] encodedEvent, boolean collapsible) {
+			this.msgId = msgId;
+			this.encodedEvent = encodedEvent;
+			this.collapsible = collapsible;
+			hashCode = collapsible ? Arrays.hashCode(encodedEvent) : Long.hashCode(msgId);
+		}
+
+		public byte[] getEncodedEvent() {
+			return encodedEvent;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof EventKey) {
+				EventKey key = (EventKey)obj;
+				if(collapsible && key.collapsible) {
+					return Arrays.equals(encodedEvent, key.encodedEvent);
+				}
+				return !collapsible && !key.collapsible && msgId == key.msgId;
+			}
+			return false;
+		}
+	}
+}
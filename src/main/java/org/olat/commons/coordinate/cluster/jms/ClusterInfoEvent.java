@@ -24,6 +24,8 @@
 */
 package org.olat.commons.coordinate.cluster.jms;
 
+import java.util.Set;
+
 import org.olat.core.util.cluster.ClusterConfig;
 import org.olat.core.util.event.MultiUserEvent;
 import org.olat.core.util.event.businfo.BusListenerInfo;
@@ -42,11 +44,13 @@ public class ClusterInfoEvent extends MultiUserEvent {
 	private long created;
 	private ClusterConfig config;
 	private final BusListenerInfo busListenerInfo;
+	private final Set<Integer> resyncNodeIds;
 	
-	ClusterInfoEvent(ClusterConfig config, BusListenerInfo busListenerInfo) {
+	ClusterInfoEvent(ClusterConfig config, BusListenerInfo busListenerInfo, Set<Integer> resyncNodeIds) {
 		super("clusterinfo");
 		this.config = config;
 		this.busListenerInfo = busListenerInfo;
+		this.resyncNodeIds = resyncNodeIds;
 		created = System.currentTimeMillis();
 	}
 
@@ -73,5 +77,14 @@ public class ClusterInfoEvent extends MultiUserEvent {
 		return busListenerInfo;
 	}
 	
+	/**
+	 * 
+	 * @return the nodes from which the sender needs a full snapshot of the
+	 * 		buslistener information (null if sent by an older version)
+	 */
+	Set<Integer> getResyncNodeIds() {
+		return resyncNodeIds;
+	}
+	
 	
 }
@@ -128,7 +128,7 @@ public class CmdUpload extends BasicController implements FolderCommand {
 		inheritingContainer = VFSManager.findInheritingSecurityCallbackContainer(currentContainer);
 		if (inheritingContainer != null) {
 			secCallback = inheritingContainer.getLocalSecurityCallback();
-			actualUsage = VFSManager.getUsageKB(inheritingContainer);
+			actualUsage = VFSManager.getQuotaUsageKB(inheritingContainer);
 			ubar.setActual(actualUsage / 1024f);
 			if (inheritingContainer.getLocalSecurityCallback().getQuota() != null) {
 				quotaKB = secCallback.getQuota().getQuotaKB().longValue();
@@ -181,7 +181,7 @@ public class CmdUpload extends BasicController implements FolderCommand {
 		inheritingContainer = VFSManager.findInheritingSecurityCallbackContainer(currentContainer);
 		if (inheritingContainer != null) {
 			secCallback = inheritingContainer.getLocalSecurityCallback();
-			actualUsage = VFSManager.getUsageKB(inheritingContainer);
+			actualUsage = VFSManager.getQuotaUsageKB(inheritingContainer);
 			quotaKB = secCallback.getQuota().getQuotaKB().longValue();
 			uploadLimitKB = (int)secCallback.getQuota().getUlLimitKB().longValue();
 			ubar.setActual(actualUsage / 1024);
@@ -36,6 +36,9 @@ import org.olat.core.commons.services.mark.MarkManager;
 import org.olat.core.commons.services.mark.MarkResourceStat;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -50,8 +53,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class MarkManagerImpl implements MarkManager {
 	
+	private static final String REPOSITORY_ENTRY_TYPE = OresHelper.calculateTypeName(RepositoryEntry.class);
+	
 	@Autowired
 	private DB dbInstance;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
 
 	@Override
 	public List<Mark> getMarks(OLATResourceable ores, Identity identity, Collection<String> subPath) {
@@ -180,6 +187,7 @@ public class MarkManagerImpl implements MarkManager {
 			mark.setBusinessPath(businessPath);
 			mark.setCreator(identity);
 			dbInstance.saveObject(mark);
+			updateMyCourses(ores, identity, true);
 		}
 		return mark;
 	}
@@ -206,6 +214,13 @@ public class MarkManagerImpl implements MarkManager {
 		MarkImpl mark = loadMark(ores, identity, subPath);
 		if(mark != null) {
 			dbInstance.deleteObject(mark);
+			updateMyCourses(ores, identity, false);
+		}
+	}
+	
+	private void updateMyCourses(OLATResourceable ores, Identity identity, boolean marked) {
+		if(REPOSITORY_ENTRY_TYPE.equals(ores.getResourceableTypeName())) {
+			myCourseDao.updateMarked(identity, ores.getResourceableId(), marked);
 		}
 	}
 	
@@ -41,10 +41,16 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 import javax.persistence.Query;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 
 import org.olat.NewControllerFactory;
@@ -76,6 +82,7 @@ import org.olat.core.id.context.BusinessControlFactory;
 import org.olat.core.logging.AssertException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.Util;
 import org.olat.core.util.WorkThreadInformations;
@@ -93,6 +100,7 @@ import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.properties.Property;
 import org.olat.properties.PropertyManager;
+import org.olat.search.manager.SearchIndexQueue;
 import org.olat.user.UserDataDeletable;
 import org.olat.user.UserDataExportable;
 import org.olat.user.manager.ManifestBuilder;
@@ -110,7 +118,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 
 	private static final int PUB_STATE_OK = 0;
 	private static final int PUB_STATE_NOT_OK = 1;
-	private static final int BATCH_SIZE = 500;
+	private static final int DIGEST_BATCH_SIZE = 50;
 	private static final String LATEST_EMAIL_USER_PROP = "noti_latest_email";
 	private static final SubscriptionInfo NOSUBSINFO = new NoSubscriptionInfo();
 
@@ -128,6 +136,8 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	private BaseSecurity securityManager;
 	private PropertyManager propertyManager;
 	private CoordinatorManager coordinatorManager;
+	private SearchIndexQueue searchIndexQueue;
+	private ExecutorService digestExecutor;
 
 	/**
 	 * [used by Spring]
@@ -160,7 +170,23 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	public void setCoordinatorManager(CoordinatorManager coordinatorManager) {
 		this.coordinatorManager = coordinatorManager;
 	}
+	
+	/**
+	 * [used by Spring]
+	 * @param searchIndexQueue
+	 */
+	public void setSearchIndexQueue(SearchIndexQueue searchIndexQueue) {
+		this.searchIndexQueue = searchIndexQueue;
+	}
+
 
+	/**
+	 * [used by Spring]
+	 * @param digestExecutor The workers which build and send the emails
+	 */
+	public void setDigestExecutor(ExecutorService digestExecutor) {
+		this.digestExecutor = digestExecutor;
+	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -331,58 +357,168 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	public void notifyAllSubscribersByEmail() {
 		log.info(Tracing.M_AUDIT, "starting notification cronjob to send email");
 		WorkThreadInformations.setLongRunningTask("sendNotifications");
+		long start = System.nanoTime();
 		
-		int counter = 0;
-		int closeConnection = 0;
-		List<Identity> identities;
-		do {
-			identities = securityManager.loadVisibleIdentities(counter, BATCH_SIZE);
-			for(Identity identity:identities) {
-				Roles roles = securityManager.getRoles(identity);
-				if(roles.isGuestOnly()) {
-					continue;
-				}
-	
-				closeConnection++;
-				processSubscribersByEmail(identity);
-				if(closeConnection % 20 == 0) {
-					dbInstance.commitAndCloseSession();
+		// only the identities with a subscription to a publisher with news
+		List<Long> identityKeys = getIdentityKeysWithNews(getDefaultCompareDate());
+		dbInstance.commitAndCloseSession();
+		
+		int numOfIdentities = identityKeys.size();
+		AtomicInteger processed = new AtomicInteger();
+		AtomicInteger mailed = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for(int i=0; i<numOfIdentities; i+=DIGEST_BATCH_SIZE) {
+				List<Long> batch = new ArrayList<>(identityKeys.subList(i, Math.min(numOfIdentities, i + DIGEST_BATCH_SIZE)));
+				futures.add(digestExecutor.submit(() -> processSubscribersByEmail(batch, processed, mailed)));
+			}
+			
+			for(Future<?> future:futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					log.error("", e);
 				}
+				WorkThreadInformations.set("Notifications: " + processed.get() + "/" + numOfIdentities + " identities, " + mailed.get() + " emails sent");
 			}
-			counter += identities.size();
-			dbInstance.commitAndCloseSession();
-		} while(identities.size() == BATCH_SIZE);
+		} catch (InterruptedException e) {
+			log.warn("Notifications interrupted", e);
+			Thread.currentThread().interrupt();
+			for(Future<?> future:futures) {
+				future.cancel(true);
+			}
+		} finally {
+			WorkThreadInformations.unset();
+		}
 		
 		// done, purge last entry
 		WorkThreadInformations.unsetLongRunningTask("sendNotifications");
-		log.info(Tracing.M_AUDIT, "end notification cronjob to send email");
+		log.info(Tracing.M_AUDIT, "end notification cronjob to send email: {} identities with news, {} emails sent in (ms): {}",
+				numOfIdentities, mailed.get(), CodeHelper.nanoToMilliTime(start));
+	}
+	
+	/**
+	 * The identities which have an enabled subscription to a valid publisher
+	 * with news since the latest email of the subscription.
+	 * 
+	 * @param defaultCompareDate News older than this date are not sent
+	 * @return A list of identity keys
+	 */
+	protected List<Long> getIdentityKeysWithNews(Date defaultCompareDate) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select distinct ident.key from notisub sub")
+		  .append(" inner join sub.publisher pub")
+		  .append(" inner join sub.identity ident")
+		  .append(" where sub.enabled=true and pub.state=:state and ident.status<:status")
+		  .append(" and pub.latestNewsDate>=:compareDate")
+		  .append(" and (sub.latestEmailed is null or sub.latestEmailed<pub.latestNewsDate)");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("state", PUB_STATE_OK)
+				.setParameter("status", Identity.STATUS_VISIBLE_LIMIT)
+				.setParameter("compareDate", defaultCompareDate, TemporalType.TIMESTAMP)
+				.getResultList();
+	}
+	
+	/**
+	 * Process a batch of identities in a worker thread with its own session.
+	 * 
+	 * @param identityKeys The identities
+	 * @param processed Counter of processed identities
+	 * @param mailed Counter of sent emails
+	 */
+	private void processSubscribersByEmail(List<Long> identityKeys, AtomicInteger processed, AtomicInteger mailed) {
+		WorkThreadInformations.set("Notifications of " + identityKeys.size() + " identities");
+		try {
+			Date defaultCompareDate = getDefaultCompareDate();
+			Map<Long,List<Subscriber>> identityToSubscribers = getSubscribersWithNews(identityKeys, defaultCompareDate);
+			Map<Long,Property> identityToLatestEmail = getLatestEmailProperties(identityKeys);
+			for(Long identityKey:identityKeys) {
+				List<Subscriber> subscribers = identityToSubscribers.get(identityKey);
+				if(subscribers != null && !subscribers.isEmpty()) {
+					try {
+						if(processSubscribersByEmail(subscribers, identityToLatestEmail.get(identityKey), defaultCompareDate)) {
+							mailed.incrementAndGet();
+						}
+						dbInstance.commit();
+					} catch (Exception e) {
+						log.error("Cannot send notifications to identity: {}", identityKey, e);
+						dbInstance.rollback();
+					}
+				}
+				processed.incrementAndGet();
+			}
+		} catch (Exception e) {
+			log.error("", e);
+			dbInstance.rollback();
+		} finally {
+			dbInstance.commitAndCloseSession();
+			WorkThreadInformations.unset();
+		}
+	}
+	
+	private Map<Long,List<Subscriber>> getSubscribersWithNews(List<Long> identityKeys, Date defaultCompareDate) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select sub from notisub sub")
+		  .append(" inner join fetch sub.publisher pub")
+		  .append(" inner join fetch sub.identity ident")
+		  .append(" inner join fetch ident.user identUser")
+		  .append(" where ident.key in (:identityKeys) and sub.enabled=true and pub.state=:state")
+		  .append(" and pub.latestNewsDate>=:compareDate")
+		  .append(" and (sub.latestEmailed is null or sub.latestEmailed<pub.latestNewsDate)");
+		List<Subscriber> subscribers = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Subscriber.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("state", PUB_STATE_OK)
+				.setParameter("compareDate", defaultCompareDate, TemporalType.TIMESTAMP)
+				.getResultList();
+		return subscribers.stream()
+				.collect(Collectors.groupingBy(sub -> sub.getIdentity().getKey()));
 	}
 	
-	private void processSubscribersByEmail(Identity ident) {
-		if(ident.getStatus().compareTo(Identity.STATUS_VISIBLE_LIMIT) >= 0) {
-			return;//send only to active user
+	private Map<Long,Property> getLatestEmailProperties(List<Long> identityKeys) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select prop from org.olat.properties.Property as prop")
+		  .append(" where prop.identity.key in (:identityKeys) and prop.name=:name")
+		  .append(" and prop.grp.key is null and prop.category is null and prop.resourceTypeName is null and prop.resourceTypeId is null");
+		List<Property> properties = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Property.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("name", LATEST_EMAIL_USER_PROP)
+				.getResultList();
+		Map<Long,Property> identityToProperty = new HashMap<>();
+		for(Property property:properties) {
+			identityToProperty.put(property.getIdentity().getKey(), property);
+		}
+		return identityToProperty;
+	}
+	
+	/**
+	 * @param subscribers The subscribers with news of an identity
+	 * @param latestEmailProperty The property with the date of the latest email or null
+	 * @param defaultCompareDate The default compare date
+	 * @return true if an email was sent
+	 */
+	private boolean processSubscribersByEmail(List<Subscriber> subscribers, Property latestEmailProperty, Date defaultCompareDate) {
+		Identity ident = subscribers.get(0).getIdentity();
+		Roles roles = securityManager.getRoles(ident);
+		if(roles.isGuestOnly()) {
+			return false;
 		}
 		
 		String userInterval = getUserIntervalOrDefault(ident);
 		if("never".equals(userInterval)) {
-			return;
+			return false;
 		}
 
 		long start = System.currentTimeMillis();
 		Date compareDate = getCompareDateFromInterval(userInterval);
-		Property p = propertyManager.findProperty(ident, null, null, null, LATEST_EMAIL_USER_PROP);
-		if(p != null) {
-		  	Date latestEmail = new Date(p.getLongValue());
+		if(latestEmailProperty != null && latestEmailProperty.getLongValue() != null) {
+		  	Date latestEmail = new Date(latestEmailProperty.getLongValue());
 		  	if(latestEmail.after(compareDate)) {
-		  		return;//nothing to do
+		  		return false;//nothing to do
 		  	}
 		}
-
-		Date defaultCompareDate = getDefaultCompareDate();
-		List<Subscriber> subscribers = getSubscribers(ident, true);
-		if(subscribers.isEmpty()) {
-			return;
-		}
 		
 		String langPrefs = null;
 		if(ident.getUser() != null && ident.getUser().getPreferences() != null) {
@@ -390,15 +526,10 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		}
 		Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
 		
-		boolean veto = false;
 		Subscriber latestSub = null;
 		List<SubscriptionItem> items = new ArrayList<>();
 		List<Subscriber> subsToUpdate = new ArrayList<>();
 		for(Subscriber sub:subscribers) {
-			if(!sub.isEnabled()) {
-				continue;
-			}
-			
 			Date latestEmail = sub.getLatestEmailed();
 		
 			SubscriptionItem subsitem = null;
@@ -411,9 +542,6 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 					latestEmail = defaultCompareDate;
 				}
 				subsitem = createSubscriptionItem(sub, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML, latestEmail);
-			}	else if(latestEmail != null && latestEmail.after(compareDate)) {
-				//already send an email within the user's settings interval
-				//veto = true;
 			}
 			if (subsitem != null) {
 				items.add(subsitem);
@@ -423,10 +551,11 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		}
 		
 		Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
-		notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, veto);
+		return notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, false);
 	}
 	
-	private void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
+	private boolean notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
+		boolean sent = false;
 		if(veto) {
 			if(latestSub != null) {
 				log.info(Tracing.M_AUDIT, latestSub.getIdentity().getKey() + " already received notification email within prefs interval");
@@ -435,6 +564,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 			Identity curIdent = latestSub.getIdentity();
 			boolean sentOk = sendMailToUserAndUpdateSubscriber(curIdent, items, translator, subsToUpdate);
 			if (sentOk) {
+				sent = true;
 				Property p = propertyManager.findProperty(curIdent, null, null, null, LATEST_EMAIL_USER_PROP);
 				if(p == null) {
 					p = propertyManager.createUserPropertyInstance(curIdent, null, LATEST_EMAIL_USER_PROP, null, null, null, null);
@@ -454,6 +584,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		}
 		//collecting the SubscriptionItem can potentially make a lot of DB calls
 		dbInstance.intermediateCommit();
+		return sent;
 	}
 
 	@Override
@@ -1002,6 +1133,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 		}
 		toUpdate.setLatestNewsDate(new Date());
 		Publisher publisher = dbInstance.getCurrentEntityManager().merge(toUpdate);
+		searchIndexQueue.markChanged(publisher.getBusinessPath());
 		dbInstance.commit();//commit the select for update
 
 		// no need to sync, since there is only one gui thread at a time from one
@@ -1046,6 +1178,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 			toUpdate = getPublisherForUpdate(toUpdate);
 			toUpdate.setLatestNewsDate(new Date());
 			Publisher publisher = dbInstance.getCurrentEntityManager().merge(toUpdate);
+			searchIndexQueue.markChanged(publisher.getBusinessPath());
 			dbInstance.commit();//commit the select for update
 			updatedPublishers.add(publisher);
 		}
@@ -1463,4 +1596,4 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	public List<String> getEnabledNotificationIntervals() {
 		return notificationIntervals;
 	}
-}
\ No newline at end of file
+}
@@ -41,5 +41,15 @@ public interface Task {
 	public Identity getCreator();
 	
 	public List<Identity> getModifiers();
+	
+	/**
+	 * @return The progress of a running task between 0.0 and 1.0 or null if the task doesn't report it
+	 */
+	public Double getProgress();
+	
+	/**
+	 * @return A short information about the state of a running task
+	 */
+	public String getCheckpoint();
 
 }
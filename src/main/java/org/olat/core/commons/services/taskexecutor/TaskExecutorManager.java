@@ -82,6 +82,15 @@ public interface TaskExecutorManager extends Executor {
 	
 	public <T extends Runnable> T getPersistedRunnableTask(Task task, Class<T> type);
 	
+	/**
+	 * Save the progress of a running task, the method commits.
+	 * 
+	 * @param task The task
+	 * @param progress The progress between 0.0 and 1.0
+	 * @param checkpoint A short information about the state of the task (optional)
+	 */
+	public void updateProgress(Task task, Double progress, String checkpoint);
+	
 	public List<Task> getTasks(OLATResource resource);
 	
 	public List<Identity> getModifiers(Task task);
@@ -205,6 +205,29 @@ public class PersistentTaskDAO {
 		return ptask;
 	}
 	
+	/**
+	 * Update the progress of the task without loading it, the task is
+	 * possibly in the session of the runner.
+	 * 
+	 * @param task The task
+	 * @param progress The progress between 0.0 and 1.0
+	 * @param checkpoint A short information
+	 * @return The number of updated rows
+	 */
+	public int updateProgress(Task task, Double progress, String checkpoint) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("update extask task set task.progress=:progress, task.checkpoint=:checkpoint, task.lastModified=:now where task.key=:taskKey");
+		int rows = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("progress", progress)
+				.setParameter("checkpoint", checkpoint)
+				.setParameter("now", new Date())
+				.setParameter("taskKey", task.getKey())
+				.executeUpdate();
+		dbInstance.commit();
+		return rows;
+	}
+	
 	public List<Identity> getModifiers(Task task) {
 		return dbInstance.getCurrentEntityManager()
 				.createNamedQuery("loadTaskModifiers", Identity.class)
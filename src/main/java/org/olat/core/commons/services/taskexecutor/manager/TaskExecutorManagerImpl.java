@@ -219,6 +219,12 @@ public class TaskExecutorManagerImpl implements TaskExecutorManager {
 		return null;
 	}
 	
+	@Override
+	public void updateProgress(Task task, Double progress, String checkpoint) {
+		if(task == null || task.getKey() == null) return;
+		persistentTaskDao.updateProgress(task, progress, checkpoint);
+	}
+	
 	@Override
 	public void updateAndReturn(Task task, LongRunnable runnableTask, Identity modifier, Date scheduledDate) {
 		persistentTaskDao.updateTask(task, runnableTask, modifier, scheduledDate);
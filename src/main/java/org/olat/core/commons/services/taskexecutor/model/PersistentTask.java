@@ -118,6 +118,11 @@ public class PersistentTask implements Task, CreateInfo, ModifiedInfo, Persistab
 	
 	@Column(name="e_task", nullable=false, insertable=true, updatable=true)
 	private String task;
+	
+	@Column(name="e_progress", nullable=true, insertable=true, updatable=true)
+	private Double progress;
+	@Column(name="e_checkpoint", nullable=true, insertable=true, updatable=true)
+	private String checkpoint;
 
 	@Override
 	public Long getKey() {
@@ -241,6 +246,24 @@ public class PersistentTask implements Task, CreateInfo, ModifiedInfo, Persistab
 	public void setTask(String task) {
 		this.task = task;
 	}
+
+	@Override
+	public Double getProgress() {
+		return progress;
+	}
+
+	public void setProgress(Double progress) {
+		this.progress = progress;
+	}
+
+	@Override
+	public String getCheckpoint() {
+		return checkpoint;
+	}
+
+	public void setCheckpoint(String checkpoint) {
+		this.checkpoint = checkpoint;
+	}
 	
 	@Override
 	public int hashCode() {
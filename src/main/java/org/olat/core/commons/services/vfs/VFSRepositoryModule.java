@@ -49,6 +49,8 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 	private long upperBorder;
 	@Value("${vfs.largefiles.lowerborder}")
 	private long lowerBorder;
+	@Value("${vfs.quota.usage.counter:true}")
+	private boolean quotaUsageCounter;
 	
 	@Autowired
 	public VFSRepositoryModule(CoordinatorManager coordinatorManager) {
@@ -124,4 +126,16 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 		return lowerBorder;
 	}
 
+	/**
+	 * @return true if the usage of the folders with a quota is read
+	 * 		from the persisted counters instead of walking the directories
+	 */
+	public boolean isQuotaUsageCounterEnabled() {
+		return quotaUsageCounter;
+	}
+
+	public void setQuotaUsageCounterEnabled(boolean enabled) {
+		this.quotaUsageCounter = enabled;
+	}
+
 }
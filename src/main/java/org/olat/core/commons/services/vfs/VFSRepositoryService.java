@@ -269,7 +269,8 @@ public interface VFSRepositoryService {
 	public boolean deleteRevisions(Identity identity, List<VFSRevision> revisions);
 	
 	/**
-	 * Move the metadata and revisions from a path to the other.
+	 * Move the metadata and revisions from a path to the other. The target
+	 * file is already written, the current file is deleted.
 	 * 
 	 * @param currentFile The current file
 	 * @param targetFile The target file where to move the metadata
@@ -291,8 +292,25 @@ public interface VFSRepositoryService {
 	
 	public VFSRevisionStatistics getRevisionStats(); 
 	
-	public VFSThumbnailStatistics getThumbnailStats(); 
-	
+	public VFSThumbnailStatistics getThumbnailStats();
+
+	/**
+	 * The usage of a directory is read from a counter updated at every change
+	 * of the files, revisions included. The counter is created with a walk
+	 * through the directory at the first call, directories outside of /bcroot/
+	 * are always walked through.
+	 *
+	 * @param directory A directory with a quota
+	 * @return The usage in bytes
+	 */
+	public long getQuotaUsage(File directory);
+
+	/**
+	 * Walk through the directories with a usage counter, correct the counters
+	 * and delete the ones of the directories which doesn't exist anymore.
+	 */
+	public void reconcileQuotaUsages();
+
 	/**
 	 * Returns the largest files from the VFS
 	 * 
@@ -325,6 +325,45 @@ public class VFSMetadataDAO {
 			.executeUpdate();
 	}
 	
+	/**
+	 * Update the file only if the saved size is the expected one.
+	 *
+	 * @param previousFileSize The expected file size
+	 * @param fileSize The new file size (mandatory)
+	 * @param lastModified The modification date (mandatory)
+	 * @param relativePath The path to the file
+	 * @param filename The name of the file
+	 * @return The number of updated rows
+	 */
+	public int updateMetadata(long previousFileSize, long fileSize, Date lastModified, String relativePath, String filename) {
+		String updateQuery = "update vfsmetadatafilesaved set fileLastModified=:lastModified, fileSize=:fileSize where filename=:filename and relativePath=:relativePath and fileSize=:previousFileSize";
+		return dbInstance.getCurrentEntityManager()
+			.createQuery(updateQuery)
+			.setParameter("filename", filename)
+			.setParameter("relativePath", relativePath)
+			.setParameter("fileSize", fileSize)
+			.setParameter("previousFileSize", previousFileSize)
+			.setParameter("lastModified", lastModified)
+			.executeUpdate();
+	}
+
+	/**
+	 * @param relativePath The path to the file
+	 * @param filename The name of the file
+	 * @return The size saved in the metadata or null if the file has no metadata
+	 */
+	public Long getFileSize(String relativePath, String filename) {
+		String query = "select metadata.fileSize from vfsmetadatafilesaved metadata where metadata.filename=:filename and metadata.relativePath=:relativePath";
+		List<Long> sizes = dbInstance.getCurrentEntityManager()
+			.createQuery(query, Long.class)
+			.setParameter("filename", filename)
+			.setParameter("relativePath", relativePath)
+			.setFirstResult(0)
+			.setMaxResults(1)
+			.getResultList();
+		return sizes == null || sizes.isEmpty() ? null : sizes.get(0);
+	}
+
 	public VFSMetadata updateMetadata(VFSMetadata metadata) {
 		((VFSMetadataImpl)metadata).setLastModified(new Date());
 		return dbInstance.getCurrentEntityManager().merge(metadata);
@@ -0,0 +1,144 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.vfs.model.VFSQuotaUsageImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class VFSQuotaUsageDAO {
+	
+	@Autowired
+	private DB dbInstance;
+	
+	public VFSQuotaUsageImpl createUsage(String relativePath, long usage) {
+		VFSQuotaUsageImpl quotaUsage = new VFSQuotaUsageImpl();
+		quotaUsage.setCreationDate(new Date());
+		quotaUsage.setLastModified(quotaUsage.getCreationDate());
+		quotaUsage.setReconciled(quotaUsage.getCreationDate());
+		quotaUsage.setRelativePath(relativePath);
+		quotaUsage.setUsage(usage);
+		dbInstance.getCurrentEntityManager().persist(quotaUsage);
+		return quotaUsage;
+	}
+	
+	public VFSQuotaUsageImpl getUsage(String relativePath) {
+		List<VFSQuotaUsageImpl> usages = dbInstance.getCurrentEntityManager()
+				.createQuery("select quota from vfsquotausage quota where quota.relativePath=:relativePath", VFSQuotaUsageImpl.class)
+				.setParameter("relativePath", relativePath)
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		return usages == null || usages.isEmpty() ? null : usages.get(0);
+	}
+	
+	public List<VFSQuotaUsageImpl> getUsages(int firstResult, int maxResults) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select quota from vfsquotausage quota order by quota.key asc", VFSQuotaUsageImpl.class)
+				.setFirstResult(firstResult)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	/**
+	 * Add the delta to the usage of the specified directories, in the
+	 * transaction of the change.
+	 * 
+	 * @param relativePaths The relative paths of the directories
+	 * @param delta The delta in bytes, positive or negative
+	 * @return The number of updated counters
+	 */
+	public int addUsage(Collection<String> relativePaths, long delta) {
+		if(relativePaths == null || relativePaths.isEmpty() || delta == 0l) return 0;
+		
+		String updateQuery = "update vfsquotausage quota set quota.usage=quota.usage+:delta, quota.lastModified=:now where quota.relativePath in (:relativePaths)";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(updateQuery)
+				.setParameter("delta", Long.valueOf(delta))
+				.setParameter("now", new Date())
+				.setParameter("relativePaths", relativePaths)
+				.executeUpdate();
+	}
+	
+	/**
+	 * Set the usage to the size of the directory on the disk. The caller holds
+	 * the lock of the path to not overwrite a counter created in the meantime.
+	 * 
+	 * @param quotaUsage The usage
+	 * @param usage The size of the directory in bytes
+	 * @return The number of updated counters
+	 */
+	public int reconcileUsage(VFSQuotaUsageImpl quotaUsage, long usage) {
+		String updateQuery = "update vfsquotausage quota set quota.usage=:usage, quota.lastModified=:now, quota.reconciled=:now where quota.key=:key";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(updateQuery)
+				.setParameter("usage", Long.valueOf(usage))
+				.setParameter("now", new Date())
+				.setParameter("key", quotaUsage.getKey())
+				.executeUpdate();
+	}
+	
+	public int deleteUsage(VFSQuotaUsageImpl quotaUsage) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from vfsquotausage quota where quota.key=:key")
+				.setParameter("key", quotaUsage.getKey())
+				.executeUpdate();
+	}
+	
+	/**
+	 * @param relativePath A relative path like course/123/coursefolder/images
+	 * @return The path and all its parents: course, course/123, course/123/coursefolder...
+	 */
+	public static List<String> getPathAndParents(String relativePath) {
+		List<String> paths = new ArrayList<>();
+		if(relativePath == null) return paths;
+		
+		String path = relativePath.replace('\\', '/');
+		int start = 0;
+		while(start < path.length() && path.charAt(start) == '/') {
+			start++;
+		}
+		int end = path.length();
+		while(end > start && path.charAt(end - 1) == '/') {
+			end--;
+		}
+		path = path.substring(start, end);
+		for(int index=path.indexOf('/'); index > 0; index=path.indexOf('/', index + 1)) {
+			paths.add(path.substring(0, index));
+		}
+		if(path.length() > 0) {
+			paths.add(path);
+		}
+		return paths;
+	}
+}
@@ -38,11 +38,13 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.Adler32;
@@ -78,6 +80,7 @@ import org.olat.core.commons.services.vfs.impl.VFSContextInfoUnknownPathResolver
 import org.olat.core.commons.services.vfs.manager.MetaInfoReader.Thumbnail;
 import org.olat.core.commons.services.vfs.model.VFSFileStatistics;
 import org.olat.core.commons.services.vfs.model.VFSMetadataImpl;
+import org.olat.core.commons.services.vfs.model.VFSQuotaUsageImpl;
 import org.olat.core.commons.services.vfs.model.VFSRevisionImpl;
 import org.olat.core.commons.services.vfs.model.VFSRevisionStatistics;
 import org.olat.core.commons.services.vfs.model.VFSThumbnailStatistics;
@@ -85,6 +88,7 @@ import org.olat.core.gui.control.Event;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
 import org.olat.core.util.FileUtils;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.coordinate.CoordinatorManager;
@@ -100,6 +104,7 @@ import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.core.util.vfs.VFSManager;
 import org.olat.core.util.vfs.version.RevisionFileImpl;
 import org.olat.core.util.vfs.version.VersionsFileImpl;
+import org.olat.search.manager.SearchIndexQueue;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -116,6 +121,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	private static final Logger log = Tracing.createLoggerFor(VFSRepositoryServiceImpl.class);
 	private final OLATResourceable fileSizeSubscription = OresHelper.createOLATResourceableType("UpdateFileSizeAsync");
 	private final OLATResourceable incrementFileDownload = OresHelper.createOLATResourceableType("IncrementFileDownloadAsync");
+	private static final int MAX_QUOTA_PATH_LENGTH = 255;
 	private static final String CANONICAL_ROOT_REL_PATH = "/";
 	
 	@Autowired
@@ -133,6 +139,8 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	@Autowired
 	private VFSThumbnailDAO thumbnailDao;
 	@Autowired
+	private VFSQuotaUsageDAO quotaUsageDao;
+	@Autowired
 	private VFSRepositoryModule vfsModule;
 	@Autowired
 	private LicenseService licenseService;
@@ -146,6 +154,8 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	private CoordinatorManager coordinatorManager;
 	@Autowired
 	private BaseSecurity securityManager;
+	@Autowired
+	private SearchIndexQueue searchIndexQueue;
 	// Autowired liste by setVfsContextInfoResolver() method
 	private List<VFSContextInfoResolver> vfsContextInfoResolver;
 	
@@ -169,7 +179,15 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		if(file.exists()) {
 			try {
 				Date lastModified = new Date(file.lastModified());
-				metadataDao.updateMetadata(file.length(), lastModified, event.getRelativePath(), event.getFilename());
+				long fileSize = file.length();
+				Long previousFileSize = metadataDao.getFileSize(event.getRelativePath(), event.getFilename());
+				// the event is sent to all nodes, only the one which updates the size updates the usage
+				if(previousFileSize != null && previousFileSize.longValue() != fileSize
+						&& metadataDao.updateMetadata(previousFileSize.longValue(), fileSize, lastModified, event.getRelativePath(), event.getFilename()) > 0) {
+					updateQuotaUsage(event.getRelativePath(), fileSize - previousFileSize.longValue());
+				} else {
+					metadataDao.updateMetadata(fileSize, lastModified, event.getRelativePath(), event.getFilename());
+				}
 				dbInstance.commit();
 			} catch (Exception e) {
 				log.error("Cannot update file size of: " + event.getRelativePath() + " " + event.getFilename(), e);
@@ -461,13 +479,36 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		
 		String relativePath = getContainerRelativePath(leaf);
 		Date lastModified = new Date(leaf.getLastModified());
-		metadataDao.updateMetadata(leaf.getSize(), lastModified, relativePath, leaf.getName());
+		long fileSize = leaf.getSize();
+		if(vfsModule.isQuotaUsageCounterEnabled()) {
+			Long previousFileSize = metadataDao.getFileSize(relativePath, leaf.getName());
+			updateQuotaUsage(relativePath, previousFileSize == null ? fileSize : fileSize - previousFileSize.longValue());
+		}
+		metadataDao.updateMetadata(fileSize, lastModified, relativePath, leaf.getName());
+		searchIndexQueue.markFileChanged(relativePath);
 	}
 
 	@Override
 	public int deleteMetadata(VFSMetadata data) {
 		if(data == null) return 0; // nothing to do
 		
+		if(vfsModule.isQuotaUsageCounterEnabled()) {
+			// the caller deletes the file or the whole directory
+			File file = toFile(data);
+			if(data.isDirectory()) {
+				updateQuotaUsage(getRelativePath(file), -FileUtils.getDirSize(file));
+			} else {
+				long usage = file.length();
+				for(VFSRevision revision:getRevisions(data)) {
+					usage += getRevisionFile(revision).length();
+				}
+				updateQuotaUsage(data.getRelativePath(), -usage);
+			}
+		}
+		return deleteMetadataAndRevisions(data);
+	}
+	
+	private int deleteMetadataAndRevisions(VFSMetadata data) {
 		List<VFSThumbnailMetadata> thumbnails = thumbnailDao.loadByMetadata(data);
 		for(VFSThumbnailMetadata thumbnail:thumbnails) {
 			VFSItem item = VFSManager.olatRootLeaf("/" + data.getRelativePath(), thumbnail.getFilename());
@@ -494,7 +535,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		
 		List<VFSMetadata> children = getChildren(data);
 		for(VFSMetadata child:children) {
-			deleted += deleteMetadata(child);
+			deleted += deleteMetadataAndRevisions(child);
 		}
 		metadataDao.removeMetadata(data);
 		deleted++;
@@ -524,8 +565,17 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				if(file.canVersion() == VFSConstants.YES) {
 					addToRevisions(file, metadata, author, "", true);
 				}
+				// the caller deletes the file, the revision is counted by addToRevisions
+				updateQuotaUsage(metadata.getRelativePath(), -file.getSize());
+			} else if(vfsModule.isQuotaUsageCounterEnabled()) {
+				// the children are already deleted, the caller deletes the rest of the directory
+				File directory = toFile(item);
+				if(directory != null) {
+					updateQuotaUsage(getRelativePath(directory), -FileUtils.getDirSize(directory));
+				}
 			}
 			metadataDao.updateMetadata(metadata);
+			searchIndexQueue.markFileChanged(metadata.getRelativePath());
 		}
 	}
 
@@ -546,12 +596,16 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 			File targetFile = toFile(target);
 			if(targetFile != null) {
 				VFSMetadata targetMetadata = loadMetadata(targetFile);
+				long previousFileSize = 0l;
 				if(targetMetadata == null) {
 					VFSMetadata parentMetadata = getMetadataFor(parentTarget);
 					String relativePath = getRelativePath(targetFile.getParentFile());
 					targetMetadata = metadataDao.createMetadata(UUID.randomUUID().toString(), relativePath, targetFile.getName(),
 							new Date(), targetFile.length(), false, targetFile.toURI().toString(), "file", parentMetadata);
+				} else {
+					previousFileSize = targetMetadata.getFileSize();
 				}
+				updateQuotaUsage(targetMetadata.getRelativePath(), targetFile.length() - previousFileSize);
 				targetMetadata.copyValues(sourceMetadata);
 				if(source.canVersion() == VFSConstants.YES || target.canVersion() == VFSConstants.YES) {
 					targetMetadata.setRevisionComment(sourceMetadata.getRevisionComment());
@@ -567,6 +621,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		List<VFSRevision> sourceRevisions = getRevisions(sourceMetadata);
 
 		boolean allOk = true;
+		long copiedSize = 0l;
 		for (VFSRevision sourceRevision : sourceRevisions) {
 			VFSLeaf sourceRevFile = getRevisionLeaf(sourceMetadata, (VFSRevisionImpl)sourceRevision);
 			if(sourceRevFile != null && sourceRevFile.exists()) {
@@ -574,8 +629,10 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 						sourceRevision, targetMetadata);
 				VFSLeaf targetRevFile = getRevisionLeaf(targetMetadata, (VFSRevisionImpl)targetRevision);
 				VFSManager.copyContent(sourceRevFile, targetRevFile, false);
+				copiedSize += targetRevFile.getSize();
 			}
 		}
+		updateQuotaUsage(targetMetadata.getRelativePath(), copiedSize);
 		return allOk;
 	}
 
@@ -836,6 +893,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 			try {
 				VFSLeaf revFile = getRevisionLeaf(metadata, ((VFSRevisionImpl)revision));
 				if (FileUtils.copyToFile(revFile.getInputStream(), currentFile, "Restore")) {
+					updateQuotaUsage(metadata.getRelativePath(), currentFile.length());
 					deleteRevisions(metadata, Collections.singletonList(revision));
 					allOk = true;
 				}
@@ -930,6 +988,9 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 
 		File revFile = new File(currentFile.getParentFile(), uuid);
 		if (sameFile || copyContent(currentFile, revFile)) {
+			if(!sameFile) {
+				updateQuotaUsage(metadata.getRelativePath(), revFile.length());
+			}
 			if(pruneRevision && maxNumOfVersions >= 0 && revisions.size() > maxNumOfVersions) {
 				int numOfVersionsToDelete = Math.min(revisions.size(), (revisions.size() - maxNumOfVersions));
 				if(numOfVersionsToDelete > 0) {
@@ -1016,14 +1077,19 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 			revisionDao.deleteRevision(versionToDelete);
 		}
 		
+		long deletedSize = 0l;
 		for(String fileToDelete:filenamesToDelete.keySet()) {
 			try {
 				File file = new File(directory, fileToDelete);
-				Files.deleteIfExists(file.toPath());
+				long fileSize = file.length();
+				if(Files.deleteIfExists(file.toPath())) {
+					deletedSize += fileSize;
+				}
 			} catch (IOException e) {
 				log.error("Cannot the version of a file", e);
 			}
 		}
+		updateQuotaUsage(metadata.getRelativePath(), -deletedSize);
 		return true;
 	}
 	
@@ -1106,6 +1172,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		((VFSMetadataImpl)metadata).setParent(targetParent);
 		((VFSMetadataImpl)metadata).setAuthor(author);
 
+		long movedSize = 0l;
 		List<VFSRevision> revisions = getRevisions(metadata);
 		for(VFSRevision revision:revisions) {
 			VFSRevisionImpl revImpl = (VFSRevisionImpl)revision;
@@ -1115,7 +1182,9 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				String newRevFilename = generateFilenameForRevision(newTargetName, revision.getRevisionNr());
 				Path targetRevPath = getRevisionPath(targetRelativePath, newRevFilename);
 				try {
+					long revSize = revFile.length();
 					Files.move(path, targetRevPath, StandardCopyOption.REPLACE_EXISTING);
+					movedSize += revSize;
 				} catch (IOException e) {
 					log.error("", e);
 				}
@@ -1123,8 +1192,19 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 				revisionDao.updateRevision(revision);
 			}
 		}
+		moveQuotaUsage(currentRelativePath, targetRelativePath, movedSize);
 		
 		metadata = metadataDao.updateMetadata(metadata);
+		
+		// the file was copied and counted in the target, the metadata belongs to the target now
+		long currentSize = currentFile.length();
+		try {
+			if(Files.deleteIfExists(currentFile.toPath())) {
+				updateQuotaUsage(currentRelativePath, -currentSize);
+			}
+		} catch (IOException e) {
+			log.error("Cannot delete the moved file: {}", currentFile, e);
+		}
 		return metadata;
 	}
 
@@ -1575,6 +1655,146 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	public VFSThumbnailStatistics getThumbnailStats() {
 		return statsDao.getThumbnailStats();
 	}
+
+	@Override
+	public long getQuotaUsage(File directory) {
+		String relativePath = getQuotaRelativePath(directory);
+		if(relativePath == null || !vfsModule.isQuotaUsageCounterEnabled()) {
+			return FileUtils.getDirSize(directory);
+		}
+		
+		VFSQuotaUsageImpl usage = quotaUsageDao.getUsage(relativePath);
+		if(usage == null) {
+			usage = coordinatorManager.getCoordinator().getSyncer().doInSync(getQuotaUsageLock(relativePath), () -> {
+				VFSQuotaUsageImpl reloadedUsage = quotaUsageDao.getUsage(relativePath);
+				if(reloadedUsage == null) {
+					reloadedUsage = quotaUsageDao.createUsage(relativePath, FileUtils.getDirSize(directory));
+					dbInstance.commit();
+				}
+				return reloadedUsage;
+			});
+		}
+		return Math.max(0l, usage.getUsage());
+	}
+	
+	@Override
+	public void reconcileQuotaUsages() {
+		if(!vfsModule.isQuotaUsageCounterEnabled()) return;
+		
+		long start = System.nanoTime();
+		int offset = 0;
+		int reconciled = 0;
+		int corrected = 0;
+		int deleted = 0;
+		int batchSize = 100;
+		List<VFSQuotaUsageImpl> usages;
+		do {
+			usages = quotaUsageDao.getUsages(offset, batchSize);
+			int deletedInBatch = 0;
+			for(VFSQuotaUsageImpl usage:usages) {
+				Boolean correctedUsage = coordinatorManager.getCoordinator().getSyncer()
+						.doInSync(getQuotaUsageLock(usage.getRelativePath()), () -> reconcileQuotaUsage(usage.getRelativePath()));
+				if(correctedUsage == null) {
+					deletedInBatch++;
+				} else {
+					reconciled++;
+					if(correctedUsage.booleanValue()) {
+						corrected++;
+					}
+				}
+			}
+			// the deleted counters are not in the next batch
+			offset += usages.size() - deletedInBatch;
+			deleted += deletedInBatch;
+		} while(usages.size() == batchSize);
+		log.info("Quota usages reconciled: {} counters, {} corrected, {} deleted in (ms): {}",
+				reconciled, corrected, deleted, CodeHelper.nanoToMilliTime(start));
+	}
+	
+	/**
+	 * Set the usage to the size of the directory, the usage is reloaded
+	 * in the lock of the path.
+	 * 
+	 * @param relativePath The relative path of the directory
+	 * @return true if the usage was corrected, false if not, null if the
+	 * 		counter was deleted
+	 */
+	private Boolean reconcileQuotaUsage(String relativePath) {
+		Boolean corrected = Boolean.FALSE;
+		try {
+			VFSQuotaUsageImpl usage = quotaUsageDao.getUsage(relativePath);
+			if(usage == null) {
+				corrected = null;
+			} else {
+				File directory = folderModule.getCanonicalRootPath().resolve(relativePath).toFile();
+				if(directory.isDirectory()) {
+					long size = FileUtils.getDirSize(directory);
+					corrected = Boolean.valueOf(size != usage.getUsage());
+					quotaUsageDao.reconcileUsage(usage, size);
+				} else {
+					quotaUsageDao.deleteUsage(usage);
+					corrected = null;
+				}
+			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot reconcile the quota usage of: {}", relativePath, e);
+			dbInstance.rollbackAndCloseSession();
+		}
+		return corrected;
+	}
+	
+	/**
+	 * Lock only one path, long paths are hashed in the key of the lock.
+	 * 
+	 * @param relativePath The relative path of the directory
+	 * @return The resource to lock the counter of the directory
+	 */
+	private OLATResourceable getQuotaUsageLock(String relativePath) {
+		return OresHelper.createOLATResourceableTypeWithoutCheck("VFSQuotaUsage:" + relativePath);
+	}
+	
+	/**
+	 * @param directory The directory
+	 * @return The relative path in the same format as the metadata or null if
+	 * 		the directory is not in /bcroot/
+	 */
+	private String getQuotaRelativePath(File directory) {
+		if(directory == null) return null;
+		
+		Path path = directory.toPath().normalize();
+		Path root = folderModule.getCanonicalRootPath();
+		if(!path.startsWith(root) || path.equals(root)) {
+			return null;
+		}
+		String relativePath = root.relativize(path).toString();
+		return relativePath.length() > MAX_QUOTA_PATH_LENGTH ? null : relativePath;
+	}
+	
+	/**
+	 * Add the delta to the counters of the directory and its parents.
+	 * 
+	 * @param relativePath The relative path of the directory
+	 * @param delta The delta in bytes
+	 */
+	private void updateQuotaUsage(String relativePath, long delta) {
+		if(delta == 0l || !vfsModule.isQuotaUsageCounterEnabled()) return;
+		quotaUsageDao.addUsage(VFSQuotaUsageDAO.getPathAndParents(relativePath), delta);
+	}
+	
+	private void moveQuotaUsage(String sourceRelativePath, String targetRelativePath, long size) {
+		if(size == 0l || !vfsModule.isQuotaUsageCounterEnabled()) return;
+		
+		// the common parents are unchanged
+		Set<String> sourcePaths = new HashSet<>(VFSQuotaUsageDAO.getPathAndParents(sourceRelativePath));
+		Set<String> targetPaths = new HashSet<>(VFSQuotaUsageDAO.getPathAndParents(targetRelativePath));
+		Set<String> commonPaths = new HashSet<>(sourcePaths);
+		commonPaths.retainAll(targetPaths);
+		sourcePaths.removeAll(commonPaths);
+		targetPaths.removeAll(commonPaths);
+		quotaUsageDao.addUsage(sourcePaths, -size);
+		quotaUsageDao.addUsage(targetPaths, size);
+	}
 	
 	
 	/**
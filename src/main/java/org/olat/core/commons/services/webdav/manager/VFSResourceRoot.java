@@ -293,6 +293,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 			file.delete();
 			throw e;
 		}
+		CoreSpringFactory.getImpl(VFSRepositoryService.class).itemSaved(file);
 	}
 	
 	@Override
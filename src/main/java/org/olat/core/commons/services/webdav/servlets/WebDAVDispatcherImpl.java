@@ -997,7 +997,8 @@ public class WebDAVDispatcherImpl
             return;
         }
         
-        if (copyResource(req, resp, true)) {
+        // the repository service deletes the source of a moved file with metadata
+        if (copyResource(req, resp, true) && resources.getResource(path).exists()) {
             deleteResource(path, req, resp, false);
         }
     }
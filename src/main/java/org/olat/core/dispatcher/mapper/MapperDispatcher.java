@@ -112,7 +112,7 @@ public class MapperDispatcher implements Dispatcher {
 		MediaResource mr = m.handle(mod, hreq);
 		if(mr != null) {
 			ServletUtil.serveResource(hreq, hres, mr);
-		} else {
+		} else if(!hreq.isAsyncStarted()) {
 			hres.setStatus(HttpServletResponse.SC_NO_CONTENT);
 		}
 	}
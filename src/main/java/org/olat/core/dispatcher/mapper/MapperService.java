@@ -49,6 +49,21 @@ public interface MapperService {
 	 */
 	public int inMemoryCount();
 	
+	/**
+	 * @return The number of serializable mappers waiting to be written in the database
+	 */
+	public int pendingCount();
+	
+	/**
+	 * @return The number of mappers written in the database since startup
+	 */
+	public long persistedCount();
+	
+	/**
+	 * Write immediately the serializable mappers waiting in the queue.
+	 */
+	public void persistPendingMappers();
+	
 	
 	/**
 	 * Register a non-cachable mapper. The mapper will have a new URL every time
@@ -20,6 +20,7 @@
 package org.olat.core.dispatcher.mapper.manager;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -34,6 +35,8 @@ import org.olat.core.util.xml.XStreamHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.thoughtworks.xstream.XStream;
+
 /**
  * 
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -41,6 +44,9 @@ import org.springframework.stereotype.Service;
 @Service("mapperDao")
 public class MapperDAO {
 	
+	/** XStream is thread safe after its configuration, configure it only once */
+	private static final XStream mapperXStream = XStreamHelper.createXStreamInstance();
+	
 	@Autowired
 	private DB dbInstance;
 	
@@ -66,7 +72,7 @@ public class MapperDAO {
 		}
 		m.setOriginalSessionId(sessionId);
 		
-		String configuration = XStreamHelper.createXStreamInstance().toXML(mapper);
+		String configuration = mapperXStream.toXML(mapper);
 		m.setXmlConfiguration(configuration);
 		
 		dbInstance.getCurrentEntityManager().persist(m);
@@ -82,7 +88,35 @@ public class MapperDAO {
 	 * @return
 	 */
 	public boolean updateConfiguration(String mapperId, Serializable mapper, int expirationTime) {
-		String configuration = XStreamHelper.createXStreamInstance().toXML(mapper);
+		boolean updated = update(mapperId, mapper, expirationTime);
+		dbInstance.commit();
+		return updated;
+	}
+	
+	/**
+	 * Write a list of pending mappers in the current transaction. The
+	 * updates are done first, the inserts at the end can be sent to the
+	 * database in JDBC batches.
+	 * 
+	 * @param mappers The mappers to persist or update
+	 * @return The number of mappers written
+	 */
+	public int writeMappers(List<PendingMapper> mappers) {
+		List<PendingMapper> mappersToPersist = new ArrayList<>(mappers.size());
+		for(PendingMapper mapper:mappers) {
+			if(mapper.isNewMapper() || !update(mapper.getMapperId(), mapper.getMapper(), mapper.getExpirationTime())) {
+				mappersToPersist.add(mapper);
+			}
+		}
+		
+		for(PendingMapper mapper:mappersToPersist) {
+			persistMapper(mapper.getSessionId(), mapper.getMapperId(), mapper.getMapper(), mapper.getExpirationTime());
+		}
+		return mappers.size();
+	}
+	
+	private boolean update(String mapperId, Serializable mapper, int expirationTime) {
+		String configuration = mapperXStream.toXML(mapper);
 		Date currentDate = new Date();
 		Date expirationDate = null;
 		if(expirationTime > 0) {
@@ -97,8 +131,6 @@ public class MapperDAO {
 			.setParameter("config", configuration)
 			.setParameter("mapperId", mapperId)
 			.executeUpdate();
-
-		dbInstance.commit();
 		return row > 0;
 	}
 	
@@ -120,7 +152,7 @@ public class MapperDAO {
 		if(pm != null && StringHelper.containsNonWhitespace(pm.getXmlConfiguration())) {
 			String configuration = pm.getXmlConfiguration();
 			
-			Object obj = XStreamHelper.createXStreamInstance().fromXML(configuration);
+			Object obj = mapperXStream.fromXML(configuration);
 			if(obj instanceof Mapper) {
 				return (Mapper)obj;
 			}
@@ -20,53 +20,152 @@
 package org.olat.core.dispatcher.mapper.manager;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.DB;
 import org.olat.core.dispatcher.DispatcherModule;
 import org.olat.core.dispatcher.mapper.Mapper;
 import org.olat.core.dispatcher.mapper.MapperService;
-import org.olat.core.dispatcher.mapper.model.PersistedMapper;
+import org.olat.core.logging.Tracing;
 import org.olat.core.util.Encoder;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.UserSession;
 import org.olat.core.util.WebappHelper;
 import org.olat.core.util.cache.CacheWrapper;
 import org.olat.core.util.coordinate.CoordinatorManager;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 /**
+ * The serializable mappers, of the sessions or cacheable, are not written
+ * in the database by the request which registers them. They are queued and
+ * written in batches by the mapper writer scheduler every flush interval,
+ * and at shutdown.
  * 
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  */
 @Service("mapperService")
-public class MapperServiceImpl implements MapperService, InitializingBean {
+public class MapperServiceImpl implements MapperService, InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(MapperServiceImpl.class);
+	private static final int BATCH_SIZE = 100;
 	
 	private Map<MapperKey,Mapper> mapperKeyToMapper = new ConcurrentHashMap<>();
 	private Map<String,List<MapperKey>> sessionIdToMapperKeys = new ConcurrentHashMap<>();
+	private final Map<String,PendingMapper> pendingMappers = new ConcurrentHashMap<>();
+	private final AtomicLong persistedCount = new AtomicLong();
 
 	private CacheWrapper<String, Serializable> mapperCache;
+	private ScheduledFuture<?> mapperWriterFuture;
+	
+	@Value("${mapper.persistence.flush.interval:2000}")
+	private long flushInterval;
 	
+	@Autowired
+	private DB dbInstance;
 	@Autowired
 	private MapperDAO mapperDao;
 	@Autowired
 	private CoordinatorManager coordinatorManager;
+	@Autowired @Qualifier("mapperWriterScheduler")
+	private TaskScheduler mapperWriter;
 	
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		mapperCache = coordinatorManager.getCoordinator().getCacher().getCache(MapperService.class.getSimpleName(), "mapper");
+		Duration interval = Duration.ofMillis(flushInterval);
+		mapperWriterFuture = mapperWriter.scheduleWithFixedDelay(this::persistPendingMappers, Instant.now().plus(interval), interval);
+	}
+	
+	@Override
+	public void destroy() throws Exception {
+		if(mapperWriterFuture != null) {
+			mapperWriterFuture.cancel(false);
+		}
+		// wait a running flush and write the rest
+		persistPendingMappers();
 	}
 	
 	@Override
 	public int inMemoryCount() {
 		return mapperKeyToMapper.size() + sessionIdToMapperKeys.size();
 	}
+	
+	@Override
+	public int pendingCount() {
+		return pendingMappers.size();
+	}
+	
+	@Override
+	public long persistedCount() {
+		return persistedCount.get();
+	}
+	
+	@Override
+	public synchronized void persistPendingMappers() {
+		if(pendingMappers.isEmpty()) return;
+		
+		List<PendingMapper> mappers = new ArrayList<>(pendingMappers.values());
+		for(int i=0; i<mappers.size(); i+=BATCH_SIZE) {
+			List<PendingMapper> batch = mappers.subList(i, Math.min(mappers.size(), i + BATCH_SIZE));
+			if(writeMappers(batch)) {
+				// remove them after the commit, they can be loaded from the database now
+				for(PendingMapper mapper:batch) {
+					pendingMappers.remove(mapper.getMapperId(), mapper);
+				}
+			} else {
+				// retry one by one, only the mappers which cannot be written are dropped
+				for(PendingMapper mapper:batch) {
+					if(!writeMappers(Collections.singletonList(mapper))) {
+						log.error("Cannot persist the mapper {}, it's dropped", mapper.getMapperId());
+					}
+					pendingMappers.remove(mapper.getMapperId(), mapper);
+				}
+			}
+		}
+	}
+	
+	private boolean writeMappers(List<PendingMapper> mappers) {
+		try {
+			int count = mapperDao.writeMappers(mappers);
+			dbInstance.commitAndCloseSession();
+			persistedCount.addAndGet(count);
+			return true;
+		} catch (Exception e) {
+			log.warn("Cannot persist {} mappers", mappers.size(), e);
+			dbInstance.rollbackAndCloseSession();
+			return false;
+		}
+	}
+	
+	/**
+	 * Queue the mapper. If the same mapper is already waiting to be
+	 * inserted, the insert write its current state.
+	 */
+	private void queueMapper(String sessionId, String mapperId, Serializable mapper, int expirationTime, boolean newMapper) {
+		pendingMappers.compute(mapperId, (id, pending) -> {
+			if(pending != null && pending.isNewMapper() && pending.getMapper() == mapper) {
+				return pending;
+			}
+			return new PendingMapper(sessionId, id, mapper, expirationTime, newMapper);
+		});
+	}
 
 	@Override
 	public MapperKey register(UserSession session, Mapper mapper) {
@@ -90,7 +189,7 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		}
 		
 		if(mapper instanceof Serializable) {
-			mapperDao.persistMapper(sessionId, mapid, (Serializable)mapper, -1);
+			queueMapper(sessionId, mapid, (Serializable)mapper, -1, true);
 		}
 		mapperKey.setUrl(WebappHelper.getServletContextPath() + DispatcherModule.PATH_MAPPED + mapid);
 		return mapperKey;
@@ -108,20 +207,9 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 	public MapperKey register(UserSession session, String mapperId, Mapper mapper, int expirationTime) {
 		String encryptedMapId = Encoder.md5hash(mapperId);
 		MapperKey mapperKey = new MapperKey(session, encryptedMapId);
-		boolean alreadyLoaded = mapperKeyToMapper.containsKey(mapperKey);
 		if(mapper instanceof Serializable) {
-			if(alreadyLoaded) {
-				if(!mapperDao.updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime)) {
-					mapperDao.persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
-				}
-			} else {
-				PersistedMapper persistedMapper = mapperDao.loadByMapperId(encryptedMapId);
-				if(persistedMapper == null) {
-					mapperDao.persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
-				} else {
-					mapperDao.updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime);
-				}
-			}
+			// updated or inserted if it's not in the database
+			queueMapper(null, encryptedMapId, (Serializable)mapper, expirationTime, false);
 		}
 
 		mapperKeyToMapper.put(mapperKey, mapper);
@@ -143,6 +231,10 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		MapperKey mapperKey = new MapperKey(session, id);
 		Mapper mapper = mapperKeyToMapper.get(mapperKey);
 		if(mapper == null) {
+			PendingMapper pendingMapper = pendingMappers.get(id);
+			if(pendingMapper != null) {
+				return (Mapper)pendingMapper.getMapper();
+			}
 			mapper = (Mapper)mapperCache.get(id);
 			if(mapper == null) {
 				mapper = mapperDao.retrieveMapperById(id);
@@ -167,10 +259,8 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		if(mapKeys != null && !mapKeys.isEmpty()) {
 			for(MapperKey mapKey:mapKeys) {
 				Mapper mapper = mapperKeyToMapper.remove(mapKey);
-				if(mapper != null) {
-					if(mapper instanceof Serializable) {
-						mapperDao.updateConfiguration(mapKey.getMapperId(), (Serializable)mapper, -1);
-					}
+				if(mapper instanceof Serializable) {
+					queueMapper(sessionId, mapKey.getMapperId(), (Serializable)mapper, -1, false);
 				}
 			}
 		}
@@ -182,7 +272,7 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		for(MapperKey mapperKey:mapperKeys) {
 			Mapper mapper = mapperKeyToMapper.remove(mapperKey);
 			if(mapper instanceof Serializable) {
-				mapperDao.updateConfiguration(mapperKey.getMapperId(), (Serializable)mapper, -1);
+				queueMapper(mapperKey.getSessionId(), mapperKey.getMapperId(), (Serializable)mapper, -1, false);
 			}
 		}
 	}
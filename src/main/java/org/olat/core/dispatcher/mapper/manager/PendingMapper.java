@@ -0,0 +1,69 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.dispatcher.mapper.manager;
+
+import java.io.Serializable;
+
+/**
+ * A serializable mapper waiting to be written in the database.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class PendingMapper {
+	
+	private final String sessionId;
+	private final String mapperId;
+	private final Serializable mapper;
+	private final int expirationTime;
+	private final boolean newMapper;
+	
+	public PendingMapper(String sessionId, String mapperId, Serializable mapper, int expirationTime, boolean newMapper) {
+		this.sessionId = sessionId;
+		this.mapperId = mapperId;
+		this.mapper = mapper;
+		this.expirationTime = expirationTime;
+		this.newMapper = newMapper;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	public String getMapperId() {
+		return mapperId;
+	}
+
+	public Serializable getMapper() {
+		return mapper;
+	}
+
+	public int getExpirationTime() {
+		return expirationTime;
+	}
+
+	/**
+	 * @return true if the mapper is not in the database
+	 */
+	public boolean isNewMapper() {
+		return newMapper;
+	}
+}
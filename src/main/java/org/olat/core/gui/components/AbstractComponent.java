@@ -81,6 +81,10 @@ public abstract class AbstractComponent implements Component {
 	 * quite some memory
 	 */
 	private ComponentCollection parent;
+	/**
+	 * The window of which this component is the content pane, set by the window only
+	 */
+	private Window rootWindow;
 	/**
 	 * 
 	 * @param name the name of this component
@@ -386,7 +390,38 @@ public abstract class AbstractComponent implements Component {
 	 * @param dirty The dirty to set.
 	 */
 	public void setDirty(boolean dirty) {
+		boolean signal = dirty && !this.dirty;
 		this.dirty = dirty;
+		if(signal) {
+			signalWindow();
+		}
+	}
+	
+	/**
+	 * Signal the window which contains the component that it has
+	 * something to render. Components not attached to a window don't
+	 * signal anything.
+	 */
+	private void signalWindow() {
+		Component root = this;
+		for(Component p=getParent(); p != null; p=p.getParent()) {
+			root = p;
+		}
+		if(root instanceof AbstractComponent) {
+			Window window = ((AbstractComponent)root).rootWindow;
+			if(window != null) {
+				window.signalDirty();
+			}
+		}
+	}
+	
+	/**
+	 * To be called only by the window when the component is set as content pane.
+	 * 
+	 * @param window The window or null to detach the component
+	 */
+	void setRootWindow(Window window) {
+		this.rootWindow = window;
 	}
 
 	/**
@@ -186,6 +186,7 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 	
 	// wbackoffice reference
 	private final WindowBackOfficeImpl wbackofficeImpl;
+	private volatile boolean dirtySignaled;
 	// mutex for rendering
 	private final Object render_mutex = new Object();
 	// delegate for css and js includes
@@ -276,7 +277,13 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 	 * @param contentPane The contentPane to set
 	 */
 	public void setContentPane(ComponentCollection contentPane) {
+		if(this.contentPane instanceof AbstractComponent) {
+			((AbstractComponent)this.contentPane).setRootWindow(null);
+		}
 		this.contentPane = contentPane;
+		if(contentPane instanceof AbstractComponent) {
+			((AbstractComponent)contentPane).setRootWindow(this);
+		}
 	}
 
 	/**
@@ -954,6 +961,22 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 		return null;
 	}
 
+	/**
+	 * Called by the components of the window when they are set dirty, signal
+	 * the push channel of the window to deliver the changes.
+	 */
+	protected void signalDirty() {
+		dirtySignaled = true;
+		wbackofficeImpl.signalDirty();
+	}
+	
+	/**
+	 * @return true if a component was set dirty since the last collect of the dirty components
+	 */
+	public boolean isDirtySignaled() {
+		return dirtySignaled;
+	}
+	
 	/**
 	 * to be called by Window.java or the AjaxController only!
 	 * this method is synchronized on the Window instance
@@ -965,6 +988,7 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 		// need to sync to window, since the dispatching must be finished so that the render tree is stable before we collect the dirties.
 		// more accurately, the synchronized is needed when other classes than window call this method.
 		synchronized(this) {
+			dirtySignaled = false;
 			Command com = null;
 			boolean isDebugLog = log.isDebugEnabled();
 			StringBuilder debugMsg = null;
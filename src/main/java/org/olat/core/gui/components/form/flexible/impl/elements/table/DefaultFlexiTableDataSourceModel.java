@@ -182,6 +182,16 @@ public abstract class DefaultFlexiTableDataSourceModel<U> implements FlexiTableD
 	public ResultInfos<U> load(String query, List<FlexiTableFilter> filters, List<String> addQueries, int firstResult, int maxResults, SortKey... orderBy) {
 		return loadDatas(query, filters, addQueries, false, firstResult, maxResults, orderBy);
 	}
+
+	@Override
+	public void unload(int firstResult, int maxResults) {
+		if(rows == null) return;
+		
+		int lastResult = Math.min(rows.size(), firstResult + maxResults);
+		for(int i=Math.max(0, firstResult); i<lastResult; i++) {
+			rows.set(i, null);
+		}
+	}
 	
 	private ResultInfos<U> loadDatas(String query, List<FlexiTableFilter> filters, List<String> addQueries, final boolean force, final int firstResult, final int maxResults, SortKey... orderBy) {
 		if(rows == null) {
@@ -214,7 +224,8 @@ public abstract class DefaultFlexiTableDataSourceModel<U> implements FlexiTableD
 		ResultInfos<U> newRows = sourceDelegate.getRows(query, filters, addQueries, correctedFirstResult, correctMaxResults, orderBy);
 		if(firstResult == 0) {
 			if(newRows.getObjects().size() < correctMaxResults) {
-				rowCount = newRows.getObjects().size();
+				// the rows already loaded are not in the result
+				rowCount = correctedFirstResult + newRows.getObjects().size();
 			} else if(newRows.getCorrectedRowCount() >= 0) {
 				rowCount = newRows.getCorrectedRowCount();
 			} else {
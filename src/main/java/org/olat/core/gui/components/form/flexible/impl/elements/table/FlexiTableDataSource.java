@@ -52,5 +52,16 @@ public interface FlexiTableDataSource<U> extends FlexiTableDataModel<U> {
 	 * @param orderBy
 	 */
 	public ResultInfos<U> load(String query, List<FlexiTableFilter> filters, List<String> addQueries, int firstResult, int maxResults, SortKey... orderBy);
+	
+	/**
+	 * Release the rows of the specified range, they will be loaded
+	 * again if needed. Used to export the table page by page.
+	 * 
+	 * @param firstResult The index of the first row
+	 * @param maxResults The number of rows
+	 */
+	public default void unload(int firstResult, int maxResults) {
+		//
+	}
 
 }
@@ -1336,19 +1336,15 @@ public class FlexiTableElementImpl extends FormItemImpl implements FlexiTableEle
 	}
 	
 	private void doExport(UserRequest ureq) {
-		// ensure the all rows are loaded to export
-		if(dataSource != null) {
-			if(dataModel instanceof FlexiTableDataSource) {
-				((FlexiTableDataSource<?>)dataModel).load(getSearchText(), getSelectedFilters(), getConditionalQueries(), 0, -1, orderBy);
-			} else {
-				dataSource.load(getSearchText(), getSelectedFilters(), getConditionalQueries(), 0, -1, orderBy);
-			}
-		}
-		
 		MediaResource resource;
 		if(dataModel instanceof ExportableFlexiTableDataModel) {
+			// ensure the all rows are loaded to export
+			if(dataSource != null) {
+				dataSource.load(getSearchText(), getSelectedFilters(), getConditionalQueries(), 0, -1, orderBy);
+			}
 			resource = ((ExportableFlexiTableDataModel)dataModel).export(component);
 		} else {
+			// the exporter loads the rows of the data source page by page
 			ExportableFlexiTableDataModelDelegate exporter = new ExportableFlexiTableDataModelDelegate();
 			resource = exporter.export(component, getTranslator());
 		}
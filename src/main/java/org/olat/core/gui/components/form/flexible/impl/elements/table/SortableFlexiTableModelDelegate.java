@@ -20,13 +20,17 @@
 package org.olat.core.gui.components.form.flexible.impl.elements.table;
 
 import java.sql.Timestamp;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.olat.core.commons.persistence.SortKey;
 
@@ -41,10 +45,16 @@ import org.olat.core.commons.persistence.SortKey;
  */
 public class SortableFlexiTableModelDelegate<T> {
 	
+	/**
+	 * Above this number of rows, the rows are sorted in parallel.
+	 */
+	public static final int PARALLEL_SORT_THRESHOLD = 5000;
+	
 	private boolean asc;
 	private int columnIndex;
 	private final SortKey orderBy;
 	private final Collator collator; 
+	private final Map<String,CollationKey> collationKeys = new ConcurrentHashMap<>();
 	private final SortableFlexiTableDataModel<T> tableModel;
 	
 	public SortableFlexiTableModelDelegate(SortKey orderBy, SortableFlexiTableDataModel<T> tableModel, Locale locale) {
@@ -103,8 +113,47 @@ public class SortableFlexiTableModelDelegate<T> {
 		}
 	}
 	
+	/**
+	 * Sort the rows with the values of the column. The values and the collation
+	 * keys of the strings are calculated only once per row, and not for every
+	 * comparison.
+	 * 
+	 * @param rows The rows to sort
+	 */
 	protected void sort(List<T> rows) {
-		Collections.sort(rows, new DefaultComparator());
+		int numOfRows = rows.size();
+		if(numOfRows < 2) return;
+		
+		List<SortValue<T>> values = new ArrayList<>(numOfRows);
+		for(T row:rows) {
+			Object value = tableModel.getValueAt(row, columnIndex);
+			if(value instanceof String) {
+				value = collator.getCollationKey((String)value);
+			}
+			values.add(new SortValue<>(row, value));
+		}
+		
+		@SuppressWarnings("unchecked")
+		SortValue<T>[] valuesArray = values.toArray(new SortValue[numOfRows]);
+		Comparator<SortValue<T>> comparator = (v1, v2) -> compareValues(v1.getValue(), v2.getValue());
+		sortArray(valuesArray, comparator);
+		for(int i=0; i<numOfRows; i++) {
+			rows.set(i, valuesArray[i].getRow());
+		}
+	}
+	
+	/**
+	 * Sort the array, in parallel if the array is big.
+	 * 
+	 * @param array The array to sort
+	 * @param comparator The comparator which must be thread safe
+	 */
+	protected static <U> void sortArray(U[] array, Comparator<? super U> comparator) {
+		if(array.length >= PARALLEL_SORT_THRESHOLD) {
+			Arrays.parallelSort(array, comparator);
+		} else {
+			Arrays.sort(array, comparator);
+		}
 	}
 	
 	private static final FlexiColumnModel getColumnModel(String orderBy, FlexiTableColumnModel columnModel) {
@@ -123,7 +172,18 @@ public class SortableFlexiTableModelDelegate<T> {
 		if (a == null || b == null) {
 			return compareNullObjects(a, b);
 		}
-		return collator == null ? a.compareTo(b) : collator.compare(a, b);
+		return collator == null ? a.compareTo(b) : getCollationKey(a).compareTo(getCollationKey(b));
+	}
+	
+	/**
+	 * The collation keys are cached for the lifetime of the delegate,
+	 * they are much cheaper to compare than the strings with the collator.
+	 * 
+	 * @param string A string (mandatory)
+	 * @return The collation key of the string
+	 */
+	protected final CollationKey getCollationKey(String string) {
+		return collationKeys.computeIfAbsent(string, collator::getCollationKey);
 	}
 
 	protected final int compareBooleans(final Boolean a, final Boolean b) {
@@ -182,6 +242,37 @@ public class SortableFlexiTableModelDelegate<T> {
 		return ba? (bb? 0: -1):(bb? 1: 0);
 	}
 	
+	protected final int compareValues(Object val1, Object val2) {
+		if (val1 == null || val2 == null) {
+			return compareNullObjects(val1, val2);
+		}
+		if (val1 instanceof CollationKey && val2 instanceof CollationKey) {
+			return ((CollationKey)val1).compareTo((CollationKey)val2);
+		}
+		if (val1 instanceof CollationKey) {
+			val1 = ((CollationKey)val1).getSourceString();
+		}
+		if (val2 instanceof CollationKey) {
+			val2 = ((CollationKey)val2).getSourceString();
+		}
+		if (val1 instanceof String && val2 instanceof String) {
+			return compareString((String)val1, (String)val2);
+		}
+		if(val1 instanceof Date && val2 instanceof Date) {
+			return compareDateAndTimestamps((Date)val1, (Date)val2);
+		}
+		if (val1 instanceof Comparable && val2 instanceof Comparable) {
+			@SuppressWarnings("rawtypes")
+			Comparable c1 = (Comparable)val1;
+			@SuppressWarnings("rawtypes")
+			Comparable c2 = (Comparable)val2;
+			@SuppressWarnings("unchecked")
+			int s = c1.compareTo(c2);
+			return s;
+		}
+		return val1.toString().compareTo(val2.toString());
+	}
+	
 	public class ReverseComparator implements Comparator<T> {
 		
 		private final Comparator<T> delegate;
@@ -202,26 +293,26 @@ public class SortableFlexiTableModelDelegate<T> {
 		public int compare(T t1, T t2) {
 			Object val1 = tableModel.getValueAt(t1, columnIndex);
 			Object val2 = tableModel.getValueAt(t2, columnIndex);
-			
-			if (val1 == null || val2 == null) {
-				return compareNullObjects(val1, val2);
-			}
-			if (val1 instanceof String && val2 instanceof String) {
-				return collator.compare(val1, val2);
-			}
-			if(val1 instanceof Date && val2 instanceof Date) {
-				return compareDateAndTimestamps((Date)val1, (Date)val2);
-			}
-			if (val1 instanceof Comparable && val2 instanceof Comparable) {
-				@SuppressWarnings("rawtypes")
-				Comparable c1 = (Comparable)val1;
-				@SuppressWarnings("rawtypes")
-				Comparable c2 = (Comparable)val2;
-				@SuppressWarnings("unchecked")
-				int s = c1.compareTo(c2);
-				return s;
-			}
-			return val1.toString().compareTo(val2.toString());
+			return compareValues(val1, val2);
+		}
+	}
+	
+	private static class SortValue<U> {
+		
+		private final U row;
+		private final Object value;
+		
+		public SortValue(U row, Object value) {
+			this.row = row;
+			this.value = value;
+		}
+		
+		public U getRow() {
+			return row;
+		}
+		
+		public Object getValue() {
+			return value;
 		}
 	}
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.SortKey;
 import org.olat.core.gui.components.form.flexible.FormItem;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.gui.render.EmptyURLBuilder;
@@ -52,6 +53,11 @@ public class XlsFlexiTableExporter implements FlexiTableExporter {
 	private static final Logger log = Tracing.createLoggerFor(XlsFlexiTableExporter.class);
 	private static final URLBuilder ubu = new EmptyURLBuilder();
 	
+	/**
+	 * The number of rows loaded at once from a data source.
+	 */
+	public static final int EXPORT_PAGE_SIZE = 500;
+	
 	@Override
 	public MediaResource export(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator) {
 
@@ -92,10 +98,45 @@ public class XlsFlexiTableExporter implements FlexiTableExporter {
 	protected void createData(FlexiTableComponent ftC, List<FlexiColumnModel> columns, Translator translator,
 			OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
 		FlexiTableDataModel<?> dataModel = ftC.getFlexiTableElement().getTableDataModel();
-		
-		int numOfRow = dataModel.getRowCount();
+		if(dataModel instanceof FlexiTableDataSource) {
+			createPagedData(ftC, (FlexiTableDataSource<?>)dataModel, columns, translator, sheet, workbook);
+		} else {
+			createRows(ftC, 0, dataModel.getRowCount(), columns, translator, sheet, workbook);
+		}
+	}
+	
+	/**
+	 * Load the rows of the data source page by page, write them in the
+	 * worksheet and release them before loading the next page. Only a page
+	 * of rows is in memory at any time. The pages are loaded with an offset,
+	 * without a sort order they are not stable and all the rows are loaded
+	 * at once.
+	 */
+	protected void createPagedData(FlexiTableComponent ftC, FlexiTableDataSource<?> dataSource, List<FlexiColumnModel> columns,
+			Translator translator, OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
+		FlexiTableElementImpl tableEl = ftC.getFlexiTableElement();
+		SortKey[] orderBy = tableEl.getOrderBy();
+		int pageSize = orderBy == null || orderBy.length == 0 ? -1 : EXPORT_PAGE_SIZE;
+		try {
+			// drop the rows of the table, the export loads all pages from the first row
+			dataSource.clear();
+			for(int firstRow=0; firstRow == 0 || (pageSize > 0 && firstRow < dataSource.getRowCount()); firstRow += EXPORT_PAGE_SIZE) {
+				dataSource.load(tableEl.getSearchText(), tableEl.getSelectedFilters(), tableEl.getConditionalQueries(),
+						firstRow, pageSize, orderBy);
+				int lastRow = pageSize > 0 ? Math.min(dataSource.getRowCount(), firstRow + pageSize) : dataSource.getRowCount();
+				createRows(ftC, firstRow, lastRow, columns, translator, sheet, workbook);
+				dataSource.unload(firstRow, lastRow - firstRow);
+			}
+		} finally {
+			// the table needs the rows of its current page
+			tableEl.preloadPageOfObjectIndex(tableEl.getFirstRow());
+		}
+	}
+	
+	protected void createRows(FlexiTableComponent ftC, int firstRow, int lastRow, List<FlexiColumnModel> columns,
+			Translator translator, OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
 		int numOfColumns = columns.size();
-		for (int r=0; r<numOfRow; r++) {
+		for (int r=firstRow; r<lastRow; r++) {
 			Row dataRow = sheet.newRow();
 			for (int c = 0; c<numOfColumns; c++) {
 				FlexiColumnModel cd = columns.get(c);
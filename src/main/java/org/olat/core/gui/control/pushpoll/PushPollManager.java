@@ -0,0 +1,274 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+
+/**
+ * Park the poll requests of the windows with the asynchronous support of
+ * the servlet container (long polling). The windows signal their channel
+ * when a command is queued or a component is set dirty, a single thread
+ * dispatches the parked request of the signaled channels only, or the one
+ * of a channel after the timeout. Nothing scans the windows periodically.
+ * The dispatched request is processed by the poll mapper as a standard poll.<br>
+ * If the push is disabled or the request doesn't support asynchronous
+ * processing, the request is not parked and the browser polls every poll
+ * period as before.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class PushPollManager {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushPollManager.class);
+	
+	public static final String PUSH_HEADER = "X-OLAT-Push";
+	
+	private boolean enabled = true;
+	private long timeout = 25000;
+
+	private ScheduledThreadPoolExecutor checker;
+	private final Map<PushChannel,ParkedPoll> parkedPolls = new ConcurrentHashMap<>();
+	
+	/**
+	 * [used by Spring]
+	 * @param enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * [used by Spring]
+	 * @param timeout Max. time in milliseconds a poll request is parked
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * [used by Spring]
+	 */
+	public synchronized void init() {
+		if(enabled && checker == null) {
+			checker = new ScheduledThreadPoolExecutor(1, r -> {
+				Thread thread = new Thread(r, "push-poll-checker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			checker.setRemoveOnCancelPolicy(true);
+			log.info("Push channel started (timeout: {}ms)", timeout);
+		}
+	}
+	
+	/**
+	 * [used by Spring]
+	 */
+	public synchronized void destroy() {
+		if(checker != null) {
+			checker.shutdownNow();
+			checker = null;
+		}
+		for(PushChannel channel:parkedPolls.keySet()) {
+			release(channel);
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled && checker != null;
+	}
+	
+	/**
+	 * @return The number of poll requests currently parked
+	 */
+	public int getParkedCount() {
+		return parkedPolls.size();
+	}
+	
+	/**
+	 * Park the request if possible. A request dispatched by the push manager
+	 * is never parked a second time.
+	 * 
+	 * @param request The poll request
+	 * @param channel The channel of the window
+	 * @return true if the request is parked, the caller must not write the response
+	 */
+	public boolean park(HttpServletRequest request, PushChannel channel) {
+		ScheduledThreadPoolExecutor executor = checker;
+		if(!enabled || executor == null || !request.isAsyncSupported()
+				|| request.getDispatcherType() == DispatcherType.ASYNC) {
+			return false;
+		}
+		
+		AsyncContext asyncContext = request.startAsync();
+		// the container timeout is only a safety net, the checker resumes the request before
+		asyncContext.setTimeout(timeout + 10000l);
+		if(asyncContext.getResponse() instanceof HttpServletResponse) {
+			((HttpServletResponse)asyncContext.getResponse()).setHeader(PUSH_HEADER, "parked");
+		}
+		
+		ParkedPoll poll = new ParkedPoll(asyncContext);
+		asyncContext.addListener(new ParkedPollListener(channel, poll));
+		ParkedPoll previousPoll = parkedPolls.put(channel, poll);
+		if(previousPoll != null) {
+			// only one poll per window
+			previousPoll.resume();
+		}
+		try {
+			poll.setExpiration(executor.schedule(() -> expire(channel, poll), timeout, TimeUnit.MILLISECONDS));
+		} catch (RejectedExecutionException e) {
+			log.debug("Push channel stopped", e);
+			release(channel);
+			return true;
+		}
+		
+		// a signal sent between the check of the poll mapper and the parking is not lost
+		if(hasUpdates(channel)) {
+			signal(channel);
+		}
+		return true;
+	}
+	
+	/**
+	 * Signal that the channel has something to send. The parked request
+	 * of the channel, if any, is resumed by the checker thread.
+	 * 
+	 * @param channel The channel
+	 */
+	public void signal(PushChannel channel) {
+		ScheduledThreadPoolExecutor executor = checker;
+		if(executor != null && parkedPolls.containsKey(channel)) {
+			try {
+				executor.execute(() -> release(channel));
+			} catch (RejectedExecutionException e) {
+				log.debug("Push channel stopped", e);
+				release(channel);
+			}
+		}
+	}
+	
+	/**
+	 * Resume immediately the parked request of the channel, if any.
+	 * 
+	 * @param channel The channel
+	 */
+	public void release(PushChannel channel) {
+		ParkedPoll poll = parkedPolls.remove(channel);
+		if(poll != null) {
+			poll.resume();
+		}
+	}
+	
+	private void expire(PushChannel channel, ParkedPoll poll) {
+		if(parkedPolls.remove(channel, poll)) {
+			poll.resume();
+		}
+	}
+	
+	private boolean hasUpdates(PushChannel channel) {
+		try {
+			return channel.hasUpdates();
+		} catch (Exception e) {
+			log.debug("Check of push channel failed", e);
+			return true;
+		}
+	}
+	
+	private static class ParkedPoll {
+		
+		private final AsyncContext asyncContext;
+		private volatile ScheduledFuture<?> expiration;
+		
+		public ParkedPoll(AsyncContext asyncContext) {
+			this.asyncContext = asyncContext;
+		}
+		
+		public void setExpiration(ScheduledFuture<?> expiration) {
+			this.expiration = expiration;
+		}
+		
+		public void cancelExpiration() {
+			ScheduledFuture<?> future = expiration;
+			if(future != null) {
+				future.cancel(false);
+			}
+		}
+		
+		public void resume() {
+			cancelExpiration();
+			try {
+				asyncContext.dispatch();
+			} catch (IllegalStateException e) {
+				// the request is already completed
+				log.debug("Parked poll already completed", e);
+			}
+		}
+	}
+	
+	private class ParkedPollListener implements AsyncListener {
+		
+		private final ParkedPoll poll;
+		private final PushChannel channel;
+		
+		public ParkedPollListener(PushChannel channel, ParkedPoll poll) {
+			this.poll = poll;
+			this.channel = channel;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) throws IOException {
+			parkedPolls.remove(channel, poll);
+			poll.cancelExpiration();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) throws IOException {
+			expire(channel, poll);
+		}
+
+		@Override
+		public void onError(AsyncEvent event) throws IOException {
+			parkedPolls.remove(channel, poll);
+			poll.cancelExpiration();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) throws IOException {
+			//
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -58,6 +59,8 @@ import org.olat.core.gui.control.ChiefController;
 import org.olat.core.gui.control.DefaultController;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.gui.control.pushpoll.PushChannel;
+import org.olat.core.gui.control.pushpoll.PushPollManager;
 import org.olat.core.gui.control.pushpoll.WindowCommand;
 import org.olat.core.gui.media.DefaultMediaResource;
 import org.olat.core.gui.media.MediaResource;
@@ -87,7 +90,7 @@ import org.springframework.beans.factory.annotation.Autowired;
  * 
  * @author Felix Jost
  */
-public class AjaxController extends DefaultController {
+public class AjaxController extends DefaultController implements PushChannel {
 	private static final String VELOCITY_ROOT = Util.getPackageVelocityRoot(AjaxController.class);
 	private static final Logger log = Tracing.createLoggerFor(AjaxController.class);
 	private final VelocityContainer myContent;
@@ -109,6 +112,8 @@ public class AjaxController extends DefaultController {
 	
 	@Autowired
 	private SessionStatsManager statsManager;
+	@Autowired
+	private PushPollManager pushPollManager;
 
 	AjaxController(UserRequest ureq, final WindowBackOfficeImpl wboImpl, boolean ajaxEnabled) {
 		super(null);
@@ -126,8 +131,11 @@ public class AjaxController extends DefaultController {
 		m = new Mapper() {
 			@Override
 			public MediaResource handle(String relPath, HttpServletRequest request) {
-				pollCount++;
-				statsManager.incrementAuthenticatedPollerClick();
+				// a parked poll dispatched again by the push manager was already counted
+				if(request.getDispatcherType() != DispatcherType.ASYNC) {
+					pollCount++;
+					statsManager.incrementAuthenticatedPollerClick();
+				}
 
 				String uriPrefix = DispatcherModule.getLegacyUriPrefix(request);
 				UserRequest uureq = new UserRequestImpl(uriPrefix, request, null);
@@ -158,6 +166,11 @@ public class AjaxController extends DefaultController {
 							}
 						}
 						resource = extractMediaResource(false);
+					} else if(hasWindowCommands()) {
+						resource = extractMediaResource(false);
+					} else if(pushPollManager.park(request, AjaxController.this)) {
+						// wait until something changed
+						resource = null;
 					} else {
 						resource = new NothingChangedMediaResource();
 					}
@@ -175,6 +188,7 @@ public class AjaxController extends DefaultController {
 
 		mKey = CoreSpringFactory.getImpl(MapperService.class).register(ureq.getUserSession(), m);
 		myContent.contextPut("mapuri", mKey.getUrl());
+		myContent.contextPut("pushEnabled", Boolean.valueOf(pushPollManager.isEnabled()));
 		
 		final String csrfToken = ureq.getUserSession().getCsrfToken();
 		myContent.contextPut("csrfToken", csrfToken);
@@ -410,6 +424,7 @@ public class AjaxController extends DefaultController {
 		mappers.add(mKey);
 		mappers.add(sbmKey);
 		CoreSpringFactory.getImpl(MapperService.class).cleanUp(mappers);
+		pushPollManager.release(this);
 		if (ajaxEnabled && pollCount == 0) {
 			//the controller should be older than 40s otherwise poll may not started yet
 			if ((System.currentTimeMillis() - creationTime) > 40000) log.warn("Client did not send a single polling request though ajax is enabled!");
@@ -423,6 +438,25 @@ public class AjaxController extends DefaultController {
 		synchronized (windowcommands) { //o_clusterOK by:fj
 			windowcommands.add(wco);
 		}
+		pushPollManager.signal(this);
+	}
+	
+	/**
+	 * A component of the window was set dirty, resume the parked poll.
+	 */
+	void signalDirty() {
+		pushPollManager.signal(this);
+	}
+	
+	private boolean hasWindowCommands() {
+		synchronized (windowcommands) { //o_clusterOK by:fj
+			return !windowcommands.isEmpty();
+		}
+	}
+
+	@Override
+	public boolean hasUpdates() {
+		return hasWindowCommands() || wboImpl.getWindow().isDirtySignaled();
 	}
 
 	/**
@@ -178,6 +178,13 @@ public class WindowBackOfficeImpl implements WindowBackOffice {
 		if (ajaxC != null) ajaxC.sendCommandTo(new WindowCommand(this,wco));
 	}
 	
+	/**
+	 * Called by the window when one of its components is set dirty.
+	 */
+	public void signalDirty() {
+		if (ajaxC != null) ajaxC.signalDirty();
+	}
+	
 	public void pushCommands(UserRequest ureq, HttpServletRequest request, HttpServletResponse response) {
 		try {
 			boolean acceptJson = ServletUtil.acceptJson(request);
@@ -51,6 +51,11 @@ public class CleanupAfterDeliveryFileMediaResource extends FileMediaResource {
 		return false;
 	}
 
+	@Override
+	public boolean isFileKeptAfterRelease() {
+		return false;
+	}
+
 	/**
 	 * @see org.olat.core.gui.media.MediaResource#release()
 	 */
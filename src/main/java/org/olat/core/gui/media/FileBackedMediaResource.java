@@ -0,0 +1,49 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.File;
+
+/**
+ * A media resource which content is a file of the file system. The file
+ * is delivered directly from the file channel, or by the servlet container
+ * with sendfile, and not through the input stream.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public interface FileBackedMediaResource extends MediaResource {
+	
+	/**
+	 * @return The file with the content of the resource or null if the
+	 * 		content is not in a file
+	 */
+	public File getFile();
+	
+	/**
+	 * The servlet container sends the file after the request is processed
+	 * and the resource released.
+	 * 
+	 * @return true if the file is still there after the release of the resource
+	 */
+	public boolean isFileKeptAfterRelease();
+
+}
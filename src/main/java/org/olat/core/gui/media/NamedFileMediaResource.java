@@ -89,6 +89,11 @@ public class NamedFileMediaResource extends FileMediaResource {
 	}
 
 
+	@Override
+	public boolean isFileKeptAfterRelease() {
+		return !deleteAfterDelivery;
+	}
+
 	/**
 	 * @see org.olat.core.gui.media.MediaResource#release()
 	 */
@@ -28,6 +28,8 @@ package org.olat.core.gui.media;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,6 +37,11 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -68,6 +75,18 @@ public class ServletUtil {
 	public static final long CACHE_ONE_HOUR = 60l * 60l;
 	public static final long CACHE_ONE_DAY = 24l * 60l * 60l;
 	
+	private static final String MIME_SEPARATION = "OPENOLAT_MIME_BOUNDARY";
+	private static final byte[] CRLF = new byte[] { '\r', '\n' };
+	private static final int MAX_RANGES = 32;
+	
+	// sendfile of Tomcat, the file is send by the connector after the request
+	private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+	// same limit as the default servlet of Tomcat, small files are faster with a copy
+	private static final long SENDFILE_MIN_SIZE = 48l * 1024l;
+	
 	
 	public static final void printOutRequestParameters(HttpServletRequest request) {
 		for(Enumeration<String> names=request.getParameterNames(); names.hasMoreElements(); ) {
@@ -107,7 +126,21 @@ public class ServletUtil {
 		boolean debug = log.isDebugEnabled();
 		try {
 			Long lastModified = mr.getLastModified();
-			if (lastModified != null) {
+			String eTag = getETag(mr);
+			if (eTag != null) {
+				httpResp.setHeader("ETag", eTag);
+			}
+			String ifNoneMatch = httpReq.getHeader("If-None-Match");
+			if (ifNoneMatch != null && eTag != null) {
+				// If-None-Match has precedence over If-Modified-Since
+				if (matchETag(ifNoneMatch, eTag, false)) {
+					httpResp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+					return;
+				}
+				if (lastModified != null) {
+					httpResp.setDateHeader("Last-Modified", lastModified.longValue());
+				}
+			} else if (lastModified != null) {
 				// give browser a chance to cache images
 				long ifModifiedSince = httpReq.getDateHeader("If-Modified-Since");
 				long lastMod = lastModified.longValue();
@@ -126,7 +159,7 @@ public class ServletUtil {
 				if (mime != null) {
 					httpResp.setContentType(mime);
 				}
-				serveFullResource(httpReq, httpResp, mr);
+				serveFullResource(httpReq, httpResp, mr, eTag);
 			}
 			
 			// else there is no stream, but probably just headers
@@ -161,7 +194,61 @@ public class ServletUtil {
 		return false;
 	}
 	
-	private static void serveFullResource(HttpServletRequest httpReq, HttpServletResponse httpResp,  MediaResource mr) {
+	/**
+	 * The ETag of the resource. Strong for a file, weak if it's only based
+	 * on the size and the last modification date of a stream.
+	 * 
+	 * @param mr The media resource
+	 * @return The ETag or null if the resource cannot be identified
+	 */
+	public static String getETag(MediaResource mr) {
+		if(mr instanceof FileBackedMediaResource) {
+			File file = ((FileBackedMediaResource)mr).getFile();
+			if(file != null) {
+				long lastModified = file.lastModified();
+				if(lastModified > 0l) {
+					return "\"" + Long.toHexString(file.length()) + "-" + Long.toHexString(lastModified) + "\"";
+				}
+				return null;
+			}
+		}
+		
+		Long size = mr.getSize();
+		Long lastModified = mr.getLastModified();
+		if(size != null && lastModified != null && lastModified.longValue() > 0l) {
+			return "W/\"" + Long.toHexString(size.longValue()) + "-" + Long.toHexString(lastModified.longValue()) + "\"";
+		}
+		return null;
+	}
+	
+	/**
+	 * Compare the ETag with the value of a If-None-Match or If-Range header.
+	 * 
+	 * @param headerValue The header value, a list of ETags or *
+	 * @param eTag The ETag of the resource
+	 * @param strong true for the strong comparison, false for the weak one
+	 * @return true if the ETag matches
+	 */
+	public static boolean matchETag(String headerValue, String eTag, boolean strong) {
+		if(headerValue == null || eTag == null) return false;
+		if("*".equals(headerValue.trim())) return true;
+		if(strong && eTag.startsWith("W/")) return false;
+		
+		String opaqueETag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+		for(StringTokenizer tokenizer = new StringTokenizer(headerValue, ","); tokenizer.hasMoreTokens(); ) {
+			String candidate = tokenizer.nextToken().trim();
+			if(candidate.startsWith("W/")) {
+				if(strong) continue;
+				candidate = candidate.substring(2);
+			}
+			if(candidate.equals(opaqueETag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void serveFullResource(HttpServletRequest httpReq, HttpServletResponse httpResp, MediaResource mr, String eTag) {
 		boolean debug = log.isDebugEnabled();
 		
 		InputStream in = null;
@@ -175,14 +262,32 @@ public class ServletUtil {
 			Long size = mr.getSize();
 			Long lastModified = mr.getLastModified();
 			// accept range to deliver videos for iPad (implementation based on Tomcat)
-			List<Range> ranges = parseRange(httpReq, httpResp, (lastModified == null ? -1 : lastModified.longValue()), (size == null ? 0 : size.longValue()));
-			if(ranges != null && mr.acceptRanges()) {
-				httpResp.setHeader("Accept-Ranges", "bytes");
+			List<Range> ranges = null;
+			if(mr.acceptRanges()) {
+				ranges = parseRange(httpReq, httpResp, (lastModified == null ? -1 : lastModified.longValue()), (size == null ? 0 : size.longValue()), eTag);
+				if(httpResp.isCommitted()) {
+					// range not satisfiable
+					return;
+				}
+				if(ranges != null) {
+					httpResp.setHeader("Accept-Ranges", "bytes");
+				}
 			}
 			
 			// maybe some more preparations
 			mr.prepare(httpResp);
 			
+			File file = getFile(mr, size);
+			if(file != null) {
+				long rstart = debug ? System.currentTimeMillis() : 0;
+				serveFile(httpReq, httpResp, (FileBackedMediaResource)mr, file, ranges);
+				if (debug) {
+					long rstop = System.currentTimeMillis();
+					log.debug("time to serve file (mr="+mr.getClass().getName()+") "+ size + " bytes: " + (rstop - rstart));
+				}
+				return;
+			}
+			
 			in = mr.getInputStream();
 
 			// serve the Resource
@@ -238,6 +343,126 @@ public class ServletUtil {
 		}
 	}
 	
+	/**
+	 * @return The file of the resource if it can be delivered from the file system
+	 */
+	private static File getFile(MediaResource mr, Long size) {
+		if(mr instanceof FileBackedMediaResource && size != null && !Settings.isDebuging()) {
+			File file = ((FileBackedMediaResource)mr).getFile();
+			// the size is used for the ranges and must be the one of the file
+			if(file != null && file.isFile() && file.length() == size.longValue()) {
+				return file;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Deliver the file with sendfile if the servlet container support it, or
+	 * transfer it from its file channel to the response. Multiple ranges are
+	 * delivered as multipart/byteranges.
+	 */
+	private static void serveFile(HttpServletRequest httpReq, HttpServletResponse httpResp, FileBackedMediaResource mr,
+			File file, List<Range> ranges) throws IOException {
+		if(ranges == null || ranges.isEmpty() || ranges.size() > MAX_RANGES) {
+			long length = file.length();
+			httpResp.setContentLengthLong(length);
+			if(!sendfile(httpReq, mr, file, 0, length)) {
+				transferTo(file, 0, length, httpResp.getOutputStream());
+			}
+		} else if(ranges.size() == 1) {
+			Range range = ranges.get(0);
+			long length = range.end - range.start + 1;
+			httpResp.addHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.length);
+			httpResp.setContentLengthLong(length);
+			httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			if(!sendfile(httpReq, mr, file, range.start, range.end + 1)) {
+				transferRanges(file, ranges, null, httpResp.getOutputStream());
+			}
+		} else {
+			String contentType = httpResp.getContentType();
+			httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			httpResp.setContentType("multipart/byteranges; boundary=" + MIME_SEPARATION);
+			
+			long length = 0;
+			for(Range range:ranges) {
+				length += getPartHeader(range, contentType).length + (range.end - range.start + 1) + 2;
+			}
+			length += getPartsEnd().length;
+			httpResp.setContentLengthLong(length);
+			transferRanges(file, ranges, contentType, httpResp.getOutputStream());
+		}
+	}
+	
+	private static boolean sendfile(HttpServletRequest httpReq, FileBackedMediaResource mr, File file, long start, long end) {
+		if(end - start >= SENDFILE_MIN_SIZE && mr.isFileKeptAfterRelease()
+				&& Boolean.TRUE.equals(httpReq.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+			httpReq.setAttribute(SENDFILE_FILENAME_ATTR, file.getAbsolutePath());
+			httpReq.setAttribute(SENDFILE_START_ATTR, Long.valueOf(start));
+			// end is exclusive
+			httpReq.setAttribute(SENDFILE_END_ATTR, Long.valueOf(end));
+			return true;
+		}
+		return false;
+	}
+	
+	private static void transferRanges(File file, List<Range> ranges, String contentType, OutputStream out) throws IOException {
+		SessionStatsManager stats = CoreSpringFactory.getImpl(SessionStatsManager.class);
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			stats.incrementConcurrentStreamCounter();
+			boolean multipart = ranges.size() > 1;
+			WritableByteChannel target = Channels.newChannel(out);
+			for(Range range:ranges) {
+				if(multipart) {
+					out.write(getPartHeader(range, contentType));
+				}
+				transferTo(channel, range.start, range.end - range.start + 1, target);
+				if(multipart) {
+					out.write(CRLF);
+				}
+			}
+			if(multipart) {
+				out.write(getPartsEnd());
+			}
+		} finally {
+			stats.decrementConcurrentStreamCounter();
+		}
+	}
+	
+	private static byte[] getPartHeader(Range range, String contentType) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("--").append(MIME_SEPARATION).append("\r\n");
+		if(contentType != null) {
+			sb.append("Content-Type: ").append(contentType).append("\r\n");
+		}
+		sb.append("Content-Range: bytes ").append(range.start).append("-").append(range.end).append("/").append(range.length).append("\r\n")
+		  .append("\r\n");
+		return sb.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+	
+	private static byte[] getPartsEnd() {
+		return ("--" + MIME_SEPARATION + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+	}
+	
+	private static void transferTo(File file, long start, long count, OutputStream out) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			transferTo(channel, start, count, Channels.newChannel(out));
+		}
+	}
+	
+	private static void transferTo(FileChannel channel, long start, long count, WritableByteChannel target) throws IOException {
+		long position = start;
+		long end = start + count;
+		while(position < end) {
+			long transferred = channel.transferTo(position, end - position, target);
+			if(transferred <= 0) {
+				// the file is shorter than expected
+				throw new EOFException("Unexpected end of file at: " + position);
+			}
+			position += transferred;
+		}
+	}
+	
 	public static final void handleIOException(String msg, Exception e) {
 		try {
 			String className = e.getClass().getSimpleName();
@@ -259,7 +484,6 @@ public class ServletUtil {
 		try(InputStream istream = (resourceInputStream instanceof BufferedInputStream)
 				? resourceInputStream : new BufferedInputStream(resourceInputStream, bufferSize)) {
 			stats.incrementConcurrentStreamCounter();
-			Thread.sleep(5000);
 			exception = copyRange(istream, ostream, range.start, range.end, bufferSize);
 		} catch(IOException e) {
 			handleIOException("Deliver range of data", e);
@@ -305,12 +529,17 @@ public class ServletUtil {
 		return exception;
 	}
 
-	protected static List<Range> parseRange(HttpServletRequest request, HttpServletResponse response, long lastModified, long fileLength)
+	protected static List<Range> parseRange(HttpServletRequest request, HttpServletResponse response, long lastModified, long fileLength, String eTag)
 			throws IOException {
 		
 		String headerValue = request.getHeader("If-Range");
 
-    if (headerValue != null) {
+    if (headerValue != null && (headerValue.startsWith("\"") || headerValue.startsWith("W/"))) {
+        // the ranges are only valid for the same content
+        if (!matchETag(headerValue, eTag, true)) {
+            return Collections.emptyList();
+        }
+    } else if (headerValue != null) {
         long headerValueTime = (-1L);
         try {
           headerValueTime = request.getDateHeader("If-Range");
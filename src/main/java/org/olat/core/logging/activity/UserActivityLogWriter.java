@@ -0,0 +1,309 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+
+/**
+ * Write the user activity logs asynchronously. The logs are queued in a
+ * bounded queue and a single background thread writes them in batches of
+ * JDBC inserts, every batch size rows or every flush interval. If the queue
+ * is full, the request waits at most the offer timeout, then the log is
+ * dropped and counted. The remaining logs are written at shutdown.<br>
+ * If the asynchronous mode is disabled, the logs are saved in the
+ * transaction of the request as before.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class UserActivityLogWriter implements Runnable {
+
+	private static final Logger log = Tracing.createLoggerFor(UserActivityLogWriter.class);
+
+	private DB dbInstance;
+	private boolean asynchronous = true;
+	private int queueSize = 10000;
+	private int batchSize = 100;
+	private long flushInterval = 1000;
+	private long offerTimeout = 50;
+
+	private BlockingQueue<LoggingObject> queue;
+	private Thread writerThread;
+	private volatile boolean running;
+
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong writtenCount = new AtomicLong();
+	private volatile long lastFlushDuration;
+	private volatile long maxFlushDuration;
+
+	/**
+	 * [used by Spring]
+	 * @param dbInstance
+	 */
+	public void setDbInstance(DB dbInstance) {
+		this.dbInstance = dbInstance;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param asynchronous
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param queueSize Max. number of logs waiting to be written
+	 */
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param batchSize Number of logs written in one batch
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param flushInterval Max. time in milliseconds a log waits in the queue
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param offerTimeout Time in milliseconds a request waits if the queue is full
+	 */
+	public void setOfferTimeout(long offerTimeout) {
+		this.offerTimeout = offerTimeout;
+	}
+
+	/**
+	 * [used by Spring]
+	 */
+	public synchronized void init() {
+		if(asynchronous && writerThread == null) {
+			queue = new ArrayBlockingQueue<>(queueSize);
+			running = true;
+			writerThread = new Thread(this, "user-activity-log-writer");
+			writerThread.setDaemon(true);
+			writerThread.start();
+			log.info("Asynchronous user activity log writer started (queue: {}, batch: {}, interval: {}ms)", queueSize, batchSize, flushInterval);
+		}
+	}
+
+	/**
+	 * [used by Spring]
+	 */
+	public void shutdown() {
+		Thread thread;
+		synchronized(this) {
+			running = false;
+			thread = writerThread;
+			writerThread = null;
+		}
+		if(thread != null) {
+			try {
+				thread.join(flushInterval + 10000l);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+		if(droppedCount.get() > 0) {
+			log.warn("User activity logs dropped since startup: {}", droppedCount.get());
+		}
+	}
+
+	/**
+	 * Queue the log or save it in the current transaction if the
+	 * asynchronous mode is off.
+	 *
+	 * @param logObj The log
+	 */
+	public void log(LoggingObject logObj) {
+		if(!running) {
+			dbInstance.saveObject(logObj);
+			return;
+		}
+
+		if(logObj.getCreationDate() == null) {
+			logObj.setCreationDate(new Date());
+		}
+		try {
+			if(!queue.offer(logObj, offerTimeout, TimeUnit.MILLISECONDS)) {
+				drop(1);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			drop(1);
+		}
+	}
+
+	private void drop(int numOfLogs) {
+		long dropped = droppedCount.addAndGet(numOfLogs);
+		// don't flood the log
+		if(dropped - numOfLogs == 0 || (dropped / 1000) != ((dropped - numOfLogs) / 1000)) {
+			log.warn("User activity log queue is full, {} logs dropped", dropped);
+		}
+	}
+
+	@Override
+	public void run() {
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		while(running) {
+			try {
+				LoggingObject first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+
+				batch.add(first);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+				while(batch.size() < batchSize) {
+					queue.drainTo(batch, batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if(batch.size() >= batchSize || remaining <= 0) {
+						break;
+					}
+					LoggingObject next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if(next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Exception e) {
+				log.error("", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return The max. time in milliseconds between the creation date of a log
+	 * 		and its write in the database, without the time of the write itself
+	 */
+	public long getMaxWriteDelay() {
+		return running ? offerTimeout + flushInterval : 0l;
+	}
+
+	/**
+	 * Write all the logs currently in the queue.
+	 */
+	public void flush() {
+		if(queue == null) return;
+
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		while(queue.drainTo(batch, batchSize) > 0) {
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	private void write(List<LoggingObject> batch) {
+		if(batch.isEmpty()) return;
+
+		long start = System.nanoTime();
+		try {
+			EntityManager em = dbInstance.getCurrentEntityManager();
+			em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+			for(LoggingObject logObj:batch) {
+				em.persist(logObj);
+			}
+			dbInstance.commitAndCloseSession();
+			writtenCount.addAndGet(batch.size());
+		} catch (Exception e) {
+			log.error("Cannot write {} user activity logs", batch.size(), e);
+			dbInstance.rollbackAndCloseSession();
+			drop(batch.size());
+		}
+
+		long duration = CodeHelper.nanoToMilliTime(start);
+		lastFlushDuration = duration;
+		if(duration > maxFlushDuration) {
+			maxFlushDuration = duration;
+		}
+	}
+
+	public boolean isAsynchronous() {
+		return running;
+	}
+
+	/**
+	 * @return The number of logs waiting to be written
+	 */
+	public int getQueueDepth() {
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * @return The number of logs dropped since startup
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * @return The number of logs written asynchronously since startup
+	 */
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	/**
+	 * @return The duration in milliseconds of the last batch
+	 */
+	public long getLastFlushDuration() {
+		return lastFlushDuration;
+	}
+
+	/**
+	 * @return The max. duration in milliseconds of a batch since startup
+	 */
+	public long getMaxFlushDuration() {
+		return maxFlushDuration;
+	}
+}
@@ -24,11 +24,10 @@
 */
 package org.olat.core.util.event;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.lang.ref.WeakReference;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.control.Controller;
@@ -45,68 +44,62 @@ import org.olat.core.util.event.businfo.BusListenerInfo;
  */
 public abstract class AbstractEventBus implements EventBus {
 
-	private final Map<String, EventAgency> infocenter;
-	private final Map<String, EventAgency> typeInfocenter;
+	private final ConcurrentMap<String, EventAgency> infocenter;
+	private final ConcurrentMap<String, EventAgency> typeInfocenter;
 	private final Logger log = Tracing.createLoggerFor(this.getClass());
 
 	public AbstractEventBus() {
-		infocenter = new HashMap<>();
-		typeInfocenter = new HashMap<>();
+		infocenter = new ConcurrentHashMap<>();
+		typeInfocenter = new ConcurrentHashMap<>();
 	}
 
 	@Override
 	public void registerFor(GenericEventListener gel, Identity identity, OLATResourceable ores) {
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) {
-			EventAgency ea = null;
-			if (oresId == null) {
-				// return the eventagency which listens to all events with the type of
-				// the ores
-				ea = typeInfocenter.get(typeName);
-				if (ea == null) { // we are the first listener -> create an agency
-					ea = new EventAgency();
-					typeInfocenter.put(typeName, ea);
-				}
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				ea = infocenter.get(oresStr);
-				if (ea == null) { // we are the first listener
-					ea = new EventAgency();
-					infocenter.put(oresStr, ea);
-				}
-			}
-			ea.addListener(gel, identity);
+		if (oresId == null) {
+			// the event agency which listens to all events with the type of the ores
+			typeInfocenter.compute(typeName, (key, ea) -> addListener(ea, gel));
+		} else {
+			// type and id
+			String oresStr = typeName + "::" + oresId;
+			infocenter.compute(oresStr, (key, ea) -> addListener(ea, gel));
+		}
+	}
+	
+	private static EventAgency addListener(EventAgency ea, GenericEventListener gel) {
+		if (ea == null) { // we are the first listener -> create an agency
+			ea = new EventAgency();
 		}
+		ea.addListener(gel);
+		return ea;
 	}
 
 	@Override
 	public void deregisterFor(GenericEventListener gel, OLATResourceable ores) {
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) {
-			if (oresId == null) {
-				EventAgency ea = typeInfocenter.get(typeName);
-				if (ea != null) {
-					ea.removeListener(gel);
-					if(ea.getListenerCount() == 0) {
-						typeInfocenter.remove(typeName);
-					}
-				}
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				EventAgency ea = infocenter.get(oresStr);
-				if (ea != null) {
-					ea.removeListener(gel);
-					if(ea.getListenerCount() == 0) {
-						infocenter.remove(typeName);
-					}
-				}
-			}
+		if (oresId == null) {
+			typeInfocenter.computeIfPresent(typeName, (key, ea) -> removeListener(ea, gel));
+		} else {
+			// type and id
+			String oresStr = typeName + "::" + oresId;
+			infocenter.computeIfPresent(oresStr, (key, ea) -> removeListener(ea, gel));
 		}
 	}
+	
+	/**
+	 * @return The agency or null if it has no listener anymore, which
+	 * 		removes it from the map.
+	 */
+	private static EventAgency removeListener(EventAgency ea, GenericEventListener gel) {
+		ea.removeListener(gel);
+		return ea.getListenerCount() == 0 ? null : ea;
+	}
+	
+	private static EventAgency removeIfEmpty(EventAgency ea) {
+		return ea.getListenerCount() == 0 ? null : ea;
+	}
 
 	public abstract int getListeningIdentityCntFor(OLATResourceable ores);
 	
@@ -122,21 +115,20 @@ public abstract class AbstractEventBus implements EventBus {
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
 
+		// the agencies publish immutable snapshots of their listeners, no lock needed
 		GenericEventListener[] listenersArr = null;
-		GenericEventListener[] listenersTypeArr = null;
-		synchronized (infocenter) {  
-			if (oresId != null) {
-				String oresStr = typeName + "::" + oresId;
-				EventAgency ea = infocenter.get(oresStr);
-				if (ea != null) {
-					listenersArr = ea.getListeners();
-				}
-			}
-			EventAgency ea = typeInfocenter.get(typeName);
+		if (oresId != null) {
+			String oresStr = typeName + "::" + oresId;
+			EventAgency ea = infocenter.get(oresStr);
 			if (ea != null) {
-				listenersTypeArr = ea.getListeners();
+				listenersArr = ea.getListeners();
 			}
 		}
+		GenericEventListener[] listenersTypeArr = null;
+		EventAgency typeEa = typeInfocenter.get(typeName);
+		if (typeEa != null) {
+			listenersTypeArr = typeEa.getListeners();
+		}
 
 		doFire(event, listenersArr);
 		doFire(event, listenersTypeArr);
@@ -180,97 +172,118 @@ public abstract class AbstractEventBus implements EventBus {
 	
 	protected final BusListenerInfo createBusListenerInfo() {
 		BusListenerInfo bii = new BusListenerInfo();
-		synchronized(infocenter) { // o_clusterOK by:fj: extract quickly so that we can later serialize and send across the wire. data affects only one vm.
-			// for all types: the name of the type + "::"+ the id (integer) is used as key
-			List<String> infocenterKeys = new ArrayList<>(infocenter.keySet());
-			for (String derivedOres: infocenterKeys) {
-				EventAgency ea = infocenter.get(derivedOres);
-				int cnt = ea.getListenerCount();
-				// only add those with at least one current listener. Telling that a resource has no listeners is unneeded since we update 
-				// the whole table on each clusterInfoEvent (cluster:: could be improved by only sending the delta of listeners)
-				if (cnt > 0) {
-					bii.addEntry(derivedOres, cnt);
-				} else {
-					infocenter.remove(derivedOres);
-				}
-			}
-			infocenterKeys = null;
-			
-			// for all types: the name of the type is used as key
-			List<String> typeInfocenterKeys = new ArrayList<>(typeInfocenter.keySet());
-			for (String derivedOres: typeInfocenterKeys) {
-				EventAgency ea = typeInfocenter.get(derivedOres);
-				int cnt = ea.getListenerCount();
-				if (cnt > 0) {
-					bii.addEntry(derivedOres, cnt);
-				} else {
-					typeInfocenter.remove(derivedOres);
-				}
+		// o_clusterOK: the iterators of the concurrent maps are weakly consistent, the data affects only one vm.
+		// for all types: the name of the type + "::"+ the id (integer) is used as key
+		collectBusListenerInfo(infocenter, bii);
+		// for all types: the name of the type is used as key
+		collectBusListenerInfo(typeInfocenter, bii);
+		return bii;
+	}
+	
+	private void collectBusListenerInfo(ConcurrentMap<String, EventAgency> agencies, BusListenerInfo bii) {
+		for (Map.Entry<String, EventAgency> entry: agencies.entrySet()) {
+			String derivedOres = entry.getKey();
+			int cnt = entry.getValue().getListenerCount();
+			// only add those with at least one current listener. Telling that a resource has no listeners is unneeded since
+			// the cluster computes the delta of listeners against the previous snapshot
+			if (cnt > 0) {
+				bii.addEntry(derivedOres, cnt);
+			} else {
+				// remove the agency only if nobody registered in the meantime
+				agencies.computeIfPresent(derivedOres, (key, ea) -> removeIfEmpty(ea));
 			}
 		}
-		return bii;
 	}
 	
 	protected final int getLocalListeningIdentityCntFor(OLATResourceable ores) {
-		int cnt = 0;
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) { 
-			EventAgency ea = null;
-			if (oresId == null) {
-				ea = typeInfocenter.get(typeName);	
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				ea = infocenter.get(oresStr);
-			}
-			if (ea != null) {
-				cnt = ea.getListenerCount();
-			}
+		EventAgency ea;
+		if (oresId == null) {
+			ea = typeInfocenter.get(typeName);	
+		} else {
+			// type and id
+			String oresStr = typeName + "::" + oresId;
+			ea = infocenter.get(oresStr);
 		}
-		return cnt;
+		return ea == null ? 0 : ea.getListenerCount();
 	}
 	
 	/**
 	 * Description: <br>
-	 * The listeners map is not synchronized, but need to be. The synchronization
-	 * is done by the infocenter map. Make sure that you always access instances of
-	 * this class in a synchronized(infocenter).
+	 * A copy-on-write list of weak references to the listeners of a channel. The
+	 * mutations are done within the compute methods of the concurrent map which
+	 * holds the agency, the readers use the current immutable snapshot without
+	 * any lock. Cleared references are purged on every mutation.
 	 * 
 	 * @author Felix Jost
 	 * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
 	 */
 	private static class EventAgency {
-		private WeakHashMap<GenericEventListener, Long> listeners = new WeakHashMap<>();
+		
+		private static final WeakReference<GenericEventListener>[] EMPTY = newArray(0);
+		
+		private volatile WeakReference<GenericEventListener>[] listeners = EMPTY;
 		
 		/**
-		 * @param event
+		 * @return A snapshot of the listeners still referenced
 		 */
 		GenericEventListener[] getListeners() {
-			return listeners.keySet().toArray(new GenericEventListener[listeners.size()]);
+			final WeakReference<GenericEventListener>[] refs = listeners;
+			GenericEventListener[] liArr = new GenericEventListener[refs.length];
+			int count = 0;
+			for (WeakReference<GenericEventListener> ref:refs) {
+				GenericEventListener gel = ref.get();
+				if (gel != null) {
+					liArr[count++] = gel;
+				}
+			}
+			if (count < liArr.length) {
+				GenericEventListener[] compactArr = new GenericEventListener[count];
+				System.arraycopy(liArr, 0, compactArr, 0, count);
+				liArr = compactArr;
+			}
+			return liArr;
 		}
 
 		/**
-		 * impl note: the underlying impl takes a weakHashMap, so unused entries are
-		 * cleared. an instance may not be added twice (make no sense anyway), since we
-		 * are using a map, not a list.
+		 * impl note: the listeners are weakly referenced, so unused entries are
+		 * cleared. an instance may not be added twice (make no sense anyway).
 		 * 
 		 * @param gel the instance which wants to listen to events.
-		 * @param identity the identity belonging to the listener, or null if there is
-		 *          none (e.g. the LockManager = the 'System')
 		 */
-		void addListener(GenericEventListener gel, Identity identity) {
-			if (!listeners.containsKey(gel)) {
-				Long identityKey = (identity != null? identity.getKey() : null);
-				listeners.put(gel, identityKey);
+		synchronized void addListener(GenericEventListener gel) {
+			final WeakReference<GenericEventListener>[] refs = listeners;
+			WeakReference<GenericEventListener>[] newRefs = newArray(refs.length + 1);
+			int count = 0;
+			for (WeakReference<GenericEventListener> ref:refs) {
+				GenericEventListener listener = ref.get();
+				if (listener == null) {
+					continue;
+				}
+				if (listener == gel || listener.equals(gel)) {
+					return;
+				}
+				newRefs[count++] = ref;
 			}
+			newRefs[count++] = new WeakReference<>(gel);
+			listeners = trim(newRefs, count);
 		}
 
 		/**
 		 * @param gel
 		 */
-		void removeListener(GenericEventListener gel) {
-			listeners.remove(gel);
+		synchronized void removeListener(GenericEventListener gel) {
+			final WeakReference<GenericEventListener>[] refs = listeners;
+			WeakReference<GenericEventListener>[] newRefs = newArray(refs.length);
+			int count = 0;
+			for (WeakReference<GenericEventListener> ref:refs) {
+				GenericEventListener listener = ref.get();
+				if (listener != null && listener != gel && !listener.equals(gel)) {
+					newRefs[count++] = ref;
+				}
+			}
+			listeners = trim(newRefs, count);
 		}
 		
 		/**
@@ -278,7 +291,30 @@ public abstract class AbstractEventBus implements EventBus {
 		 * @return the current number of listeners listening to this channel/eventagency 
 		 */
 		int getListenerCount() {
-			return listeners.size();	
+			int count = 0;
+			for (WeakReference<GenericEventListener> ref:listeners) {
+				if (ref.get() != null) {
+					count++;
+				}
+			}
+			return count;	
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static WeakReference<GenericEventListener>[] newArray(int length) {
+			return new WeakReference[length];
+		}
+		
+		private static WeakReference<GenericEventListener>[] trim(WeakReference<GenericEventListener>[] refs, int count) {
+			if (count == 0) {
+				return EMPTY;
+			}
+			if (count == refs.length) {
+				return refs;
+			}
+			WeakReference<GenericEventListener>[] trimmedRefs = newArray(count);
+			System.arraycopy(refs, 0, trimmedRefs, 0, count);
+			return trimmedRefs;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -80,6 +80,24 @@ public class MultiUserEvent extends Event {
 		return vm_marker == WebappHelper.getNodeId();
 	}
 	
+	/**
+	 * @return The id of the node where the event was created
+	 */
+	public int getNodeMarker() {
+		return vm_marker;
+	}
+	
+	/**
+	 * Restore the id of the node where the event was created. Only
+	 * used by the cluster event bus which decodes events from its
+	 * compact wire format.
+	 * 
+	 * @param nodeMarker The id of the node
+	 */
+	public void setNodeMarker(int nodeMarker) {
+		vm_marker = nodeMarker;
+	}
+	
 	@Override
 	public int hashCode() { 
 		int hc = 3;
@@ -37,6 +37,9 @@ import org.olat.core.util.resource.OresHelper;
 /**
  * Description:<br>
  * a class which contains infos (one instance per cluster node) about the listener count for all olat resources currently being used.
+ * The info is either a full snapshot of all the channels or a delta to the previous info sent by
+ * the node (a count of 0 means that the channel has no listener anymore).
+ * The sequence number allows the receivers to detect missing deltas.
  * 
  * <P>
  * Initial Date:  05.11.2007 <br>
@@ -45,10 +48,41 @@ import org.olat.core.util.resource.OresHelper;
 public class BusListenerInfo implements Serializable {
 	private static final long serialVersionUID = 5144991028203688442L;
 	private Map<String, Integer> listenersCnt = new HashMap<>();
+	// false for infos sent by older versions which only send full snapshots
+	private boolean delta;
+	private long sequence;
 	
 	public BusListenerInfo() {
 		//
 	}
+	
+	/**
+	 * Copy constructor
+	 * 
+	 * @param info The info to copy
+	 */
+	public BusListenerInfo(BusListenerInfo info) {
+		synchronized(info.listenersCnt) {//cluster_ok
+			listenersCnt.putAll(info.listenersCnt);
+		}
+		delta = info.delta;
+		sequence = info.sequence;
+	}
+
+	/**
+	 * @return true if the info only contains the changes since the previous info
+	 */
+	public boolean isDelta() {
+		return delta;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
 
 	/**
 	 * @param ores the channel
@@ -69,7 +103,7 @@ public class BusListenerInfo implements Serializable {
 	
 	public void addEntry(String derivedString, int cnt) {
 		synchronized(listenersCnt) {//cluster_ok
-			listenersCnt.put(derivedString, new Integer(cnt));
+			listenersCnt.put(derivedString, Integer.valueOf(cnt));
 		}
 	}
 	
@@ -79,4 +113,64 @@ public class BusListenerInfo implements Serializable {
 			return new HashSet<>(listenersCnt.keySet());
 		}
 	}
+	
+	/**
+	 * @return The number of channels in this info
+	 */
+	public int size() {
+		synchronized (listenersCnt) {//cluster_ok
+			return listenersCnt.size();
+		}
+	}
+	
+	/**
+	 * Create a delta with the added, changed and removed channels between
+	 * the previous full snapshot and this one.
+	 * 
+	 * @param previous The previous full snapshot
+	 * @return A delta info
+	 */
+	public BusListenerInfo createDelta(BusListenerInfo previous) {
+		BusListenerInfo deltaInfo = new BusListenerInfo();
+		deltaInfo.delta = true;
+		Map<String, Integer> previousCnt;
+		synchronized(previous.listenersCnt) {//cluster_ok
+			previousCnt = new HashMap<>(previous.listenersCnt);
+		}
+		synchronized(listenersCnt) {//cluster_ok
+			for(Map.Entry<String, Integer> entry:listenersCnt.entrySet()) {
+				Integer previousCount = previousCnt.remove(entry.getKey());
+				if(!entry.getValue().equals(previousCount)) {
+					deltaInfo.listenersCnt.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		// the remaining channels have no listener anymore
+		for(String removed:previousCnt.keySet()) {
+			deltaInfo.listenersCnt.put(removed, Integer.valueOf(0));
+		}
+		return deltaInfo;
+	}
+	
+	/**
+	 * Apply a delta to this info.
+	 * 
+	 * @param deltaInfo The delta
+	 */
+	void applyDelta(BusListenerInfo deltaInfo) {
+		Map<String, Integer> changes;
+		synchronized(deltaInfo.listenersCnt) {//cluster_ok
+			changes = new HashMap<>(deltaInfo.listenersCnt);
+		}
+		synchronized(listenersCnt) {//cluster_ok
+			for(Map.Entry<String, Integer> change:changes.entrySet()) {
+				if(change.getValue().intValue() > 0) {
+					listenersCnt.put(change.getKey(), change.getValue());
+				} else {
+					listenersCnt.remove(change.getKey());
+				}
+			}
+		}
+		sequence = deltaInfo.sequence;
+	}
 }
@@ -25,6 +25,7 @@
 */ 
 package org.olat.core.util.event.businfo;
 
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -49,6 +50,8 @@ import org.olat.core.id.OLATResourceable;
 public class BusListenerInfos {
 	// key: nodeId, values: a map with keys: derivedString of a olatresourceable; values: listener count of this node
 	private Map<Integer, BusListenerInfo> nodeBusInfos = new ConcurrentHashMap<>();
+	// the nodes which sent a delta which cannot be applied, they need to send a full snapshot
+	private final Set<Integer> outOfSyncNodeIds = new HashSet<>();
 	
 	public int getListenerCountFor(OLATResourceable ores) {
 		synchronized (nodeBusInfos) {//cluster_ok
@@ -62,13 +65,42 @@ public class BusListenerInfos {
 	}
 	
 	/**
-	 * overrides/replace any previous buslistenerInfo for the given nodeId
+	 * A full info overrides/replaces any previous buslistenerInfo for the given nodeId,
+	 * a delta is applied to the previous one. If a delta is missing, the delta
+	 * is applied as well as possible and the node is flagged as out of sync
+	 * until it sends a full snapshot.
+	 * 
 	 * @param nodeId the nodeId of the cluster to which the buslistenerinfo belongs to.
 	 * @param info the buslistenerInfo
+	 * @return true if the info of the node is in sync
 	 */
-	public void updateInfoFor(Integer nodeId, BusListenerInfo info) {
+	public boolean updateInfoFor(Integer nodeId, BusListenerInfo info) {
 		synchronized (nodeBusInfos) {//cluster_ok
-			nodeBusInfos.put(nodeId, info);
+			if(info.isDelta()) {
+				BusListenerInfo currentInfo = nodeBusInfos.get(nodeId);
+				if(currentInfo == null) {
+					currentInfo = new BusListenerInfo();
+					nodeBusInfos.put(nodeId, currentInfo);
+					outOfSyncNodeIds.add(nodeId);
+				} else if(currentInfo.getSequence() + 1 != info.getSequence()) {
+					outOfSyncNodeIds.add(nodeId);
+				}
+				currentInfo.applyDelta(info);
+			} else {
+				// copy, the delta will be applied to it
+				nodeBusInfos.put(nodeId, new BusListenerInfo(info));
+				outOfSyncNodeIds.remove(nodeId);
+			}
+			return !outOfSyncNodeIds.contains(nodeId);
+		}
+	}
+	
+	/**
+	 * @return The nodes which need to send a full snapshot of their listeners
+	 */
+	public Set<Integer> getOutOfSyncNodeIds() {
+		synchronized (nodeBusInfos) {//cluster_ok
+			return new HashSet<>(outOfSyncNodeIds);
 		}
 	}
 	
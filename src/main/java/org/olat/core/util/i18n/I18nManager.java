@@ -45,6 +45,8 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -139,6 +141,9 @@ public class I18nManager {
 	private ConcurrentMap<String, Properties> cachedBundles = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, String> cachedJSTranslatorData = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, Deque<String>> referencingBundlesIndex = new ConcurrentHashMap<>();
+	// keys: bundlename ":" locale ":" overlay ":" fallback to default
+	// values: the translations resolved with all fallbacks
+	private volatile ConcurrentMap<String, I18nTable> cachedTables = new ConcurrentHashMap<>();
 	private boolean cachingEnabled = true;
 	
 	private final I18nModule i18nModule;
@@ -200,8 +205,92 @@ public class I18nManager {
 	 *         possible and not found
 	 */
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		if(cachingEnabled && locale != null && !isCurrentThreadMarkLocalizedStringsEnabled()) {
+			I18nTable table = getTable(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+			return table.getLocalizedString(key, args);
+		}
 		return getLocalizedString(bundleName, key, args, locale, overlayEnabled, fallBackToDefaultLocale, true, true, true, 0);
 	}
+	
+	/**
+	 * The table holds the translations of the bundle as returned by the
+	 * complete lookup with all the fallbacks. It's build on the first use and
+	 * dropped every time a translation is changed.
+	 * 
+	 * @param bundleName The bundle
+	 * @param locale The locale
+	 * @param overlayEnabled Lookup first in overlay
+	 * @param fallBackToDefaultLocale Fallback to the default locale
+	 * @return The table, never null
+	 */
+	I18nTable getTable(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		ConcurrentMap<String, I18nTable> tables = cachedTables;
+		String tableKey = calcPropertiesFileKey(locale, bundleName) + ":" + overlayEnabled + ":" + fallBackToDefaultLocale;
+		I18nTable table = tables.get(tableKey);
+		if(table == null) {
+			table = buildTable(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+			// if the translations changed in the meantime, the table is put in the dropped map
+			I18nTable currentTable = tables.putIfAbsent(tableKey, table);
+			if(currentTable != null) {
+				table = currentTable;
+			}
+		}
+		return table;
+	}
+	
+	private I18nTable buildTable(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		Set<Locale> lookupLocales = new LinkedHashSet<>();
+		appendLookupLocales(locale, overlayEnabled, lookupLocales);
+		appendLookupLocales(i18nModule.getDefaultLocale(), overlayEnabled, lookupLocales);
+		appendLookupLocales(i18nModule.getFallbackLocale(), overlayEnabled, lookupLocales);
+
+		// only the keys of these properties can be found by the lookup
+		Set<String> keys = new HashSet<>();
+		for(Locale lookupLocale:lookupLocales) {
+			Properties properties = getProperties(lookupLocale, bundleName, true, 0);
+			if(properties != null) {
+				keys.addAll(properties.stringPropertyNames());
+			}
+		}
+		
+		Map<String,String> resolvedValues = new HashMap<>();
+		for(String key:keys) {
+			String value = getLocalizedString(bundleName, key, null, locale, overlayEnabled, fallBackToDefaultLocale, true, true, false, 0);
+			if(value != null) {
+				resolvedValues.put(key, value);
+			}
+		}
+		return new I18nTable(resolvedValues);
+	}
+	
+	private void appendLookupLocales(Locale locale, boolean overlayEnabled, Set<Locale> lookupLocales) {
+		if(locale == null) return;
+		
+		Set<Locale> locales = new LinkedHashSet<>();
+		locales.add(locale);
+		if(!locale.getVariant().equals("")) {
+			Locale countryLocale = i18nModule.getAllLocales().get(locale.getLanguage() + "_" + locale.getCountry());
+			if(countryLocale != null) {
+				locales.add(countryLocale);
+			}
+		}
+		if(!locale.getCountry().equals("")) {
+			Locale languageLocale = i18nModule.getAllLocales().get(locale.getLanguage());
+			if(languageLocale != null) {
+				locales.add(languageLocale);
+			}
+		}
+		
+		for(Locale l:locales) {
+			if(overlayEnabled) {
+				Locale overlayLocale = i18nModule.getOverlayLocales().get(l);
+				if(overlayLocale != null) {
+					lookupLocales.add(overlayLocale);
+				}
+			}
+			lookupLocales.add(l);
+		}
+	}
 
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale,
 			boolean fallBackToFallbackLocale, boolean resolveRecursively, int recursionLevel) {
@@ -713,6 +802,7 @@ public class I18nManager {
 					cachedBundles.remove(bundleName);
 				}
 			}
+			clearTables();
 		}
 
 	}
@@ -1016,10 +1106,12 @@ public class I18nManager {
 			// but remove from javascript translator cache.
 			// re-initialization will happen lazy
 			if (cachedJSTranslatorData.containsKey(key)) cachedJSTranslatorData.remove(key);
+			clearTables();
 		} else {
 			// Remove existing resolved property first from caches
 			if (cachedBundles.containsKey(key)) cachedBundles.remove(key);
 			if (cachedJSTranslatorData.containsKey(key)) cachedJSTranslatorData.remove(key);
+			clearTables();
 			// Add new version to cache
 			if (locale == null) {
 				// Add metadata file to cache
@@ -1049,6 +1141,7 @@ public class I18nManager {
 				// initialization will happen lazy
 				if (cachedJSTranslatorData.containsKey(key)) cachedJSTranslatorData.remove(key);
 			}
+			clearTables();
 		}
 		// 2) Remove from filesystem
 		File baseDir = i18nModule.getPropertyFilesBaseDir(locale, bundleName);
@@ -1579,6 +1672,15 @@ public class I18nManager {
 		cachedBundles.clear();
 		cachedJSTranslatorData.clear();
 		referencingBundlesIndex.clear();
+		clearTables();
+	}
+	
+	/**
+	 * Drop the translation tables. The map is replaced and not cleared, a
+	 * table which is build during the change cannot land in the new map.
+	 */
+	private void clearTables() {
+		cachedTables = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -1592,6 +1694,7 @@ public class I18nManager {
 			cachedBundles = new ConcurrentHashMap<>();
 			cachedJSTranslatorData = new ConcurrentHashMap<>();
 			referencingBundlesIndex = new ConcurrentHashMap<>();
+			clearTables();
 		} else {
 			cachedLangTranslated = new AlwaysEmptyMap<>();
 			cachedBundles = new AlwaysEmptyMap<>();
@@ -0,0 +1,109 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.i18n;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The translations of a bundle in a locale, resolved once with all the
+ * fallbacks of the I18nManager. A key which is not in the table has no
+ * translation at all. The table is immutable, it is replaced as a whole
+ * if a translation changes.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+final class I18nTable {
+	
+	private final Map<String,Translation> translations;
+	
+	I18nTable(Map<String,String> resolvedValues) {
+		Map<String,Translation> map = new HashMap<>((int)(resolvedValues.size() / 0.75f) + 1);
+		for(Map.Entry<String, String> entry:resolvedValues.entrySet()) {
+			map.put(entry.getKey(), new Translation(entry.getValue()));
+		}
+		translations = Map.copyOf(map);
+	}
+	
+	public int size() {
+		return translations.size();
+	}
+	
+	public boolean contains(String key) {
+		return translations.containsKey(key);
+	}
+	
+	/**
+	 * @param key The key
+	 * @param args The arguments or null
+	 * @return The formatted translation or null if the key has no translation
+	 */
+	public String getLocalizedString(String key, Object[] args) {
+		Translation translation = translations.get(key);
+		if(translation == null) {
+			return null;
+		}
+		return translation.format(args);
+	}
+	
+	private static class Translation {
+		
+		private final String value;
+		private final String pattern;
+		private final MessageFormat format;
+		
+		public Translation(String value) {
+			this.value = value;
+			if(value.indexOf('{') >= 0) {
+				// Escape single quotes with single quotes. Single quotes have special meaning in MessageFormat
+				// See OLAT-5107, OLAT-5756
+				pattern = value.indexOf('\'') >= 0 ? value.replace("'", "''") : value;
+				format = parse(pattern);
+			} else {
+				// nothing to format, the escaped quotes are unescaped by the format
+				pattern = null;
+				format = null;
+			}
+		}
+		
+		private static MessageFormat parse(String pattern) {
+			try {
+				return new MessageFormat(pattern);
+			} catch (IllegalArgumentException e) {
+				// fails the same way as before by the call
+				return null;
+			}
+		}
+		
+		public String format(Object[] args) {
+			if(args == null || pattern == null) {
+				return value;
+			}
+			if(format == null) {
+				return MessageFormat.format(pattern, args);
+			}
+			// the message format is not thread safe, a clone is cheaper than parsing the pattern
+			return ((MessageFormat)format.clone()).format(args);
+		}
+	}
+}
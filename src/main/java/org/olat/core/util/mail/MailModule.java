@@ -50,6 +50,7 @@ public class MailModule extends AbstractSpringModule {
 	private static final String SHOW_INBOX_RECIPIENT_NAMES = "showInboxRecipientNames";
 	private static final String SHOW_INBOX_MAIL_ADDRESSES = "showInboxMailAddresses";
 	private static final String RECEIVE_REAL_MAIL_USER_DEFAULT_SETTING = "receiveRealMailUserDefaultSetting";
+	private static final String OUTBOX_ENABLED = "outboxEnabled";
 	
 	@Value("${mail.intern:false}")
 	private boolean internSystem;
@@ -64,6 +65,17 @@ public class MailModule extends AbstractSpringModule {
 	@Value("${mail.receiveRealMailUserDefaultSetting:true}")
 	private boolean receiveRealMailUserDefaultSetting;
 	
+	@Value("${mail.outbox.enabled:true}")
+	private boolean outboxEnabled;
+	@Value("${mail.outbox.connections:2}")
+	private int outboxConnections;
+	@Value("${mail.outbox.messages.per.connection:100}")
+	private int outboxMessagesPerConnection;
+	@Value("${mail.outbox.rate:0}")
+	private int outboxRate;
+	@Value("${mail.outbox.max.attempts:8}")
+	private int outboxMaxAttempts;
+	
 	private int maxSizeOfAttachments = 5;
 	
 	private static final String ATTACHMENT_DEFAULT = "/mail";
@@ -108,6 +120,11 @@ public class MailModule extends AbstractSpringModule {
 		if(StringHelper.containsNonWhitespace(showInboxMailAddressesValue)) {
 			showInboxMailAddresses = "true".equalsIgnoreCase(showInboxMailAddressesValue);
 		}
+		
+		String outboxEnabledValue = getStringPropertyValue(OUTBOX_ENABLED, true);
+		if(StringHelper.containsNonWhitespace(outboxEnabledValue)) {
+			outboxEnabled = "true".equalsIgnoreCase(outboxEnabledValue);
+		}
 	}
 
 	@Override
@@ -187,6 +204,50 @@ public class MailModule extends AbstractSpringModule {
 		setStringProperty(RECEIVE_REAL_MAIL_USER_DEFAULT_SETTING, realMailStr, true);
 	}
 
+	/**
+	 * The e-mails are saved in a persistent queue and sent by a job
+	 * instead of being sent directly.
+	 * 
+	 * @return true if the e-mails are queued
+	 */
+	public boolean isOutboxEnabled() {
+		return outboxEnabled;
+	}
+
+	public void setOutboxEnabled(boolean outboxEnabled) {
+		this.outboxEnabled = outboxEnabled;
+		String outboxEnabledStr = outboxEnabled ? "true" : "false";
+		setStringProperty(OUTBOX_ENABLED, outboxEnabledStr, true);
+	}
+
+	/**
+	 * @return The number of SMTP connections used in parallel to send the queue
+	 */
+	public int getOutboxConnections() {
+		return outboxConnections;
+	}
+
+	/**
+	 * @return The number of e-mails sent before the SMTP connection is opened again
+	 */
+	public int getOutboxMessagesPerConnection() {
+		return outboxMessagesPerConnection;
+	}
+
+	/**
+	 * @return The max. number of e-mails sent per second, 0 is unlimited
+	 */
+	public int getOutboxRate() {
+		return outboxRate;
+	}
+
+	/**
+	 * @return The number of attempts before an e-mail is marked as failed
+	 */
+	public int getOutboxMaxAttempts() {
+		return outboxMaxAttempts;
+	}
+
 	/**
 	 * Check if the mail host is configured
 	 * @return
@@ -149,6 +149,8 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	private final MailModule mailModule;
 	@Autowired
 	private GUISettings guiSettings;
+	@Autowired
+	private MailOutboxSender mailOutboxSender;
 
 	private FileStorage attachmentStorage;
 	
@@ -674,8 +676,21 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		return bundle;
 	}
 
+	/**
+	 * With the outbox, the messages are written in the outbox in the transaction
+	 * of the caller and the outbox job sends them. Without, they wait in the
+	 * queue of the asynchronous executor.
+	 */
 	@Override
 	public void sendMessageAsync(MailBundle... bundles) {
+		if(mailModule.isOutboxEnabled()) {
+			MailerResult result = sendMessage(bundles);
+			if(result.getReturnCode() != MailerResult.OK) {
+				log.warn("Cannot queue e-mail: {} {}", result.getReturnCode(), result.getErrorMessage());
+			}
+			return;
+		}
+		
 		try {
 			SendMail sendMail = new SendMail(bundles);
 			DBSecureRunnable command = new DBSecureRunnable(sendMail);
@@ -1587,23 +1602,11 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	}
 	
 	/**
-	 * Only legal way to create a MimeMessage!<br>
-	 * 
-	 * The specified from will be at the end the reply-to of the mime message.
-	 * The from from the mime message is the property defined with fromemail
-	 * in olat.local.properties.<br>
+	 * Create a mail session with the configuration of the mail host.
 	 * 
-	 * @see FXOLAT-74: send all mails as <fromemail> (in config) to have a valid reverse lookup and therefore pass spam protection.
-	 *
-	 * @param subject The subject
-	 * @param from The from will be the reply-to
-	 * @return
-	 * @throws AddressException
-	 * @throws MessagingException
-	 * @throws UnsupportedEncodingException
+	 * @return A mail session
 	 */
-	private MimeMessage createMessage(String subject, Address from)
-	throws AddressException, MessagingException, UnsupportedEncodingException {
+	static Session createMailSession() {
 		String mailhost = WebappHelper.getMailConfig("mailhost");
 		String mailport = WebappHelper.getMailConfig("mailport");
 		String mailhostTimeout = WebappHelper.getMailConfig("mailTimeout");
@@ -1647,6 +1650,28 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 			// enable mail session debugging on console
 			mailSession.setDebug(true);
 		}
+		return mailSession;
+	}
+	
+	/**
+	 * Only legal way to create a MimeMessage!<br>
+	 * 
+	 * The specified from will be at the end the reply-to of the mime message.
+	 * The from from the mime message is the property defined with fromemail
+	 * in olat.local.properties.<br>
+	 * 
+	 * @see FXOLAT-74: send all mails as <fromemail> (in config) to have a valid reverse lookup and therefore pass spam protection.
+	 *
+	 * @param subject The subject
+	 * @param from The from will be the reply-to
+	 * @return
+	 * @throws AddressException
+	 * @throws MessagingException
+	 * @throws UnsupportedEncodingException
+	 */
+	private MimeMessage createMessage(String subject, Address from)
+	throws AddressException, MessagingException, UnsupportedEncodingException {
+		Session mailSession = createMailSession();
 		MimeMessage msg = new MimeMessage(mailSession);
 		
 		String platformFrom = WebappHelper.getMailConfig("mailFrom");
@@ -1821,7 +1846,12 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 				if(Settings.isDebuging()) {
 					logMessage(msg);
 				}
-				Transport.send(msg);
+				if(mailModule.isOutboxEnabled()) {
+					// saved in the transaction of the caller, sent by the outbox job
+					mailOutboxSender.queueMessage(msg);
+				} else {
+					Transport.send(msg);
+				}
 			} else if(Settings.isDebuging() && result.getReturnCode() == MailerResult.OK) {
 				logMessage(msg);
 			} else {
@@ -1833,7 +1863,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 			result.addInvalidAddresses(e.getValidUnsentAddresses());
 			result.setErrorMessage(e.getMessage());
 			log.warn("Could not send mail: {}", e.getMessage());
-		} catch (MessagingException e) {
+		} catch (MessagingException | IOException e) {
 			result.setReturnCode(MailerResult.SEND_GENERAL_ERROR);
 			result.setErrorMessage(e.getMessage());
 			log.warn("Could not send mail: {}", e.getMessage());
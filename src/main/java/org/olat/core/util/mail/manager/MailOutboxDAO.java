@@ -0,0 +1,168 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.util.Date;
+import java.util.List;
+
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.util.mail.model.MailOutboxMessageImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The persistent queue of the e-mails waiting to be sent. The messages
+ * are saved in the transaction of the caller. A message is claimed with
+ * a conditional update before it's sent, so several nodes of a cluster can
+ * drain the same queue.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class MailOutboxDAO {
+
+	private static final int MAX_ERROR_LENGTH = 2000;
+
+	@Autowired
+	private DB dbInstance;
+
+	public MailOutboxMessageImpl createMessage(byte[] message) {
+		MailOutboxMessageImpl outboxMessage = new MailOutboxMessageImpl();
+		outboxMessage.setCreationDate(new Date());
+		outboxMessage.setLastModified(outboxMessage.getCreationDate());
+		outboxMessage.setStatus(MailOutboxMessageImpl.STATUS_NEW);
+		outboxMessage.setAttempts(0);
+		outboxMessage.setNextAttempt(outboxMessage.getCreationDate());
+		outboxMessage.setMessage(message);
+		dbInstance.getCurrentEntityManager().persist(outboxMessage);
+		return outboxMessage;
+	}
+
+	public MailOutboxMessageImpl loadMessageByKey(Long key) {
+		List<MailOutboxMessageImpl> messages = dbInstance.getCurrentEntityManager()
+				.createQuery("select msg from mailoutboxmessage msg where msg.key=:key", MailOutboxMessageImpl.class)
+				.setParameter("key", key)
+				.getResultList();
+		return messages == null || messages.isEmpty() ? null : messages.get(0);
+	}
+
+	/**
+	 * @param now The current date
+	 * @param maxResults The max. number of messages
+	 * @return The primary keys of the new messages which can be sent now, the oldest first
+	 */
+	public List<Long> loadDueMessageKeys(Date now, int maxResults) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select msg.key from mailoutboxmessage msg where msg.status=:status and msg.nextAttempt<=:now order by msg.key asc", Long.class)
+				.setParameter("status", MailOutboxMessageImpl.STATUS_NEW)
+				.setParameter("now", now)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+
+	/**
+	 * Claim the message for sending.
+	 * 
+	 * @param key The primary key of the message
+	 * @return true if the message was new and is now claimed by the caller
+	 */
+	public boolean claimMessage(Long key) {
+		int rows = dbInstance.getCurrentEntityManager()
+				.createQuery("update mailoutboxmessage msg set msg.status=:sending, msg.lastModified=:now where msg.key=:key and msg.status=:new")
+				.setParameter("sending", MailOutboxMessageImpl.STATUS_SENDING)
+				.setParameter("new", MailOutboxMessageImpl.STATUS_NEW)
+				.setParameter("now", new Date())
+				.setParameter("key", key)
+				.executeUpdate();
+		return rows == 1;
+	}
+
+	/**
+	 * Put the message back in the queue for a next attempt.
+	 */
+	public int rescheduleMessage(Long key, int attempts, Date nextAttempt, String error) {
+		return updateMessage(key, MailOutboxMessageImpl.STATUS_NEW, attempts, nextAttempt, error);
+	}
+
+	/**
+	 * The message will not be sent, it stays in the outbox with its error.
+	 */
+	public int failMessage(Long key, int attempts, String error) {
+		return updateMessage(key, MailOutboxMessageImpl.STATUS_FAILED, attempts, new Date(), error);
+	}
+
+	private int updateMessage(Long key, String status, int attempts, Date nextAttempt, String error) {
+		if(error != null && error.length() > MAX_ERROR_LENGTH) {
+			error = error.substring(0, MAX_ERROR_LENGTH);
+		}
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("update mailoutboxmessage msg set msg.status=:status, msg.attempts=:attempts, msg.nextAttempt=:nextAttempt, msg.lastError=:error, msg.lastModified=:now where msg.key=:key")
+				.setParameter("status", status)
+				.setParameter("attempts", attempts)
+				.setParameter("nextAttempt", nextAttempt)
+				.setParameter("error", error)
+				.setParameter("now", new Date())
+				.setParameter("key", key)
+				.executeUpdate();
+	}
+
+	/**
+	 * Put back in the queue the messages claimed before the specified date
+	 * and never sent, e.g. after a crash of the node which claimed them.
+	 * 
+	 * @param before The date
+	 * @return The number of messages
+	 */
+	public int resetStaleMessages(Date before) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("update mailoutboxmessage msg set msg.status=:new, msg.lastModified=:now where msg.status=:sending and msg.lastModified<:before")
+				.setParameter("new", MailOutboxMessageImpl.STATUS_NEW)
+				.setParameter("sending", MailOutboxMessageImpl.STATUS_SENDING)
+				.setParameter("now", new Date())
+				.setParameter("before", before)
+				.executeUpdate();
+	}
+
+	public int deleteMessage(Long key) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from mailoutboxmessage msg where msg.key=:key")
+				.setParameter("key", key)
+				.executeUpdate();
+	}
+
+	public int deleteFailedMessages(Date before) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from mailoutboxmessage msg where msg.status=:failed and msg.lastModified<:before")
+				.setParameter("failed", MailOutboxMessageImpl.STATUS_FAILED)
+				.setParameter("before", before)
+				.executeUpdate();
+	}
+
+	public long countMessages(String status) {
+		List<Long> count = dbInstance.getCurrentEntityManager()
+				.createQuery("select count(msg.key) from mailoutboxmessage msg where msg.status=:status", Long.class)
+				.setParameter("status", status)
+				.getResultList();
+		return count == null || count.isEmpty() || count.get(0) == null ? 0l : count.get(0).longValue();
+	}
+}
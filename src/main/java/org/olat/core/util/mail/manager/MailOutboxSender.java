@@ -0,0 +1,454 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.helpers.Settings;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.mail.MailModule;
+import org.olat.core.util.mail.model.MailOutboxMessageImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.sun.mail.smtp.SMTPMessage;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * Queue the e-mails in the outbox and send them. The queue is drained by
+ * a small pool of workers, every worker holds its own SMTP connection and
+ * sends several e-mails with it, through all the batches of a run. The e-mails which cannot be sent because of
+ * a temporary error are sent again later with an exponential backoff, the
+ * e-mails refused by the SMTP server are marked as failed.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class MailOutboxSender {
+
+	private static final Logger log = Tracing.createLoggerFor(MailOutboxSender.class);
+
+	private static final int BATCH_SIZE = 200;
+	private static final int MAX_BATCHES = 25;
+	private static final long FIRST_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+	private static final long MAX_RETRY_DELAY = TimeUnit.HOURS.toMillis(6);
+	private static final long STALE_SENDING = TimeUnit.MINUTES.toMillis(10);
+	private static final long KEEP_FAILED = TimeUnit.DAYS.toMillis(7);
+
+	private final AtomicLong sentMessages = new AtomicLong();
+	private final AtomicLong retriedMessages = new AtomicLong();
+	private final AtomicLong failedMessages = new AtomicLong();
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private MailModule mailModule;
+	@Autowired
+	private MailOutboxDAO mailOutboxDao;
+	@Autowired @Qualifier("mailOutboxExecutorService")
+	private ExecutorService outboxExecutor;
+
+	/**
+	 * Save the message in the outbox, in the transaction of the caller.
+	 * 
+	 * @param msg The message
+	 * @return The message in the outbox
+	 * @throws IOException
+	 * @throws MessagingException
+	 */
+	public MailOutboxMessageImpl queueMessage(MimeMessage msg) throws IOException, MessagingException {
+		msg.saveChanges();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		msg.writeTo(out);
+		return mailOutboxDao.createMessage(out.toByteArray());
+	}
+
+	/**
+	 * @return The number of e-mails sent since the start of the node
+	 */
+	public long getSentMessages() {
+		return sentMessages.get();
+	}
+
+	/**
+	 * @return The number of failed attempts which will be retried since the start of the node
+	 */
+	public long getRetriedMessages() {
+		return retriedMessages.get();
+	}
+
+	/**
+	 * @return The number of e-mails marked as failed since the start of the node
+	 */
+	public long getFailedMessages() {
+		return failedMessages.get();
+	}
+
+	/**
+	 * Send the e-mails of the outbox which are due, at most a fixed number
+	 * of batches per call.
+	 */
+	public void process() {
+		if(!mailModule.isMailHostEnabled()) return;
+
+		long start = System.nanoTime();
+		long sentBefore = sentMessages.get();
+		long retriedBefore = retriedMessages.get();
+		long failedBefore = failedMessages.get();
+
+		long now = System.currentTimeMillis();
+		int reset = mailOutboxDao.resetStaleMessages(new Date(now - STALE_SENDING));
+		if(reset > 0) {
+			log.warn("{} e-mails of the outbox were not sent and are queued again", reset);
+		}
+		mailOutboxDao.deleteFailedMessages(new Date(now - KEEP_FAILED));
+		dbInstance.commitAndCloseSession();
+
+		RateLimiter rateLimiter = new RateLimiter(mailModule.getOutboxRate());
+		OutboxQueue queue = new OutboxQueue();
+		int numOfKeys = queue.loadNextBatch();
+		if(numOfKeys > 0) {
+			sendMessages(queue, Math.min(mailModule.getOutboxConnections(), numOfKeys), rateLimiter);
+		}
+
+		long sent = sentMessages.get() - sentBefore;
+		long retried = retriedMessages.get() - retriedBefore;
+		long failed = failedMessages.get() - failedBefore;
+		if(sent > 0 || retried > 0 || failed > 0) {
+			log.info("Outbox: {} e-mails sent, {} to retry, {} failed in (ms): {}", sent, retried, failed, CodeHelper.nanoToMilliTime(start));
+		}
+	}
+
+	private void sendMessages(OutboxQueue queue, int numOfWorkers, RateLimiter rateLimiter) {
+		if(numOfWorkers <= 1) {
+			new OutboxWorker(queue, rateLimiter).run();
+			return;
+		}
+
+		List<Future<?>> futures = new ArrayList<>(numOfWorkers);
+		try {
+			for(int i=0; i<numOfWorkers; i++) {
+				futures.add(outboxExecutor.submit(new OutboxWorker(queue, rateLimiter)));
+			}
+			for(Future<?> future:futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					log.error("", e);
+				}
+			}
+		} catch (InterruptedException e) {
+			log.warn("Outbox interrupted", e);
+			Thread.currentThread().interrupt();
+			for(Future<?> future:futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * The delay before the next attempt, doubled after every attempt.
+	 * 
+	 * @param attempts The number of attempts already made
+	 * @return The delay in milliseconds
+	 */
+	static long getRetryDelay(int attempts) {
+		int shift = Math.max(0, Math.min(attempts - 1, 20));
+		return Math.min(FIRST_RETRY_DELAY << shift, MAX_RETRY_DELAY);
+	}
+
+	/**
+	 * A temporary error can be retried later, a permanent one will
+	 * fail again. The SMTP server use the 4xx codes for temporary errors,
+	 * the 5xx codes for permanent ones.
+	 * 
+	 * @param e The exception
+	 * @return true if the message can be sent again later
+	 */
+	static boolean isTemporaryError(SendFailedException e) {
+		if(e instanceof SMTPSendFailedException) {
+			int code = ((SMTPSendFailedException)e).getReturnCode();
+			return code >= 400 && code < 500;
+		}
+		Exception next = e.getNextException();
+		if(next instanceof SMTPSendFailedException) {
+			int code = ((SMTPSendFailedException)next).getReturnCode();
+			return code >= 400 && code < 500;
+		}
+		return false;
+	}
+
+	private static String getErrorMessage(Exception e) {
+		String message = e.getMessage();
+		return StringHelper.containsNonWhitespace(message) ? message : e.getClass().getName();
+	}
+
+	/**
+	 * The keys of the due e-mails, loaded batch after batch when the
+	 * workers have taken all the keys of the previous one. A key loaded
+	 * twice is ignored by the claim of the message.
+	 * 
+	 * Initial date: 18 oct. 2020<br>
+	 * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+	 *
+	 */
+	private class OutboxQueue {
+
+		private final Queue<Long> keys = new ArrayDeque<>(BATCH_SIZE);
+		private int batches = 0;
+
+		/**
+		 * @return The next key or null if the outbox is empty or the
+		 * 		max. number of batches is reached
+		 */
+		public synchronized Long poll() {
+			if(keys.isEmpty()) {
+				loadNextBatch();
+			}
+			return keys.poll();
+		}
+
+		/**
+		 * @return The number of keys loaded
+		 */
+		public synchronized int loadNextBatch() {
+			if(batches >= MAX_BATCHES) {
+				return 0;
+			}
+
+			batches++;
+			try {
+				List<Long> dueKeys = mailOutboxDao.loadDueMessageKeys(new Date(), BATCH_SIZE);
+				keys.addAll(dueKeys);
+				return dueKeys.size();
+			} finally {
+				dbInstance.commitAndCloseSession();
+			}
+		}
+	}
+
+	/**
+	 * Send the messages of the queue until it's empty with a single
+	 * SMTP connection, kept open for all the batches and opened again
+	 * after a fixed number of messages or after an error.
+	 * 
+	 * Initial date: 18 oct. 2020<br>
+	 * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+	 *
+	 */
+	private class OutboxWorker implements Runnable {
+
+		private final OutboxQueue queue;
+		private final RateLimiter rateLimiter;
+		private final Session session;
+		private final String smtpFrom;
+		private final int messagesPerConnection;
+
+		private Transport transport;
+		private int sentWithConnection;
+
+		public OutboxWorker(OutboxQueue queue, RateLimiter rateLimiter) {
+			this.queue = queue;
+			this.rateLimiter = rateLimiter;
+			session = MailManagerImpl.createMailSession();
+			smtpFrom = WebappHelper.getMailConfig("smtpFrom");
+			messagesPerConnection = Math.max(1, mailModule.getOutboxMessagesPerConnection());
+		}
+
+		@Override
+		public void run() {
+			try {
+				Long key;
+				while((key = queue.poll()) != null && !Thread.currentThread().isInterrupted()) {
+					sendMessage(key);
+				}
+			} finally {
+				closeTransport();
+				dbInstance.commitAndCloseSession();
+			}
+		}
+
+		private void sendMessage(Long key) {
+			MailOutboxMessageImpl message;
+			try {
+				// the claim is committed, other nodes of the cluster will ignore the message
+				message = mailOutboxDao.claimMessage(key) ? mailOutboxDao.loadMessageByKey(key) : null;
+				dbInstance.commitAndCloseSession();
+			} catch (Exception e) {
+				log.error("Cannot claim the e-mail: {}", key, e);
+				dbInstance.rollbackAndCloseSession();
+				return;
+			}
+			if(message == null) return;
+
+			try {
+				rateLimiter.acquire();
+				SMTPMessage msg = new SMTPMessage(session, new ByteArrayInputStream(message.getMessage()));
+				if(StringHelper.containsNonWhitespace(smtpFrom)) {
+					msg.setEnvelopeFrom(smtpFrom);
+				}
+				Address[] recipients = msg.getAllRecipients();
+				if(recipients == null || recipients.length == 0) {
+					fail(message, "No recipients");
+				} else {
+					getTransport().sendMessage(msg, recipients);
+					sentWithConnection++;
+					sent(message);
+					if(Settings.isDebuging()) {
+						log.info("E-mail send: {}", msg.getSubject());
+					}
+				}
+			} catch (SendFailedException e) {
+				Address[] validSent = e.getValidSentAddresses();
+				if(validSent != null && validSent.length > 0) {
+					// the SMTP server accepted the message for some recipients, don't send it twice
+					log.warn("E-mail sent but not to all recipients: {}", e.getMessage());
+					sent(message);
+				} else if(isTemporaryError(e)) {
+					retry(message, e);
+				} else {
+					log.warn("E-mail refused by the SMTP server: {}", e.getMessage());
+					fail(message, getErrorMessage(e));
+				}
+			} catch (MessagingException | RuntimeException e) {
+				// connection lost, server not available...
+				closeTransport();
+				retry(message, e);
+			} finally {
+				dbInstance.commitAndCloseSession();
+			}
+		}
+
+		private void sent(MailOutboxMessageImpl message) {
+			mailOutboxDao.deleteMessage(message.getKey());
+			sentMessages.incrementAndGet();
+		}
+
+		private void retry(MailOutboxMessageImpl message, Exception e) {
+			int attempts = message.getAttempts() + 1;
+			if(attempts >= mailModule.getOutboxMaxAttempts()) {
+				log.warn("E-mail not sent after {} attempts: {}", attempts, e.getMessage());
+				mailOutboxDao.failMessage(message.getKey(), attempts, getErrorMessage(e));
+				failedMessages.incrementAndGet();
+			} else {
+				log.debug("E-mail not sent, will be retried: {}", e.getMessage());
+				Date nextAttempt = new Date(System.currentTimeMillis() + getRetryDelay(attempts));
+				mailOutboxDao.rescheduleMessage(message.getKey(), attempts, nextAttempt, getErrorMessage(e));
+				retriedMessages.incrementAndGet();
+			}
+		}
+
+		private void fail(MailOutboxMessageImpl message, String error) {
+			mailOutboxDao.failMessage(message.getKey(), message.getAttempts() + 1, error);
+			failedMessages.incrementAndGet();
+		}
+
+		private Transport getTransport() throws MessagingException {
+			if(transport != null && (sentWithConnection >= messagesPerConnection || !transport.isConnected())) {
+				closeTransport();
+			}
+			if(transport == null) {
+				Transport newTransport = session.getTransport("smtp");
+				newTransport.connect();
+				transport = newTransport;
+				sentWithConnection = 0;
+			}
+			return transport;
+		}
+
+		private void closeTransport() {
+			if(transport != null) {
+				try {
+					transport.close();
+				} catch (MessagingException e) {
+					log.debug("Cannot close the SMTP connection", e);
+				}
+				transport = null;
+			}
+		}
+	}
+
+	/**
+	 * Spread the messages over time to not send more than the
+	 * configured number of messages per second, shared by all
+	 * the workers.
+	 * 
+	 * Initial date: 18 oct. 2020<br>
+	 * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+	 *
+	 */
+	private static class RateLimiter {
+
+		private final long intervalNanos;
+		private long nextSlot;
+
+		public RateLimiter(int messagesPerSecond) {
+			intervalNanos = messagesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / messagesPerSecond : 0l;
+			nextSlot = System.nanoTime();
+		}
+
+		public void acquire() {
+			if(intervalNanos <= 0l) return;
+
+			long waitNanos = reserve();
+			if(waitNanos > 0l) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(waitNanos);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		private synchronized long reserve() {
+			long now = System.nanoTime();
+			long slot = Math.max(now, nextSlot);
+			nextSlot = slot + intervalNanos;
+			return slot - now;
+		}
+	}
+}
@@ -409,10 +409,28 @@ public class VFSManager {
 		VFSContainer inheritingItem = findInheritingSecurityCallbackContainer(container);
 		if (inheritingItem == null || inheritingItem.getLocalSecurityCallback().getQuota() == null)
 			return Quota.UNLIMITED;
-		long usageKB = getUsageKB(inheritingItem);
+		long usageKB = getQuotaUsageKB(inheritingItem);
 		return inheritingItem.getLocalSecurityCallback().getQuota().getQuotaKB().longValue() - usageKB;
 	}
 	
+	/**
+	 * The usage of a local folder is read from the counter maintained by
+	 * the VFS repository service, the other containers are walked through.
+	 * 
+	 * @param container The container with the quota
+	 * @return The usage in KB
+	 */
+	public static long getQuotaUsageKB(VFSContainer container) {
+		if(container instanceof NamedContainerImpl) {
+			container = ((NamedContainerImpl)container).getDelegate();
+		}
+		if(container instanceof LocalFolderImpl) {
+			File directory = ((LocalFolderImpl)container).getBasefile();
+			return CoreSpringFactory.getImpl(VFSRepositoryService.class).getQuotaUsage(directory) / 1024;
+		}
+		return getUsageKB(container);
+	}
+	
 	/**
 	 * Recursively traverse the container and sum up all leafs' sizes.
 	 * 
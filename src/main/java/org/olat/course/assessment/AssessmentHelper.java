@@ -57,12 +57,14 @@ import org.olat.course.nodes.CourseNodeFactory;
 import org.olat.course.nodes.STCourseNode;
 import org.olat.course.nodes.ScormCourseNode;
 import org.olat.course.run.environment.CourseEnvironment;
+import org.olat.course.run.scoring.AssessmentAccounting;
 import org.olat.course.run.scoring.AssessmentEvaluation;
 import org.olat.course.run.scoring.ScoreAccounting;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironmentImpl;
 import org.olat.course.tree.CourseEditorTreeModel;
 import org.olat.course.tree.CourseEditorTreeNode;
+import org.olat.modules.assessment.AssessmentEntry;
 
 /**
  * Description:<br>
@@ -119,6 +121,28 @@ public class AssessmentHelper {
 		return uce;
 	}
 
+	/**
+	 * Same as above but the evaluation use the specified assessment entries
+	 * instead of loading them from the database.
+	 * 
+	 * @param identity The user
+	 * @param course The course
+	 * @param preloadedEntries The assessment entries of the user in the course
+	 * @return Initialized and updated user course environment
+	 */
+	public static UserCourseEnvironment createInitAndUpdateUserCourseEnvironment(Identity identity, ICourse course,
+			List<AssessmentEntry> preloadedEntries) {
+		IdentityEnvironment ienv = new IdentityEnvironment(); 
+		ienv.setIdentity(identity);
+		UserCourseEnvironmentImpl uce = new UserCourseEnvironmentImpl(ienv, course.getCourseEnvironment());
+		ScoreAccounting scoreAccounting = uce.getScoreAccounting();
+		if(preloadedEntries != null && scoreAccounting instanceof AssessmentAccounting) {
+			((AssessmentAccounting)scoreAccounting).setPreloadedAssessmentEntries(preloadedEntries);
+		}
+		scoreAccounting.evaluateAll(true);
+		return uce;
+	}
+
 	/**
 	 * Create a user course environment for the given user and course. After
 	 * creation, the users score accounting will be initialized.
@@ -29,23 +29,34 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
 
 import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
 import org.hibernate.exception.ConstraintViolationException;
+import org.olat.basesecurity.BaseSecurity;
 import org.olat.basesecurity.GroupRoles;
 import org.olat.basesecurity.IdentityRef;
 import org.olat.core.commons.persistence.DB;
-import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
 import org.olat.core.util.StringHelper;
+import org.olat.core.util.async.ProgressDelegate;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.core.util.xml.XStreamHelper;
@@ -67,8 +78,12 @@ import org.olat.course.config.CourseConfig;
 import org.olat.course.run.environment.CourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.group.BusinessGroup;
+import org.olat.modules.assessment.AssessmentEntry;
+import org.olat.modules.assessment.AssessmentService;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.olat.repository.model.RepositoryEntryRefImpl;
 import org.olat.resource.OLATResource;
 import org.olat.user.UserDataDeletable;
@@ -76,6 +91,8 @@ import org.olat.user.UserDataExportable;
 import org.olat.user.UserManager;
 import org.olat.user.manager.ManifestBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.thoughtworks.xstream.XStream;
@@ -97,11 +114,28 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 	public static final String KEY_ASSESSMENT_NODES = "assessmentNodes";
 	public static final String KEY_COURSE_TITLE = "courseTitle";
 	public static final String PROPERTY_CATEGORY = "efficiencyStatement";
+	
+	private static final int RECALCULATION_BATCH_SIZE = 50;
 
 	@Autowired
 	private DB dbInstance;
 	@Autowired
 	private UserManager userManager;
+	@Autowired
+	private BaseSecurity securityManager;
+	@Autowired
+	private AssessmentService assessmentService;
+	@Autowired
+	private TaskExecutorManager taskExecutorManager;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
+	@Autowired @Qualifier("efficiencyStatementExecutorService")
+	private ExecutorService recalculationExecutor;
+	
+	@Value("${efficiency.statement.recalculation.threads:2}")
+	private int recalculationThreads;
 	
 	private final XStream xstream = XStreamHelper.createXStreamInstance();
 
@@ -191,37 +225,14 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 	public void updateUserEfficiencyStatement(Identity assessedIdentity, final CourseEnvironment courseEnv,
 			List<AssessmentNodeData> assessmentNodeList, AssessmentNodesLastModified lastModifications, final RepositoryEntry repoEntry) {
 		List<Map<String,Object>> assessmentNodes = AssessmentHelper.assessmentNodeDataListToMap(assessmentNodeList);
-			
-		EfficiencyStatement efficiencyStatement = new EfficiencyStatement();
-		efficiencyStatement.setAssessmentNodes(assessmentNodes);
-		efficiencyStatement.setCourseTitle(courseEnv.getCourseTitle());
-		efficiencyStatement.setCourseRepoEntryKey(repoEntry.getKey());
-		String userInfos = userManager.getUserDisplayName(assessedIdentity);
-		efficiencyStatement.setDisplayableUserInfo(userInfos);
-		efficiencyStatement.setLastUpdated(System.currentTimeMillis());
-		if(lastModifications != null) {
-			if(lastModifications.getLastUserModified() != null) {
-				efficiencyStatement.setLastUserModified(lastModifications.getLastUserModified().getTime());
-			}
-			if(lastModifications.getLastCoachModified() != null) {
-				efficiencyStatement.setLastCoachModified(lastModifications.getLastCoachModified().getTime());
-			}
-		}
+		EfficiencyStatement efficiencyStatement = createEfficiencyStatement(assessedIdentity, courseEnv, assessmentNodes, lastModifications, repoEntry);
 		
 		boolean debug = log.isDebugEnabled();
 		UserEfficiencyStatementImpl efficiencyProperty = getUserEfficiencyStatementFull(repoEntry, assessedIdentity);
 		if (assessmentNodes != null && !assessmentNodes.isEmpty()) {
 			if (efficiencyProperty == null) {
 				// create new
-				efficiencyProperty = new UserEfficiencyStatementImpl();
-				efficiencyProperty.setVersion(0);
-				efficiencyProperty.setCreationDate(new Date());
-				efficiencyProperty.setIdentity(assessedIdentity);
-				efficiencyProperty.setCourseRepoKey(repoEntry.getKey());
-				efficiencyProperty.setResource(repoEntry.getOlatResource());
-				efficiencyProperty.setCourseRepoKey(repoEntry.getKey());
-				efficiencyProperty.setShortTitle(courseEnv.getRunStructure().getRootNode().getShortTitle());
-				efficiencyProperty.setTitle(courseEnv.getRunStructure().getRootNode().getLongTitle());
+				efficiencyProperty = createUserEfficiencyStatement(assessedIdentity, courseEnv, repoEntry);
 				fillEfficiencyStatement(efficiencyStatement, lastModifications, efficiencyProperty);
 				efficiencyProperty = persistOrLoad(efficiencyProperty, repoEntry, assessedIdentity);
 				if (debug) {
@@ -247,16 +258,55 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 							efficiencyProperty.getKey(), assessedIdentity.getKey(), repoEntry.getKey());
 				}
 				dbInstance.getCurrentEntityManager().remove(efficiencyProperty);
+				efficiencyProperty = null;
 			}
 			// else nothing to create and nothing to delete
 		}					
+		coachingStatisticsWorkDao.markEntry(repoEntry, assessedIdentity);
+		updateMyCourses(assessedIdentity, repoEntry, efficiencyProperty);
 		
 		// send modified event to everybody
+		fireEfficiencyStatementChanged(assessedIdentity, courseEnv);
+	}
+	
+	private void fireEfficiencyStatementChanged(Identity assessedIdentity, CourseEnvironment courseEnv) {
 		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_EFFICIENCY_STATEMENT_CHANGED, assessedIdentity);
 		OLATResourceable courseOres = OresHelper.createOLATResourceableInstance(CourseModule.class, courseEnv.getCourseResourceableId());
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, courseOres);
 	}
 	
+	private EfficiencyStatement createEfficiencyStatement(Identity assessedIdentity, CourseEnvironment courseEnv,
+			List<Map<String,Object>> assessmentNodes, AssessmentNodesLastModified lastModifications, RepositoryEntry repoEntry) {
+		EfficiencyStatement efficiencyStatement = new EfficiencyStatement();
+		efficiencyStatement.setAssessmentNodes(assessmentNodes);
+		efficiencyStatement.setCourseTitle(courseEnv.getCourseTitle());
+		efficiencyStatement.setCourseRepoEntryKey(repoEntry.getKey());
+		String userInfos = userManager.getUserDisplayName(assessedIdentity);
+		efficiencyStatement.setDisplayableUserInfo(userInfos);
+		efficiencyStatement.setLastUpdated(System.currentTimeMillis());
+		if(lastModifications != null) {
+			if(lastModifications.getLastUserModified() != null) {
+				efficiencyStatement.setLastUserModified(lastModifications.getLastUserModified().getTime());
+			}
+			if(lastModifications.getLastCoachModified() != null) {
+				efficiencyStatement.setLastCoachModified(lastModifications.getLastCoachModified().getTime());
+			}
+		}
+		return efficiencyStatement;
+	}
+	
+	private UserEfficiencyStatementImpl createUserEfficiencyStatement(Identity assessedIdentity, CourseEnvironment courseEnv, RepositoryEntry repoEntry) {
+		UserEfficiencyStatementImpl efficiencyProperty = new UserEfficiencyStatementImpl();
+		efficiencyProperty.setVersion(0);
+		efficiencyProperty.setCreationDate(new Date());
+		efficiencyProperty.setIdentity(assessedIdentity);
+		efficiencyProperty.setCourseRepoKey(repoEntry.getKey());
+		efficiencyProperty.setResource(repoEntry.getOlatResource());
+		efficiencyProperty.setShortTitle(courseEnv.getRunStructure().getRootNode().getShortTitle());
+		efficiencyProperty.setTitle(courseEnv.getRunStructure().getRootNode().getLongTitle());
+		return efficiencyProperty;
+	}
+	
 	private UserEfficiencyStatementImpl persistOrLoad(UserEfficiencyStatementImpl efficiencyProperty, RepositoryEntry entry, Identity identity) {
 		try {
 			dbInstance.commit();
@@ -414,6 +464,29 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 		return statement.get(0);
 	}
 	
+	/**
+	 * @param courseRepoEntry The course
+	 * @param identityKeys The primary keys of the users, keep the list reasonably small
+	 * @return A map identity key to the efficiency statement
+	 */
+	private Map<Long,UserEfficiencyStatementImpl> getUserEfficiencyStatementsFull(RepositoryEntryRef courseRepoEntry, List<Long> identityKeys) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select statement from effstatement as statement ")
+		  .append(" left join fetch statement.resource as resource")
+		  .append(" where statement.courseRepoKey=:repoKey and statement.identity.key in (:identityKeys)");
+
+		List<UserEfficiencyStatementImpl> statements = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), UserEfficiencyStatementImpl.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("repoKey", courseRepoEntry.getKey())
+				.getResultList();
+		Map<Long,UserEfficiencyStatementImpl> identityKeyToStatements = new HashMap<>();
+		for(UserEfficiencyStatementImpl statement:statements) {
+			identityKeyToStatements.put(statement.getIdentity().getKey(), statement);
+		}
+		return identityKeyToStatements;
+	}
+	
 	public boolean hasUserEfficiencyStatement(Long courseRepoEntryKey, IdentityRef identity) {
 		StringBuilder sb = new StringBuilder();
 		sb.append("select statement.key from effstatementlight as statement")
@@ -750,30 +823,245 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 	 * false: always create new one (be careful with this one!)
 	 */	
 	public void updateEfficiencyStatements(final RepositoryEntry courseEntry, List<Identity> identities) {
-		if (!identities.isEmpty()) {
-			final ICourse course = CourseFactory.loadCourse(courseEntry);
-			log.info(Tracing.M_AUDIT, "Updating efficiency statements for course::{}, this might produce temporary heavy load on the CPU", course.getResourceableId());
-
-			// preload cache to speed up things
-			AssessmentManager am = course.getCourseEnvironment().getAssessmentManager();		
-			int count = 0;
-			for (Identity identity : identities) {			
-				//o_clusterOK: by ld
-				OLATResourceable efficiencyStatementResourceable = am.createOLATResourceableForLocking(identity);
-				CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(efficiencyStatementResourceable, () -> {					
-					// create temporary user course env
-					UserCourseEnvironment uce = AssessmentHelper.createInitAndUpdateUserCourseEnvironment(identity, course);
-					updateUserEfficiencyStatement(uce, courseEntry);
-				});
-				if (Thread.interrupted()) {
-					break;
+		updateEfficiencyStatements(courseEntry, identities, null);
+	}
+	
+	/**
+	 * Create or update the efficiency statements of a list of users in a course.
+	 * The users are processed in batches. The assessment entries of a batch are loaded
+	 * with one query, every user is evaluated in a doInSync block and the statements
+	 * of the batch are written together with JDBC batches. If there is more than one
+	 * batch, they are distributed to a pool of threads, every one with its own
+	 * database session.
+	 * 
+	 * @param courseEntry The course
+	 * @param identities The list of identities
+	 * @param progress A delegate to follow the progress (optional)
+	 */
+	public void updateEfficiencyStatements(final RepositoryEntry courseEntry, List<Identity> identities, ProgressDelegate progress) {
+		if (identities.isEmpty()) return;
+		
+		final ICourse course = CourseFactory.loadCourse(courseEntry);
+		final List<Long> identityKeys = identities.stream()
+				.map(Identity::getKey)
+				.distinct()
+				.collect(Collectors.toList());
+		final int numOfIdentities = identityKeys.size();
+		log.info(Tracing.M_AUDIT, "Updating efficiency statements of {} users for course::{}", numOfIdentities, course.getResourceableId());
+		long start = System.nanoTime();
+		if(progress != null) {
+			progress.setMax(numOfIdentities);
+		}
+
+		AtomicInteger processed = new AtomicInteger();
+		int numOfBatches = (numOfIdentities + RECALCULATION_BATCH_SIZE - 1) / RECALCULATION_BATCH_SIZE;
+		int numOfThreads = Math.min(recalculationThreads, numOfBatches);
+		if(numOfThreads <= 1) {
+			for(int i=0; i<numOfIdentities && !Thread.currentThread().isInterrupted(); i+=RECALCULATION_BATCH_SIZE) {
+				List<Long> batch = identityKeys.subList(i, Math.min(numOfIdentities, i + RECALCULATION_BATCH_SIZE));
+				updateEfficiencyStatementsBatch(course, courseEntry, batch, processed);
+				if(numOfBatches > 1) {
+					dbInstance.commitAndCloseSession();
+				} else {
+					dbInstance.commit();
+				}
+				reportProgress(progress, processed.get());
+			}
+		} else {
+			dbInstance.commitAndCloseSession();
+			List<Future<?>> futures = new ArrayList<>(numOfBatches);
+			try {
+				for(int i=0; i<numOfIdentities; i+=RECALCULATION_BATCH_SIZE) {
+					List<Long> batch = new ArrayList<>(identityKeys.subList(i, Math.min(numOfIdentities, i + RECALCULATION_BATCH_SIZE)));
+					futures.add(recalculationExecutor.submit(() -> {
+						try {
+							updateEfficiencyStatementsBatch(course, courseEntry, batch, processed);
+							dbInstance.commitAndCloseSession();
+						} catch (Exception e) {
+							dbInstance.rollbackAndCloseSession();
+							throw e;
+						}
+					}));
 				}
 				
-				if(++count % 10 == 0) {
-					DBFactory.getInstance().commitAndCloseSession();
+				for(Future<?> future:futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						log.error("", e);
+					}
+					reportProgress(progress, processed.get());
+				}
+			} catch (InterruptedException e) {
+				log.warn("Update of the efficiency statements interrupted", e);
+				Thread.currentThread().interrupt();
+				for(Future<?> future:futures) {
+					future.cancel(true);
 				}
 			}
 		}
+		
+		if(progress != null) {
+			progress.finished();
+		}
+		log.info(Tracing.M_AUDIT, "Efficiency statements of {}/{} users for course::{} updated in (ms): {}",
+				processed.get(), numOfIdentities, course.getResourceableId(), CodeHelper.nanoToMilliTime(start));
+	}
+	
+	private void reportProgress(ProgressDelegate progress, int processed) {
+		if(progress != null) {
+			progress.setActual(processed);
+		}
+	}
+	
+	/**
+	 * Evaluate and update the efficiency statements of a batch of users.
+	 * 
+	 * @param course The course
+	 * @param courseEntry The repository entry of the course
+	 * @param identityKeys The keys of the identities of the batch
+	 * @param processed Counter of the processed identities
+	 */
+	private void updateEfficiencyStatementsBatch(ICourse course, RepositoryEntry courseEntry, List<Long> identityKeys, AtomicInteger processed) {
+		CourseEnvironment courseEnv = course.getCourseEnvironment();
+		boolean enabled = courseEnv.getCourseConfig().isEfficencyStatementEnabled();
+		// the dates in the database are possibly truncated to the second
+		Date preloadDate = new Date(System.currentTimeMillis() - 1000l);
+		List<Identity> identities = securityManager.loadIdentityByKeys(identityKeys);
+		List<AssessmentEntry> assessmentEntries = assessmentService.loadAssessmentEntriesByAssessedIdentities(courseEntry, identityKeys);
+		Map<Long,List<AssessmentEntry>> identityKeyToEntries = new HashMap<>();
+		for(AssessmentEntry assessmentEntry:assessmentEntries) {
+			identityKeyToEntries
+				.computeIfAbsent(assessmentEntry.getIdentity().getKey(), key -> new ArrayList<>())
+				.add(assessmentEntry);
+		}
+		
+		AssessmentManager am = courseEnv.getAssessmentManager();
+		List<EvaluatedStatement> evaluatedStatements = new ArrayList<>(identities.size());
+		for(Identity identity:identities) {
+			if(Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			
+			//o_clusterOK: by ld
+			OLATResourceable efficiencyStatementResourceable = am.createOLATResourceableForLocking(identity);
+			CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(efficiencyStatementResourceable, () -> {
+				List<AssessmentEntry> preloadedEntries = identityKeyToEntries.computeIfAbsent(identity.getKey(), key -> new ArrayList<>());
+				if(assessmentService.hasAssessmentEntriesModifiedAfter(identity, courseEntry, preloadDate)) {
+					preloadedEntries = null;// changed in the meantime, load them again
+				}
+				UserCourseEnvironment uce = AssessmentHelper.createInitAndUpdateUserCourseEnvironment(identity, course, preloadedEntries);
+				if(enabled) {
+					AssessmentNodesLastModified lastModifications = new AssessmentNodesLastModified();
+					List<AssessmentNodeData> assessmentNodeList = AssessmentHelper.getAssessmentNodeDataList(uce, lastModifications, true, true, true);
+					evaluatedStatements.add(new EvaluatedStatement(identity, assessmentNodeList, lastModifications));
+				}
+			});
+			processed.incrementAndGet();
+		}
+		
+		if(!evaluatedStatements.isEmpty()) {
+			writeEfficiencyStatements(courseEnv, courseEntry, evaluatedStatements);
+		}
+	}
+	
+	private void updateMyCourses(Identity identity, RepositoryEntry courseEntry, UserEfficiencyStatementImpl efficiencyProperty) {
+		Boolean passed = efficiencyProperty == null ? null : efficiencyProperty.getPassed();
+		Float score = efficiencyProperty == null ? null : efficiencyProperty.getScore();
+		myCourseDao.updateEfficiencyStatement(identity, courseEntry, passed, score);
+	}
+	
+	/**
+	 * Write the statements of a batch of users in JDBC batches. A statement updated
+	 * by someone else after the evaluation is not overwritten. If the batch fails,
+	 * the statements are written one by one.
+	 * 
+	 * @param courseEnv The course environment
+	 * @param courseEntry The repository entry of the course
+	 * @param evaluatedStatements The evaluated data
+	 */
+	private void writeEfficiencyStatements(CourseEnvironment courseEnv, RepositoryEntry courseEntry, List<EvaluatedStatement> evaluatedStatements) {
+		List<Long> identityKeys = evaluatedStatements.stream()
+				.map(evaluated -> evaluated.getIdentity().getKey())
+				.collect(Collectors.toList());
+		Map<Long,UserEfficiencyStatementImpl> identityKeyToStatements = getUserEfficiencyStatementsFull(courseEntry, identityKeys);
+		
+		List<Identity> changedIdentities = new ArrayList<>(evaluatedStatements.size());
+		try {
+			EntityManager em = dbInstance.getCurrentEntityManager();
+			em.unwrap(Session.class).setJdbcBatchSize(RECALCULATION_BATCH_SIZE);
+			for(EvaluatedStatement evaluated:evaluatedStatements) {
+				Identity identity = evaluated.getIdentity();
+				UserEfficiencyStatementImpl efficiencyProperty = identityKeyToStatements.get(identity.getKey());
+				if(efficiencyProperty != null && efficiencyProperty.getLastModified() != null
+						&& efficiencyProperty.getLastModified().after(evaluated.getEvaluationDate())) {
+					continue;// updated after the evaluation, don't overwrite it
+				}
+				
+				AssessmentNodesLastModified lastModifications = evaluated.getLastModifications();
+				List<Map<String,Object>> assessmentNodes = AssessmentHelper.assessmentNodeDataListToMap(evaluated.getAssessmentNodeList());
+				if (assessmentNodes != null && !assessmentNodes.isEmpty()) {
+					EfficiencyStatement efficiencyStatement = createEfficiencyStatement(identity, courseEnv, assessmentNodes, lastModifications, courseEntry);
+					if(efficiencyProperty == null) {
+						efficiencyProperty = createUserEfficiencyStatement(identity, courseEnv, courseEntry);
+						fillEfficiencyStatement(efficiencyStatement, lastModifications, efficiencyProperty);
+						em.persist(efficiencyProperty);
+					} else {
+						efficiencyProperty.setShortTitle(courseEnv.getRunStructure().getRootNode().getShortTitle());
+						efficiencyProperty.setTitle(courseEnv.getRunStructure().getRootNode().getLongTitle());
+						fillEfficiencyStatement(efficiencyStatement, lastModifications, efficiencyProperty);
+					}
+				} else if(efficiencyProperty != null) {
+					em.remove(efficiencyProperty);
+					efficiencyProperty = null;
+				}
+				updateMyCourses(identity, courseEntry, efficiencyProperty);
+				changedIdentities.add(identity);
+			}
+			if(!changedIdentities.isEmpty()) {
+				coachingStatisticsWorkDao.markEntry(courseEntry);
+			}
+			dbInstance.commit();
+		} catch (PersistenceException e) {
+			// probably a statement created in the meantime
+			log.warn("Cannot write the efficiency statements in batch, write them one by one", e);
+			dbInstance.rollbackAndCloseSession();
+			changedIdentities.clear();
+			writeEfficiencyStatementsOneByOne(courseEnv, courseEntry, evaluatedStatements);
+		}
+		
+		for(Identity changedIdentity:changedIdentities) {
+			fireEfficiencyStatementChanged(changedIdentity, courseEnv);
+		}
+	}
+	
+	private void writeEfficiencyStatementsOneByOne(CourseEnvironment courseEnv, RepositoryEntry courseEntry, List<EvaluatedStatement> evaluatedStatements) {
+		AssessmentManager am = courseEnv.getAssessmentManager();
+		for(EvaluatedStatement evaluated:evaluatedStatements) {
+			Identity identity = evaluated.getIdentity();
+			try {
+				OLATResourceable efficiencyStatementResourceable = am.createOLATResourceableForLocking(identity);
+				CoordinatorManager.getInstance().getCoordinator().getSyncer().doInSync(efficiencyStatementResourceable, () ->
+					updateUserEfficiencyStatement(identity, courseEnv, evaluated.getAssessmentNodeList(), evaluated.getLastModifications(), courseEntry)
+				);
+			} catch (Exception e) {
+				log.error("Cannot update efficiency statement of identity::{} in course::{}", identity.getKey(), courseEntry.getKey(), e);
+				dbInstance.rollbackAndCloseSession();
+			}
+		}
+	}
+	
+	/**
+	 * Create a task to update the efficiency statements of all users with assessment
+	 * data in the course. The progress of the task can be followed in the task executor.
+	 * 
+	 * @param courseEntry The course
+	 * @param doer The user which starts the update
+	 */
+	public void updateEfficiencyStatementsAsync(RepositoryEntry courseEntry, Identity doer) {
+		EfficiencyStatementsTask task = new EfficiencyStatementsTask(courseEntry.getKey());
+		taskExecutorManager.execute(task, doer, courseEntry.getOlatResource(), EfficiencyStatementsTask.RES_SUB_PATH, null);
+		taskExecutorManager.executeTaskToDo();
 	}
 
 	@Override
@@ -815,4 +1103,37 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 			log.error("deleteUserData(EfficiencyStatements): " + identity, e);
 		}
 	}
+	
+	private static class EvaluatedStatement {
+		
+		private final Identity identity;
+		private final Date evaluationDate;
+		private final List<AssessmentNodeData> assessmentNodeList;
+		private final AssessmentNodesLastModified lastModifications;
+		
+		public EvaluatedStatement(Identity identity, List<AssessmentNodeData> assessmentNodeList,
+				AssessmentNodesLastModified lastModifications) {
+			this.identity = identity;
+			this.assessmentNodeList = assessmentNodeList;
+			this.lastModifications = lastModifications;
+			// the dates in the database are possibly truncated to the second
+			evaluationDate = new Date(System.currentTimeMillis() - 1000l);
+		}
+
+		public Identity getIdentity() {
+			return identity;
+		}
+
+		public Date getEvaluationDate() {
+			return evaluationDate;
+		}
+
+		public List<AssessmentNodeData> getAssessmentNodeList() {
+			return assessmentNodeList;
+		}
+
+		public AssessmentNodesLastModified getLastModifications() {
+			return lastModifications;
+		}
+	}
 }
@@ -0,0 +1,113 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.assessment.manager;
+
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.services.taskexecutor.LongRunnable;
+import org.olat.core.commons.services.taskexecutor.Task;
+import org.olat.core.commons.services.taskexecutor.TaskAwareRunnable;
+import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
+import org.olat.core.id.Identity;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.async.ProgressDelegate;
+import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryService;
+
+/**
+ * The task which updates the efficiency statements of all the users
+ * with assessment data in a course. The progress is saved in the task.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class EfficiencyStatementsTask implements LongRunnable, TaskAwareRunnable, ProgressDelegate {
+
+	private static final long serialVersionUID = -3268474413576309124L;
+	private static final Logger log = Tracing.createLoggerFor(EfficiencyStatementsTask.class);
+	
+	public static final String RES_SUB_PATH = "efficiencystatements";
+	
+	private final Long courseEntryKey;
+	
+	private transient Task task;
+	private transient float max;
+	private transient String info;
+	
+	public EfficiencyStatementsTask(Long courseEntryKey) {
+		this.courseEntryKey = courseEntryKey;
+	}
+	
+	public Long getCourseEntryKey() {
+		return courseEntryKey;
+	}
+
+	@Override
+	public void setTask(Task task) {
+		this.task = task;
+	}
+
+	@Override
+	public void run() {
+		RepositoryEntry courseEntry = CoreSpringFactory.getImpl(RepositoryService.class).loadByKey(courseEntryKey);
+		if(courseEntry == null) {
+			log.warn("Course of the efficiency statements not found: {}", courseEntryKey);
+			return;
+		}
+		
+		ICourse course = CourseFactory.loadCourse(courseEntry);
+		List<Identity> identities = course.getCourseEnvironment().getCoursePropertyManager()
+				.getAllIdentitiesWithCourseAssessmentData(null);
+		log.info(Tracing.M_AUDIT, "Start update of the efficiency statements of course: {}", courseEntryKey);
+		CoreSpringFactory.getImpl(EfficiencyStatementManager.class).updateEfficiencyStatements(courseEntry, identities, this);
+		log.info(Tracing.M_AUDIT, "End update of the efficiency statements of course: {}", courseEntryKey);
+	}
+
+	@Override
+	public void setMax(float max) {
+		this.max = max;
+	}
+
+	@Override
+	public void setActual(float value) {
+		if(task != null && max > 0.0f) {
+			double progress = Math.min(1.0d, value / max);
+			String checkpoint = info == null ? Math.round(value) + "/" + Math.round(max) : info;
+			CoreSpringFactory.getImpl(TaskExecutorManager.class).updateProgress(task, progress, checkpoint);
+		}
+	}
+
+	@Override
+	public void setInfo(String message) {
+		this.info = message;
+	}
+
+	@Override
+	public void finished() {
+		if(task != null) {
+			CoreSpringFactory.getImpl(TaskExecutorManager.class).updateProgress(task, 1.0d, null);
+		}
+	}
+}
@@ -44,8 +44,10 @@ import org.olat.core.util.resource.OresHelper;
 import org.olat.course.assessment.UserCourseInformations;
 import org.olat.course.assessment.model.UserCourseInfosImpl;
 import org.olat.group.BusinessGroupRef;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.olat.resource.OLATResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -63,6 +65,10 @@ public class UserCourseInformationsManagerImpl implements UserCourseInformations
 
 	@Autowired
 	private DB dbInstance;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
 
 	@Override
 	public UserCourseInfosImpl getUserCourseInformations(OLATResource resource, IdentityRef identity) {
@@ -160,6 +166,7 @@ public class UserCourseInformationsManagerImpl implements UserCourseInformations
 	@Override
 	public void updateUserCourseInformations(final OLATResource courseResource, final Identity identity) {
 		int updatedRows = lowLevelUpdate(courseResource, identity);
+		myCourseDao.updateRecentLaunch(identity, courseResource, new Date());
 		dbInstance.commit();//to make it quick
 		if(updatedRows == 0) {
 			OLATResourceable lockRes = OresHelper.createOLATResourceableInstance("CourseLaunchDate::Identity", identity.getKey());
@@ -178,6 +185,8 @@ public class UserCourseInformationsManagerImpl implements UserCourseInformations
 							infos.setVisit(1);
 							infos.setResource(courseResource);
 							dbInstance.getCurrentEntityManager().persist(infos);
+							// the initial launch is in the statistics of the coaching tool
+							coachingStatisticsWorkDao.markResource(courseResource, identity);
 						}
 					} catch (Exception e) {
 						log.error("Cannot update course informations for: " + identity + " from " + identity, e);
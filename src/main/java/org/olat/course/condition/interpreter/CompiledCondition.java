@@ -0,0 +1,43 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+/**
+ * The parsed form of a condition or a calculation. The tree holds only
+ * the names of the functions, variables and units, it is independent of
+ * the user and can be shared by all the interpreters of a course. The
+ * callbacks are resolved at every evaluation from the environment of
+ * the interpreter.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public interface CompiledCondition {
+
+	/**
+	 * @param interpreter The interpreter which holds the functions of the user
+	 * @return An Integer, a Double, a String or what the functions return
+	 * @throws ConditionCompiler.UnsupportedEvaluationException If the operation is
+	 * 		not supported with these operands, the expression must be evaluated by jmep
+	 */
+	public Object evaluate(ConditionInterpreter interpreter);
+
+}
@@ -0,0 +1,104 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Hold the compiled conditions of the courses. The compiled form of an
+ * expression doesn't depend on the user, it's shared by all the interpreters
+ * of the course. The cache is local to the node, the compiled form of an expression
+ * never changes and the cache of a course is dropped after publishing only to
+ * release the expressions which are not used anymore.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class CompiledConditionCache {
+
+	private static final int MAX_COURSES = 1000;
+	private static final int MAX_CONDITIONS_PER_COURSE = 512;
+
+	/**
+	 * Marker for the expressions which cannot be compiled, they are not parsed again.
+	 */
+	private static final CompiledCondition NOT_COMPILABLE = interpreter -> {
+		throw new ConditionCompiler.UnsupportedEvaluationException("Not compilable");
+	};
+
+	private final Map<Long,Map<String,CompiledCondition>> courseToConditions = new LRUMap<>(MAX_COURSES);
+
+	/**
+	 *
+	 * @param courseResId The resourceable id of the course
+	 * @param expression The expression
+	 * @return The compiled expression or null if it cannot be compiled
+	 */
+	public CompiledCondition getCompiledCondition(Long courseResId, String expression) {
+		Map<String,CompiledCondition> conditions;
+		synchronized(courseToConditions) {
+			conditions = courseToConditions.computeIfAbsent(courseResId, key -> new LRUMap<>(MAX_CONDITIONS_PER_COURSE));
+		}
+
+		CompiledCondition condition;
+		synchronized(conditions) {
+			condition = conditions.get(expression);
+		}
+		if(condition == null) {
+			// compile outside the lock, in the worst case an expression is compiled twice
+			condition = ConditionCompiler.compile(expression);
+			if(condition == null) {
+				condition = NOT_COMPILABLE;
+			}
+			synchronized(conditions) {
+				conditions.put(expression, condition);
+			}
+		}
+		return condition == NOT_COMPILABLE ? null : condition;
+	}
+
+	public void invalidate(Long courseResId) {
+		synchronized(courseToConditions) {
+			courseToConditions.remove(courseResId);
+		}
+	}
+
+	private static class LRUMap<K,V> extends LinkedHashMap<K,V> {
+
+		private static final long serialVersionUID = -6937549931440826094L;
+
+		private final int maxSize;
+
+		public LRUMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
+			return size() > maxSize;
+		}
+	}
+}
@@ -0,0 +1,567 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neemsoft.jmep.FunctionCB;
+import com.neemsoft.jmep.UnitCB;
+
+/**
+ * Parse the subset of the jmep syntax used by the course conditions in a
+ * tree of {@link CompiledCondition}: numbers, strings, constants, variables,
+ * functions, units and the operators | &amp; = != &lt; &lt;= &gt; &gt;= + - * / !
+ * with the usual precedence. An expression with an other syntax cannot be
+ * compiled and must be evaluated by jmep.<br>
+ * The operators implement the semantic of jmep for Integer and Double
+ * operands, other operands throw an {@link UnsupportedEvaluationException}
+ * and the expression is evaluated by jmep.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ConditionCompiler {
+
+	private final String expression;
+	private final List<Token> tokens = new ArrayList<>();
+	private int pos = 0;
+
+	private ConditionCompiler(String expression) {
+		this.expression = expression;
+	}
+
+	/**
+	 * @param expression The condition or the calculation
+	 * @return The compiled expression or null if the syntax is not supported
+	 */
+	public static CompiledCondition compile(String expression) {
+		if(expression == null) {
+			return null;
+		}
+		ConditionCompiler compiler = new ConditionCompiler(expression);
+		if(!compiler.tokenize()) {
+			return null;
+		}
+		CompiledCondition condition = compiler.parseOr();
+		if(condition == null || compiler.pos != compiler.tokens.size()) {
+			return null;
+		}
+		return condition;
+	}
+
+	private boolean tokenize() {
+		int length = expression.length();
+		for(int i=0; i<length; ) {
+			char ch = expression.charAt(i);
+			if(Character.isWhitespace(ch)) {
+				i++;
+			} else if(Character.isDigit(ch)) {
+				int start = i;
+				while(i < length && Character.isDigit(expression.charAt(i))) {
+					i++;
+				}
+				boolean decimal = i + 1 < length && expression.charAt(i) == '.' && Character.isDigit(expression.charAt(i + 1));
+				if(decimal) {
+					i++;
+					while(i < length && Character.isDigit(expression.charAt(i))) {
+						i++;
+					}
+				}
+				String number = expression.substring(start, i);
+				try {
+					Object value = decimal ? (Object)Double.valueOf(number) : (Object)Integer.valueOf(number);
+					tokens.add(new Token(TokenType.literal, number, value));
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			} else if(ch == '"') {
+				int end = expression.indexOf('"', i + 1);
+				if(end < 0) {
+					return false;
+				}
+				String value = expression.substring(i + 1, end);
+				if(value.indexOf('\\') >= 0) {
+					return false;// escapes are let to jmep
+				}
+				tokens.add(new Token(TokenType.literal, value, value));
+				i = end + 1;
+			} else if(Character.isLetter(ch) || ch == '_') {
+				int start = i;
+				while(i < length && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '_')) {
+					i++;
+				}
+				tokens.add(new Token(TokenType.identifier, expression.substring(start, i), null));
+			} else {
+				String op = null;
+				if(i + 1 < length) {
+					String twoChars = expression.substring(i, i + 2);
+					if("<=".equals(twoChars) || ">=".equals(twoChars) || "!=".equals(twoChars)) {
+						op = twoChars;
+					}
+				}
+				if(op == null && "()<>=!&|+-*/,".indexOf(ch) >= 0) {
+					op = String.valueOf(ch);
+				}
+				if(op == null) {
+					return false;
+				}
+				tokens.add(new Token(TokenType.operator, op, null));
+				i += op.length();
+			}
+		}
+		return !tokens.isEmpty();
+	}
+
+	private boolean isOperator(String op) {
+		if(pos < tokens.size()) {
+			Token token = tokens.get(pos);
+			return token.type == TokenType.operator && token.text.equals(op);
+		}
+		return false;
+	}
+
+	private boolean isType(int index, TokenType type) {
+		return index < tokens.size() && tokens.get(index).type == type;
+	}
+
+	private CompiledCondition parseOr() {
+		CompiledCondition left = parseAnd();
+		while(left != null && isOperator("|")) {
+			pos++;
+			left = binary(Operator.or, left, parseAnd());
+		}
+		return left;
+	}
+
+	private CompiledCondition parseAnd() {
+		CompiledCondition left = parseEquality();
+		while(left != null && isOperator("&")) {
+			pos++;
+			left = binary(Operator.and, left, parseEquality());
+		}
+		return left;
+	}
+
+	private CompiledCondition parseEquality() {
+		CompiledCondition left = parseRelational();
+		while(left != null) {
+			if(isOperator("=")) {
+				pos++;
+				left = binary(Operator.eq, left, parseRelational());
+			} else if(isOperator("!=")) {
+				pos++;
+				left = binary(Operator.ne, left, parseRelational());
+			} else {
+				break;
+			}
+		}
+		return left;
+	}
+
+	private CompiledCondition parseRelational() {
+		CompiledCondition left = parseAdditive();
+		while(left != null) {
+			if(isOperator("<")) {
+				pos++;
+				left = binary(Operator.lt, left, parseAdditive());
+			} else if(isOperator("<=")) {
+				pos++;
+				left = binary(Operator.le, left, parseAdditive());
+			} else if(isOperator(">")) {
+				pos++;
+				left = binary(Operator.gt, left, parseAdditive());
+			} else if(isOperator(">=")) {
+				pos++;
+				left = binary(Operator.ge, left, parseAdditive());
+			} else {
+				break;
+			}
+		}
+		return left;
+	}
+
+	private CompiledCondition parseAdditive() {
+		CompiledCondition left = parseMultiplicative();
+		while(left != null) {
+			if(isOperator("+")) {
+				pos++;
+				left = binary(Operator.add, left, parseMultiplicative());
+			} else if(isOperator("-")) {
+				pos++;
+				left = binary(Operator.sub, left, parseMultiplicative());
+			} else {
+				break;
+			}
+		}
+		return left;
+	}
+
+	private CompiledCondition parseMultiplicative() {
+		CompiledCondition left = parseUnary();
+		while(left != null) {
+			if(isOperator("*")) {
+				pos++;
+				left = binary(Operator.mul, left, parseUnary());
+			} else if(isOperator("/")) {
+				pos++;
+				left = binary(Operator.div, left, parseUnary());
+			} else {
+				break;
+			}
+		}
+		return left;
+	}
+
+	private CompiledCondition parseUnary() {
+		if(isOperator("!")) {
+			pos++;
+			CompiledCondition operand = parseUnary();
+			return operand == null ? null : new Not(operand);
+		}
+		if(isOperator("-")) {
+			pos++;
+			CompiledCondition operand = parseUnary();
+			return operand == null ? null : new Negate(operand);
+		}
+		if(isOperator("+")) {
+			pos++;
+			return parseUnary();
+		}
+		return parsePrimary();
+	}
+
+	private CompiledCondition parsePrimary() {
+		if(pos >= tokens.size()) {
+			return null;
+		}
+
+		Token token = tokens.get(pos++);
+		if(token.type == TokenType.literal) {
+			CompiledCondition literal = new Literal(token.value);
+			// a number followed by a unit, e.g. 2d
+			if(token.value instanceof Number && isType(pos, TokenType.identifier)
+					&& !(pos + 1 < tokens.size() && "(".equals(tokens.get(pos + 1).text))) {
+				return new Unit(tokens.get(pos++).text, literal);
+			}
+			return literal;
+		}
+		if(token.type == TokenType.identifier) {
+			if(isOperator("(")) {
+				pos++;
+				List<CompiledCondition> arguments = new ArrayList<>(3);
+				if(isOperator(")")) {
+					pos++;
+				} else {
+					while(true) {
+						CompiledCondition argument = parseOr();
+						if(argument == null) {
+							return null;
+						}
+						arguments.add(argument);
+						if(isOperator(",")) {
+							pos++;
+						} else if(isOperator(")")) {
+							pos++;
+							break;
+						} else {
+							return null;
+						}
+					}
+				}
+				return new Function(token.text, arguments.toArray(new CompiledCondition[arguments.size()]));
+			}
+			return new Variable(token.text);
+		}
+		if("(".equals(token.text)) {
+			CompiledCondition inner = parseOr();
+			if(inner == null || !isOperator(")")) {
+				return null;
+			}
+			pos++;
+			return inner;
+		}
+		return null;
+	}
+
+	private static CompiledCondition binary(Operator operator, CompiledCondition left, CompiledCondition right) {
+		return right == null ? null : new Binary(operator, left, right);
+	}
+
+	private enum TokenType {
+		literal,
+		identifier,
+		operator
+	}
+
+	private static class Token {
+
+		private final TokenType type;
+		private final String text;
+		private final Object value;
+
+		public Token(TokenType type, String text, Object value) {
+			this.type = type;
+			this.text = text;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Thrown if the compiled expression cannot evaluate the operands with the
+	 * same semantic as jmep.
+	 */
+	public static class UnsupportedEvaluationException extends RuntimeException {
+
+		private static final long serialVersionUID = -1526730137470306543L;
+
+		public UnsupportedEvaluationException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Thrown if a function, variable or unit is not defined in the
+	 * environment of the interpreter.
+	 */
+	public static class UndefinedNameException extends RuntimeException {
+
+		private static final long serialVersionUID = 3530945785470185263L;
+
+		public UndefinedNameException(String name) {
+			super("Undefined function, variable or unit: " + name);
+		}
+	}
+
+	private static class Literal implements CompiledCondition {
+
+		private final Object value;
+
+		public Literal(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			return value;
+		}
+	}
+
+	private static class Variable implements CompiledCondition {
+
+		private final String name;
+
+		public Variable(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			return interpreter.getVariableValue(name);
+		}
+	}
+
+	private static class Function implements CompiledCondition {
+
+		private final String name;
+		private final CompiledCondition[] arguments;
+
+		public Function(String name, CompiledCondition[] arguments) {
+			this.name = name;
+			this.arguments = arguments;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			FunctionCB function = interpreter.getFunction(name);
+			if(function == null) {
+				throw new UndefinedNameException(name);
+			}
+			Object[] inStack = new Object[arguments.length];
+			for(int i=arguments.length; i-->0; ) {
+				inStack[i] = arguments[i].evaluate(interpreter);
+			}
+			return interpreter.callFunction(name, function, inStack);
+		}
+	}
+
+	private static class Unit implements CompiledCondition {
+
+		private final String name;
+		private final CompiledCondition operand;
+
+		public Unit(String name, CompiledCondition operand) {
+			this.name = name;
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			UnitCB unit = interpreter.getUnit(name);
+			if(unit == null) {
+				throw new UndefinedNameException(name);
+			}
+			return unit.apply(operand.evaluate(interpreter));
+		}
+	}
+
+	private static class Not implements CompiledCondition {
+
+		private final CompiledCondition operand;
+
+		public Not(CompiledCondition operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			Object value = operand.evaluate(interpreter);
+			if(value instanceof Integer) {
+				return ((Integer)value).intValue() == 0 ? ConditionInterpreter.INT_TRUE : ConditionInterpreter.INT_FALSE;
+			}
+			throw new UnsupportedEvaluationException("!" + value);
+		}
+	}
+
+	private static class Negate implements CompiledCondition {
+
+		private final CompiledCondition operand;
+
+		public Negate(CompiledCondition operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			Object value = operand.evaluate(interpreter);
+			if(value instanceof Integer) {
+				return Integer.valueOf(-((Integer)value).intValue());
+			} else if(value instanceof Double) {
+				return Double.valueOf(-((Double)value).doubleValue());
+			}
+			throw new UnsupportedEvaluationException("-" + value);
+		}
+	}
+
+	private enum Operator {
+		or,
+		and,
+		eq,
+		ne,
+		lt,
+		le,
+		gt,
+		ge,
+		add,
+		sub,
+		mul,
+		div
+	}
+
+	private static class Binary implements CompiledCondition {
+
+		private final Operator operator;
+		private final CompiledCondition left;
+		private final CompiledCondition right;
+
+		public Binary(Operator operator, CompiledCondition left, CompiledCondition right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(ConditionInterpreter interpreter) {
+			// like jmep, both operands are always evaluated
+			Object leftValue = left.evaluate(interpreter);
+			Object rightValue = right.evaluate(interpreter);
+			if(!isNumber(leftValue) || !isNumber(rightValue)) {
+				throw new UnsupportedEvaluationException(leftValue + " " + operator + " " + rightValue);
+			}
+
+			boolean integers = leftValue instanceof Integer && rightValue instanceof Integer;
+			switch(operator) {
+				case or:
+				case and:
+					if(!integers) {
+						throw new UnsupportedEvaluationException(leftValue + " " + operator + " " + rightValue);
+					}
+					int l = ((Integer)leftValue).intValue();
+					int r = ((Integer)rightValue).intValue();
+					return Integer.valueOf(operator == Operator.or ? (l | r) : (l & r));
+				case eq:
+				case ne:
+				case lt:
+				case le:
+				case gt:
+				case ge: return bool(compare(leftValue, rightValue));
+				default: return arithmetic(integers, leftValue, rightValue);
+			}
+		}
+
+		private Object arithmetic(boolean integers, Object leftValue, Object rightValue) {
+			if(integers) {
+				int l = ((Integer)leftValue).intValue();
+				int r = ((Integer)rightValue).intValue();
+				switch(operator) {
+					case add: return Integer.valueOf(l + r);
+					case sub: return Integer.valueOf(l - r);
+					case mul: return Integer.valueOf(l * r);
+					default: return Integer.valueOf(l / r);// throw an ArithmeticException if r == 0
+				}
+			}
+
+			double l = ((Number)leftValue).doubleValue();
+			double r = ((Number)rightValue).doubleValue();
+			switch(operator) {
+				case add: return Double.valueOf(l + r);
+				case sub: return Double.valueOf(l - r);
+				case mul: return Double.valueOf(l * r);
+				default: return Double.valueOf(l / r);
+			}
+		}
+
+		private static boolean isNumber(Object value) {
+			return value instanceof Integer || value instanceof Double;
+		}
+
+		/**
+		 * Compare with the primitive operators like jmep: -0.0 is equal to 0.0
+		 * and NaN is neither equal, lower nor greater than any value.
+		 */
+		private boolean compare(Object leftValue, Object rightValue) {
+			double l = ((Number)leftValue).doubleValue();
+			double r = ((Number)rightValue).doubleValue();
+			switch(operator) {
+				case eq: return l == r;
+				case ne: return l != r;
+				case lt: return l < r;
+				case le: return l <= r;
+				case gt: return l > r;
+				default: return l >= r;
+			}
+		}
+
+		private static Integer bool(boolean value) {
+			return value ? ConditionInterpreter.INT_TRUE : ConditionInterpreter.INT_FALSE;
+		}
+	}
+}
@@ -26,14 +26,20 @@
 package org.olat.course.condition.interpreter;
 
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.logging.log4j.Logger;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.logging.AssertException;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.Util;
 import org.olat.course.condition.Condition;
+import org.olat.course.condition.interpreter.ConditionCompiler.UndefinedNameException;
+import org.olat.course.condition.interpreter.ConditionCompiler.UnsupportedEvaluationException;
 import org.olat.course.condition.interpreter.score.GetAverageScoreFunction;
 import org.olat.course.condition.interpreter.score.GetPassedFunction;
 import org.olat.course.condition.interpreter.score.GetPassedWithCourseIdFunction;
@@ -41,10 +47,14 @@ import org.olat.course.condition.interpreter.score.GetScoreFunction;
 import org.olat.course.condition.interpreter.score.GetScoreWithCourseIdFunction;
 import org.olat.course.db.interpreter.GetUserCourseDBFunction;
 import org.olat.course.editor.CourseEditorEnv;
+import org.olat.course.run.environment.CourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironment;
 
 import com.neemsoft.jmep.Environment;
 import com.neemsoft.jmep.Expression;
+import com.neemsoft.jmep.FunctionCB;
+import com.neemsoft.jmep.UnitCB;
+import com.neemsoft.jmep.VariableCB;
 import com.neemsoft.jmep.XExpression;
 import com.neemsoft.jmep.XIllegalOperation;
 import com.neemsoft.jmep.XIllegalStatus;
@@ -71,6 +81,13 @@ public class ConditionInterpreter {
 	protected Translator translator;
 	protected UserCourseEnvironment uce;
 
+	private final Map<String,Object> constants = new HashMap<>();
+	private final Map<String,VariableCB> variables = new HashMap<>();
+	private final Map<String,FunctionCB> functions = new HashMap<>();
+	private final Map<String,UnitCB> units = new HashMap<>();
+	/** The results of the functions called during the current evaluation */
+	private Map<FunctionCall,Object> functionResults;
+
 	/**
 	 * ConditionInterpreter interpretes course conditions.
 	 *
@@ -84,97 +101,174 @@ public class ConditionInterpreter {
 			translator = Util.createPackageTranslator(ConditionInterpreter.class, cev.getEditorEnvLocale());
 		}
 
-		env = new Environment();
+		resetEnvironment();
 
 		// constants: add for user convenience
-		env.addConstant("true", 1);
-		env.addConstant("false", 0);
+		addConstant("true", 1);
+		addConstant("false", 0);
 
 		// variables
-		env.addVariable(NowVariable.name, new NowVariable(userCourseEnv));
-		env.addVariable(TodayVariable.name, new TodayVariable(userCourseEnv));
-		env.addVariable(NeverVariable.name, new NeverVariable(userCourseEnv));
-		env.addVariable(AnyCourseVariable.name, new AnyCourseVariable());
+		addVariable(NowVariable.name, new NowVariable(userCourseEnv));
+		addVariable(TodayVariable.name, new TodayVariable(userCourseEnv));
+		addVariable(NeverVariable.name, new NeverVariable(userCourseEnv));
+		addVariable(AnyCourseVariable.name, new AnyCourseVariable());
 
 		// functions
-		env.addFunction(DateFunction.name, new DateFunction(userCourseEnv));
-		env.addFunction("inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
-		env.addFunction("inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
-		env.addFunction("isLearningGroupFull", new IsLearningGroupFullFunction(userCourseEnv));
-		env.addFunction(InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
-		env.addFunction(InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
-		env.addFunction(IsUserFunction.name, new IsUserFunction(userCourseEnv));
-		env.addFunction(IsGuestFunction.name, new IsGuestFunction(userCourseEnv));
-		env.addFunction(IsGlobalAuthorFunction.name, new IsGlobalAuthorFunction(userCourseEnv));
-		env.addFunction(Sleep.name, new Sleep(userCourseEnv));
+		addFunction(DateFunction.name, new DateFunction(userCourseEnv));
+		addFunction("inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
+		addFunction("inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
+		addFunction("isLearningGroupFull", new IsLearningGroupFullFunction(userCourseEnv));
+		addFunction(InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
+		addFunction(InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
+		addFunction(IsUserFunction.name, new IsUserFunction(userCourseEnv));
+		addFunction(IsGuestFunction.name, new IsGuestFunction(userCourseEnv));
+		addFunction(IsGlobalAuthorFunction.name, new IsGlobalAuthorFunction(userCourseEnv));
+		addFunction(Sleep.name, new Sleep(userCourseEnv));
 		EvalAttributeFunction eaf;
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_HAS_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_IS_IN_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_HAS_NOT_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_IS_NOT_IN_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_ATTRIBUTE_ENDS_WITH);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_ATTRIBUTE_STARTS_WITH);
-		env.addFunction(eaf.name, eaf);
+		addFunction(eaf.name, eaf);
 		EvalUserPropertyFunction eupf;
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_HAS_NOT_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_NOT_PROPERTY, eupf);
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_NOT_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_HAS_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_PROPERTY, eupf);
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_IS_IN_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_IN_PROPERTY, eupf);
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_IN_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_IS_NOT_IN_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_NOT_IN_PROPERTY, eupf);
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_NOT_IN_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_PROPERTY_ENDS_WITH);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_ENDS_WITH, eupf);
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_ENDS_WITH, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_PROPERTY_STARTS_WITH);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_STARTS_WITH, eupf);
-		env.addFunction(GetUserPropertyFunction.name, new GetUserPropertyFunction(userCourseEnv));
-		env.addFunction(GetUserCourseDBFunction.name, new GetUserCourseDBFunction(userCourseEnv));
-		env.addFunction(HasLanguageFunction.name, new HasLanguageFunction(userCourseEnv));
-		env.addFunction(InInstitutionFunction.name, new InInstitutionFunction(userCourseEnv));
-		env.addFunction(IsCourseCoachFunction.name, new IsCourseCoachFunction(userCourseEnv));
-		env.addFunction(IsCourseParticipantFunction.name, new IsCourseParticipantFunction(userCourseEnv));
-		env.addFunction(IsCourseAdministratorFunction.name, new IsCourseAdministratorFunction(userCourseEnv));
-		env.addFunction(IsInOrganisationFunction.name, new IsInOrganisationFunction(userCourseEnv));
+		addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_STARTS_WITH, eupf);
+		addFunction(GetUserPropertyFunction.name, new GetUserPropertyFunction(userCourseEnv));
+		addFunction(GetUserCourseDBFunction.name, new GetUserCourseDBFunction(userCourseEnv));
+		addFunction(HasLanguageFunction.name, new HasLanguageFunction(userCourseEnv));
+		addFunction(InInstitutionFunction.name, new InInstitutionFunction(userCourseEnv));
+		addFunction(IsCourseCoachFunction.name, new IsCourseCoachFunction(userCourseEnv));
+		addFunction(IsCourseParticipantFunction.name, new IsCourseParticipantFunction(userCourseEnv));
+		addFunction(IsCourseAdministratorFunction.name, new IsCourseAdministratorFunction(userCourseEnv));
+		addFunction(IsInOrganisationFunction.name, new IsInOrganisationFunction(userCourseEnv));
 		
-		env.addFunction(IsAssessmentModeFunction.name, new IsAssessmentModeFunction(userCourseEnv));
-		env.addFunction(GetCourseBeginDateFunction.name, new GetCourseBeginDateFunction(userCourseEnv));
-		env.addFunction(GetCourseEndDateFunction.name, new GetCourseEndDateFunction(userCourseEnv));
-		env.addFunction(GetInitialCourseLaunchDateFunction.name, new GetInitialCourseLaunchDateFunction(userCourseEnv));
-		env.addFunction(GetRecentCourseLaunchDateFunction.name, new GetRecentCourseLaunchDateFunction(userCourseEnv));
+		addFunction(IsAssessmentModeFunction.name, new IsAssessmentModeFunction(userCourseEnv));
+		addFunction(GetCourseBeginDateFunction.name, new GetCourseBeginDateFunction(userCourseEnv));
+		addFunction(GetCourseEndDateFunction.name, new GetCourseEndDateFunction(userCourseEnv));
+		addFunction(GetInitialCourseLaunchDateFunction.name, new GetInitialCourseLaunchDateFunction(userCourseEnv));
+		addFunction(GetRecentCourseLaunchDateFunction.name, new GetRecentCourseLaunchDateFunction(userCourseEnv));
 
-		env.addFunction(GetAttemptsFunction.name, new GetAttemptsFunction(userCourseEnv));
-		env.addFunction(GetLastAttemptDateFunction.name, new GetLastAttemptDateFunction(userCourseEnv));
+		addFunction(GetAttemptsFunction.name, new GetAttemptsFunction(userCourseEnv));
+		addFunction(GetLastAttemptDateFunction.name, new GetLastAttemptDateFunction(userCourseEnv));
 
 		// enrollment building block specific functions
-		env.addFunction(GetInitialEnrollmentDateFunction.name, new GetInitialEnrollmentDateFunction(userCourseEnv));
-		env.addFunction(GetRecentEnrollmentDateFunction.name, new GetRecentEnrollmentDateFunction(userCourseEnv));
+		addFunction(GetInitialEnrollmentDateFunction.name, new GetInitialEnrollmentDateFunction(userCourseEnv));
+		addFunction(GetRecentEnrollmentDateFunction.name, new GetRecentEnrollmentDateFunction(userCourseEnv));
 
 		// functions to calculate score
-		env.addFunction(GetPassedFunction.name, new GetPassedFunction(userCourseEnv));
-		env.addFunction(GetScoreFunction.name, new GetScoreFunction(userCourseEnv));
-		env.addFunction(GetAverageScoreFunction.NAME, new GetAverageScoreFunction(userCourseEnv));
-		env.addFunction(GetPassedWithCourseIdFunction.name, new GetPassedWithCourseIdFunction(userCourseEnv));
-		env.addFunction(GetScoreWithCourseIdFunction.name, new GetScoreWithCourseIdFunction(userCourseEnv));
+		addFunction(GetPassedFunction.name, new GetPassedFunction(userCourseEnv));
+		addFunction(GetScoreFunction.name, new GetScoreFunction(userCourseEnv));
+		addFunction(GetAverageScoreFunction.NAME, new GetAverageScoreFunction(userCourseEnv));
+		addFunction(GetPassedWithCourseIdFunction.name, new GetPassedWithCourseIdFunction(userCourseEnv));
+		addFunction(GetScoreWithCourseIdFunction.name, new GetScoreWithCourseIdFunction(userCourseEnv));
 
 	  
-		env.addFunction(GetOnyxTestOutcomeNumFunction.name, new GetOnyxTestOutcomeNumFunction(userCourseEnv));
-		env.addFunction(GetOnyxTestOutcomeAnumFunction.name, new GetOnyxTestOutcomeAnumFunction(userCourseEnv));
+		addFunction(GetOnyxTestOutcomeNumFunction.name, new GetOnyxTestOutcomeNumFunction(userCourseEnv));
+		addFunction(GetOnyxTestOutcomeAnumFunction.name, new GetOnyxTestOutcomeAnumFunction(userCourseEnv));
 		
 
 		// units
-		env.addUnit("min", new MinuteUnit());
-		env.addUnit("h", new HourUnit());
-		env.addUnit("d", new DayUnit());
-		env.addUnit("w", new WeekUnit());
-		env.addUnit("m", new MonthUnit());
+		addUnit("min", new MinuteUnit());
+		addUnit("h", new HourUnit());
+		addUnit("d", new DayUnit());
+		addUnit("w", new WeekUnit());
+		addUnit("m", new MonthUnit());
+	}
+
+	/**
+	 * Start with a new and empty environment.
+	 */
+	protected void resetEnvironment() {
+		env = new Environment();
+		constants.clear();
+		variables.clear();
+		functions.clear();
+		units.clear();
+	}
+
+	protected void addConstant(String name, int value) {
+		env.addConstant(name, value);
+		constants.put(name, Integer.valueOf(value));
+	}
+
+	protected void addVariable(String name, VariableCB variable) {
+		env.addVariable(name, variable);
+		variables.put(name, variable);
+	}
+
+	protected void addFunction(String name, FunctionCB function) {
+		env.addFunction(name, new RecordedFunction(name, function));
+		functions.put(name, function);
+	}
+
+	protected void addUnit(String name, UnitCB unit) {
+		env.addUnit(name, unit);
+		units.put(name, unit);
+	}
+
+	FunctionCB getFunction(String name) {
+		return functions.get(name);
 	}
 	
+	/**
+	 * Call the function or, during an evaluation, return the result of
+	 * a previous call with the same arguments.
+	 * 
+	 * @param name The name of the function
+	 * @param function The function
+	 * @param inStack The arguments
+	 * @return The result of the function
+	 */
+	Object callFunction(String name, FunctionCB function, Object[] inStack) {
+		if(functionResults == null) {
+			return function.call(inStack);
+		}
+		
+		FunctionCall call = new FunctionCall(name, inStack);
+		if(functionResults.containsKey(call)) {
+			return functionResults.get(call);
+		}
+		Object result = function.call(inStack);
+		functionResults.put(call, result);
+		return result;
+	}
+
+	UnitCB getUnit(String name) {
+		return units.get(name);
+	}
+
+	/**
+	 * @param name The name of a constant or a variable
+	 * @return The value
+	 */
+	Object getVariableValue(String name) {
+		Object constant = constants.get(name);
+		if(constant != null) {
+			return constant;
+		}
+		VariableCB variable = variables.get(name);
+		if(variable == null) {
+			throw new UndefinedNameException(name);
+		}
+		return variable.getValue();
+	}
 
 	public UserCourseEnvironment getUserCourseEnvironment() {
 		return uce;
@@ -323,8 +417,7 @@ public class ConditionInterpreter {
 
 	private float doEvaluateCalculation(String calculation) throws ParseException {
 		try {
-			Expression exp = new Expression(calculation, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(calculation);
 			if (result instanceof Double) {
 				return ((Double) result).floatValue();
 			} else if (result instanceof Integer) {
@@ -344,8 +437,7 @@ public class ConditionInterpreter {
 	 */
 	private boolean doEvaluateCondition(String condition) throws ParseException {
 		try {
-			Expression exp = new Expression(condition, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(condition);
 			if (result instanceof Double) {
 				return (((Double) result).doubleValue() == 1.0);
 			} else if (result instanceof Integer) {
@@ -355,4 +447,99 @@ public class ConditionInterpreter {
 			throw new ParseException("Parse exception for condition: " + condition + ". " + xe.getMessage(), xe.getPosition());
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Evaluate the expression with its compiled form if possible. The
+	 * expressions which cannot be compiled, or evaluated with the compiled
+	 * form, are evaluated by jmep which reports the errors. jmep reuses the
+	 * results of the functions already called by the compiled form.
+	 * 
+	 * @param expression The condition or the calculation
+	 * @return The result of the evaluation
+	 * @throws XExpression
+	 */
+	private Object evaluate(String expression) throws XExpression {
+		CompiledCondition compiledCondition = getCompiledCondition(expression);
+		if(compiledCondition == null) {
+			return new Expression(expression, env).evaluate();
+		}
+		
+		Map<FunctionCall,Object> previousResults = functionResults;
+		functionResults = new HashMap<>();
+		try {
+			return compiledCondition.evaluate(this);
+		} catch (UnsupportedEvaluationException | UndefinedNameException | ArithmeticException e) {
+			log.debug("Evaluate with jmep: {}", expression);
+			return new Expression(expression, env).evaluate();
+		} finally {
+			functionResults = previousResults;
+		}
+	}
+
+	/**
+	 * The editor checks the expressions with the errors collected by jmep
+	 * and always use it.
+	 * 
+	 * @param expression The expression
+	 * @return The compiled expression or null
+	 */
+	protected CompiledCondition getCompiledCondition(String expression) {
+		if(expression == null || uce.getCourseEditorEnv() != null) {
+			return null;
+		}
+		CourseEnvironment courseEnv = uce.getCourseEnvironment();
+		if(courseEnv == null || courseEnv.getCourseResourceableId() == null) {
+			return null;
+		}
+		CompiledConditionCache cache = CoreSpringFactory.getImpl(CompiledConditionCache.class);
+		return cache.getCompiledCondition(courseEnv.getCourseResourceableId(), expression);
+	}
+	
+	/**
+	 * The function registered in jmep, it shares the results of the
+	 * functions with the compiled form.
+	 */
+	private class RecordedFunction extends FunctionCB {
+		
+		private final String name;
+		private final FunctionCB function;
+		
+		public RecordedFunction(String name, FunctionCB function) {
+			this.name = name;
+			this.function = function;
+		}
+
+		@Override
+		public Object call(Object[] inStack) {
+			return callFunction(name, function, inStack);
+		}
+	}
+	
+	private static class FunctionCall {
+		
+		private final String name;
+		private final Object[] arguments;
+		
+		public FunctionCall(String name, Object[] arguments) {
+			this.name = name;
+			this.arguments = arguments.clone();
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode() + Arrays.hashCode(arguments);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof FunctionCall) {
+				FunctionCall call = (FunctionCall)obj;
+				return name.equals(call.name) && Arrays.equals(arguments, call.arguments);
+			}
+			return false;
+		}
+	}
+}
@@ -19,8 +19,6 @@
  */
 package org.olat.course.config.ui;
 
-import java.util.List;
-
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.form.flexible.FormItemContainer;
 import org.olat.core.gui.components.form.flexible.elements.MultipleSelectionElement;
@@ -32,7 +30,6 @@ import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.generic.modal.DialogBoxController;
 import org.olat.core.gui.control.generic.modal.DialogBoxUIFactory;
-import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.activity.ILoggingAction;
 import org.olat.core.logging.activity.LearningResourceLoggingAction;
@@ -160,10 +157,10 @@ public class EfficiencyStatementController extends FormBasicController {
 		
 		if(updateStatement) {
 			if(enableEfficiencyStatment) {
-				// first create the efficiencies, send event to agency (all courses add link)
+				// first create the efficiencies in a background task, send event to agency (all courses add link)
 				RepositoryEntry courseRe = course.getCourseEnvironment().getCourseGroupManager().getCourseEntry();
-				List<Identity> identitiesWithData = course.getCourseEnvironment().getCoursePropertyManager().getAllIdentitiesWithCourseAssessmentData(null);
-				efficiencyStatementManager.updateEfficiencyStatements(courseRe, identitiesWithData);							
+				efficiencyStatementManager.updateEfficiencyStatementsAsync(courseRe, getIdentity());
+				showInfo("info.efficiency.statements.update");
 			} else {
 				// delete really the efficiencies of the users.
 				RepositoryEntry courseRepoEntry = RepositoryManager.getInstance().lookupRepositoryEntry(course, true);
@@ -60,6 +60,7 @@ import org.olat.core.util.xml.XStreamHelper;
 import org.olat.course.CourseFactory;
 import org.olat.course.ICourse;
 import org.olat.course.Structure;
+import org.olat.course.condition.interpreter.CompiledConditionCache;
 import org.olat.course.editor.PublishStepCatalog.CategoryLabel;
 import org.olat.course.nodeaccess.NodeAccessService;
 import org.olat.course.nodeaccess.NodeAccessType;
@@ -505,6 +506,7 @@ public class PublishProcess {
 		
 		NodeAccessService nodeAccessService = CoreSpringFactory.getImpl(NodeAccessService.class);
 		nodeAccessService.onCoursePublished(course);
+		CoreSpringFactory.getImpl(CompiledConditionCache.class).invalidate(course.getResourceableId());
 		
 		/*
 		 * broadcast event
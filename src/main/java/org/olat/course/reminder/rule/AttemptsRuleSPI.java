@@ -33,9 +33,11 @@ import org.olat.course.nodes.CourseNode;
 import org.olat.course.reminder.manager.ReminderRuleDAO;
 import org.olat.course.reminder.ui.AttemptsRuleEditor;
 import org.olat.modules.reminder.FilterRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -47,7 +49,7 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class AttemptsRuleSPI implements FilterRuleSPI {
+public class AttemptsRuleSPI implements FilterRuleSPI, QueryRuleSPI {
 	
 	private static final Logger log = Tracing.createLoggerFor(AttemptsRuleSPI.class);
 	
@@ -106,6 +108,39 @@ public class AttemptsRuleSPI implements FilterRuleSPI {
 		}
 	}
 	
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String nodeIdent = r.getLeftOperand();
+			String operator = r.getOperator();
+			int value = Integer.parseInt(r.getRightOperand());
+			String hqlOperator = toHqlOperator(operator);
+			
+			ICourse course = CourseFactory.loadCourse(entry);
+			CourseNode courseNode = course.getRunStructure().getNode(nodeIdent);
+			if(courseNode != null && hqlOperator != null) {
+				// no attempts is the same as 0 attempts
+				String condition = "data.attempts" + hqlOperator + query.parameter(Integer.valueOf(value));
+				query.appendAssessmentEntry(entry, courseNode.getIdent(), "attempts", condition, evaluateAttempt(0, operator, value));
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private String toHqlOperator(String operator) {
+		switch(operator) {
+			case "<": return "<";
+			case "<=": return "<=";
+			case "=": return "=";
+			case "=>": return ">=";
+			case ">": return ">";
+			case "!=": return "<>";
+			default: return null;
+		}
+	}
+	
 	private boolean evaluateAttempt(int attempt, String operator, int value) {
 		boolean eval = false;
 		switch(operator) {
@@ -33,6 +33,7 @@ import org.olat.course.reminder.ui.InitialAttemptsRuleEditor;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.rule.AbstractLaunchDateRuleSPI;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -84,4 +85,21 @@ public class InitialAttemptsRuleSPI extends AbstractLaunchDateRuleSPI {
 			return null;
 		}
 	}
+
+	@Override
+	protected boolean appendToQuery(ReminderRule rule, RepositoryEntry entry, Date before, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String nodeIdent = r.getLeftOperand();
+
+			ICourse course = CourseFactory.loadCourse(entry);
+			CourseNode courseNode = course.getRunStructure().getNode(nodeIdent);
+			if(courseNode != null) {
+				query.appendAssessmentEntry(entry, courseNode.getIdent(), "creationDate",
+						"data.creationDate<" + query.parameter(before), false);
+				return true;
+			}
+		}
+		return false;
+	}
 }
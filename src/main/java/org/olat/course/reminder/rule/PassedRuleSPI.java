@@ -42,9 +42,11 @@ import org.olat.course.reminder.ui.PassedRuleEditor;
 import org.olat.course.run.scoring.ScoreEvaluation;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.modules.reminder.FilterRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -56,7 +58,7 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class PassedRuleSPI implements FilterRuleSPI {
+public class PassedRuleSPI implements FilterRuleSPI, QueryRuleSPI {
 	
 	private static final Logger log = Tracing.createLoggerFor(PassedRuleSPI.class);
 	
@@ -135,4 +137,30 @@ public class PassedRuleSPI implements FilterRuleSPI {
 			}
 		}
 	}
+	
+	/**
+	 * The passed of the structure elements are calculated, they are
+	 * evaluated in memory.
+	 */
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String nodeIdent = r.getLeftOperand();
+			String status = r.getRightOperand();
+			
+			ICourse course = CourseFactory.loadCourse(entry);
+			CourseNode courseNode = course.getRunStructure().getNode(nodeIdent);
+			if(courseNode != null && !(courseNode instanceof STCourseNode)) {
+				if("passed".equals(status)) {
+					query.appendAssessmentEntry(entry, courseNode.getIdent(), "passed", "data.passed=true", false);
+				} else if("failed".equals(status)) {
+					// not passed or without result
+					query.appendAssessmentEntry(entry, courseNode.getIdent(), "passed", "data.passed=false", true);
+				}
+				return true;
+			}
+		}
+		return false;
+	}
 }
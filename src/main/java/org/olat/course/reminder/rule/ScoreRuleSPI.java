@@ -19,6 +19,7 @@
  */
 package org.olat.course.reminder.rule;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -42,9 +43,11 @@ import org.olat.course.reminder.ui.ScoreRuleEditor;
 import org.olat.course.run.scoring.ScoreEvaluation;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.modules.reminder.FilterRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -56,7 +59,7 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class ScoreRuleSPI implements FilterRuleSPI {
+public class ScoreRuleSPI implements FilterRuleSPI, QueryRuleSPI {
 	
 	private static final Logger log = Tracing.createLoggerFor(ScoreRuleSPI.class);
 	private static final double ROUND = 0.000001d;
@@ -134,6 +137,50 @@ public class ScoreRuleSPI implements FilterRuleSPI {
 		}
 	}
 	
+	/**
+	 * The score of the structure elements are calculated, they are
+	 * evaluated in memory.
+	 */
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String nodeIdent = r.getLeftOperand();
+			String operator = r.getOperator();
+			float value = Float.parseFloat(r.getRightOperand());
+			
+			ICourse course = CourseFactory.loadCourse(entry);
+			CourseNode courseNode = course.getRunStructure().getNode(nodeIdent);
+			if(courseNode != null && !(courseNode instanceof STCourseNode)) {
+				String condition = toCondition(operator, value, query);
+				if(condition != null) {
+					// only "different" matches the identities without score
+					query.appendAssessmentEntry(entry, courseNode.getIdent(), "score", condition, "!=".equals(operator));
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Same tolerance as the evaluation in memory.
+	 */
+	private String toCondition(String operator, float value, ReminderRuleQuery query) {
+		BigDecimal val = BigDecimal.valueOf(value);
+		BigDecimal lower = BigDecimal.valueOf(value - ROUND);
+		BigDecimal upper = BigDecimal.valueOf(value + ROUND);
+		switch(operator) {
+			case "<": return "data.score<" + query.parameter(val);
+			case "<=": return "data.score<" + query.parameter(upper);
+			case "=": return "(data.score>" + query.parameter(lower) + " and data.score<" + query.parameter(upper) + ")";
+			case "=>": return "data.score>" + query.parameter(lower);
+			case ">": return "data.score>" + query.parameter(val);
+			case "!=": return "(data.score<" + query.parameter(lower) + " or data.score>" + query.parameter(upper) + ")";
+			default: return null;
+		}
+	}
+	
 	private boolean evaluateScore(float score, String operator, float value) {
 		boolean eval = false;
 		switch(operator) {
@@ -59,6 +59,7 @@ public class AssessmentAccounting implements ScoreAccounting {
 	private final CourseConfig courseConfig;
 	private Map<String, AssessmentEntry> identToEntry = new HashMap<>();
 	private final Map<CourseNode, AssessmentEvaluation> courseNodeToEval = new HashMap<>();
+	private List<AssessmentEntry> preloadedEntries;
 	
 	@Autowired
 	private CourseAssessmentService courseAssessmentService;
@@ -69,6 +70,16 @@ public class AssessmentAccounting implements ScoreAccounting {
 		CoreSpringFactory.autowireObject(this);
 	}
 
+	/**
+	 * The assessment entries of the user, already loaded with the ones of other
+	 * users. They are used by the next evaluation instead of loading them again.
+	 * 
+	 * @param entries The assessment entries of the user in the course
+	 */
+	public void setPreloadedAssessmentEntries(List<AssessmentEntry> entries) {
+		this.preloadedEntries = entries;
+	}
+
 	@Override
 	public AssessmentEvaluation getScoreEvaluation(CourseNode courseNode) {
 		return courseAssessmentService.getAssessmentEvaluation(courseNode, userCourseEnvironment);
@@ -93,7 +104,13 @@ public class AssessmentAccounting implements ScoreAccounting {
 	public boolean evaluateAll(boolean update) {
 		courseNodeToEval.clear();
 		
-		identToEntry = loadAssessmentEntries(getIdentity());
+		if (preloadedEntries != null) {
+			identToEntry = preloadedEntries.stream()
+					.collect(Collectors.toMap(AssessmentEntry::getSubIdent, Function.identity()));
+			preloadedEntries = null;
+		} else {
+			identToEntry = loadAssessmentEntries(getIdentity());
+		}
 		
 		CourseNode root = userCourseEnvironment.getCourseEnvironment().getRunStructure().getRootNode();
 		fillCacheRecursiv(root);
@@ -53,7 +53,9 @@ public interface IStatisticUpdater {
 	 * @param until update the statistics ending at the given until date - this is never null
 	 * @param statisticUpdateManager the StatisticUpdateManager is passed to the IStatisticUpdater for
 	 * callbacks and utility functions such as access to the lastUpdated property
+	 * @return true if the statistics are updated, false if the update failed and the
+	 * period must be processed again
 	 */
-	void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager);
+	boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager);
 
 }
@@ -56,7 +56,7 @@ public class MySQLTempStatTableCreator implements IStatisticUpdater {
 	}
 	
 	@Override
-	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+	public boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
 		// create temp table
 		final long startTime = System.currentTimeMillis();
 		try{
@@ -88,8 +88,10 @@ public class MySQLTempStatTableCreator implements IStatisticUpdater {
 						" where actionverb='launch' and actionobject='node' and creationdate>from_unixtime(?) and creationdate<=from_unixtime(?);",
 						new SqlParameterValue(Types.VARCHAR, Long.toString(fromSeconds)), new SqlParameterValue(Types.VARCHAR, Long.toString(untilSeconds)));
 			log.info("updateStatistic: insert done. number of logging actions: {}", numLoggingActions);
+			return true;
 		} catch(Exception e) {
 			log.warn("updateStatistic: ran into a RuntimeException: ", e);
+			return false;
 		} finally {
 			final long diff = System.currentTimeMillis() - startTime;
 			log.info("updateStatistic: END. duration="+diff);
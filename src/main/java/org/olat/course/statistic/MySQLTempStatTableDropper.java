@@ -53,7 +53,7 @@ public class MySQLTempStatTableDropper implements IStatisticUpdater {
 	}
 	
 	@Override
-	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+	public boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
 		// note: fullRecalculation has no affect to the dropper
 		
 		// create temp table
@@ -66,5 +66,7 @@ public class MySQLTempStatTableDropper implements IStatisticUpdater {
 			final long diff = System.currentTimeMillis() - startTime;
 			log.info("updateStatistic: END. duration=" + diff);
 		}
+		// the statistics are updated, the creator drops the table before the next chunk
+		return true;
 	}
 }
@@ -50,7 +50,7 @@ public class PostgreSQLTempStatTableCreator implements IStatisticUpdater {
 	}
 	
 	@Override
-	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+	public boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
 		// create temp table
 		final long startTime = System.currentTimeMillis();
 		log_.info("updateStatistic: dropping o_stat_temptable if still existing");
@@ -78,10 +78,13 @@ public class PostgreSQLTempStatTableCreator implements IStatisticUpdater {
 						new Object[]{ from, until }, new int[]{ Types.TIMESTAMP, Types.TIMESTAMP});
 
 			log_.info("updateStatistic: insert done. number of logging actions: " + numLoggingActions);
+			return true;
 		} catch(RuntimeException e) {
 			log_.warn("updateStatistic: ran into a RuntimeException: "+e, e);
+			return false;
 		} catch(Error er) {
 			log_.warn("updateStatistic: ran into an Error: "+er, er);
+			return false;
 		} finally {
 			final long diff = System.currentTimeMillis() - startTime;
 			log_.info("updateStatistic: END. duration="+diff);
@@ -49,7 +49,7 @@ public class PostgreSQLTempStatTableDropper implements IStatisticUpdater {
 	}
 	
 	@Override
-	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+	public boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
 		// note: fullRecalculation has no affect to the dropper
 		
 		// create temp table
@@ -64,5 +64,7 @@ public class PostgreSQLTempStatTableDropper implements IStatisticUpdater {
 			final long diff = System.currentTimeMillis() - startTime;
 			log.info("updateStatistic: END. duration=" + diff);
 		}
+		// the statistics are updated, the creator drops the table before the next chunk
+		return true;
 	}
 }
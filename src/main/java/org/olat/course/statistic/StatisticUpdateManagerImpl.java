@@ -26,16 +26,19 @@ package org.olat.course.statistic;
 
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import javax.persistence.TemporalType;
+
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
 import org.olat.core.gui.control.Event;
 import org.olat.core.logging.AssertException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
+import org.olat.core.logging.activity.UserActivityLogWriter;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.event.MultiUserEvent;
@@ -75,6 +78,11 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 	
 	private TaskExecutorManager taskExecutorManager;
 	
+	/** max. hours of logs processed in one chunk **/
+	private long chunkHours = 24;
+	/** margin added to the write delay of the logs, the logs in this window are processed by the next update **/
+	private long lag = 2000;
+	
 	/** spring **/
 	public StatisticUpdateManagerImpl(CoordinatorManager coordinatorManager, StatisticUpdateConfig config, String enabled) {
 		enabled_ = enabled != null && "enabled".equals(enabled);
@@ -103,6 +111,23 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 		this.taskExecutorManager = taskExecutorManager;
 	}
 
+	/**
+	 * [used by Spring]
+	 * @param chunkHours The max. number of hours of logs processed in one chunk
+	 */
+	public void setChunkHours(long chunkHours) {
+		this.chunkHours = chunkHours;
+	}
+	
+	/**
+	 * [used by Spring]
+	 * @param lag Time in milliseconds added to the max. write delay of the user activity logs,
+	 * 		the logs of this window are let for the next update
+	 */
+	public void setLag(long lag) {
+		this.lag = lag;
+	}
+
 	@Override
 	public void addStatisticUpdater(IStatisticUpdater updater) {
 		updaters_.add(updater);
@@ -140,27 +165,7 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 				final long start = System.currentTimeMillis();
 				try{
 					log_.info("updateStatistics: initialization for update");
-					
-					long nowInMilliseconds = System.currentTimeMillis();
-					long lastUpdatedInMilliseconds = getAndUpdateLastUpdated(nowInMilliseconds);
-					if (fullRecalculation || (lastUpdatedInMilliseconds==-1)) {
-						Calendar nineteennintyeight = Calendar.getInstance();
-						nineteennintyeight.set(1998, 12, 31);
-						lastUpdatedInMilliseconds = nineteennintyeight.getTimeInMillis();
-					}
-					
-					Date lastUpdatedDate = new Date(lastUpdatedInMilliseconds);
-					Date nowDate = new Date(nowInMilliseconds);
-
-					log_.info("updateStatistics: starting the update");
-					DBFactory.getInstance().intermediateCommit();
-					for (Iterator<IStatisticUpdater> it = updaters_.iterator(); it.hasNext();) {
-						IStatisticUpdater statisticUpdater = it.next();
-						log_.info("updateStatistics: starting updater "+statisticUpdater);
-						statisticUpdater.updateStatistic(fullRecalculation || (lastUpdatedInMilliseconds==-1), lastUpdatedDate, nowDate, StatisticUpdateManagerImpl.this);
-						log_.info("updateStatistics: done with updater "+statisticUpdater);
-						DBFactory.getInstance().intermediateCommit();
-					}
+					doUpdateStatistics(fullRecalculation);
 				} finally {
 					synchronized(StatisticUpdateManagerImpl.this) {
 						updateOngoing_ = false;
@@ -189,6 +194,90 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 		
 	}
 
+	/**
+	 * Process the logs after the watermark in chunks of max. chunkHours hours
+	 * of logs. The empty periods are skipped and the watermark is saved
+	 * after every successful chunk, an interrupted or failed update continue
+	 * where it stops.
+	 * 
+	 * @param fullRecalculation Delete the statistics and process all the logs
+	 */
+	private void doUpdateStatistics(boolean fullRecalculation) {
+		// make sure the logs of this node are in the database
+		UserActivityLogWriter logWriter = CoreSpringFactory.getImpl(UserActivityLogWriter.class);
+		logWriter.flush();
+		
+		long lastUpdatedInMilliseconds = getLastUpdated();
+		boolean deleteStatistics = fullRecalculation || lastUpdatedInMilliseconds == -1;
+		if (deleteStatistics) {
+			Calendar nineteennintyeight = Calendar.getInstance();
+			nineteennintyeight.set(1998, 12, 31);
+			lastUpdatedInMilliseconds = nineteennintyeight.getTimeInMillis();
+		}
+		
+		// the logs of the other nodes are maybe still in the queue of their writer
+		final long until = System.currentTimeMillis() - logWriter.getMaxWriteDelay() - lag;
+		final long chunkInMilliseconds = chunkHours * 60l * 60l * 1000l;
+
+		log_.info("updateStatistics: starting the update");
+		DBFactory.getInstance().intermediateCommit();
+		
+		long from = lastUpdatedInMilliseconds;
+		int numOfChunks = 0;
+		while(from < until) {
+			Date nextLog = getNextLogDate(from);
+			long chunkUntil;
+			if(nextLog == null || nextLog.getTime() > until) {
+				chunkUntil = until;
+			} else {
+				chunkUntil = Math.min(until, Math.max(from, nextLog.getTime()) + chunkInMilliseconds);
+			}
+			
+			if(nextLog != null || deleteStatistics) {
+				Date fromDate = new Date(from);
+				Date untilDate = new Date(chunkUntil);
+				for (IStatisticUpdater statisticUpdater:updaters_) {
+					if(log_.isDebugEnabled()) log_.debug("updateStatistics: starting updater " + statisticUpdater + " from " + fromDate + " until " + untilDate);
+					boolean updated = statisticUpdater.updateStatistic(deleteStatistics, fromDate, untilDate, StatisticUpdateManagerImpl.this);
+					if(!updated) {
+						// the watermark stays before the chunk, the next update retries it
+						DBFactory.getInstance().rollbackAndCloseSession();
+						log_.error("updateStatistics: updater " + statisticUpdater + " failed from " + fromDate + " until " + untilDate + ", update stopped after " + numOfChunks + " chunks");
+						return;
+					}
+					DBFactory.getInstance().intermediateCommit();
+				}
+				deleteStatistics = false;
+				numOfChunks++;
+			}
+			
+			setLastUpdated(chunkUntil);
+			from = chunkUntil;
+		}
+		log_.info("updateStatistics: " + numOfChunks + " chunks of logs processed");
+	}
+	
+	private Date getNextLogDate(long from) {
+		List<Date> dates = DBFactory.getInstance().getCurrentEntityManager()
+				.createQuery("select min(log.creationDate) from loggingobject log where log.creationDate>:from", Date.class)
+				.setParameter("from", new Date(from), TemporalType.TIMESTAMP)
+				.getResultList();
+		DBFactory.getInstance().commitAndCloseSession();
+		return dates == null || dates.isEmpty() ? null : dates.get(0);
+	}
+	
+	private void setLastUpdated(long lastUpdated) {
+		PropertyManager pm = PropertyManager.getInstance();
+		Property p = pm.findProperty(null, null, null, STATISTICS_PROPERTIES_CATEGORY, LAST_UPDATED_PROPERTY_NAME);
+		if (p==null) {
+			p = pm.createPropertyInstance(null, null, null, STATISTICS_PROPERTIES_CATEGORY, LAST_UPDATED_PROPERTY_NAME, null, lastUpdated, null, null);
+		} else {
+			p.setLongValue(lastUpdated);
+		}
+		pm.saveProperty(p);
+		DBFactory.getInstance().commitAndCloseSession();
+	}
+
 	@Override
 	public long getLastUpdated() {
 		PropertyManager pm = PropertyManager.getInstance();
@@ -116,7 +116,7 @@ public class StatisticUpdater implements IStatisticUpdater {
 
 	@Override
 	@SuppressWarnings("squid:S2077")// SQL is defined in the configuration and cannot be changed
-	public final void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+	public final boolean updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
 		log_.info("updateStatistic<"+loggingName_+">: START");
 		final long startTime = System.currentTimeMillis();
 		try{
@@ -141,9 +141,10 @@ public class StatisticUpdater implements IStatisticUpdater {
 					}
 				}
 			}
-
+			return true;
 		} catch(RuntimeException e) {
 			log_.error("updateStatistic<"+loggingName_+">: RuntimeException while updating the statistics: "+e, e);
+			return false;
 		} finally {
 			final long diff = System.currentTimeMillis() - startTime;
 			log_.info("updateStatistic<"+loggingName_+">: END. duration="+diff+" milliseconds");
@@ -20,8 +20,6 @@
 package org.olat.home;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -102,8 +100,8 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 		CalendarUserConfiguration personalCalendarConfig = configMap.get(personalCalendarKey);
 		if(calendarModule.isEnablePersonalCalendar()
 				&& (personalCalendarConfig == null || personalCalendarConfig.isInAggregatedFeed())) {
-			File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_USER, identity.getName());
-			if(iCalFile != null) {
+			if(calendarManager.calendarExists(CalendarManager.TYPE_USER, identity.getName())) {
+				File iCalFile = calendarManager.getCalendarFile(CalendarManager.TYPE_USER, identity.getName());
 				aggregatedFiles.add(new CalendarFileInfos(identity.getName(), CalendarManager.TYPE_USER, iCalFile));
 			}
 			
@@ -129,8 +127,8 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 				CalendarKey key = new CalendarKey(calendarId, CalendarManager.TYPE_GROUP);
 				CalendarUserConfiguration calendarConfig = configMap.get(key);
 				if(calendarConfig == null || calendarConfig.isInAggregatedFeed()) {
-					File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_GROUP, calendarId);
-					if(iCalFile != null) {
+					if(calendarManager.calendarExists(CalendarManager.TYPE_GROUP, calendarId)) {
+						File iCalFile = calendarManager.getCalendarFile(CalendarManager.TYPE_GROUP, calendarId);
 						aggregatedFiles.add(new CalendarFileInfos(calendarId, CalendarManager.TYPE_GROUP, iCalFile));
 					}
 				}
@@ -152,8 +150,8 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 				CalendarKey key = new CalendarKey(calendarId, CalendarManager.TYPE_COURSE);
 				CalendarUserConfiguration calendarConfig = configMap.get(key);
 				if(calendarConfig == null || calendarConfig.isInAggregatedFeed()) {
-					File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_COURSE, calendarId);
-					if(iCalFile != null) {
+					if(calendarManager.calendarExists(CalendarManager.TYPE_COURSE, calendarId)) {
+						File iCalFile = calendarManager.getCalendarFile(CalendarManager.TYPE_COURSE, calendarId);
 						aggregatedFiles.add(new CalendarFileInfos(calendarId, CalendarManager.TYPE_COURSE, iCalFile));
 					}
 				}
@@ -377,7 +375,7 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 		}
 		List<CalendarFileInfos> importedCalendars = importCalendarManager.getImportedCalendarInfosForIdentity(identity, false);
 		for(CalendarFileInfos importedCalendar:importedCalendars) {
-			File importedCalFile = importedCalendar.getCalendarFile();
+			File importedCalFile = calendarManager.getCalendarICalFile(importedCalendar.getType(), importedCalendar.getCalendarId());
 			if(importedCalFile != null && importedCalFile.exists()) {
 				FileUtils.copyFileToDir(importedCalFile, calendars, false, "Archive calendar");
 				manifest.appendFile("calendars/" + importedCalFile.getName());
@@ -387,22 +385,12 @@ public class HomeCalendarManager implements PersonalCalendarManager, UserDataDel
 
 	@Override
 	public void deleteUserData(Identity identity, String newDeletedUserName) {
-		File iCalFile = calendarManager.getCalendarICalFile(CalendarManager.TYPE_USER, identity.getName());
-		deleteCalendarFile(iCalFile);
+		// delete the file and the events in the store
+		calendarManager.deleteCalendar(CalendarManager.TYPE_USER, identity.getName());
 
 		List<CalendarFileInfos> importedCalendars = importCalendarManager.getImportedCalendarInfosForIdentity(identity, false);
 		for(CalendarFileInfos importedCalendar:importedCalendars) {
-			deleteCalendarFile(importedCalendar.getCalendarFile());
-		}
-	}
-	
-	private void deleteCalendarFile(File calendarFile) {
-		if(calendarFile != null && calendarFile.exists()) {
-			try {
-				Files.deleteIfExists(calendarFile.toPath());
-			} catch (IOException e) {
-				log.error("Cannot delete calendar: " + calendarFile);
-			}
+			calendarManager.deleteCalendar(importedCalendar.getType(), importedCalendar.getCalendarId());
 		}
 	}
 }
@@ -64,6 +64,8 @@ public class QTI21Module extends AbstractSpringModule {
 	private String correctionWorkflow;
 	@Value("${qti21.import.encoding.fallback:}")
 	private String importEncodingFallback;
+	@Value("${qti21.session.state.journal.enabled:false}")
+	private boolean sessionStateJournalEnabled;
 	
 	@Autowired
 	public QTI21Module(CoordinatorManager coordinatorManager) {
@@ -106,6 +108,11 @@ public class QTI21Module extends AbstractSpringModule {
 		if(StringHelper.containsNonWhitespace(digitalSignatureObj)) {
 			digitalSignatureCertificatePassword = digitalSignatureCertificatePasswordObj;
 		}
+		
+		String sessionStateJournalObj = getStringPropertyValue("session.state.journal", true);
+		if(StringHelper.containsNonWhitespace(sessionStateJournalObj)) {
+			sessionStateJournalEnabled = "enabled".equals(sessionStateJournalObj);
+		}
 	}
 
 	public boolean isMathAssessExtensionEnabled() {
@@ -136,6 +143,18 @@ public class QTI21Module extends AbstractSpringModule {
 		setStringProperty("digital.signature", enabled ? "enabled" : "disabled", true);
 	}
 
+	/**
+	 * @return true if the state of the test sessions is saved in an append-only journal
+	 */
+	public boolean isSessionStateJournalEnabled() {
+		return sessionStateJournalEnabled;
+	}
+
+	public void setSessionStateJournalEnabled(boolean enabled) {
+		this.sessionStateJournalEnabled = enabled;
+		setStringProperty("session.state.journal", enabled ? "enabled" : "disabled", true);
+	}
+
 	public String getDigitalSignatureCertificate() {
 		return digitalSignatureCertificate;
 	}
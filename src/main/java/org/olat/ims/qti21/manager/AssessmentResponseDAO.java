@@ -19,6 +19,7 @@
  */
 package org.olat.ims.qti21.manager;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -84,6 +85,26 @@ public class AssessmentResponseDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * Load the responses of a list of test sessions. The item session is
+	 * fetched with the response.
+	 * 
+	 * @param testSessionKeys The primary keys of the test sessions
+	 * @return A list of responses
+	 */
+	public List<AssessmentResponse> getResponsesOfTestSessions(List<Long> testSessionKeys) {
+		if(testSessionKeys == null || testSessionKeys.isEmpty()) return new ArrayList<>();
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("select response from qtiassessmentresponse response")
+		  .append(" inner join fetch response.assessmentItemSession itemSession")
+		  .append(" where itemSession.assessmentTestSession.key in (:testSessionKeys)");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentResponse.class)
+				.setParameter("testSessionKeys", testSessionKeys)
+				.getResultList();
+	}
+	
 	public void save(Collection<AssessmentResponse> responses) {
 		if(responses != null && responses.isEmpty()) return;
 		
@@ -674,6 +674,50 @@ public class AssessmentTestSessionDAO {
 		return query.getResultList();
 	}
 	
+	/**
+	 * The keys of the same test sessions as {@link #getTestSessionsOfResponse(QTI21StatisticSearchParams)}
+	 * in the same order.
+	 * 
+	 * @param searchParams The search parameters
+	 * @return A list of primary keys of test sessions
+	 */
+	public List<Long> getTestSessionKeysOfResponse(QTI21StatisticSearchParams searchParams) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select testSession.key from qtiassessmenttestsession testSession ")
+		  .append(" inner join testSession.assessmentEntry assessmentEntry")
+		  .append(" left join assessmentEntry.identity as ident")
+		  .append(" left join ident.user as usr");
+		
+		decorateTestSessionPermission(sb, searchParams);
+		sb.append(" order by usr.lastName, testSession.key");
+		
+		TypedQuery<Long> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class);
+		decorateTestSessionPermission(query, searchParams) ;
+		return query.getResultList();
+	}
+	
+	/**
+	 * Load the test sessions with their assessment entry, identity and user.
+	 * 
+	 * @param testSessionKeys The primary keys of the test sessions
+	 * @return A list of test sessions, the order is not defined
+	 */
+	public List<AssessmentTestSession> loadTestSessionsWithUser(List<Long> testSessionKeys) {
+		if(testSessionKeys == null || testSessionKeys.isEmpty()) return new ArrayList<>();
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("select testSession from qtiassessmenttestsession testSession ")
+		  .append(" inner join fetch testSession.assessmentEntry assessmentEntry")
+		  .append(" left join fetch assessmentEntry.identity as ident")
+		  .append(" left join fetch ident.user as usr")
+		  .append(" where testSession.key in (:testSessionKeys)");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentTestSession.class)
+				.setParameter("testSessionKeys", testSessionKeys)
+				.getResultList();
+	}
+	
 	/**
 	 * Decorate a testSession query with the permissions of the specified search parameters.
 	 * 
@@ -231,6 +231,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	private CacheWrapper<File,ResolvedAssessmentItem> assessmentItemsCache;
 	
 	private final ConcurrentMap<String,URI> resourceToTestURI = new ConcurrentHashMap<>();
+	private final TestSessionStateJournal sessionStateJournal = new TestSessionStateJournal(50, 2000);
 	
 	@Autowired
 	public QTI21ServiceImpl(InfinispanXsltStylesheetCache xsltStylesheetCache) {
@@ -562,7 +563,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 			session = null;
 		} else {
 			File sessionFile = getTestSessionStateFile(session);
-			if(!sessionFile.exists()) {
+			if(!sessionFile.exists() && !getTestSessionStateJournalFile(session).exists()) {
 				session = null;
 			}
 		}
@@ -649,7 +650,11 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 
 	@Override
 	public TestSessionState loadTestSessionState(AssessmentTestSession candidateSession) {
-        Document document = loadStateDocument(candidateSession);
+		// the journal is always read, even if it's disabled, to not lose running sessions
+		Document document = sessionStateJournal.load(getTestSessionStateJournalFile(candidateSession));
+		if(document == null) {
+			document = loadStateDocument(candidateSession);
+		}
         return document == null ? null: TestSessionStateXmlMarshaller.unmarshal(document.getDocumentElement());
     }
 	
@@ -1216,6 +1221,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		if(sessionState != null && sessionState.exists()) {
 			sessionState.delete();
 		}
+		sessionStateJournal.delete(new File(myStore, TestSessionStateJournal.JOURNAL_FILENAME));
 		if(resultFile != null && resultFile.exists()) {
 			resultFile.delete();
 		}
@@ -1345,20 +1351,25 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	}
 	
 	private void storeTestSessionState(CandidateEvent candidateEvent, TestSessionState testSessionState) {
-		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
-		File sessionFile = getTestSessionStateFile(candidateEvent);
-		storeStateDocument(stateDocument, sessionFile);
+		storeTestSessionState(candidateEvent.getCandidateSession(), testSessionState);
 	}
 	
 	private void storeTestSessionState(AssessmentTestSession candidateSession, TestSessionState testSessionState) {
 		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
 		File sessionFile = getTestSessionStateFile(candidateSession);
-		storeStateDocument(stateDocument, sessionFile);
-	}
-
-	private File getTestSessionStateFile(CandidateEvent candidateEvent) {
-		AssessmentTestSession candidateSession = candidateEvent.getCandidateSession();
-		return getTestSessionStateFile(candidateSession);
+		File journalFile = getTestSessionStateJournalFile(candidateSession);
+		if(qtiModule.isSessionStateJournalEnabled()) {
+			sessionStateJournal.store(journalFile, stateDocument);
+			if(sessionFile.exists()) {
+				// the journal has the complete state, the XML file is obsolete
+				FileUtils.deleteFile(sessionFile);
+			}
+		} else {
+			storeStateDocument(stateDocument, sessionFile);
+			if(journalFile.exists()) {
+				sessionStateJournal.delete(journalFile);
+			}
+		}
 	}
     
 	private File getTestSessionStateFile(AssessmentTestSession candidateSession) {
@@ -1366,6 +1377,11 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		return new File(myStore, "testSessionState.xml");
 	}
 	
+	private File getTestSessionStateJournalFile(AssessmentTestSession candidateSession) {
+		File myStore = testSessionDao.getSessionStorage(candidateSession);
+		return new File(myStore, TestSessionStateJournal.JOURNAL_FILENAME);
+	}
+	
     @Override
 	public CandidateEvent recordCandidateItemEvent(AssessmentTestSession candidateSession,AssessmentItemSession itemSession,
 			RepositoryEntryRef testEntry, RepositoryEntryRef entry, CandidateItemEventType itemEventType,
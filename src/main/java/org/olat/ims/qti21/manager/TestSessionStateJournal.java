@@ -0,0 +1,385 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.OLATRuntimeException;
+import org.olat.core.logging.Tracing;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import uk.ac.ed.ph.jqtiplus.xmlutils.XmlFactories;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltSerializationOptions;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltStylesheetManager;
+
+/**
+ * Store the state of a test session in an append-only journal instead
+ * of rewriting the whole XML file at every candidate event. The journal
+ * starts with a snapshot of the state document, every store appends
+ * the attributes of the root element and the direct children of the root
+ * element (test plan, test part, section, item states...) which changed
+ * since the last store. After some deltas, the journal is compacted in
+ * a new snapshot.<br>
+ * A record is a byte (snapshot or delta), the length of the data and
+ * the data as compact UTF-8 XML.<br>
+ * The last stored state of the sessions is held in memory to calculate
+ * the deltas. If the journal was changed by an other node, the state
+ * is read from the journal.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class TestSessionStateJournal {
+
+	private static final Logger log = Tracing.createLoggerFor(TestSessionStateJournal.class);
+
+	public static final String JOURNAL_FILENAME = "testSessionState.journal";
+
+	private static final byte SNAPSHOT = 0;
+	private static final byte DELTA = 1;
+
+	private static final String DELTA_ELEMENT = "delta";
+	private static final String CHILD_ELEMENT = "child";
+	private static final String SIZE_ATTRIBUTE = "size";
+	private static final String INDEX_ATTRIBUTE = "index";
+
+	private final int maxDeltas;
+	private final Map<String,JournalState> states;
+
+	/**
+	 * @param maxDeltas The number of deltas after which the journal is compacted
+	 * @param maxCachedStates The number of sessions held in memory
+	 */
+	public TestSessionStateJournal(int maxDeltas, int maxCachedStates) {
+		this.maxDeltas = maxDeltas;
+		states = new LinkedHashMap<String,JournalState>(64, 0.75f, true) {
+			private static final long serialVersionUID = 2839563014779016528L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String,JournalState> eldest) {
+				return size() > maxCachedStates;
+			}
+		};
+	}
+
+	/**
+	 * Append the changes of the state document to the journal.
+	 *
+	 * @param journalFile The journal
+	 * @param stateDocument The complete state of the test session
+	 */
+	public void store(File journalFile, Document stateDocument) {
+		JournalState state = getJournalState(journalFile);
+		synchronized(state) {
+			try {
+				Element root = stateDocument.getDocumentElement();
+				Transformer serializer = createSerializer();
+				String rootXml = serialize(root.cloneNode(false), serializer);
+				List<String> childrenXml = new ArrayList<>();
+				for(Node child=root.getFirstChild(); child != null; child=child.getNextSibling()) {
+					if(child.getNodeType() == Node.ELEMENT_NODE) {
+						childrenXml.add(serialize(child, serializer));
+					}
+				}
+
+				if(!state.isValid(journalFile)) {
+					state.reload(journalFile);
+				}
+				if(state.children == null || state.numOfDeltas >= maxDeltas || !state.consistent) {
+					writeSnapshot(journalFile, serialize(stateDocument, serializer));
+					state.numOfDeltas = 0;
+				} else {
+					appendDelta(journalFile, state, rootXml, childrenXml);
+					state.numOfDeltas++;
+				}
+				state.children = childrenXml;
+				state.consistent = true;
+				state.fileLength = journalFile.length();
+			} catch (IOException | TransformerException e) {
+				state.children = null;
+				throw new OLATRuntimeException("Unexpected Exception writing the journal of the test session state", e);
+			}
+		}
+	}
+
+	/**
+	 * @param journalFile The journal
+	 * @return The state document or null if the journal doesn't exist
+	 */
+	public Document load(File journalFile) {
+		if(!journalFile.exists()) {
+			return null;
+		}
+		try {
+			return replay(journalFile).document;
+		} catch (Exception e) {
+			throw new OLATRuntimeException("Could not read the journal of the test session state", e);
+		}
+	}
+
+	public void delete(File journalFile) {
+		synchronized(states) {
+			states.remove(journalFile.getAbsolutePath());
+		}
+		if(journalFile.exists()) {
+			try {
+				Files.delete(journalFile.toPath());
+			} catch (IOException e) {
+				log.error("Cannot delete journal: {}", journalFile, e);
+			}
+		}
+	}
+
+	private JournalState getJournalState(File journalFile) {
+		synchronized(states) {
+			return states.computeIfAbsent(journalFile.getAbsolutePath(), path -> new JournalState());
+		}
+	}
+
+	private void appendDelta(File journalFile, JournalState state, String rootXml, List<String> childrenXml)
+	throws IOException {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("<").append(DELTA_ELEMENT).append(" ").append(SIZE_ATTRIBUTE).append("=\"").append(childrenXml.size()).append("\">");
+		sb.append(rootXml);
+		for(int i=0; i<childrenXml.size(); i++) {
+			String childXml = childrenXml.get(i);
+			if(i >= state.children.size() || !childXml.equals(state.children.get(i))) {
+				sb.append("<").append(CHILD_ELEMENT).append(" ").append(INDEX_ATTRIBUTE).append("=\"").append(i).append("\">")
+				  .append(childXml)
+				  .append("</").append(CHILD_ELEMENT).append(">");
+			}
+		}
+		sb.append("</").append(DELTA_ELEMENT).append(">");
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)))) {
+			writeRecord(DELTA, sb.toString(), out);
+		}
+	}
+
+	private void writeSnapshot(File journalFile, String documentXml) throws IOException {
+		File tmpFile = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			writeRecord(SNAPSHOT, documentXml, out);
+		}
+		Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void writeRecord(byte type, String xml, DataOutputStream out) throws IOException {
+		byte[] data = xml.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(type);
+		out.writeInt(data.length);
+		out.write(data);
+	}
+
+	private Replay replay(File journalFile) throws Exception {
+		Replay replay = new Replay();
+		DocumentBuilder documentBuilder = XmlFactories.newDocumentBuilder();
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+			while(true) {
+				byte type;
+				byte[] data;
+				try {
+					type = in.readByte();
+				} catch(EOFException e) {
+					break;
+				}
+				try {
+					data = new byte[in.readInt()];
+					in.readFully(data);
+				} catch(EOFException e) {
+					// the last record was not completely written
+					log.warn("Incomplete record in journal: {}", journalFile);
+					replay.consistent = false;
+					break;
+				}
+
+				Document recordDocument = documentBuilder.parse(new InputSource(new ByteArrayInputStream(data)));
+				if(type == SNAPSHOT) {
+					replay.document = recordDocument;
+					replay.numOfDeltas = 0;
+				} else if(type == DELTA && replay.document != null) {
+					applyDelta(replay.document, recordDocument.getDocumentElement());
+					replay.numOfDeltas++;
+				} else {
+					throw new IOException("Unexpected record in journal: " + type);
+				}
+			}
+		}
+		return replay;
+	}
+
+	private void applyDelta(Document document, Element delta) {
+		Element root = document.getDocumentElement();
+		int size = Integer.parseInt(delta.getAttribute(SIZE_ATTRIBUTE));
+
+		List<Node> children = new ArrayList<>(size);
+		for(Node child=root.getFirstChild(); child != null; child=child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE) {
+				children.add(child);
+			}
+		}
+
+		for(Node deltaChild=delta.getFirstChild(); deltaChild != null; deltaChild=deltaChild.getNextSibling()) {
+			if(deltaChild.getNodeType() != Node.ELEMENT_NODE) {
+				continue;
+			}
+			Element deltaElement = (Element)deltaChild;
+			if(CHILD_ELEMENT.equals(deltaElement.getNodeName())) {
+				int index = Integer.parseInt(deltaElement.getAttribute(INDEX_ATTRIBUTE));
+				Node newChild = document.importNode(firstElement(deltaElement), true);
+				while(children.size() <= index) {
+					children.add(null);
+				}
+				children.set(index, newChild);
+			} else {
+				copyAttributes(deltaElement, root);
+			}
+		}
+
+		while(root.getFirstChild() != null) {
+			root.removeChild(root.getFirstChild());
+		}
+		for(int i=0; i<size && i<children.size(); i++) {
+			if(children.get(i) != null) {
+				root.appendChild(children.get(i));
+			}
+		}
+	}
+
+	private static Node firstElement(Element element) {
+		for(Node child=element.getFirstChild(); child != null; child=child.getNextSibling()) {
+			if(child.getNodeType() == Node.ELEMENT_NODE) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	private static void copyAttributes(Element source, Element target) {
+		NamedNodeMap targetAttributes = target.getAttributes();
+		while(targetAttributes.getLength() > 0) {
+			target.removeAttributeNode((Attr)targetAttributes.item(0));
+		}
+		NamedNodeMap sourceAttributes = source.getAttributes();
+		for(int i=0; i<sourceAttributes.getLength(); i++) {
+			Node attribute = sourceAttributes.item(i);
+			if(attribute.getNamespaceURI() == null) {
+				target.setAttribute(attribute.getNodeName(), attribute.getNodeValue());
+			} else {
+				target.setAttributeNS(attribute.getNamespaceURI(), attribute.getNodeName(), attribute.getNodeValue());
+			}
+		}
+	}
+
+	private static Transformer createSerializer() {
+		XsltSerializationOptions xsltSerializationOptions = new XsltSerializationOptions();
+		xsltSerializationOptions.setIndenting(false);
+		xsltSerializationOptions.setIncludingXMLDeclaration(false);
+		return XsltStylesheetManager.createSerializer(xsltSerializationOptions);
+	}
+
+	private static String serialize(Node node, Transformer serializer) throws TransformerException {
+		StringWriter writer = new StringWriter(1024);
+		serializer.transform(new DOMSource(node), new StreamResult(writer));
+		return writer.toString();
+	}
+
+	private static class Replay {
+
+		private Document document;
+		private int numOfDeltas;
+		private boolean consistent = true;
+
+	}
+
+	private class JournalState {
+
+		private List<String> children;
+		private int numOfDeltas;
+		private long fileLength = -1l;
+		private boolean consistent = true;
+
+		/**
+		 * @return true if the journal was not changed since the last store
+		 */
+		public boolean isValid(File journalFile) {
+			return children != null && journalFile.exists() && journalFile.length() == fileLength;
+		}
+
+		public void reload(File journalFile) throws IOException {
+			children = null;
+			numOfDeltas = 0;
+			consistent = true;
+			if(!journalFile.exists()) {
+				return;
+			}
+
+			try {
+				Replay replay = replay(journalFile);
+				if(replay.document != null) {
+					Transformer serializer = createSerializer();
+					Element root = replay.document.getDocumentElement();
+					children = new ArrayList<>();
+					for(Node child=root.getFirstChild(); child != null; child=child.getNextSibling()) {
+						if(child.getNodeType() == Node.ELEMENT_NODE) {
+							children.add(serialize(child, serializer));
+						}
+					}
+					numOfDeltas = replay.numOfDeltas;
+					consistent = replay.consistent;
+				}
+			} catch (IOException e) {
+				throw e;
+			} catch (Exception e) {
+				log.warn("Cannot read the journal, write a new snapshot: {}", journalFile, e);
+			}
+		}
+	}
+}
@@ -37,6 +37,7 @@ import java.util.zip.ZipOutputStream;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.gui.translator.Translator;
@@ -49,6 +50,7 @@ import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.Util;
 import org.olat.core.util.ZipUtil;
+import org.olat.core.util.async.ProgressDelegate;
 import org.olat.core.util.io.ShieldOutputStream;
 import org.olat.core.util.openxml.OpenXMLWorkbook;
 import org.olat.core.util.openxml.OpenXMLWorkbookResource;
@@ -141,6 +143,7 @@ import uk.ac.ed.ph.jqtiplus.types.Identifier;
 public class QTI21ArchiveFormat {
 	
 	private static final Logger log = Tracing.createLoggerFor(QTI21ArchiveFormat.class);
+	private static final int BATCH_SIZE = 100;
 	
 	private Translator translator;
 	
@@ -150,6 +153,7 @@ public class QTI21ArchiveFormat {
 
 	private final QTI21StatisticSearchParams searchParams;
 	private ExportFormat exportConfig;
+	private ProgressDelegate progressDelegate;
 	
 	private int numOfSections;
 	private CourseNode courseNode;
@@ -210,6 +214,13 @@ public class QTI21ArchiveFormat {
 		interactionArchiveMap.put(TextEntryInteraction.QTI_CLASS_NAME, new TextEntryInteractionArchive());					//ok
 	}
 	
+	/**
+	 * @param progressDelegate An optional delegate, the progress is the number of test sessions written
+	 */
+	public void setProgressDelegate(ProgressDelegate progressDelegate) {
+		this.progressDelegate = progressDelegate;
+	}
+	
 	public boolean hasResults() {
 		return responseDao.hasResponses(searchParams);
 	}
@@ -261,14 +272,13 @@ public class QTI21ArchiveFormat {
 		resolvedAssessmentTest = qtiService.loadAndResolveAssessmentTest(unzippedDirRoot, false, false);
 		
 		//content
-		final List<AssessmentTestSession> sessions = testSessionDao.getTestSessionsOfResponse(searchParams);
 		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(exportStream, 1)) {
 			//headers
 			OpenXMLWorksheet exportSheet = workbook.nextWorksheet();
 			exportSheet.setHeaderRows(2);
 			writeHeaders_1(exportSheet, workbook);
 			writeHeaders_2(exportSheet, workbook);
-			writeData(sessions, exportSheet, workbook);
+			writeData(exportSheet, workbook);
 		} catch(Exception e) {
 			log.error("", e);
 		}
@@ -294,14 +304,13 @@ public class QTI21ArchiveFormat {
 		return new OpenXMLWorkbookResource(label) {
 			@Override
 			protected void generate(OutputStream out) {
-				final List<AssessmentTestSession> sessions = testSessionDao.getTestSessionsOfResponse(searchParams);
 				try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(out, 1)) {
 					//headers
 					OpenXMLWorksheet exportSheet = workbook.nextWorksheet();
 					exportSheet.setHeaderRows(2);
 					writeHeaders_1(exportSheet, workbook);
 					writeHeaders_2(exportSheet, workbook);
-					writeData(sessions, exportSheet, workbook);
+					writeData(exportSheet, workbook);
 				} catch (Exception e) {
 					log.error("", e);
 				}
@@ -459,29 +468,77 @@ public class QTI21ArchiveFormat {
 	}
 	
 	/**
-	 * The 2 lists, sessions and responses are order by the user name and the test session key.
-	 * @param sessions A list of test sessions ordered by test session key
-	 * @param responses A list of responses ordered by test session key
+	 * The keys of the test sessions are ordered by the user name and the test session key.
+	 * The sessions and their responses are loaded in batches, merged and written before
+	 * the next batch.
+	 * 
 	 * @param exportSheet
 	 * @param workbook
 	 */
-	private void writeData(List<AssessmentTestSession> sessions, OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook) {
-		int numOfSessions = sessions.size();
-		for(int i=0; i<numOfSessions; i++) {
-			AssessmentTestSession testSession = sessions.get(i);
-			SessionResponses sessionResponses = new SessionResponses(testSession);
-			List<AssessmentResponse> responses = responseDao.getResponses(testSession);
-			
-			for(AssessmentResponse response:responses) {
-				AssessmentItemSession itemSession = response.getAssessmentItemSession();
+	private void writeData(OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook) {
+		DB dbInstance = DBFactory.getInstance();
+		List<Long> sessionKeys = testSessionDao.getTestSessionKeysOfResponse(searchParams);
+		dbInstance.commitAndCloseSession();
+		
+		final int numOfSessions = sessionKeys.size();
+		if(progressDelegate != null) {
+			progressDelegate.setMax(numOfSessions);
+		}
+		
+		int num = 0;
+		try {
+			for(int i=0; i<numOfSessions; i+=BATCH_SIZE) {
+				List<Long> batchKeys = sessionKeys.subList(i, Math.min(numOfSessions, i + BATCH_SIZE));
+				List<AssessmentTestSession> sessions = testSessionDao.loadTestSessionsWithUser(batchKeys);
+				List<AssessmentResponse> responses = responseDao.getResponsesOfTestSessions(batchKeys);
+				for(SessionResponses sessionResponses:mergeResponses(batchKeys, sessions, responses)) {
+					writeDataRow(++num, sessionResponses, exportSheet, workbook);
+				}
+				dbInstance.commitAndCloseSession();
+				if(progressDelegate != null) {
+					progressDelegate.setActual(num);
+				}
+			}
+		} finally {
+			dbInstance.commitAndCloseSession();
+			if(progressDelegate != null) {
+				progressDelegate.setActual(num);
+				progressDelegate.finished();
+			}
+		}
+	}
+	
+	/**
+	 * Attach the responses to their test session.
+	 * 
+	 * @param sessionKeys The keys of the test sessions in the order of the rows
+	 * @param sessions The test sessions
+	 * @param responses The responses of the test sessions
+	 * @return The test sessions with their responses in the order of the keys,
+	 * 		a test session without responses has an empty list of responses
+	 */
+	static List<SessionResponses> mergeResponses(List<Long> sessionKeys, List<AssessmentTestSession> sessions,
+			List<AssessmentResponse> responses) {
+		Map<Long,SessionResponses> sessionResponsesMap = new HashMap<>();
+		for(AssessmentTestSession session:sessions) {
+			sessionResponsesMap.put(session.getKey(), new SessionResponses(session));
+		}
+		for(AssessmentResponse response:responses) {
+			AssessmentItemSession itemSession = response.getAssessmentItemSession();
+			SessionResponses sessionResponses = sessionResponsesMap.get(itemSession.getAssessmentTestSession().getKey());
+			if(sessionResponses != null) {
 				sessionResponses.addResponse(itemSession, response);
 			}
-			writeDataRow(i + 1, sessionResponses, exportSheet, workbook);
-			
-			if(i % 25 == 0) {
-				DBFactory.getInstance().commitAndCloseSession();
+		}
+		
+		List<SessionResponses> sessionResponsesList = new ArrayList<>(sessionKeys.size());
+		for(Long sessionKey:sessionKeys) {
+			SessionResponses sessionResponses = sessionResponsesMap.get(sessionKey);
+			if(sessionResponses != null) {
+				sessionResponsesList.add(sessionResponses);
 			}
 		}
+		return sessionResponsesList;
 	}
 	
 	private void writeDataRow(int num, SessionResponses responses, OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook) {
@@ -696,7 +753,7 @@ public class QTI21ArchiveFormat {
 		}
 	}
 	
-	private static class SessionResponses {
+	static class SessionResponses {
 		
 		private final AssessmentTestSession testSession;
 		private final Map<String,AssessmentItemSession> itemSessionsMap = new HashMap<>();
@@ -33,22 +33,22 @@ public class LDAPError implements Serializable {
 		size=0;
 	}
 	
-	public boolean isEmpty(){
+	public synchronized boolean isEmpty(){
 		return (size == 0) ? true : false;
 	}
 	
-	public int size(){
+	public synchronized int size(){
 		return this.size;
 	}
 	
-	public void insert(String error){
+	public synchronized void insert(String error){
 		ErrorNode newError = new ErrorNode(error, end.getPrev(), end);
 		end.getPrev().setNext(newError);
 		end.setPrev(newError);
 		size++;
 	}
 	
-	public String get(){
+	public synchronized String get(){
 		if(isEmpty()!=true){
 			ErrorNode errorNode = end.getPrev();
 			String error = errorNode.getError();
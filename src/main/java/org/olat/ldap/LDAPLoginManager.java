@@ -63,6 +63,15 @@ public interface LDAPLoginManager {
 
 	public boolean doBatchSync(LDAPError errors);
 	
+	/**
+	 * 
+	 * @param errors The errors
+	 * @param full true to force a full synchronization, false to synchronize only
+	 * 		the changes since the last synchronization if possible
+	 * @return true if the synchronization was successful
+	 */
+	public boolean doBatchSync(LDAPError errors, boolean full);
+	
 	public Date getLastSyncDate();
 	
 	public boolean acquireSyncLock();
@@ -144,6 +144,11 @@ public class LDAPLoginModule extends AbstractSpringModule {
 	private boolean ldapSyncCronSync;
 	@Value("${ldap.ldapSyncCronSyncExpression}")
 	private String ldapSyncCronSyncExpression;
+	// between two full synchronizations, only the entries changed in LDAP are synchronized
+	@Value("${ldap.ldapSyncFullSyncInterval:24}")
+	private int ldapSyncFullSyncInterval;
+	@Value("${ldap.ldapSyncThreads:2}")
+	private int ldapSyncThreads;
 	// User LDAP attributes to be synced and a map with the mandatory attributes
 
 
@@ -486,6 +491,20 @@ public class LDAPLoginModule extends AbstractSpringModule {
 		return ldapSyncCronSyncExpression;
 	}
 	
+	/**
+	 * @return The interval in hours between two full synchronizations, 0 or less to always make a full one
+	 */
+	public int getLdapSyncFullSyncInterval() {
+		return ldapSyncFullSyncInterval;
+	}
+	
+	/**
+	 * @return The number of threads which synchronize the users and the groups
+	 */
+	public int getLdapSyncThreads() {
+		return ldapSyncThreads;
+	}
+	
 	public boolean isCreateUsersOnLogin() {
 		return createUsersOnLogin;
 	}
@@ -0,0 +1,179 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+
+/**
+ * Collect the most recent modification or creation timestamp of the entries
+ * read from the LDAP server during a synchronization. The timestamps are the
+ * ones of the server, the next delta synchronization searches the entries
+ * changed since this marker and doesn't depend on the clock of OpenOLAT.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class LDAPChangeMarker {
+	
+	private static final Logger log = Tracing.createLoggerFor(LDAPChangeMarker.class);
+	private static final DateTimeFormatter GENERALIZED_TIME_SECONDS = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+	
+	private static final long OVERLAP_MILLIS = 60000l;
+	
+	private final String[] attributes;
+	private final long startTime = System.currentTimeMillis();
+	private Date lastModified;
+	private Date serverTime;
+	
+	public LDAPChangeMarker(String... attributes) {
+		this.attributes = attributes;
+	}
+	
+	/**
+	 * @return The attributes which hold the timestamps
+	 */
+	public String[] getAttributes() {
+		return attributes;
+	}
+	
+	/**
+	 * @return The most recent timestamp seen or null
+	 */
+	public Date getLastModified() {
+		return lastModified;
+	}
+	
+	/**
+	 * @return The time of the server at the start of the synchronization or null
+	 */
+	public Date getServerTime() {
+		return serverTime;
+	}
+
+	/**
+	 * @param serverTime The time of the server at the start of the synchronization
+	 */
+	public void setServerTime(Date serverTime) {
+		this.serverTime = serverTime;
+	}
+	
+	/**
+	 * The users and the groups are searched one after the other. An entry
+	 * changed during the synchronization can be missed by a search while a
+	 * later search already returns a more recent timestamp. The marker is
+	 * capped at the time of the server at the start of the synchronization.
+	 * If the server doesn't give its time, the duration of the synchronization
+	 * and an overlap window are subtracted from the most recent timestamp.
+	 * 
+	 * @return The marker for the next delta synchronization or null
+	 */
+	public Date getSyncMarker() {
+		return getSyncMarker(System.currentTimeMillis() - startTime);
+	}
+	
+	protected Date getSyncMarker(long duration) {
+		if(lastModified == null) {
+			return null;
+		}
+		if(serverTime != null) {
+			return lastModified.after(serverTime) ? serverTime : lastModified;
+		}
+		return new Date(lastModified.getTime() - duration - OVERLAP_MILLIS);
+	}
+	
+	public void visit(Attributes entryAttributes) {
+		if(entryAttributes == null) return;
+		
+		for(String attribute:attributes) {
+			if(!StringHelper.containsNonWhitespace(attribute)) continue;
+			
+			try {
+				Attribute attr = entryAttributes.get(attribute);
+				if(attr != null && attr.get() instanceof String) {
+					Date timestamp = parseGeneralizedTime((String)attr.get());
+					if(timestamp != null && (lastModified == null || lastModified.before(timestamp))) {
+						lastModified = timestamp;
+					}
+				}
+			} catch (NamingException e) {
+				log.error("Cannot read the timestamp: {}", attribute, e);
+			}
+		}
+	}
+	
+	/**
+	 * Parse a value with the generalized time syntax of LDAP, with or
+	 * without fraction of seconds, in UTC (Z) or with a time zone offset,
+	 * as "20201018123456Z", "20201018123456.0Z" or "20201018143456.123+0200".
+	 * 
+	 * @param value The value of the attribute
+	 * @return The date or null if the value cannot be parsed
+	 */
+	public static Date parseGeneralizedTime(String value) {
+		if(value == null || value.length() < 15) return null;
+		
+		try {
+			LocalDateTime dateTime = LocalDateTime.parse(value.substring(0, 14), GENERALIZED_TIME_SECONDS);
+			int index = 14;
+			if(value.charAt(index) == '.' || value.charAt(index) == ',') {
+				int start = ++index;
+				while(index < value.length() && Character.isDigit(value.charAt(index))) {
+					index++;
+				}
+				String fraction = value.substring(start, Math.min(index, start + 9));
+				if(fraction.length() > 0) {
+					StringBuilder nanos = new StringBuilder(fraction);
+					while(nanos.length() < 9) {
+						nanos.append('0');
+					}
+					dateTime = dateTime.withNano(Integer.parseInt(nanos.toString()));
+				}
+			}
+			
+			ZoneOffset offset;
+			String zone = value.substring(index);
+			if("Z".equalsIgnoreCase(zone)) {
+				offset = ZoneOffset.UTC;
+			} else if(zone.length() == 5 && (zone.charAt(0) == '+' || zone.charAt(0) == '-')) {
+				offset = ZoneOffset.of(zone.substring(0, 3) + ":" + zone.substring(3));
+			} else if(zone.length() == 3 && (zone.charAt(0) == '+' || zone.charAt(0) == '-')) {
+				offset = ZoneOffset.of(zone);
+			} else {
+				return null;
+			}
+			return Date.from(dateTime.toInstant(offset));
+		} catch (Exception e) {
+			log.debug("Cannot parse generalized time: {}", value);
+			return null;
+		}
+	}
+}
@@ -22,6 +22,7 @@ package org.olat.ldap.manager;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
@@ -63,7 +64,7 @@ public class LDAPDAO {
 	
 	private static final Logger log = Tracing.createLoggerFor(LDAPDAO.class);
 	
-	private static final int PAGE_SIZE = 50;
+	private static final int PAGE_SIZE = 500;
 	private static final TimeZone UTC_TIME_ZONE;
 	private static final String PAGED_RESULT_CONTROL_OID = "1.2.840.113556.1.4.319";
 	
@@ -80,11 +81,24 @@ public class LDAPDAO {
 	
 	
 	public List<LDAPGroup> searchGroups(LdapContext ctx, List<String> groupDNs) {
-		String filter = syncConfiguration.getLdapGroupFilter();
+		return searchGroupsModifiedSince(ctx, groupDNs, null, null);
+	}
+	
+	/**
+	 * Search the groups with their members.
+	 * 
+	 * @param ctx The LDAP system connection
+	 * @param groupDNs The bases of the groups
+	 * @param syncTime Return only the groups created or modified since this date (optional)
+	 * @param marker Collect the timestamps of the groups (optional)
+	 * @return A list of groups
+	 */
+	public List<LDAPGroup> searchGroupsModifiedSince(LdapContext ctx, List<String> groupDNs, Date syncTime, LDAPChangeMarker marker) {
+		String filter = buildModifiedSinceFilter(syncConfiguration.getLdapGroupFilter(), syncTime);
 		List<LDAPGroup> ldapGroups = new ArrayList<>();
-		String[] groupAttributes = new String[]{"cn", "member"};
+		String[] groupAttributes = appendAttributes(new String[]{"cn", "member"}, marker);
 		for(String groupDN:groupDNs) {
-			LDAPGroupVisitor visitor = new LDAPGroupVisitor();
+			LDAPGroupVisitor visitor = new LDAPGroupVisitor(marker);
 			search(visitor, groupDN, filter, groupAttributes, ctx);
 			ldapGroups.addAll(visitor.getGroups());
 		}
@@ -277,44 +291,86 @@ public class LDAPDAO {
 	 */
 
 	public List<LDAPUser> getUserAttributesModifiedSince(Date syncTime, LdapContext ctx) {
-		final boolean debug = log.isDebugEnabled();
-		String userFilter = syncConfiguration.getLdapUserFilter();
-		StringBuilder filter = new StringBuilder();
-		if (syncTime == null) {
-			if(debug)  log.debug("LDAP get user attribs since never -> full sync!");
-			if (filter != null) {
-				filter.append(userFilter);				
-			}
-		} else {
-			String dateFormat = ldapLoginModule.getLdapDateFormat();
-			SimpleDateFormat generalizedTimeFormatter = new SimpleDateFormat(dateFormat);
-			generalizedTimeFormatter.setTimeZone(UTC_TIME_ZONE);
-			String syncTimeForm = generalizedTimeFormatter.format(syncTime);
-			if(debug) log.debug("LDAP get user attribs since " + syncTime + " -> means search with date restriction-filter: " + syncTimeForm);
-			if (userFilter != null) {
-				// merge user filter with time fileter using and rule
-				filter.append("(&").append(userFilter);				
-			}
-			filter.append("(|(");								
-			filter.append(syncConfiguration.getLdapUserLastModifiedTimestampAttribute()).append(">=").append(syncTimeForm);
-			filter.append(")(");
-			filter.append(syncConfiguration.getLdapUserCreatedTimestampAttribute()).append(">=").append(syncTimeForm);
-			filter.append("))");
-			if (userFilter != null) {
-				filter.append(")");				
-			}
+		return getUserAttributesModifiedSince(syncTime, null, ctx);
+	}
+	
+	/**
+	 * Same as above but collect the timestamps of the users in the specified
+	 * marker.
+	 * 
+	 * @param syncTime The time to search in LDAP for changes since this time (null for all users)
+	 * @param marker Collect the timestamps of the users (optional)
+	 * @param ctx The LDAP system connection
+	 * @return Returns list of found users or empty list if search fails or nothing is changed
+	 */
+	public List<LDAPUser> getUserAttributesModifiedSince(Date syncTime, LDAPChangeMarker marker, LdapContext ctx) {
+		String filter = buildModifiedSinceFilter(syncConfiguration.getLdapUserFilter(), syncTime);
+		if(filter == null) {
+			filter = "";
 		}
-
-		String[] userAttrs = getEnhancedUserAttributes();
+		String[] userAttrs = appendAttributes(getEnhancedUserAttributes(), marker);
 		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration);
-		searchInLdap(userVisitor, filter.toString(), userAttrs, ctx);
+		searchInLdap(userVisitor, filter, userAttrs, ctx);
 		List<LDAPUser> ldapUserList = userVisitor.getLdapUserList();
-		if(debug) {
+		if(marker != null) {
+			for(LDAPUser ldapUser:ldapUserList) {
+				marker.visit(ldapUser.getAttributes());
+			}
+		}
+		if(log.isDebugEnabled()) {
 			log.debug("attrib search returned " + ldapUserList.size() + " results");
 		}
 		return ldapUserList;
 	}
 	
+	/**
+	 * Merge the filter with a restriction to the entries created or modified
+	 * since the specified date, with the timestamp attributes of the configuration.
+	 * 
+	 * @param entryFilter The filter (optional)
+	 * @param syncTime The date (optional)
+	 * @return The filter
+	 */
+	private String buildModifiedSinceFilter(String entryFilter, Date syncTime) {
+		if (syncTime == null) {
+			log.debug("LDAP search since never -> full sync!");
+			return entryFilter;
+		}
+
+		StringBuilder filter = new StringBuilder();
+		String dateFormat = ldapLoginModule.getLdapDateFormat();
+		SimpleDateFormat generalizedTimeFormatter = new SimpleDateFormat(dateFormat);
+		generalizedTimeFormatter.setTimeZone(UTC_TIME_ZONE);
+		String syncTimeForm = generalizedTimeFormatter.format(syncTime);
+		if(log.isDebugEnabled()) log.debug("LDAP search since " + syncTime + " -> means search with date restriction-filter: " + syncTimeForm);
+		if (entryFilter != null) {
+			// merge user filter with time fileter using and rule
+			filter.append("(&").append(entryFilter);				
+		}
+		filter.append("(|(");								
+		filter.append(syncConfiguration.getLdapUserLastModifiedTimestampAttribute()).append(">=").append(syncTimeForm);
+		filter.append(")(");
+		filter.append(syncConfiguration.getLdapUserCreatedTimestampAttribute()).append(">=").append(syncTimeForm);
+		filter.append("))");
+		if (entryFilter != null) {
+			filter.append(")");				
+		}
+		return filter.toString();
+	}
+	
+	private String[] appendAttributes(String[] attributes, LDAPChangeMarker marker) {
+		if(marker == null) {
+			return attributes;
+		}
+		List<String> attributeList = new ArrayList<>(Arrays.asList(attributes));
+		for(String markerAttribute:marker.getAttributes()) {
+			if(StringHelper.containsNonWhitespace(markerAttribute) && !attributeList.contains(markerAttribute)) {
+				attributeList.add(markerAttribute);
+			}
+		}
+		return attributeList.toArray(new String[attributeList.size()]);
+	}
+	
 	public String[] getEnhancedUserAttributes() {
 		String[] userAttrs = syncConfiguration.getUserAttributes();
 		
@@ -349,6 +405,26 @@ public class LDAPDAO {
 		return userAttrList.toArray(new String[userAttrList.size()]);
 	}
 	
+	/**
+	 * Read the current time of the server in the rootDSE. Active Directory
+	 * provides it with the attribute currentTime, other servers may not.
+	 * 
+	 * @param ctx The LDAP context
+	 * @return The time of the server or null if not available
+	 */
+	public Date getServerCurrentTime(LdapContext ctx) {
+		try {
+			Attributes attrs = ctx.getAttributes("", new String[]{ "currentTime" });
+			Attribute attr = attrs == null ? null : attrs.get("currentTime");
+			if(attr != null && attr.get() instanceof String) {
+				return LDAPChangeMarker.parseGeneralizedTime((String)attr.get());
+			}
+		} catch (NamingException e) {
+			log.debug("Cannot read the current time of the LDAP server", e);
+		}
+		return null;
+	}
+	
 	private byte[] getCookie(LdapContext ctx) throws NamingException, IOException {
 		byte[] cookie = null;
 		// Examine the paged results control response
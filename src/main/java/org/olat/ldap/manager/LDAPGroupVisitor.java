@@ -42,8 +42,20 @@ public class LDAPGroupVisitor implements LDAPVisitor {
 	
 	private static final Logger log = Tracing.createLoggerFor(LDAPGroupVisitor.class);
 
+	private final LDAPChangeMarker marker;
 	private final List<LDAPGroup> groups = new ArrayList<>();
 	
+	public LDAPGroupVisitor() {
+		this(null);
+	}
+	
+	/**
+	 * @param marker Collect the timestamps of the groups (optional)
+	 */
+	public LDAPGroupVisitor(LDAPChangeMarker marker) {
+		this.marker = marker;
+	}
+	
 	public List<LDAPGroup> getGroups() {
 		return groups;
 	}
@@ -53,6 +65,9 @@ public class LDAPGroupVisitor implements LDAPVisitor {
 		Attributes resAttributes = searchResult.getAttributes();
 		Attribute memberAttr = resAttributes.get("member");
 		Attribute cnAttr = resAttributes.get("cn");
+		if(marker != null) {
+			marker.visit(resAttributes);
+		}
 
 		if(memberAttr != null) {
 			LDAPGroup group = new LDAPGroup();
@@ -32,6 +32,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.naming.AuthenticationException;
 import javax.naming.Context;
@@ -95,8 +101,11 @@ import org.olat.ldap.model.LDAPGroup;
 import org.olat.ldap.model.LDAPUser;
 import org.olat.ldap.ui.LDAPAuthenticationController;
 import org.olat.login.auth.OLATAuthManager;
+import org.olat.properties.Property;
+import org.olat.properties.PropertyManager;
 import org.olat.user.UserManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
@@ -111,8 +120,13 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	private static final Logger log = Tracing.createLoggerFor(LDAPLoginManagerImpl.class);
 
 	private static final String TIMEOUT_KEY = "com.sun.jndi.ldap.connect.timeout";
+	private static final String PROPERTY_CATEGORY = "LDAP";
+	private static final String PROPERTY_SYNC_MARKER = "syncMarker";
+	private static final String PROPERTY_LAST_FULL_SYNC = "lastFullSync";
+	private static final int USERS_BATCH_SIZE = 50;
+	private static final int GROUPS_BATCH_SIZE = 10;
 	private static boolean batchSyncIsRunning = false;
-	private static Date lastSyncDate = null; // first sync is always a full sync
+	private static Date lastSyncDate = null; // date of the last sync, the change marker is persisted
 	
 	private Coordinator coordinator;
 	private TaskExecutorManager taskExecutorManager;
@@ -141,6 +155,10 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	private BusinessGroupService businessGroupService;
 	@Autowired
 	private BusinessGroupRelationDAO businessGroupRelationDao;
+	@Autowired
+	private PropertyManager propertyManager;
+	@Autowired @Qualifier("ldapSyncExecutorService")
+	private ExecutorService syncExecutor;
 
 	@Autowired
 	public LDAPLoginManagerImpl(CoordinatorManager coordinatorManager, TaskExecutorManager taskExecutorManager) {
@@ -871,6 +889,22 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	 */
 	@Override
 	public boolean doBatchSync(LDAPError errors) {
+		return doBatchSync(errors, false);
+	}
+	
+	/**
+	 * Execute Batch Sync. A full synchronization reads all the users and groups
+	 * of the LDAP server. A delta synchronization reads only the users and groups
+	 * created or modified since the change marker saved by the last synchronization.
+	 * The deleted users are checked in both cases. If there is no change marker
+	 * or the last full synchronization is older than the configured interval,
+	 * a full synchronization is done.
+	 * 
+	 * @param errors The errors
+	 * @param full true to force a full synchronization
+	 */
+	@Override
+	public boolean doBatchSync(LDAPError errors, boolean full) {
 		//fxdiff: also run on nodes != 1 as nodeid = tomcat-id in fx-environment
 //		if(WebappHelper.getNodeId() != 1) {
 //			log.warn("Sync happens only on node 1", null);
@@ -898,8 +932,6 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		
 		coordinator.getEventBus().fireEventToListenersOf(new LDAPEvent(LDAPEvent.SYNCHING), ldapSyncLockOres);
 		
-		lastSyncDate = null;
-		
 		LdapContext ctx = null;
 		boolean success = false;
 		try {
@@ -913,24 +945,31 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				return success;
 			}
 			Date timeBeforeSync = new Date();
+			// null if a full sync is needed
+			Date syncMarker = full ? null : getSyncMarker(timeBeforeSync);
+			String sinceSentence = (syncMarker == null ? "" : " since last change from " + syncMarker);
+			LDAPChangeMarker changeMarker = new LDAPChangeMarker(syncConfiguration.getLdapUserLastModifiedTimestampAttribute(),
+					syncConfiguration.getLdapUserCreatedTimestampAttribute());
+			changeMarker.setServerTime(ldapDao.getServerCurrentTime(ctx));
+			log.info(Tracing.M_AUDIT, "LDAP batch sync started" + (syncMarker == null ? " (full)" : sinceSentence));
 
 			//check server capabilities
-			// Get time before sync to have a save sync time when sync is successful
-			String sinceSentence = (lastSyncDate == null ? "" : " since last sync from " + lastSyncDate);
-			doBatchSyncDeletedUsers(ctx, sinceSentence);
+			// the deleted users are always checked against the full list of the users in LDAP
+			doBatchSyncDeletedUsers(ctx, "");
 			// bind again to use an initial unmodified context. lookup of server-properties might fail otherwise!
 			ctx.close();
 			ctx = bindSystem();
-			Map<String,LDAPUser> dnToIdentityKeyMap = new HashMap<>();
-			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, sinceSentence, dnToIdentityKeyMap, errors);
+			Map<String,LDAPUser> dnToIdentityKeyMap = new ConcurrentHashMap<>();
+			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, syncMarker, changeMarker, sinceSentence, dnToIdentityKeyMap, errors);
 			ctx.close();
 			ctx = bindSystem();
 			//sync groups by LDAP groups or attributes
-			doBatchSyncGroups(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+			doBatchSyncGroups(ctx, syncMarker, changeMarker, ldapUsers, dnToIdentityKeyMap, errors);
 			//sync roles
-			doBatchSyncRoles(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+			doBatchSyncRoles(ctx, syncMarker, changeMarker, ldapUsers, dnToIdentityKeyMap, errors);
 			
-			// update sync time and set running flag
+			// update sync time, the change marker and set running flag
+			saveSyncMarker(syncMarker, changeMarker, timeBeforeSync);
 			lastSyncDate = timeBeforeSync;
 			
 			ctx.close();
@@ -961,7 +1000,12 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 	}
 	
-	private void doBatchSyncRoles(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
+	/**
+	 * The roles are only added, the groups of the roles are read completely by a full
+	 * synchronization and only if they changed by a delta synchronization.
+	 */
+	private void doBatchSyncRoles(LdapContext ctx, Date syncMarker, LDAPChangeMarker changeMarker,
+			List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
 	throws NamingException {
 		ctx.close();
 		ctx = bindSystem();
@@ -971,32 +1015,32 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		
 		//authors
 		if(syncConfiguration.getAuthorsGroupBase() != null && !syncConfiguration.getAuthorsGroupBase().isEmpty()) {
-			List<LDAPGroup> authorGroups = ldapDao.searchGroups(ctx, syncConfiguration.getAuthorsGroupBase());
+			List<LDAPGroup> authorGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getAuthorsGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, authorGroups, organisation, OrganisationRoles.author, dnToIdentityKeyMap, errors);
 		}
 		//user managers
 		if(syncConfiguration.getUserManagersGroupBase() != null && !syncConfiguration.getUserManagersGroupBase().isEmpty()) {
-			List<LDAPGroup> userManagerGroups = ldapDao.searchGroups(ctx, syncConfiguration.getUserManagersGroupBase());
+			List<LDAPGroup> userManagerGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getUserManagersGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, userManagerGroups, organisation, OrganisationRoles.usermanager, dnToIdentityKeyMap, errors);
 		}
 		//group managers
 		if(syncConfiguration.getGroupManagersGroupBase() != null && !syncConfiguration.getGroupManagersGroupBase().isEmpty()) {
-			List<LDAPGroup> groupManagerGroups = ldapDao.searchGroups(ctx, syncConfiguration.getGroupManagersGroupBase());
+			List<LDAPGroup> groupManagerGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getGroupManagersGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, groupManagerGroups, organisation, OrganisationRoles.groupmanager, dnToIdentityKeyMap, errors);
 		}
 		//question pool managers
 		if(syncConfiguration.getQpoolManagersGroupBase() != null && !syncConfiguration.getQpoolManagersGroupBase().isEmpty()) {
-			List<LDAPGroup> qpoolManagerGroups = ldapDao.searchGroups(ctx, syncConfiguration.getQpoolManagersGroupBase());
+			List<LDAPGroup> qpoolManagerGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getQpoolManagersGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, qpoolManagerGroups, organisation, OrganisationRoles.poolmanager, dnToIdentityKeyMap, errors);
 		}
 		//curriculum managers
 		if(syncConfiguration.getCurriculumManagersGroupBase() != null && !syncConfiguration.getCurriculumManagersGroupBase().isEmpty()) {
-			List<LDAPGroup> curriculumManagerGroups = ldapDao.searchGroups(ctx, syncConfiguration.getCurriculumManagersGroupBase());
+			List<LDAPGroup> curriculumManagerGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getCurriculumManagersGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, curriculumManagerGroups, organisation, OrganisationRoles.curriculummanager, dnToIdentityKeyMap, errors);
 		}
 		//learning resource manager
 		if(syncConfiguration.getLearningResourceManagersGroupBase() != null && !syncConfiguration.getLearningResourceManagersGroupBase().isEmpty()) {
-			List<LDAPGroup> resourceManagerGroups = ldapDao.searchGroups(ctx, syncConfiguration.getLearningResourceManagersGroupBase());
+			List<LDAPGroup> resourceManagerGroups = ldapDao.searchGroupsModifiedSince(ctx, syncConfiguration.getLearningResourceManagersGroupBase(), syncMarker, changeMarker);
 			syncRole(ctx, resourceManagerGroups, organisation, OrganisationRoles.learnresourcemanager, dnToIdentityKeyMap, errors);
 		}
 
@@ -1169,118 +1213,85 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		dbInstance.commitAndCloseSession();
 	}
 	
-	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
+	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, Date syncMarker, LDAPChangeMarker changeMarker,
+			String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
 		// Get new and modified users from LDAP
-		int count = 0;
-		List<LDAPUser> ldapUserList = ldapDao.getUserAttributesModifiedSince(lastSyncDate, ctx);
-		
-		// Check for new and modified users
-		List<LDAPUser> newLdapUserList = new ArrayList<>();
-		Map<IdentityRef, Map<String, String>> changedMapIdentityMap = new HashMap<>();
-		for (LDAPUser ldapUser: ldapUserList) {
-			String user = null;
-			try {
-				Attributes userAttrs = ldapUser.getAttributes();
-				String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
-				user = getAttributeValue(userAttrs.get(uidProp));
-				Identity identity = findIdentityByLdapAuthentication(userAttrs, errors);
-				if (identity != null) {
-					Map<String, String> changedAttrMap = prepareUserPropertyForSync(userAttrs, identity);
-					if (changedAttrMap != null) {
-						changedMapIdentityMap.put(identity, changedAttrMap);
-					}
-					if(StringHelper.containsNonWhitespace(ldapUser.getDn())) {
-						dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
-						ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
-					}
-				} else if (errors.isEmpty()) {
-					String[] reqAttrs = syncConfiguration.checkRequestAttributes(userAttrs);
-					if (reqAttrs == null) {
-						newLdapUserList.add(ldapUser);
-					} else {
-						log.warn("LDAP batch sync: can't create user with username::" + user + " : missing required attributes::"
-							+ ArrayUtils.toString(reqAttrs));
-					}
-				} else {
-					log.warn(errors.get());
-				}
-			} catch (Exception e) {
-				// catch here to go on with other users on exeptions!
-				log.error("some error occured in looping over set of changed user-attributes, actual user " + user + ". Will still continue with others.", e);
-				errors.insert("Cannot sync user: " + user);
-			} finally {
-				dbInstance.commit();
-				if(count % 10 == 0) {
-					dbInstance.closeSession();
-				}
-			}
-			if(count % 1000 == 0) {
-				log.info("Retrieve " + count + "/" + ldapUserList.size() + " users in LDAP server");
-			}
-			count++;
-		}
-		
-		// sync existing users
-		if (changedMapIdentityMap == null || changedMapIdentityMap.isEmpty()) {
+		List<LDAPUser> ldapUserList = ldapDao.getUserAttributesModifiedSince(syncMarker, changeMarker, ctx);
+		if(ldapUserList.isEmpty()) {
 			log.info("LDAP batch sync: no users to sync" + sinceSentence);
-		} else {
-			int syncCount = 0;
-			for (IdentityRef ident : changedMapIdentityMap.keySet()) {
-				// sync user is exception save, no try/catch needed
-				try {
-					syncCount++;
-					syncUser(changedMapIdentityMap.get(ident), ident);
-				} catch (Exception e) {
-					errors.insert("Cannot sync user: " + ident);
-				} finally {
-					dbInstance.commit();
-					if(syncCount % 20 == 0) {
-						dbInstance.closeSession();
-					}
-				}
-				if(syncCount % 1000 == 0) {
-					log.info("Update " + syncCount + "/" + changedMapIdentityMap.size() + " LDAP users");
+			return ldapUserList;
+		}
+
+		// Check, sync and create the users in batches
+		final int numOfUsers = ldapUserList.size();
+		AtomicInteger processed = new AtomicInteger();
+		AtomicInteger synced = new AtomicInteger();
+		AtomicInteger created = new AtomicInteger();
+		executeInBatches(ldapUserList, USERS_BATCH_SIZE, batch -> {
+			for (LDAPUser ldapUser: batch) {
+				doBatchSyncUser(ldapUser, dnToIdentityKeyMap, synced, created, errors);
+				int count = processed.incrementAndGet();
+				if(count % 1000 == 0) {
+					log.info("Sync " + count + "/" + numOfUsers + " LDAP users");
 				}
 			}
-			log.info("LDAP batch sync: " + changedMapIdentityMap.size() + " users synced" + sinceSentence);
-		}
+		});
 		
-		// create new users
-		if (newLdapUserList.isEmpty()) {
-			log.info("LDAP batch sync: no users to create" + sinceSentence);
-		} else {			
-			int newCount = 0;
-			for (LDAPUser ldapUser: newLdapUserList) {
-				Attributes userAttrs = ldapUser.getAttributes();
-				try {
-					newCount++;
-					Identity identity = createAndPersistUser(userAttrs);
-					if(identity != null && StringHelper.containsNonWhitespace(ldapUser.getDn())) {
-						dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
-						ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
-					}
-				} catch (Exception e) {
-					// catch here to go on with other users on exeptions!
-					log.error("some error occured while creating new users, actual userAttribs " + userAttrs + ". Will still continue with others.", e);
-				} finally {
-					dbInstance.commit();
-					if(newCount % 20 == 0) {
-						dbInstance.closeSession();
-					}
+		log.info("LDAP batch sync: " + synced.get() + " users synced" + sinceSentence);
+		log.info("LDAP batch sync: " + created.get() + " users created" + sinceSentence);
+		return ldapUserList;
+	}
+	
+	private void doBatchSyncUser(LDAPUser ldapUser, Map<String,LDAPUser> dnToIdentityKeyMap,
+			AtomicInteger synced, AtomicInteger created, LDAPError errors) {
+		String user = null;
+		Attributes userAttrs = ldapUser.getAttributes();
+		try {
+			String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
+			user = getAttributeValue(userAttrs.get(uidProp));
+			// the errors of the lookup are specific to the user
+			LDAPError userErrors = new LDAPError();
+			Identity identity = findIdentityByLdapAuthentication(userAttrs, userErrors);
+			if (identity != null) {
+				Map<String, String> changedAttrMap = prepareUserPropertyForSync(userAttrs, identity);
+				if (changedAttrMap != null) {
+					syncUser(changedAttrMap, identity);
+					synced.incrementAndGet();
 				}
-				
-				if(newCount % 1000 == 0) {
-					log.info("Create " + count + "/" + newLdapUserList.size() + " LDAP users");
+				cacheIdentity(ldapUser, identity, dnToIdentityKeyMap);
+			} else if (userErrors.isEmpty()) {
+				String[] reqAttrs = syncConfiguration.checkRequestAttributes(userAttrs);
+				if (reqAttrs == null) {
+					Identity newIdentity = createAndPersistUser(userAttrs);
+					if(newIdentity != null) {
+						created.incrementAndGet();
+						cacheIdentity(ldapUser, newIdentity, dnToIdentityKeyMap);
+					}
+				} else {
+					log.warn("LDAP batch sync: can't create user with username::" + user + " : missing required attributes::"
+						+ ArrayUtils.toString(reqAttrs));
 				}
+			} else {
+				log.warn(userErrors.get());
 			}
-			log.info("LDAP batch sync: " + newLdapUserList.size() + " users created" + sinceSentence);
+		} catch (Exception e) {
+			// catch here to go on with other users on exeptions!
+			log.error("some error occured in looping over set of changed user-attributes, actual user " + user + ". Will still continue with others.", e);
+			errors.insert("Cannot sync user: " + user);
+		} finally {
+			dbInstance.commit();
+		}
+	}
+	
+	private void cacheIdentity(LDAPUser ldapUser, IdentityRef identity, Map<String,LDAPUser> dnToIdentityKeyMap) {
+		if(StringHelper.containsNonWhitespace(ldapUser.getDn())) {
+			ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
+			dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
 		}
-
-		dbInstance.commitAndCloseSession();
-		return ldapUserList;
 	}
 	
-	private void doBatchSyncGroups(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
+	private void doBatchSyncGroups(LdapContext ctx, Date syncMarker, LDAPChangeMarker changeMarker,
+			List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
 	throws NamingException {
 		ctx.close();
 		
@@ -1290,33 +1301,49 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		//sync groups by LDAP groups or attributes
 		Map<String,LDAPGroup> cnToGroupMap = new HashMap<>();
 		
-		// retrieve all ldap group's with their list of members
+		// retrieve all ldap group's (or the changed ones) with their list of members
 		if(syncConfiguration.syncGroupWithLDAPGroup()) {
 			List<String> groupDNs = syncConfiguration.getLdapGroupBases();
-			List<LDAPGroup> ldapGroups = ldapDao.searchGroups(ctx, groupDNs);
+			List<LDAPGroup> ldapGroups = ldapDao.searchGroupsModifiedSince(ctx, groupDNs, syncMarker, changeMarker);
 			for(LDAPGroup ldapGroup:ldapGroups) {
 				cnToGroupMap.put(ldapGroup.getCommonName(), ldapGroup);
 			}
 		}
+		// the groups built with the attributes of the users
+		Set<String> attributeGroupNames = new HashSet<>();
 		if(syncConfiguration.syncGroupWithAttribute()) {
-			doSyncGroupByAttribute(ldapUsers, cnToGroupMap);
+			doSyncGroupByAttribute(ldapUsers, cnToGroupMap, attributeGroupNames);
 		}
 		
-		int syncGroupCount = 0;
-		for(LDAPGroup group:cnToGroupMap.values()) {
-			BusinessGroup managedGroup = getManagerBusinessGroup(group.getCommonName());
-			if(managedGroup != null) {
-				syncBusinessGroup(ctx, managedGroup, group, dnToIdentityKeyMap, errors);
-			}
-			dbInstance.commitAndCloseSession();
-			if(syncGroupCount % 100 == 0) {
-				log.info("Synched " + syncGroupCount + "/" + cnToGroupMap.size() + " LDAP groups");
-			}
-			syncGroupCount++;
+		// resolve the members with the LDAP connection before the groups are distributed to the workers
+		final List<LDAPGroup> groups = new ArrayList<>(cnToGroupMap.values());
+		for(LDAPGroup group:groups) {
+			resolveGroupMembers(ctx, group, dnToIdentityKeyMap, errors);
 		}
+		dbInstance.commitAndCloseSession();
+		
+		// the groups built with the attributes of the users in a delta synchronization
+		// only know the changed users, their other members are not removed. The LDAP
+		// groups list all their members.
+		final Set<String> partialGroupNames = syncMarker == null ? Collections.emptySet() : attributeGroupNames;
+		AtomicInteger syncGroupCount = new AtomicInteger();
+		executeInBatches(groups, GROUPS_BATCH_SIZE, batch -> {
+			for(LDAPGroup group:batch) {
+				BusinessGroup managedGroup = getManagerBusinessGroup(group.getCommonName());
+				if(managedGroup != null) {
+					boolean removeMembers = !partialGroupNames.contains(group.getCommonName());
+					syncBusinessGroup(managedGroup, group, removeMembers);
+				}
+				dbInstance.commitAndCloseSession();
+				int count = syncGroupCount.incrementAndGet();
+				if(count % 100 == 0) {
+					log.info("Synched " + count + "/" + groups.size() + " LDAP groups");
+				}
+			}
+		});
 	}
 	
-	private void doSyncGroupByAttribute(List<LDAPUser> ldapUsers, Map<String,LDAPGroup> cnToGroupMap) {
+	private void doSyncGroupByAttribute(List<LDAPUser> ldapUsers, Map<String,LDAPGroup> cnToGroupMap, Set<String> attributeGroupNames) {
 		for(LDAPUser ldapUser:ldapUsers) {
 			List<String> groupIds = ldapUser.getGroupIds();
 			List<String> coachedGroupIds = ldapUser.getCoachedGroupIds();
@@ -1331,6 +1358,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 								cnToGroupMap.put(groupId, new LDAPGroup(groupId));
 							}
 							cnToGroupMap.get(groupId).getParticipants().add(ldapUser);
+							attributeGroupNames.add(groupId);
 						}
 					}
 					
@@ -1340,6 +1368,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 								cnToGroupMap.put(coachedGroupId, new LDAPGroup(coachedGroupId));
 							}
 							cnToGroupMap.get(coachedGroupId).getCoaches().add(ldapUser);
+							attributeGroupNames.add(coachedGroupId);
 						}
 					}
 				}
@@ -1347,20 +1376,17 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 	}
 	
-	private void syncBusinessGroup(LdapContext ctx, BusinessGroup businessGroup, LDAPGroup ldapGroup, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
-		List<Identity> currentMembers = businessGroupRelationDao
-				.getMembers(businessGroup, GroupRoles.coach.name(), GroupRoles.participant.name());
-		Set<Long> currentMemberKeys = new HashSet<>();
-		for(Identity currentMember:currentMembers) {
-			currentMemberKeys.add(currentMember.getKey());
-		}
-
-		List<LDAPUser> coaches = new ArrayList<>(ldapGroup.getCoaches());
-		List<LDAPUser> participants = new ArrayList<>(ldapGroup.getParticipants());
+	/**
+	 * Transfer the members of the LDAP group to the list of participants and
+	 * the users flagged as coach to the list of coaches.
+	 */
+	private void resolveGroupMembers(LdapContext ctx, LDAPGroup ldapGroup, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
+		List<LDAPUser> coaches = ldapGroup.getCoaches();
+		List<LDAPUser> participants = ldapGroup.getParticipants();
 		// transfer member cn's to the participants list
 		for(String member:ldapGroup.getMembers()) {
 			try {
-				LDAPUser ldapUser = getLDAPUser(ctx, member, dnToIdentityKeyMap, errors); dnToIdentityKeyMap.get(member);
+				LDAPUser ldapUser = getLDAPUser(ctx, member, dnToIdentityKeyMap, errors);
 				if(ldapUser != null && !participants.contains(ldapUser)) {
 					participants.add(ldapUser);
 				}
@@ -1378,6 +1404,18 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				participantIt.remove();
 			}
 		}
+	}
+	
+	private void syncBusinessGroup(BusinessGroup businessGroup, LDAPGroup ldapGroup, boolean removeMembers) {
+		List<Identity> currentMembers = businessGroupRelationDao
+				.getMembers(businessGroup, GroupRoles.coach.name(), GroupRoles.participant.name());
+		Set<Long> currentMemberKeys = new HashSet<>();
+		for(Identity currentMember:currentMembers) {
+			currentMemberKeys.add(currentMember.getKey());
+		}
+
+		List<LDAPUser> coaches = ldapGroup.getCoaches();
+		List<LDAPUser> participants = ldapGroup.getParticipants();
 		
 		int count = 0;
 		for(LDAPUser participant:participants) {
@@ -1405,6 +1443,9 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			count++;
 		}
 		
+		if(!removeMembers) {
+			currentMemberKeys.clear();
+		}
 		for(Long currentMemberKey:currentMemberKeys) {
 			Identity currentMember = securityManager.loadIdentityByKey(currentMemberKey);
 			List<String> roles = businessGroupRelationDao.getRoles(currentMember, businessGroup);
@@ -1490,6 +1531,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				Attributes userAttrs = ldapUser.getAttributes();
 				identity = findIdentityByLdapAuthentication(userAttrs, errors);
 				if(identity != null) {
+					ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
 					dnToIdentityKeyMap.put(userDN, ldapUser);
 				}
 			}
@@ -1558,6 +1600,109 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	public Date getLastSyncDate() {
 		return lastSyncDate;
 	}
+	
+	/**
+	 * @param now The current date
+	 * @return The change marker of the last synchronization or null if a full
+	 * 		synchronization is needed
+	 */
+	private Date getSyncMarker(Date now) {
+		Date lastFullSync = getSyncProperty(PROPERTY_LAST_FULL_SYNC);
+		int interval = ldapLoginModule.getLdapSyncFullSyncInterval();
+		if(lastFullSync == null || interval <= 0
+				|| lastFullSync.getTime() + (interval * 3600000l) < now.getTime()) {
+			return null;
+		}
+		return getSyncProperty(PROPERTY_SYNC_MARKER);
+	}
+	
+	private void saveSyncMarker(Date syncMarker, LDAPChangeMarker changeMarker, Date timeBeforeSync) {
+		Date lastModified = changeMarker.getSyncMarker();
+		if(syncMarker == null) {
+			setSyncProperty(PROPERTY_LAST_FULL_SYNC, timeBeforeSync);
+			if(lastModified == null) {
+				log.warn("LDAP batch sync: no timestamp found in the attributes {} and {}, the next synchronization will be a full one",
+						syncConfiguration.getLdapUserLastModifiedTimestampAttribute(), syncConfiguration.getLdapUserCreatedTimestampAttribute());
+			}
+			setSyncProperty(PROPERTY_SYNC_MARKER, lastModified);
+		} else if(lastModified != null && lastModified.after(syncMarker)) {
+			setSyncProperty(PROPERTY_SYNC_MARKER, lastModified);
+		}
+		dbInstance.commitAndCloseSession();
+	}
+	
+	private Date getSyncProperty(String name) {
+		Property property = propertyManager.findProperty(null, null, null, PROPERTY_CATEGORY, name);
+		return property == null || property.getLongValue() == null ? null : new Date(property.getLongValue().longValue());
+	}
+	
+	private void setSyncProperty(String name, Date date) {
+		Property property = propertyManager.findProperty(null, null, null, PROPERTY_CATEGORY, name);
+		if(date == null) {
+			if(property != null) {
+				propertyManager.deleteProperty(property);
+			}
+		} else if(property == null) {
+			property = propertyManager.createPropertyInstance(null, null, null, PROPERTY_CATEGORY, name, null, Long.valueOf(date.getTime()), null, null);
+			propertyManager.saveProperty(property);
+		} else {
+			property.setLongValue(Long.valueOf(date.getTime()));
+			propertyManager.updateProperty(property);
+		}
+	}
+	
+	/**
+	 * Process the items in batches, every batch is committed. If there is more
+	 * than one batch, they are distributed to a pool of threads, every one with
+	 * its own database session. The work on the batches cannot use the LDAP
+	 * connection which is not thread-safe.
+	 * 
+	 * @param items The items to process
+	 * @param batchSize The size of the batches
+	 * @param batchWork The work to do on a batch
+	 */
+	private <T> void executeInBatches(List<T> items, int batchSize, Consumer<List<T>> batchWork) {
+		final int numOfItems = items.size();
+		int numOfBatches = (numOfItems + batchSize - 1) / batchSize;
+		int numOfThreads = Math.min(ldapLoginModule.getLdapSyncThreads(), numOfBatches);
+		if(numOfThreads <= 1) {
+			for(int i=0; i<numOfItems; i+=batchSize) {
+				batchWork.accept(items.subList(i, Math.min(numOfItems, i + batchSize)));
+				dbInstance.commitAndCloseSession();
+			}
+		} else {
+			dbInstance.commitAndCloseSession();
+			List<Future<?>> futures = new ArrayList<>(numOfBatches);
+			try {
+				for(int i=0; i<numOfItems; i+=batchSize) {
+					List<T> batch = new ArrayList<>(items.subList(i, Math.min(numOfItems, i + batchSize)));
+					futures.add(syncExecutor.submit(() -> {
+						try {
+							batchWork.accept(batch);
+							dbInstance.commitAndCloseSession();
+						} catch (Exception e) {
+							dbInstance.rollbackAndCloseSession();
+							throw e;
+						}
+					}));
+				}
+				
+				for(Future<?> future:futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						log.error("", e);
+					}
+				}
+			} catch (InterruptedException e) {
+				log.warn("LDAP batch sync interrupted", e);
+				Thread.currentThread().interrupt();
+				for(Future<?> future:futures) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
 
 	/**
 	 * Internal helper to add the SSL protocol to the environment
@@ -1621,4 +1766,5 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	public boolean isIdentityInLDAPSecGroup(Identity ident) {
 		return authenticationDao.hasAuthentication(ident, LDAPAuthenticationController.PROVIDER_LDAP);
 	}
-}
\ No newline at end of file
+
+}
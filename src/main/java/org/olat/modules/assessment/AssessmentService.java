@@ -82,6 +82,17 @@ public interface AssessmentService {
 	
 	public List<AssessmentEntry> loadAssessmentEntriesByAssessedIdentity(Identity assessedIdentity, RepositoryEntry entry);
 	
+	/**
+	 * Load the assessment entries of a list of users in one query.
+	 * 
+	 * @param entry The repository entry
+	 * @param identityKeys The primary keys of the assessed identities
+	 * @return A list of assessment entries
+	 */
+	public List<AssessmentEntry> loadAssessmentEntriesByAssessedIdentities(RepositoryEntry entry, Collection<Long> identityKeys);
+	
+	public boolean hasAssessmentEntriesModifiedAfter(Identity assessedIdentity, RepositoryEntry entry, Date date);
+	
 	public List<AssessmentEntryScoring> loadRootAssessmentEntriesByAssessedIdentity(Identity assessedIdentity, Collection<Long> entryKeys);
 	
 	public List<AssessmentEntry> loadAssessmentEntries(BusinessGroup assessedGroup, RepositoryEntry entry, String subIdent);
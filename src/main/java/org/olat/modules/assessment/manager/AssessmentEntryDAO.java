@@ -40,12 +40,14 @@ import org.olat.modules.assessment.Overridable;
 import org.olat.modules.assessment.model.AssessmentEntryImpl;
 import org.olat.modules.assessment.model.AssessmentEntryStatus;
 import org.olat.modules.assessment.model.AssessmentObligation;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.modules.curriculum.CurriculumElement;
 import org.olat.modules.curriculum.CurriculumRoles;
 import org.olat.modules.vitero.model.GroupRole;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
 import org.olat.repository.RepositoryEntryStatusEnum;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -60,6 +62,10 @@ public class AssessmentEntryDAO {
 	
 	@Autowired
 	private DB dbInstance;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
 	
 	public AssessmentEntry createAssessmentEntry(Identity assessedIdentity, String anonymousIdentifier,
 			RepositoryEntry entry, String subIdent, Boolean entryRoot, RepositoryEntry referenceEntry) {
@@ -230,6 +236,13 @@ public class AssessmentEntryDAO {
 			impl.setObligationModIdentity(obligation.getModBy());
 			impl.setObligationModDate(obligation.getModDate());
 		}
+		if(Boolean.TRUE.equals(nodeAssessment.getEntryRoot())) {
+			// the completion of the course is in the statistics of the coaching tool and in "My courses"
+			coachingStatisticsWorkDao.markEntry(nodeAssessment.getRepositoryEntry(), nodeAssessment.getIdentity());
+			if(nodeAssessment.getIdentity() != null) {
+				myCourseDao.updateCompletion(nodeAssessment.getIdentity(), nodeAssessment.getRepositoryEntry(), nodeAssessment.getCompletion());
+			}
+		}
 		return dbInstance.getCurrentEntityManager().merge(nodeAssessment);
 	}
 	
@@ -385,6 +398,47 @@ public class AssessmentEntryDAO {
 				.setParameter("identityKey", assessedIdentity.getKey())
 				.getResultList();
 	}
+	
+	/**
+	 * Load the assessment entries of several users in one query.
+	 * 
+	 * @param entry The repository entry (mandatory)
+	 * @param identityKeys The primary keys of the assessed identities, keep the list reasonably small
+	 * @return A list of assessment entries
+	 */
+	public List<AssessmentEntry> loadAssessmentEntriesByAssessedIdentities(RepositoryEntryRef entry, Collection<Long> identityKeys) {
+		if(identityKeys == null || identityKeys.isEmpty()) return Collections.emptyList();
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("select data from assessmententry data where data.repositoryEntry.key=:repositoryEntryKey and data.identity.key in (:identityKeys)");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentEntry.class)
+				.setParameter("repositoryEntryKey", entry.getKey())
+				.setParameter("identityKeys", identityKeys)
+				.getResultList();
+	}
+	
+	/**
+	 * @param assessedIdentity The assessed identity (mandatory)
+	 * @param entry The repository entry (mandatory)
+	 * @param date The reference date (mandatory)
+	 * @return true if at least one assessment entry of the user was modified after the specified date
+	 */
+	public boolean hasAssessmentEntriesModifiedAfter(IdentityRef assessedIdentity, RepositoryEntryRef entry, Date date) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select data.key from assessmententry data where data.repositoryEntry.key=:repositoryEntryKey and data.identity.key=:identityKey")
+		  .append(" and data.lastModified>:date");
+		List<Long> keys = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("repositoryEntryKey", entry.getKey())
+				.setParameter("identityKey", assessedIdentity.getKey())
+				.setParameter("date", date)
+				.setFlushMode(FlushModeType.COMMIT)
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		return keys != null && !keys.isEmpty() && keys.get(0) != null;
+	}
 
 	/**
 	 * Load all the assessment entry of the specific group. But aware that the query exclude the default group
@@ -126,6 +126,16 @@ public class AssessmentServiceImpl implements AssessmentService, UserDataDeletab
 		return assessmentEntryDao.loadAssessmentEntriesByAssessedIdentity(assessedIdentity, entry);
 	}
 
+	@Override
+	public List<AssessmentEntry> loadAssessmentEntriesByAssessedIdentities(RepositoryEntry entry, Collection<Long> identityKeys) {
+		return assessmentEntryDao.loadAssessmentEntriesByAssessedIdentities(entry, identityKeys);
+	}
+
+	@Override
+	public boolean hasAssessmentEntriesModifiedAfter(Identity assessedIdentity, RepositoryEntry entry, Date date) {
+		return assessmentEntryDao.hasAssessmentEntriesModifiedAfter(assessedIdentity, entry, date);
+	}
+
 	@Override
 	public List<AssessmentEntry> loadAssessmentEntries(BusinessGroup assessedGroup, RepositoryEntry entry, String subIdent) {
 		return assessmentEntryDao.loadAssessmentEntryByGroup(assessedGroup.getBaseGroup(), entry, subIdent);
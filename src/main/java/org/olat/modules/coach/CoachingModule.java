@@ -45,6 +45,8 @@ public class CoachingModule  extends AbstractSpringModule implements ConfigOnOff
 	private boolean enabled;
 	@Value("${password.change.by.coach.allowed:false}")
 	private boolean resetPasswordEnabled;
+	@Value("${coaching.statistics.precomputed:true}")
+	private boolean statisticsPrecomputed;
 	
 	@Autowired
 	public CoachingModule(CoordinatorManager coordinatorManager) {
@@ -67,6 +69,19 @@ public class CoachingModule  extends AbstractSpringModule implements ConfigOnOff
 		return resetPasswordEnabled;
 	}
 
+	/**
+	 * @return true if the statistics of the courses and the students are read
+	 * 		from the tables updated in the background instead of being calculated
+	 * 		at every request
+	 */
+	public boolean isStatisticsPrecomputed() {
+		return statisticsPrecomputed;
+	}
+
+	public void setStatisticsPrecomputed(boolean statisticsPrecomputed) {
+		this.statisticsPrecomputed = statisticsPrecomputed;
+	}
+
 	@Override
 	public void init() {
 		// Add controller factory extension point to launch groups
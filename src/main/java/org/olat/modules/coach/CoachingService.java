@@ -50,6 +50,15 @@ public interface CoachingService {
 
 	public List<RepositoryEntry> getStudentsCourses(Identity coach, Identity student);
 	
+	/**
+	 * The statistics are read from the pre-aggregated tables if enabled
+	 * and available for the coach, else they are calculated.
+	 * 
+	 * @param coach The coach
+	 * @param userPropertyHandlers The user properties to load
+	 * @param locale The locale
+	 * @return The statistics of the students of the coach
+	 */
 	public List<StudentStatEntry> getStudentsStatistics(Identity coach, List<UserPropertyHandler> userPropertyHandlers, Locale locale);
 	
 	
@@ -58,6 +67,13 @@ public interface CoachingService {
 	public List<RepositoryEntry> getUserCourses(Identity student);
 	
 	
+	/**
+	 * The statistics are read from the pre-aggregated tables if enabled
+	 * and available for the coach, else they are calculated.
+	 * 
+	 * @param coach The coach
+	 * @return The statistics of the courses of the coach
+	 */
 	public List<CourseStatEntry> getCoursesStatistics(Identity coach);
 	
 	public List<GroupStatEntry> getGroupsStatistics(Identity coach);
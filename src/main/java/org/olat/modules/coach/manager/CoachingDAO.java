@@ -21,6 +21,7 @@ package org.olat.modules.coach.manager;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.basesecurity.GroupRoles;
@@ -396,12 +398,21 @@ public class CoachingDAO {
 	}
 	
 	protected List<CourseStatEntry> getCoursesStatisticsNative(Identity coach) {
+		return getCoursesStatisticsNative(coach, null);
+	}
+	
+	/**
+	 * @param coach The coach or owner
+	 * @param entryKeys Restrict the statistics to these courses or null for all the courses
+	 * @return The statistics of the courses
+	 */
+	protected List<CourseStatEntry> getCoursesStatisticsNative(IdentityRef coach, Collection<Long> entryKeys) {
 		Map<Long,CourseStatEntry> map = new HashMap<>();		
-		boolean hasCourses = getCourses(coach, map);
+		boolean hasCourses = getCourses(coach, entryKeys, map);
 		if(hasCourses) {
-			getCoursesStatisticsUserInfosForCoach(coach, map);
-			getCoursesStatisticsUserInfosForOwner(coach, map);
-			getCoursesStatisticsStatements(coach, map);
+			getCoursesStatisticsUserInfosForCoach(coach, entryKeys, map);
+			getCoursesStatisticsUserInfosForOwner(coach, entryKeys, map);
+			getCoursesStatisticsStatements(coach, entryKeys, map);
 			for(Iterator<Map.Entry<Long,CourseStatEntry>> it=map.entrySet().iterator(); it.hasNext(); ) {
 				CourseStatEntry entry = it.next().getValue();
 				if(entry.getCountStudents() == 0) {
@@ -411,12 +422,12 @@ public class CoachingDAO {
 					entry.setCountNotAttempted(notAttempted);
 				}
 			}
-			getCourseCompletionStatements(coach, map);
+			getCourseCompletionStatements(coach, entryKeys, map);
 		}
 		return new ArrayList<>(map.values());
 	}
 
-	private boolean getCourses(IdentityRef coach, Map<Long,CourseStatEntry> map) {
+	private boolean getCourses(IdentityRef coach, Collection<Long> entryKeys, Map<Long,CourseStatEntry> map) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select v.key, v.displayname, v.status")
 		  .append(" from repositoryentry v")
@@ -426,12 +437,16 @@ public class CoachingDAO {
 		  .append(" inner join baseGroup.members as coach on coach.role ")
 		  		.in(GroupRoles.coach, GroupRoles.owner)
 		  .append(" where coach.identity.key=:coachKey and res.resName='CourseModule'")
-		  .append(" and v.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed());
+		  .append(" and v.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and v.key in (:entryKeys)", entryKeys != null);
 
-		List<Object[]> rawList = dbInstance.getCurrentEntityManager()
+		TypedQuery<Object[]> query = dbInstance.getCurrentEntityManager()
 				.createQuery(sb.toString(), Object[].class)
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(entryKeys != null) {
+			query.setParameter("entryKeys", entryKeys);
+		}
+		List<Object[]> rawList = query.getResultList();
 
 		for(Object[] rawStat:rawList) {
 			CourseStatEntry entry = new CourseStatEntry();
@@ -443,7 +458,7 @@ public class CoachingDAO {
 		return !rawList.isEmpty();
 	}
 	
-	private boolean getCoursesStatisticsUserInfosForCoach(Identity coach, Map<Long,CourseStatEntry> map) {
+	private boolean getCoursesStatisticsUserInfosForCoach(IdentityRef coach, Collection<Long> entryKeys, Map<Long,CourseStatEntry> map) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select")
 		  .append("  sg_re.repositoryentry_id as re_id,")
@@ -456,12 +471,16 @@ public class CoachingDAO {
 		  .append(" left join o_as_user_course_infos pg_initial_launch")
 		  .append("   on (pg_initial_launch.fk_resource_id = sg_re.fk_olatresource and pg_initial_launch.fk_identity = sg_participant.fk_identity_id)")
 		  .append(" where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 		  .append(" group by sg_re.repositoryentry_id");
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(entryKeys != null) {
+			query.setParameter("entryKeys", entryKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStats = (Object[])rawObject;
@@ -475,7 +494,7 @@ public class CoachingDAO {
 		return !rawList.isEmpty();
 	}
 	
-	private boolean getCoursesStatisticsUserInfosForOwner(Identity coach, Map<Long,CourseStatEntry> map) {
+	private boolean getCoursesStatisticsUserInfosForOwner(IdentityRef coach, Collection<Long> entryKeys, Map<Long,CourseStatEntry> map) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		if(dbInstance.isMySQL()) {
 			sb.append("select")
@@ -491,6 +510,7 @@ public class CoachingDAO {
 			  .append(" left join o_as_user_course_infos pg_initial_launch")
 			  .append("   on (pg_initial_launch.fk_resource_id = sg_re.fk_olatresource and pg_initial_launch.fk_identity = sg_participant.fk_identity_id)")
 			  .append(" where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+			  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 			  .append(" group by sg_re.repositoryentry_id");
 		} else {
 			sb.append("select")
@@ -509,13 +529,17 @@ public class CoachingDAO {
 			  .append("  where owngroup.fk_entry_id = sg_re.repositoryentry_id and owngroup.r_defgroup=").appendTrue().append(" and sg_owner.fk_identity_id=:coachKey")
 			  .append("  and sg_owner.g_role ").in(GroupRoles.owner)
 			  .append(" )")
+			  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 			  .append(" group by sg_re.repositoryentry_id");
 		}
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(entryKeys != null) {
+			query.setParameter("entryKeys", entryKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStats = (Object[])rawObject;
@@ -529,7 +553,7 @@ public class CoachingDAO {
 		return !rawList.isEmpty();
 	}
 	
-	private boolean getCoursesStatisticsStatements(Identity coach, Map<Long,CourseStatEntry> map) {
+	private boolean getCoursesStatisticsStatements(IdentityRef coach, Collection<Long> entryKeys, Map<Long,CourseStatEntry> map) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select ")
 		  .append(" fin_statement.course_repo_key, ")
@@ -545,6 +569,7 @@ public class CoachingDAO {
 		  .append("	inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=sg_coach.fk_group_id and sg_participant.g_role='participant') ")
 		  .append(" inner join o_as_eff_statement sg_statement on (sg_statement.fk_identity = sg_participant.fk_identity_id and sg_statement.fk_resource_id = sg_re.fk_olatresource) ")
 		  .append("	where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 		  .append(" union select sg_statement.id ")
 		  .append(" from o_repositoryentry sg_re ")
 		  .append(" inner join o_re_to_group owngroup on (owngroup.fk_entry_id = sg_re.repositoryentry_id and owngroup.r_defgroup=").appendTrue().append(") ")
@@ -554,13 +579,17 @@ public class CoachingDAO {
 		  .append(" inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=togroup.fk_group_id and sg_participant.g_role='participant') ")
 		  .append(" inner join o_as_eff_statement sg_statement on (sg_statement.fk_identity = sg_participant.fk_identity_id and sg_statement.fk_resource_id = sg_re.fk_olatresource) ")
 		  .append(" where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 		  .append(") ")
 		  .append("group by fin_statement.course_repo_key ");
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(entryKeys != null) {
+			query.setParameter("entryKeys", entryKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStats = (Object[])rawObject;
@@ -579,7 +608,7 @@ public class CoachingDAO {
 		return !rawList.isEmpty();
 	}
 	
-	private boolean getCourseCompletionStatements(Identity coach, Map<Long, CourseStatEntry> map) {
+	private boolean getCourseCompletionStatements(IdentityRef coach, Collection<Long> entryKeys, Map<Long, CourseStatEntry> map) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select ")
 		  .append(" ae.fk_entry, ")
@@ -592,6 +621,7 @@ public class CoachingDAO {
 		  .append("	inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=sg_coach.fk_group_id and sg_participant.g_role='participant') ")
 		  .append(" inner join o_as_entry sg_ae on (sg_ae.fk_identity = sg_participant.fk_identity_id and sg_ae.fk_entry = sg_re.repositoryentry_id) ")
 		  .append("	where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 		  .append("   and sg_ae.a_entry_root=").appendTrue()
 		  .append(" union")
 		  .append(" select sg_ae.id ")
@@ -603,14 +633,18 @@ public class CoachingDAO {
 		  .append(" inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=togroup.fk_group_id and sg_participant.g_role='participant') ")
 		  .append(" inner join o_as_entry sg_ae on (sg_ae.fk_identity = sg_participant.fk_identity_id and sg_ae.fk_entry = sg_re.repositoryentry_id) ")
 		  .append(" where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_re.repositoryentry_id in (:entryKeys)", entryKeys != null)
 		  .append("    and sg_ae.a_entry_root=").appendTrue()
 		  .append(") ")
 		  .append("group by ae.fk_entry ");
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(entryKeys != null) {
+			query.setParameter("entryKeys", entryKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStat = (Object[])rawObject;
@@ -625,9 +659,21 @@ public class CoachingDAO {
 	}
 	
 	protected List<StudentStatEntry> getStudentsStatisticsNative(Identity coach, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
+		return getStudentsStatisticsNative(coach, null, userPropertyHandlers, locale);
+	}
+	
+	/**
+	 * @param coach The coach or owner
+	 * @param studentKeys Restrict the statistics to these students or null for all the students
+	 * @param userPropertyHandlers The user properties to load
+	 * @param locale The locale
+	 * @return The statistics of the students
+	 */
+	protected List<StudentStatEntry> getStudentsStatisticsNative(IdentityRef coach, Collection<Long> studentKeys,
+			List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
 		Map<Long, StudentStatEntry> map = new HashMap<>();
-		boolean hasCoachedStudents = getStudentsStastisticInfosForCoach(coach, map, userPropertyHandlers, locale);
-		boolean hasOwnedStudents = getStudentsStastisticInfosForOwner(coach, map, userPropertyHandlers, locale);
+		boolean hasCoachedStudents = getStudentsStastisticInfosForCoach(coach, studentKeys, map, userPropertyHandlers, locale);
+		boolean hasOwnedStudents = getStudentsStastisticInfosForOwner(coach, studentKeys, map, userPropertyHandlers, locale);
 		if(hasOwnedStudents || hasCoachedStudents) {
 			for(StudentStatEntry entry:map.values()) {
 				entry.setCountRepo(entry.getRepoIds().size());
@@ -635,17 +681,17 @@ public class CoachingDAO {
 				entry.setInitialLaunch(entry.getLaunchIds().size());
 				entry.setLaunchIds(null);
 			}
-			getStudentsStatisticStatement(coach, hasCoachedStudents, hasOwnedStudents, map);
+			getStudentsStatisticStatement(coach, studentKeys, hasCoachedStudents, hasOwnedStudents, map);
 			for(StudentStatEntry entry:map.values()) {
 				int notAttempted = entry.getCountRepo() - entry.getCountPassed() - entry.getCountFailed();
 				entry.setCountNotAttempted(notAttempted);
 			}
-			getStudentsCompletionStatement(coach, hasCoachedStudents, hasOwnedStudents, map);
+			getStudentsCompletionStatement(coach, studentKeys, hasCoachedStudents, hasOwnedStudents, map);
 		}
 		return new ArrayList<>(map.values());
 	}
 	
-	private boolean getStudentsStastisticInfosForCoach(IdentityRef coach, Map<Long, StudentStatEntry> map, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
+	private boolean getStudentsStastisticInfosForCoach(IdentityRef coach, Collection<Long> studentKeys, Map<Long, StudentStatEntry> map, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select")
 		  .append("  sg_participant_id.id as part_id,")
@@ -664,16 +710,20 @@ public class CoachingDAO {
 		  .append(" left join o_as_user_course_infos pg_initial_launch")
 		  .append("   on (pg_initial_launch.fk_resource_id = sg_re.fk_olatresource and pg_initial_launch.fk_identity = sg_participant.fk_identity_id)")
 		  .append(" where sg_coach.fk_identity_id=:coachKey and sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+		  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null)
 		  .append(" group by sg_participant_id.id, sg_participant_user.user_id");
 		if(dbInstance.isOracle()) {
 			sb.append(", sg_participant_id.name");
 			writeUserPropertiesGroupBy("sg_participant_user", sb, userPropertyHandlers);
 		}
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(studentKeys != null) {
+			query.setParameter("studentKeys", studentKeys);
+		}
+		List<?> rawList = query.getResultList();
 
 		int numOfProperties = userPropertyHandlers.size();
 		for(Object rawObject:rawList) {
@@ -711,7 +761,7 @@ public class CoachingDAO {
 		}	
 	}
 	
-	private boolean getStudentsStastisticInfosForOwner(IdentityRef coach, Map<Long, StudentStatEntry> map, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
+	private boolean getStudentsStastisticInfosForOwner(IdentityRef coach, Collection<Long> studentKeys, Map<Long, StudentStatEntry> map, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select")
 		  .append("  sg_participant_id.id as part_id,")
@@ -734,16 +784,20 @@ public class CoachingDAO {
 		  .append(" where sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed()).append(" and exists (")
 		  .append("  select sg_res.resource_id from o_olatresource sg_res where sg_re.fk_olatresource=sg_res.resource_id and sg_res.resname = 'CourseModule'")
 		  .append(" )")
+		  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null)
 		  .append(" group by sg_participant_id.id, sg_participant_user.user_id");
 		if(dbInstance.isOracle()) {
 			sb.append(", sg_participant_id.name");
 			writeUserPropertiesGroupBy("sg_participant_user", sb, userPropertyHandlers);
 		}
 
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(studentKeys != null) {
+			query.setParameter("studentKeys", studentKeys);
+		}
+		List<?> rawList = query.getResultList();
 
 		int numOfProperties = userPropertyHandlers.size();
 		Map<Long,StudentStatEntry> stats = new HashMap<>();
@@ -799,7 +853,7 @@ public class CoachingDAO {
 		}
 	}
 	
-	private boolean getStudentsStatisticStatement(IdentityRef coach, boolean hasCoached, boolean hasOwned, Map<Long,StudentStatEntry> stats) {
+	private boolean getStudentsStatisticStatement(IdentityRef coach, Collection<Long> studentKeys, boolean hasCoached, boolean hasOwned, Map<Long,StudentStatEntry> stats) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select ")
 		  .append(" fin_statement.fk_identity, ")
@@ -818,7 +872,8 @@ public class CoachingDAO {
 			  .append("  inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=sg_coach.fk_group_id and sg_participant.g_role='participant')")
 			  .append("  inner join o_as_eff_statement sg_statement")
 			  .append("    on (sg_statement.fk_identity = sg_participant.fk_identity_id and sg_statement.fk_resource_id = sg_re.fk_olatresource)")
-			  .append("  where  sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed());
+			  .append("  where  sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+			  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null);
 		}
 		if(hasOwned) {
 			if(hasCoached) {
@@ -835,16 +890,20 @@ public class CoachingDAO {
 			  .append("  inner join o_bs_group_member sg_participant on (sg_participant.fk_group_id=togroup.fk_group_id and sg_participant.g_role='participant')")
 			  .append("  inner join o_as_eff_statement sg_statement ")
 			  .append("    on (sg_statement.fk_identity = sg_participant.fk_identity_id and sg_statement.fk_resource_id = sg_re.fk_olatresource)")
-			  .append("  where sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed()).append("");
+			  .append("  where sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
+			  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null);
 		  
 		}
 		sb.append(")")
 		  .append(" group by fin_statement.fk_identity");
 		
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(studentKeys != null) {
+			query.setParameter("studentKeys", studentKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStat = (Object[])rawObject;
@@ -860,7 +919,7 @@ public class CoachingDAO {
 		return !rawList.isEmpty();
 	}
 	
-	private boolean getStudentsCompletionStatement(IdentityRef coach, boolean hasCoached, boolean hasOwned, Map<Long,StudentStatEntry> stats) {
+	private boolean getStudentsCompletionStatement(IdentityRef coach, Collection<Long> studentKeys, boolean hasCoached, boolean hasOwned, Map<Long,StudentStatEntry> stats) {
 		NativeQueryBuilder sb = new NativeQueryBuilder(1024, dbInstance);
 		sb.append("select ")
 		  .append(" ae.fk_identity, ")
@@ -878,7 +937,8 @@ public class CoachingDAO {
 			  .append(" inner join o_as_entry sg_ae")
 			  .append("    on (sg_ae.fk_identity = sg_participant.fk_identity_id and sg_ae.fk_entry = sg_re.repositoryentry_id)")
 			  .append(" where sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
-			  .append("    and sg_ae.a_entry_root=").appendTrue().append(" and sg_ae.a_completion is not null");
+			  .append("    and sg_ae.a_entry_root=").appendTrue().append(" and sg_ae.a_completion is not null")
+			  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null);
 		}
 		if(hasOwned) {
 			if(hasCoached) {
@@ -895,15 +955,19 @@ public class CoachingDAO {
 			  .append(" inner join o_as_entry sg_ae ")
 			  .append("    on (sg_ae.fk_identity = sg_participant.fk_identity_id and sg_ae.fk_entry = sg_re.repositoryentry_id)")
 			  .append(" where sg_re.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed())
-			  .append("    and sg_ae.a_entry_root=").appendTrue().append(" and sg_ae.a_completion is not null");
+			  .append("    and sg_ae.a_entry_root=").appendTrue().append(" and sg_ae.a_completion is not null")
+			  .append(" and sg_participant.fk_identity_id in (:studentKeys)", studentKeys != null);
 		}
 		sb.append(")")
 		  .append(" group by ae.fk_identity");
 		
-		List<?> rawList = dbInstance.getCurrentEntityManager()
+		Query query = dbInstance.getCurrentEntityManager()
 				.createNativeQuery(sb.toString())
-				.setParameter("coachKey", coach.getKey())
-				.getResultList();
+				.setParameter("coachKey", coach.getKey());
+		if(studentKeys != null) {
+			query.setParameter("studentKeys", studentKeys);
+		}
+		List<?> rawList = query.getResultList();
 		
 		for(Object rawObject:rawList) {
 			Object[] rawStat = (Object[])rawObject;
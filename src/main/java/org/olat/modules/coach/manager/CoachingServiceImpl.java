@@ -34,6 +34,7 @@ import org.olat.course.assessment.manager.EfficiencyStatementManager;
 import org.olat.course.assessment.model.UserEfficiencyStatementForCoaching;
 import org.olat.group.BusinessGroup;
 import org.olat.group.BusinessGroupService;
+import org.olat.modules.coach.CoachingModule;
 import org.olat.modules.coach.CoachingService;
 import org.olat.modules.coach.model.CoachingSecurity;
 import org.olat.modules.coach.model.CourseStatEntry;
@@ -62,6 +63,10 @@ public class CoachingServiceImpl implements CoachingService {
 	@Autowired
 	private CoachingDAO coachingDao;
 	@Autowired
+	private CoachingModule coachingModule;
+	@Autowired
+	private CoachingStatisticsDAO coachingStatisticsDao;
+	@Autowired
 	private LectureModule lectureModule;
 	@Autowired
 	private BusinessGroupService businessGroupService;
@@ -94,6 +99,9 @@ public class CoachingServiceImpl implements CoachingService {
 
 	@Override
 	public List<StudentStatEntry> getStudentsStatistics(Identity coach, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
+		if(coachingModule.isStatisticsPrecomputed() && coachingStatisticsDao.hasStatistics(coach)) {
+			return coachingStatisticsDao.getStudentsStatistics(coach, userPropertyHandlers, locale);
+		}
 		return coachingDao.getStudentsStatisticsNative(coach, userPropertyHandlers, locale);
 	}
 
@@ -104,6 +112,9 @@ public class CoachingServiceImpl implements CoachingService {
 
 	@Override
 	public List<CourseStatEntry> getCoursesStatistics(Identity coach) {
+		if(coachingModule.isStatisticsPrecomputed() && coachingStatisticsDao.hasStatistics(coach)) {
+			return coachingStatisticsDao.getCoursesStatistics(coach);
+		}
 		return coachingDao.getCoursesStatisticsNative(coach);
 	}
 
@@ -0,0 +1,359 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.basesecurity.IdentityImpl;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.persistence.QueryBuilder;
+import org.olat.core.id.Identity;
+import org.olat.modules.coach.model.CoachCourseStatisticsImpl;
+import org.olat.modules.coach.model.CoachStudentStatisticsImpl;
+import org.olat.modules.coach.model.CourseStatEntry;
+import org.olat.modules.coach.model.StudentStatEntry;
+import org.olat.repository.RepositoryEntryStatusEnum;
+import org.olat.user.propertyhandlers.UserPropertyHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The pre-aggregated statistics of the coaching tool, one row
+ * per coach and course and one row per coach and student.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class CoachingStatisticsDAO {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Autowired
+	private DB dbInstance;
+
+	/**
+	 * Replace all the statistics of the specified coach.
+	 *
+	 * @param coachKey The primary key of the coach
+	 * @param courses The statistics of the courses
+	 * @param students The statistics of the students
+	 */
+	public void replaceStatistics(Long coachKey, Collection<CourseStatEntry> courses, Collection<StudentStatEntry> students) {
+		deleteStatistics(coachKey);
+		persistStatistics(coachKey, courses, students);
+	}
+
+	/**
+	 * Replace the statistics of the specified coach for some courses and
+	 * some students. The rows of the courses and of the students without
+	 * statistics are deleted.
+	 *
+	 * @param coachKey The primary key of the coach
+	 * @param entryKeys The primary keys of the courses to replace
+	 * @param courses The statistics of these courses
+	 * @param studentKeys The primary keys of the students to replace
+	 * @param students The statistics of these students
+	 */
+	public void replaceStatistics(Long coachKey, Collection<Long> entryKeys, Collection<CourseStatEntry> courses,
+			Collection<Long> studentKeys, Collection<StudentStatEntry> students) {
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		if(!entryKeys.isEmpty()) {
+			em.createQuery("delete from coachcoursestatistics stats where stats.coachKey=:coachKey and stats.entryKey in (:entryKeys)")
+				.setParameter("coachKey", coachKey)
+				.setParameter("entryKeys", entryKeys)
+				.executeUpdate();
+		}
+		if(!studentKeys.isEmpty()) {
+			em.createQuery("delete from coachstudentstatistics stats where stats.coachKey=:coachKey and stats.studentKey in (:studentKeys)")
+				.setParameter("coachKey", coachKey)
+				.setParameter("studentKeys", studentKeys)
+				.executeUpdate();
+		}
+		persistStatistics(coachKey, courses, students);
+	}
+
+	private void persistStatistics(Long coachKey, Collection<CourseStatEntry> courses, Collection<StudentStatEntry> students) {
+		Date now = new Date();
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		em.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+		for(CourseStatEntry course:courses) {
+			CoachCourseStatisticsImpl stats = new CoachCourseStatisticsImpl();
+			stats.setCreationDate(now);
+			stats.setCoachKey(coachKey);
+			stats.setEntryKey(course.getRepoKey());
+			stats.setStudents(course.getCountStudents());
+			stats.setInitialLaunch(course.getInitialLaunch());
+			stats.setPassed(course.getCountPassed());
+			stats.setFailed(course.getCountFailed());
+			stats.setNotAttempted(course.getCountNotAttempted());
+			stats.setAverageScore(course.getAverageScore());
+			stats.setAverageCompletion(course.getAverageCompletion());
+			em.persist(stats);
+		}
+		for(StudentStatEntry student:students) {
+			CoachStudentStatisticsImpl stats = new CoachStudentStatisticsImpl();
+			stats.setCreationDate(now);
+			stats.setCoachKey(coachKey);
+			stats.setStudentKey(student.getIdentityKey());
+			stats.setCourses(student.getCountRepo());
+			stats.setInitialLaunch(student.getInitialLaunch());
+			stats.setPassed(student.getCountPassed());
+			stats.setFailed(student.getCountFailed());
+			stats.setNotAttempted(student.getCountNotAttempted());
+			stats.setAverageCompletion(student.getAverageCompletion());
+			em.persist(stats);
+		}
+	}
+
+	public int deleteStatistics(Long coachKey) {
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		int rows = em.createQuery("delete from coachcoursestatistics stats where stats.coachKey=:coachKey")
+				.setParameter("coachKey", coachKey)
+				.executeUpdate();
+		rows += em.createQuery("delete from coachstudentstatistics stats where stats.coachKey=:coachKey")
+				.setParameter("coachKey", coachKey)
+				.executeUpdate();
+		return rows;
+	}
+
+	public boolean hasStatistics(IdentityRef coach) {
+		List<Long> courses = dbInstance.getCurrentEntityManager()
+				.createQuery("select stats.key from coachcoursestatistics stats where stats.coachKey=:coachKey", Long.class)
+				.setParameter("coachKey", coach.getKey())
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		if(!courses.isEmpty()) {
+			return true;
+		}
+		List<Long> students = dbInstance.getCurrentEntityManager()
+				.createQuery("select stats.key from coachstudentstatistics stats where stats.coachKey=:coachKey", Long.class)
+				.setParameter("coachKey", coach.getKey())
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		return !students.isEmpty();
+	}
+
+	/**
+	 * The status of the courses is checked at reading, the statistics of
+	 * the courses which are not visible to coaches are not returned.
+	 *
+	 * @param coach The coach
+	 * @return The statistics of the courses of the coach
+	 */
+	public List<CourseStatEntry> getCoursesStatistics(IdentityRef coach) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select stats, v.displayname, v.status from coachcoursestatistics stats, repositoryentry v")
+		  .append(" where v.key=stats.entryKey and stats.coachKey=:coachKey")
+		  .append(" and v.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed());
+
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("coachKey", coach.getKey())
+				.getResultList();
+		List<CourseStatEntry> entries = new ArrayList<>(rawObjects.size());
+		for(Object[] rawObject:rawObjects) {
+			CoachCourseStatisticsImpl stats = (CoachCourseStatisticsImpl)rawObject[0];
+			CourseStatEntry entry = new CourseStatEntry();
+			entry.setRepoKey(stats.getEntryKey());
+			entry.setRepoDisplayName((String)rawObject[1]);
+			entry.setRepoStatus(RepositoryEntryStatusEnum.valueOf((String)rawObject[2]));
+			entry.setCountStudents(stats.getStudents());
+			entry.setInitialLaunch(stats.getInitialLaunch());
+			entry.setCountPassed(stats.getPassed());
+			entry.setCountFailed(stats.getFailed());
+			entry.setCountNotAttempted(stats.getNotAttempted());
+			entry.setAverageScore(stats.getAverageScore());
+			entry.setAverageCompletion(stats.getAverageCompletion());
+			entries.add(entry);
+		}
+		return entries;
+	}
+
+	public List<StudentStatEntry> getStudentsStatistics(IdentityRef coach, List<UserPropertyHandler> userPropertyHandlers, Locale locale) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select stats, ident from coachstudentstatistics stats, ").append(IdentityImpl.class.getName()).append(" as ident")
+		  .append(" inner join fetch ident.user as identUser")
+		  .append(" where ident.key=stats.studentKey and stats.coachKey=:coachKey");
+
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("coachKey", coach.getKey())
+				.getResultList();
+		List<StudentStatEntry> entries = new ArrayList<>(rawObjects.size());
+		for(Object[] rawObject:rawObjects) {
+			CoachStudentStatisticsImpl stats = (CoachStudentStatisticsImpl)rawObject[0];
+			StudentStatEntry entry = new StudentStatEntry((Identity)rawObject[1], userPropertyHandlers, locale);
+			entry.setCountRepo(stats.getCourses());
+			entry.setInitialLaunch(stats.getInitialLaunch());
+			entry.setCountPassed(stats.getPassed());
+			entry.setCountFailed(stats.getFailed());
+			entry.setCountNotAttempted(stats.getNotAttempted());
+			entry.setAverageCompletion(stats.getAverageCompletion());
+			entries.add(entry);
+		}
+		return entries;
+	}
+
+	/**
+	 * @param entryKeys A list of primary keys of repository entries
+	 * @return The primary keys of the coaches and owners of the repository entries
+	 */
+	public List<Long> getCoachKeysOfEntries(Collection<Long> entryKeys) {
+		if(entryKeys == null || entryKeys.isEmpty()) return new ArrayList<>();
+
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select distinct membership.identity.key from repoentrytogroup as rel")
+		  .append(" inner join rel.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where rel.entry.key in (:entryKeys) and membership.role ").in(GroupRoles.coach, GroupRoles.owner);
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("entryKeys", entryKeys)
+				.getResultList();
+	}
+
+	/**
+	 * @param entryKeys A list of primary keys of repository entries
+	 * @return Pairs of primary keys: the repository entry and one of its coaches or owners
+	 */
+	public List<Object[]> getCoachesOfEntries(Collection<Long> entryKeys) {
+		if(entryKeys == null || entryKeys.isEmpty()) return new ArrayList<>();
+
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select distinct rel.entry.key, membership.identity.key from repoentrytogroup as rel")
+		  .append(" inner join rel.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where rel.entry.key in (:entryKeys) and membership.role ").in(GroupRoles.coach, GroupRoles.owner);
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("entryKeys", entryKeys)
+				.getResultList();
+	}
+
+	/**
+	 * @param entryKeys A list of primary keys of repository entries
+	 * @return The primary keys of the participants of the repository entries
+	 */
+	public List<Long> getParticipantKeysOfEntries(Collection<Long> entryKeys) {
+		if(entryKeys == null || entryKeys.isEmpty()) return new ArrayList<>();
+
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select distinct membership.identity.key from repoentrytogroup as rel")
+		  .append(" inner join rel.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where rel.entry.key in (:entryKeys) and membership.role ").in(GroupRoles.participant);
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("entryKeys", entryKeys)
+				.getResultList();
+	}
+
+	/**
+	 * @param resourceKeys A list of primary keys of OLAT resources
+	 * @return Pairs of primary keys: the OLAT resource and its repository entry
+	 */
+	public List<Object[]> getEntryKeysOfResources(Collection<Long> resourceKeys) {
+		if(resourceKeys == null || resourceKeys.isEmpty()) return new ArrayList<>();
+
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select v.olatResource.key, v.key from repositoryentry as v where v.olatResource.key in (:resourceKeys)", Object[].class)
+				.setParameter("resourceKeys", resourceKeys)
+				.getResultList();
+	}
+
+	/**
+	 * @param groupKeys A list of primary keys of groups
+	 * @return Pairs of primary keys: the group and a repository entry related to it
+	 */
+	public List<Object[]> getEntryKeysOfGroups(Collection<Long> groupKeys) {
+		if(groupKeys == null || groupKeys.isEmpty()) return new ArrayList<>();
+
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select rel.group.key, rel.entry.key from repoentrytogroup as rel where rel.group.key in (:groupKeys)", Object[].class)
+				.setParameter("groupKeys", groupKeys)
+				.getResultList();
+	}
+
+	/**
+	 * @param groupKeys A list of primary keys of groups
+	 * @return The primary keys of the coaches and owners of the groups and of
+	 * 		the coaches and owners of the repository entries linked to the groups
+	 */
+	public List<Long> getCoachKeysOfGroups(Collection<Long> groupKeys) {
+		if(groupKeys == null || groupKeys.isEmpty()) return new ArrayList<>();
+
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select distinct membership.identity.key from repoentrytogroup as rel")
+		  .append(" inner join rel.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where membership.role ").in(GroupRoles.coach, GroupRoles.owner)
+		  .append(" and rel.entry.key in (select groupRel.entry.key from repoentrytogroup as groupRel where groupRel.group.key in (:groupKeys))");
+		Set<Long> coachKeys = new HashSet<>(dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("groupKeys", groupKeys)
+				.getResultList());
+
+		QueryBuilder msb = new QueryBuilder(256);
+		msb.append("select distinct membership.identity.key from bgroupmember as membership")
+		   .append(" where membership.group.key in (:groupKeys) and membership.role ").in(GroupRoles.coach, GroupRoles.owner);
+		coachKeys.addAll(dbInstance.getCurrentEntityManager()
+				.createQuery(msb.toString(), Long.class)
+				.setParameter("groupKeys", groupKeys)
+				.getResultList());
+		return new ArrayList<>(coachKeys);
+	}
+
+	/**
+	 * @return The primary keys of the coaches and owners of all the courses and
+	 * 		of the coaches with statistics
+	 */
+	public List<Long> getCoachKeys() {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select distinct membership.identity.key from repoentrytogroup as rel")
+		  .append(" inner join rel.entry as v")
+		  .append(" inner join v.olatResource as res")
+		  .append(" inner join rel.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where res.resName='CourseModule' and membership.role ").in(GroupRoles.coach, GroupRoles.owner);
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		Set<Long> coachKeys = new HashSet<>(em.createQuery(sb.toString(), Long.class)
+				.getResultList());
+		coachKeys.addAll(em.createQuery("select distinct stats.coachKey from coachcoursestatistics stats", Long.class)
+				.getResultList());
+		coachKeys.addAll(em.createQuery("select distinct stats.coachKey from coachstudentstatistics stats", Long.class)
+				.getResultList());
+		return new ArrayList<>(coachKeys);
+	}
+}
@@ -0,0 +1,323 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.basesecurity.BaseSecurity;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.basesecurity.model.IdentityRefImpl;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.modules.coach.CoachingModule;
+import org.olat.modules.coach.model.CoachingStatisticsWorkImpl;
+import org.olat.modules.coach.model.CourseStatEntry;
+import org.olat.modules.coach.model.StudentStatEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Consume the queue of changes and update the pre-aggregated statistics
+ * of the coaching tool. The changes of a course or of a participant are
+ * reduced to the rows concerned: the rows of the course and of its
+ * participants (or only of the participant) for every coach and owner
+ * of the course. The changes of the coaches themselves, like a new
+ * membership, calculate all their statistics again.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class CoachingStatisticsQueue {
+
+	private static final Logger log = Tracing.createLoggerFor(CoachingStatisticsQueue.class);
+
+	private static final int BATCH_SIZE = 500;
+	private static final int MAX_BATCHES = 20;
+	private static final int IN_PARAMETER_SIZE = 500;
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private CoachingDAO coachingDao;
+	@Autowired
+	private CoachingModule coachingModule;
+	@Autowired
+	private BaseSecurity securityManager;
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+	@Autowired
+	private CoachingStatisticsDAO coachingStatisticsDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
+
+	/**
+	 * Process the queue, at most a fixed number of batches per call. If
+	 * the pre-aggregated statistics are disabled, the queue is only emptied.
+	 */
+	public void process() {
+		long start = System.nanoTime();
+		int numOfCoaches = 0;
+		boolean enabled = coachingModule.isStatisticsPrecomputed();
+		for(int i=0; i<MAX_BATCHES; i++) {
+			List<CoachingStatisticsWorkImpl> works = coachingStatisticsWorkDao.loadWorks(BATCH_SIZE);
+			if(works.isEmpty()) {
+				dbInstance.commitAndCloseSession();
+				break;
+			}
+
+			if(enabled) {
+				Changes changes = reduce(works);
+				dbInstance.commitAndCloseSession();
+				for(Long coachKey:changes.getCoachKeys()) {
+					updateStatistics(coachKey);
+				}
+				for(CoachChanges coachChanges:changes.getCoachChanges()) {
+					updateStatistics(coachChanges);
+				}
+				numOfCoaches += changes.getCoachKeys().size() + changes.getCoachChanges().size();
+			}
+
+			coachingStatisticsWorkDao.deleteWorks(works);
+			dbInstance.commitAndCloseSession();
+		}
+
+		if(numOfCoaches > 0) {
+			log.info("Coaching statistics of {} coaches updated in (ms): {}", numOfCoaches, CodeHelper.nanoToMilliTime(start));
+		}
+	}
+
+	/**
+	 * Queue all the coaches and owners of courses, the statistics will
+	 * be calculated again by the next runs of the queue.
+	 */
+	public void rebuild() {
+		if(!coachingModule.isStatisticsPrecomputed()) return;
+
+		List<Long> coachKeys = coachingStatisticsDao.getCoachKeys();
+		for(Long coachKey:coachKeys) {
+			coachingStatisticsWorkDao.createWork(CoachingStatisticsWorkImpl.TYPE_COACH, coachKey);
+		}
+		dbInstance.commitAndCloseSession();
+		log.info("Rebuild of the coaching statistics of {} coaches queued", coachKeys.size());
+	}
+
+	/**
+	 * Reduce the works to the coaches which need a full recalculation
+	 * and to the courses and students of the others.
+	 */
+	private Changes reduce(List<CoachingStatisticsWorkImpl> works) {
+		Set<Long> coachKeys = new HashSet<>();
+		List<Long> groupKeys = new ArrayList<>();
+		Map<Long,Set<Long>> resourceToStudents = new HashMap<>();
+		Map<Long,Set<Long>> groupToStudents = new HashMap<>();
+		EntryChanges entryChanges = new EntryChanges();
+		for(CoachingStatisticsWorkImpl work:works) {
+			String type = work.getType();
+			Long key = work.getWorkKey();
+			Long studentKey = work.getIdentityKey();
+			if(CoachingStatisticsWorkImpl.TYPE_COACH.equals(type)) {
+				coachKeys.add(key);
+			} else if(CoachingStatisticsWorkImpl.TYPE_ENTRY.equals(type)) {
+				entryChanges.add(key, studentKey);
+			} else if(CoachingStatisticsWorkImpl.TYPE_RESOURCE.equals(type)) {
+				resourceToStudents.computeIfAbsent(key, k -> new HashSet<>()).add(studentKey);
+			} else if(CoachingStatisticsWorkImpl.TYPE_GROUP.equals(type)) {
+				if(studentKey == null) {
+					// new relation to a course or the like
+					groupKeys.add(key);
+				} else {
+					groupToStudents.computeIfAbsent(key, k -> new HashSet<>()).add(studentKey);
+				}
+			}
+		}
+
+		coachKeys.addAll(coachingStatisticsDao.getCoachKeysOfGroups(groupKeys));
+		for(Object[] resourceToEntry:coachingStatisticsDao.getEntryKeysOfResources(resourceToStudents.keySet())) {
+			for(Long studentKey:resourceToStudents.get(resourceToEntry[0])) {
+				entryChanges.add((Long)resourceToEntry[1], studentKey);
+			}
+		}
+		for(Object[] groupToEntry:coachingStatisticsDao.getEntryKeysOfGroups(groupToStudents.keySet())) {
+			for(Long studentKey:groupToStudents.get(groupToEntry[0])) {
+				entryChanges.add((Long)groupToEntry[1], studentKey);
+			}
+		}
+		return entryChanges.toChanges(coachKeys);
+	}
+
+	/**
+	 * Calculate and replace all the statistics of the specified coach.
+	 *
+	 * @param coachKey The primary key of the coach
+	 */
+	public void updateStatistics(Long coachKey) {
+		OLATResourceable lockRes = OresHelper.createOLATResourceableInstance("CoachingStatistics", coachKey);
+		try {
+			coordinatorManager.getCoordinator().getSyncer().doInSync(lockRes, () -> {
+				Identity coach = securityManager.loadIdentityByKey(coachKey);
+				if(coach == null) {
+					coachingStatisticsDao.deleteStatistics(coachKey);
+				} else {
+					List<CourseStatEntry> courses = coachingDao.getCoursesStatisticsNative(coach);
+					List<StudentStatEntry> students = coachingDao.getStudentsStatisticsNative(coach, Collections.emptyList(), null);
+					coachingStatisticsDao.replaceStatistics(coachKey, courses, students);
+				}
+			});
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot update the coaching statistics of: {}", coachKey, e);
+			dbInstance.rollbackAndCloseSession();
+		}
+	}
+
+	/**
+	 * Calculate and replace the statistics of the specified courses and
+	 * students of a coach.
+	 */
+	private void updateStatistics(CoachChanges changes) {
+		Long coachKey = changes.getCoachKey();
+		IdentityRef coach = new IdentityRefImpl(coachKey);
+		OLATResourceable lockRes = OresHelper.createOLATResourceableInstance("CoachingStatistics", coachKey);
+		try {
+			coordinatorManager.getCoordinator().getSyncer().doInSync(lockRes, () -> {
+				List<Long> entryKeys = new ArrayList<>(changes.getEntryKeys());
+				for(int i=0; i<entryKeys.size(); i += IN_PARAMETER_SIZE) {
+					List<Long> batch = entryKeys.subList(i, Math.min(i + IN_PARAMETER_SIZE, entryKeys.size()));
+					List<CourseStatEntry> courses = coachingDao.getCoursesStatisticsNative(coach, batch);
+					coachingStatisticsDao.replaceStatistics(coachKey, batch, courses, Collections.emptyList(), Collections.emptyList());
+				}
+				List<Long> studentKeys = new ArrayList<>(changes.getStudentKeys());
+				for(int i=0; i<studentKeys.size(); i += IN_PARAMETER_SIZE) {
+					List<Long> batch = studentKeys.subList(i, Math.min(i + IN_PARAMETER_SIZE, studentKeys.size()));
+					List<StudentStatEntry> students = coachingDao.getStudentsStatisticsNative(coach, batch, Collections.emptyList(), null);
+					coachingStatisticsDao.replaceStatistics(coachKey, Collections.emptyList(), Collections.emptyList(), batch, students);
+				}
+			});
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			log.error("Cannot update the coaching statistics of: {}", coachKey, e);
+			dbInstance.rollbackAndCloseSession();
+		}
+	}
+
+	/**
+	 * The changed courses with the changed students, or all their participants.
+	 */
+	private class EntryChanges {
+
+		private final Set<Long> allStudentsEntryKeys = new HashSet<>();
+		private final Map<Long,Set<Long>> entryToStudents = new HashMap<>();
+
+		public void add(Long entryKey, Long studentKey) {
+			if(studentKey == null) {
+				allStudentsEntryKeys.add(entryKey);
+			} else {
+				entryToStudents.computeIfAbsent(entryKey, k -> new HashSet<>()).add(studentKey);
+			}
+		}
+
+		public Changes toChanges(Set<Long> coachKeys) {
+			Set<Long> entryKeys = new HashSet<>(entryToStudents.keySet());
+			entryKeys.addAll(allStudentsEntryKeys);
+
+			Set<Long> participantKeys = new HashSet<>(coachingStatisticsDao.getParticipantKeysOfEntries(allStudentsEntryKeys));
+			Map<Long,CoachChanges> coachChanges = new HashMap<>();
+			for(Object[] entryToCoach:coachingStatisticsDao.getCoachesOfEntries(entryKeys)) {
+				Long entryKey = (Long)entryToCoach[0];
+				Long coachKey = (Long)entryToCoach[1];
+				if(coachKeys.contains(coachKey)) {
+					continue;// all the statistics are calculated again
+				}
+
+				CoachChanges changes = coachChanges.computeIfAbsent(coachKey, CoachChanges::new);
+				changes.getEntryKeys().add(entryKey);
+				if(allStudentsEntryKeys.contains(entryKey)) {
+					// the participants are not differentiated by courses, the coach has a subset of them
+					changes.getStudentKeys().addAll(participantKeys);
+				}
+				Set<Long> studentKeys = entryToStudents.get(entryKey);
+				if(studentKeys != null) {
+					changes.getStudentKeys().addAll(studentKeys);
+				}
+			}
+			return new Changes(coachKeys, coachChanges.values());
+		}
+	}
+
+	private static class Changes {
+
+		private final Set<Long> coachKeys;
+		private final Collection<CoachChanges> coachChanges;
+
+		public Changes(Set<Long> coachKeys, Collection<CoachChanges> coachChanges) {
+			this.coachKeys = coachKeys;
+			this.coachChanges = coachChanges;
+		}
+
+		/**
+		 * @return The coaches which need a full recalculation
+		 */
+		public Set<Long> getCoachKeys() {
+			return coachKeys;
+		}
+
+		public Collection<CoachChanges> getCoachChanges() {
+			return coachChanges;
+		}
+	}
+
+	private static class CoachChanges {
+
+		private final Long coachKey;
+		private final Set<Long> entryKeys = new HashSet<>();
+		private final Set<Long> studentKeys = new HashSet<>();
+
+		public CoachChanges(Long coachKey) {
+			this.coachKey = coachKey;
+		}
+
+		public Long getCoachKey() {
+			return coachKey;
+		}
+
+		public Set<Long> getEntryKeys() {
+			return entryKeys;
+		}
+
+		public Set<Long> getStudentKeys() {
+			return studentKeys;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.manager;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.olat.basesecurity.Group;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.core.commons.persistence.DB;
+import org.olat.modules.coach.model.CoachingStatisticsWorkImpl;
+import org.olat.repository.RepositoryEntryRef;
+import org.olat.resource.OLATResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The queue of the changes which need to update the statistics of the
+ * coaching tool. The works are saved in the transaction of the change.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class CoachingStatisticsWorkDAO {
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private CoachingStatisticsDAO coachingStatisticsDao;
+
+	/**
+	 * Queue a change of the course which concerns all its participants,
+	 * e.g. a change of status.
+	 * 
+	 * @param entry The repository entry
+	 */
+	public void markEntry(RepositoryEntryRef entry) {
+		markEntry(entry, null);
+	}
+
+	/**
+	 * Queue a change of a participant in the course.
+	 * 
+	 * @param entry The repository entry
+	 * @param participant The participant or null if all participants are concerned
+	 */
+	public void markEntry(RepositoryEntryRef entry, IdentityRef participant) {
+		if(entry != null && entry.getKey() != null) {
+			createWork(CoachingStatisticsWorkImpl.TYPE_ENTRY, entry.getKey(), participant);
+		}
+	}
+
+	public void markResource(OLATResource resource, IdentityRef participant) {
+		if(resource != null && resource.getKey() != null) {
+			createWork(CoachingStatisticsWorkImpl.TYPE_RESOURCE, resource.getKey(), participant);
+		}
+	}
+
+	/**
+	 * Queue a change of the group which can concern all its members and all
+	 * the courses related to it, e.g. a new relation to a course. The coaches
+	 * of these courses are calculated again.
+	 * 
+	 * @param group The group
+	 */
+	public void markGroup(Group group) {
+		markGroup(group, null);
+	}
+
+	/**
+	 * Queue a change of the membership of a participant of the group.
+	 * 
+	 * @param group The group
+	 * @param participant The participant or null if all members are concerned
+	 */
+	public void markGroup(Group group, IdentityRef participant) {
+		if(group != null && group.getKey() != null) {
+			createWork(CoachingStatisticsWorkImpl.TYPE_GROUP, group.getKey(), participant);
+		}
+	}
+
+	public void markCoach(IdentityRef coach) {
+		if(coach != null && coach.getKey() != null) {
+			createWork(CoachingStatisticsWorkImpl.TYPE_COACH, coach.getKey());
+		}
+	}
+
+	/**
+	 * Queue the coaches and owners of the repository entries as they are now.
+	 * Use it before removing the relations between the groups and the entries.
+	 * 
+	 * @param entryKeys A list of primary keys of repository entries
+	 */
+	public void markCoachesOfEntries(Collection<Long> entryKeys) {
+		for(Long coachKey:coachingStatisticsDao.getCoachKeysOfEntries(entryKeys)) {
+			createWork(CoachingStatisticsWorkImpl.TYPE_COACH, coachKey);
+		}
+	}
+
+	public CoachingStatisticsWorkImpl createWork(String type, Long key) {
+		return createWork(type, key, null);
+	}
+
+	public CoachingStatisticsWorkImpl createWork(String type, Long key, IdentityRef participant) {
+		CoachingStatisticsWorkImpl work = new CoachingStatisticsWorkImpl();
+		work.setCreationDate(new Date());
+		work.setType(type);
+		work.setWorkKey(key);
+		if(participant != null) {
+			work.setIdentityKey(participant.getKey());
+		}
+		dbInstance.getCurrentEntityManager().persist(work);
+		return work;
+	}
+
+	/**
+	 * @param maxResults The max. number of works
+	 * @return The oldest works first
+	 */
+	public List<CoachingStatisticsWorkImpl> loadWorks(int maxResults) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select work from coachingstatisticswork work order by work.key asc", CoachingStatisticsWorkImpl.class)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+
+	public long countWorks() {
+		List<Long> count = dbInstance.getCurrentEntityManager()
+				.createQuery("select count(work.key) from coachingstatisticswork work", Long.class)
+				.getResultList();
+		return count == null || count.isEmpty() || count.get(0) == null ? 0l : count.get(0).longValue();
+	}
+
+	public int deleteWorks(List<CoachingStatisticsWorkImpl> works) {
+		if(works == null || works.isEmpty()) return 0;
+
+		List<Long> keys = works.stream()
+				.map(CoachingStatisticsWorkImpl::getKey)
+				.collect(Collectors.toList());
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from coachingstatisticswork work where work.key in (:keys)")
+				.setParameter("keys", keys)
+				.executeUpdate();
+	}
+}
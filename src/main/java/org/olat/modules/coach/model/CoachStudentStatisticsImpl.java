@@ -0,0 +1,180 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * The pre-aggregated statistics of a student over all the courses
+ * of a coach or an owner.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Entity(name="coachstudentstatistics")
+@Table(name="o_coach_student_stat")
+public class CoachStudentStatisticsImpl implements CreateInfo, Persistable {
+
+	private static final long serialVersionUID = 2846153620587346871L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+
+	@Column(name="c_coach_key", nullable=false, insertable=true, updatable=false)
+	private Long coachKey;
+	@Column(name="c_student_key", nullable=false, insertable=true, updatable=false)
+	private Long studentKey;
+
+	@Column(name="c_courses", nullable=false, insertable=true, updatable=false)
+	private int courses;
+	@Column(name="c_initial_launch", nullable=false, insertable=true, updatable=false)
+	private int initialLaunch;
+	@Column(name="c_passed", nullable=false, insertable=true, updatable=false)
+	private int passed;
+	@Column(name="c_failed", nullable=false, insertable=true, updatable=false)
+	private int failed;
+	@Column(name="c_not_attempted", nullable=false, insertable=true, updatable=false)
+	private int notAttempted;
+	@Column(name="c_average_completion", nullable=true, insertable=true, updatable=false)
+	private Double averageCompletion;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	public Long getCoachKey() {
+		return coachKey;
+	}
+
+	public void setCoachKey(Long coachKey) {
+		this.coachKey = coachKey;
+	}
+
+	public Long getStudentKey() {
+		return studentKey;
+	}
+
+	public void setStudentKey(Long studentKey) {
+		this.studentKey = studentKey;
+	}
+
+	public int getCourses() {
+		return courses;
+	}
+
+	public void setCourses(int courses) {
+		this.courses = courses;
+	}
+
+	public int getInitialLaunch() {
+		return initialLaunch;
+	}
+
+	public void setInitialLaunch(int initialLaunch) {
+		this.initialLaunch = initialLaunch;
+	}
+
+	public int getPassed() {
+		return passed;
+	}
+
+	public void setPassed(int passed) {
+		this.passed = passed;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public int getNotAttempted() {
+		return notAttempted;
+	}
+
+	public void setNotAttempted(int notAttempted) {
+		this.notAttempted = notAttempted;
+	}
+
+	public Double getAverageCompletion() {
+		return averageCompletion;
+	}
+
+	public void setAverageCompletion(Double averageCompletion) {
+		this.averageCompletion = averageCompletion;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 38256 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof CoachStudentStatisticsImpl) {
+			CoachStudentStatisticsImpl stats = (CoachStudentStatisticsImpl)obj;
+			return getKey() != null && getKey().equals(stats.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * A change which need to update the statistics of the coaching tool.
+ * The key is the key of a repository entry, of an OLAT resource, of a
+ * group or of a coach, see the type. The identity key is optional and
+ * restricts the change of an entry, a resource or a group to a participant.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Entity(name="coachingstatisticswork")
+@Table(name="o_coach_statistics_work")
+public class CoachingStatisticsWorkImpl implements CreateInfo, Persistable {
+
+	private static final long serialVersionUID = 3218861409875637752L;
+
+	public static final String TYPE_ENTRY = "entry";
+	public static final String TYPE_RESOURCE = "resource";
+	public static final String TYPE_GROUP = "group";
+	public static final String TYPE_COACH = "coach";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+
+	@Column(name="c_type", nullable=false, insertable=true, updatable=false)
+	private String type;
+	@Column(name="c_key", nullable=false, insertable=true, updatable=false)
+	private Long workKey;
+	@Column(name="c_identity_key", nullable=true, insertable=true, updatable=false)
+	private Long identityKey;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public Long getWorkKey() {
+		return workKey;
+	}
+
+	public void setWorkKey(Long workKey) {
+		this.workKey = workKey;
+	}
+
+	public Long getIdentityKey() {
+		return identityKey;
+	}
+
+	public void setIdentityKey(Long identityKey) {
+		this.identityKey = identityKey;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 27846 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof CoachingStatisticsWorkImpl) {
+			CoachingStatisticsWorkImpl work = (CoachingStatisticsWorkImpl)obj;
+			return getKey() != null && getKey().equals(work.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
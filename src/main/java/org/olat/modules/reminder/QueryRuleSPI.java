@@ -0,0 +1,46 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.reminder;
+
+import org.olat.modules.reminder.model.ReminderRuleQuery;
+import org.olat.repository.RepositoryEntry;
+
+/**
+ * Rules which can be translated in a condition of the query which
+ * selects the identities to remind. The rules which cannot be translated
+ * are evaluated in memory by the rule engine.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public interface QueryRuleSPI extends RuleSPI {
+	
+	/**
+	 * 
+	 * @param entry The repository entry of the reminder
+	 * @param rule The rule
+	 * @param query The query to complete
+	 * @return true if the condition is appended to the query, false if the rule
+	 * 		need to be evaluated by the rule engine
+	 */
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query);
+
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 
 import org.olat.core.commons.persistence.DB;
@@ -37,6 +38,7 @@ import org.olat.modules.reminder.Reminder;
 import org.olat.modules.reminder.SentReminder;
 import org.olat.modules.reminder.model.ReminderImpl;
 import org.olat.modules.reminder.model.ReminderInfos;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.model.SentReminderImpl;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
@@ -232,6 +234,31 @@ public class ReminderDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * Select the identities which match all the conditions of the compiled rules.
+	 * 
+	 * @param ruleQuery The conditions
+	 * @return A list of identities with their user
+	 */
+	public List<Identity> getIdentities(ReminderRuleQuery ruleQuery) {
+		StringBuilder sb = new StringBuilder(2048);
+		sb.append("select ident from bidentity as ident")
+		  .append(" inner join fetch ident.user as usr")
+		  .append(ruleQuery);
+		
+		TypedQuery<Identity> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Identity.class);
+		for(Map.Entry<String,Object> parameter:ruleQuery.getParameters().entrySet()) {
+			Object value = parameter.getValue();
+			if(value instanceof Date) {
+				query.setParameter(parameter.getKey(), (Date)value, TemporalType.TIMESTAMP);
+			} else {
+				query.setParameter(parameter.getKey(), value);
+			}
+		}
+		return query.getResultList();
+	}
+	
 	/**
 	 * The query is limited to the default group of the repository entry
 	 * and the business groups 
@@ -27,17 +27,20 @@ import java.util.List;
 import java.util.Set;
 
 import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.PersistenceHelper;
 import org.olat.core.id.Identity;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.modules.reminder.FilterRuleSPI;
 import org.olat.modules.reminder.IdentitiesProviderRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.Reminder;
 import org.olat.modules.reminder.ReminderModule;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.ReminderService;
 import org.olat.modules.reminder.RepositoryEntryRuleSPI;
 import org.olat.modules.reminder.RuleSPI;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.model.ReminderRules;
 import org.olat.modules.reminder.rule.BusinessGroupRoleRuleSPI;
 import org.olat.modules.reminder.rule.DateRuleSPI;
@@ -73,6 +76,8 @@ public class ReminderRuleEngine {
 	private BeforeDateRuleSPI beforeDateRuleSpi;
 	@Autowired
 	private UserPropertyRuleSPI userPropertyRuleSpi;
+	@Autowired
+	private RepositoryEntryRoleRuleSPI repositoryEntryRoleRuleSpi;
 	
 	@Autowired
 	private ReminderDAO reminderDao;
@@ -96,12 +101,7 @@ public class ReminderRuleEngine {
 		
 		List<Identity> identities;
 		if(allOk) {
-			identities = getIdentities(reminder.getEntry(), reminder, ruleList, resend);
-			
-			if(identities.size() > 0 && ruleList.size() > 0) {
-				filterByRules(reminder.getEntry(),  identities, ruleList);
-			}
-
+			identities = getIdentitiesByQuery(reminder.getEntry(), reminder, ruleList, resend);
 		} else {
 			identities = Collections.emptyList();	
 		}
@@ -211,6 +211,92 @@ public class ReminderRuleEngine {
 		return identities;
 	}
 
+	/**
+	 * The rules which can be translated are compiled in a single query, the
+	 * other are evaluated in memory on the results of the query. Without
+	 * any rule selecting the identities, the query is limited to the members
+	 * of the repository entry.
+	 * 
+	 * @param entry The repository entry
+	 * @param reminder The reminder (mandatory if resend is false)
+	 * @param ruleList The rules, the evaluated rules are removed from the list
+	 * @param resend If false, the identities which already received the reminder are excluded
+	 * @return A list of identities
+	 */
+	protected List<Identity> getIdentitiesByQuery(RepositoryEntry entry, Reminder reminder, List<ReminderRule> ruleList, boolean resend) {
+		ReminderRuleQuery query = new ReminderRuleQuery();
+		List<ReminderRule> identitiesProviderRules = new ArrayList<>();
+		for(Iterator<ReminderRule> ruleIt=ruleList.iterator(); ruleIt.hasNext(); ) {
+			ReminderRule rule = ruleIt.next();
+			RuleSPI ruleSpi = reminderModule.getRuleSPIByType(rule.getType());
+			if(appendToQuery(entry, ruleSpi, rule, query)) {
+				ruleIt.remove();
+			} else if(ruleSpi instanceof IdentitiesProviderRuleSPI) {
+				identitiesProviderRules.add(rule);
+				ruleIt.remove();
+			}
+		}
+		
+		Set<Long> providedIdentityKeys = null;
+		if(!identitiesProviderRules.isEmpty()) {
+			providedIdentityKeys = getProvidedIdentityKeys(entry, identitiesProviderRules);
+			if(providedIdentityKeys.isEmpty()) {
+				return new ArrayList<>();
+			}
+			if(providedIdentityKeys.size() < 100) {
+				query.and().append("ident.key in (").append(query.parameter(new ArrayList<>(providedIdentityKeys))).append(")");
+				query.setMembers(true);
+				providedIdentityKeys = null;
+			}
+		}
+		if(!query.isMembers()) {
+			repositoryEntryRoleRuleSpi.appendToQuery(entry, RepositoryEntryRoleRuleSPI.Roles.all, query);
+		}
+		if(!resend) {
+			query.and().append("not exists (select sent.key from sentreminder as sent")
+			  .append(" where sent.reminder.key=").append(query.parameter(reminder.getKey()))
+			  .append(" and sent.identity.key=ident.key)");
+		}
+		
+		List<Identity> identities = new ArrayList<>(reminderDao.getIdentities(query));
+		if(providedIdentityKeys != null) {
+			final Set<Long> identityKeys = providedIdentityKeys;
+			identities.removeIf(identity -> !identityKeys.contains(identity.getKey()));
+		}
+		
+		// the rules which cannot be translated in the query
+		filterIdentitiesByProperty(identities, ruleList);
+		if(!identities.isEmpty() && !ruleList.isEmpty()) {
+			filterByRules(entry, identities, ruleList);
+		}
+		return identities;
+	}
+	
+	private boolean appendToQuery(RepositoryEntry entry, RuleSPI ruleSpi, ReminderRule rule, ReminderRuleQuery query) {
+		boolean appended = false;
+		if(ruleSpi instanceof QueryRuleSPI) {
+			try {
+				appended = ((QueryRuleSPI)ruleSpi).appendToQuery(entry, rule, query);
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+		return appended;
+	}
+	
+	private Set<Long> getProvidedIdentityKeys(RepositoryEntry entry, List<ReminderRule> identitiesProviderRules) {
+		Set<Long> identityKeys = null;
+		for(ReminderRule rule:identitiesProviderRules) {
+			List<Long> memberKeys = PersistenceHelper.toKeys(getMembers(entry, rule));
+			if(identityKeys == null) {
+				identityKeys = new HashSet<>(memberKeys);
+			} else {
+				identityKeys.retainAll(new HashSet<>(memberKeys));
+			}
+		}
+		return identityKeys;
+	}
+
 	public List<Identity> getMembers(RepositoryEntry entry, ReminderRule rule) {
 		List<Identity> members = new ArrayList<>();
 		try {
@@ -29,18 +29,26 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.velocity.VelocityContext;
+import org.olat.core.commons.persistence.DB;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.helpers.Settings;
 import org.olat.core.id.Identity;
 import org.olat.core.id.User;
 import org.olat.core.id.UserConstants;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
 import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.Util;
+import org.olat.core.util.WorkThreadInformations;
 import org.olat.core.util.i18n.I18nModule;
 import org.olat.core.util.mail.ContactList;
 import org.olat.core.util.mail.MailBundle;
@@ -65,6 +73,7 @@ import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
 import org.olat.user.UserManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
@@ -79,12 +88,16 @@ public class ReminderServiceImpl implements ReminderService {
 	private static final Logger log = Tracing.createLoggerFor(ReminderServiceImpl.class);
 	
 	
+	@Autowired
+	private DB dbInstance;
 	@Autowired
 	private ReminderDAO reminderDao;
 	@Autowired
 	private MailManager mailManager;
 	@Autowired
 	private UserManager userManager;
+	@Autowired @Qualifier("reminderExecutorService")
+	private ExecutorService reminderExecutor;
 	@Autowired
 	private ReminderRuleEngine ruleEngine;
 	
@@ -209,12 +222,75 @@ public class ReminderServiceImpl implements ReminderService {
 		return reminders;
 	}
 
+	/**
+	 * The reminders are independent, they are evaluated and sent by a pool
+	 * of threads, every reminder in its own transaction.
+	 */
 	@Override
 	public void remindAll() {
+		long start = System.nanoTime();
 		Date now = new Date();
-		List<Reminder> reminders = reminderDao.getReminders(now);
-		for(Reminder reminder:reminders) {
-			sendReminder(reminder);
+		List<Long> reminderKeys = reminderDao.getReminders(now).stream()
+				.map(Reminder::getKey)
+				.collect(Collectors.toList());
+		dbInstance.commitAndCloseSession();
+		
+		AtomicInteger processed = new AtomicInteger();
+		AtomicInteger sent = new AtomicInteger();
+		List<Future<ReminderTimings>> futures = reminderKeys.stream()
+				.map(reminderKey -> reminderExecutor.submit(() -> remind(reminderKey, processed, sent)))
+				.collect(Collectors.toList());
+		try {
+			ReminderTimings slowest = null;
+			for(Future<ReminderTimings> future:futures) {
+				try {
+					ReminderTimings timings = future.get();
+					if(timings != null && (slowest == null || slowest.getTotal() < timings.getTotal())) {
+						slowest = timings;
+					}
+				} catch (ExecutionException e) {
+					log.error("", e);
+				}
+			}
+			log.info("{} reminders evaluated, {} sent in (ms): {}, slowest: {}",
+					processed.get(), sent.get(), CodeHelper.nanoToMilliTime(start), slowest);
+		} catch (InterruptedException e) {
+			log.warn("Reminders interrupted", e);
+			Thread.currentThread().interrupt();
+			for(Future<ReminderTimings> future:futures) {
+				future.cancel(false);
+			}
+		}
+	}
+	
+	private ReminderTimings remind(Long reminderKey, AtomicInteger processed, AtomicInteger sent) {
+		WorkThreadInformations.set("Reminder: " + reminderKey);
+		try {
+			Reminder reminder = reminderDao.loadByKey(reminderKey);
+			if(reminder == null) {
+				return null;
+			}
+			
+			long start = System.nanoTime();
+			List<Identity> identitiesToRemind = ruleEngine.evaluate(reminder, false);
+			long evaluationTime = CodeHelper.nanoToMilliTime(start);
+			
+			start = System.nanoTime();
+			sendReminder(reminder, identitiesToRemind);
+			dbInstance.commitAndCloseSession();
+			long sendTime = CodeHelper.nanoToMilliTime(start);
+			
+			ReminderTimings timings = new ReminderTimings(reminderKey, identitiesToRemind.size(), evaluationTime, sendTime);
+			log.debug("Reminder {}", timings);
+			processed.incrementAndGet();
+			sent.addAndGet(identitiesToRemind.size());
+			return timings;
+		} catch (Exception e) {
+			log.error("Cannot send the reminder: {}", reminderKey, e);
+			dbInstance.rollbackAndCloseSession();
+			return null;
+		} finally {
+			WorkThreadInformations.unset();
 		}
 	}
 
@@ -268,6 +344,30 @@ public class ReminderServiceImpl implements ReminderService {
 		return overviewResult;
 	}
 	
+	private static class ReminderTimings {
+		
+		private final Long reminderKey;
+		private final int recipients;
+		private final long evaluationTime;
+		private final long sendTime;
+		
+		public ReminderTimings(Long reminderKey, int recipients, long evaluationTime, long sendTime) {
+			this.reminderKey = reminderKey;
+			this.recipients = recipients;
+			this.evaluationTime = evaluationTime;
+			this.sendTime = sendTime;
+		}
+		
+		public long getTotal() {
+			return evaluationTime + sendTime;
+		}
+
+		@Override
+		public String toString() {
+			return reminderKey + " (" + recipients + " recipients, evaluated in (ms): " + evaluationTime + ", sent in (ms): " + sendTime + ")";
+		}
+	}
+	
 	private class ReminderTemplate extends MailTemplate {
 		
 		private final String url;
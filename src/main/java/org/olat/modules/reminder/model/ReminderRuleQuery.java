@@ -0,0 +1,109 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.reminder.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.olat.core.commons.persistence.QueryBuilder;
+import org.olat.repository.RepositoryEntryRef;
+
+/**
+ * The conditions of the rules of a reminder compiled in a single
+ * query. The identity is available in the query as "ident" and its
+ * user as "usr". The rules append their conditions as sub-queries.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ReminderRuleQuery {
+	
+	private boolean members = false;
+	private final QueryBuilder sb = new QueryBuilder(1024);
+	private final Map<String,Object> parameters = new HashMap<>();
+	
+	/**
+	 * @return The query builder after a " where " or an " and "
+	 */
+	public QueryBuilder and() {
+		return sb.and();
+	}
+	
+	/**
+	 * Register a parameter for the query.
+	 * 
+	 * @param value The value of the parameter
+	 * @return The name of the parameter with its colon
+	 */
+	public String parameter(Object value) {
+		String name = "ruleParam" + parameters.size();
+		parameters.put(name, value);
+		return ":" + name;
+	}
+	
+	public Map<String,Object> getParameters() {
+		return parameters;
+	}
+	
+	/**
+	 * @return true if a rule has already restricted the identities
+	 * 		to some members of the course or of its groups
+	 */
+	public boolean isMembers() {
+		return members;
+	}
+	
+	public void setMembers(boolean members) {
+		this.members = members;
+	}
+	
+	/**
+	 * Append a condition on the assessment entry of the identity for the
+	 * specified course element. The assessment entry is available as "data".
+	 * 
+	 * @param entry The course
+	 * @param subIdent The identifier of the course element
+	 * @param attribute The attribute of the assessment entry
+	 * @param condition The condition on the attribute
+	 * @param matchWithoutValue true if the identities without assessment entry or without value match
+	 */
+	public void appendAssessmentEntry(RepositoryEntryRef entry, String subIdent, String attribute,
+			String condition, boolean matchWithoutValue) {
+		and();
+		if(matchWithoutValue) {
+			sb.append("not exists (select data.key from assessmententry data")
+			  .append(" where data.repositoryEntry.key=").append(parameter(entry.getKey()))
+			  .append(" and data.subIdent=").append(parameter(subIdent))
+			  .append(" and data.identity.key=ident.key and data.").append(attribute).append(" is not null")
+			  .append(" and not(").append(condition).append("))");
+		} else {
+			sb.append("exists (select data.key from assessmententry data")
+			  .append(" where data.repositoryEntry.key=").append(parameter(entry.getKey()))
+			  .append(" and data.subIdent=").append(parameter(subIdent))
+			  .append(" and data.identity.key=ident.key and ").append(condition).append(")");
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return sb.toString();
+	}
+}
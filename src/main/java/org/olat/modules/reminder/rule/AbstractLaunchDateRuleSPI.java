@@ -26,9 +26,11 @@ import java.util.Map;
 
 import org.olat.core.id.Identity;
 import org.olat.modules.reminder.FilterRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.ui.CourseLaunchRuleEditor;
 import org.olat.repository.RepositoryEntry;
 
@@ -38,7 +40,7 @@ import org.olat.repository.RepositoryEntry;
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
-public abstract class AbstractLaunchDateRuleSPI  implements FilterRuleSPI {
+public abstract class AbstractLaunchDateRuleSPI  implements FilterRuleSPI, QueryRuleSPI {
 
 	@Override
 	public String getCategory() {
@@ -51,6 +53,40 @@ public abstract class AbstractLaunchDateRuleSPI  implements FilterRuleSPI {
 	}
 	
 	protected abstract Map<Long,Date> getLaunchDates(ReminderRule rule, RepositoryEntry entry, List<Identity> identities);
+	
+	/**
+	 * Append the condition "launch date before the specified date" to the query.
+	 * 
+	 * @param rule The rule
+	 * @param entry The repository entry
+	 * @param before The launch date must be strictly before this date
+	 * @param query The query
+	 * @return true if the condition was appended
+	 */
+	protected abstract boolean appendToQuery(ReminderRule rule, RepositoryEntry entry, Date before, ReminderRuleQuery query);
+	
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			int distance = Integer.parseInt(r.getRightOperand());
+			LaunchUnit unit = LaunchUnit.valueOf(r.getRightUnit());
+			// same as after(): the distance between the launch and now is larger than the specified one
+			Date before = new Date(System.currentTimeMillis() - (distance * getUnitInMilliSeconds(unit)));
+			return appendToQuery(rule, entry, before, query);
+		}
+		return false;
+	}
+	
+	private long getUnitInMilliSeconds(LaunchUnit unit) {
+		long day = 1000l * 60l * 60l * 24l;
+		switch(unit) {
+			case week: return day * 7l;
+			case month: return day * 30l;
+			case year: return day * 365l;
+			default: return day;
+		}
+	}
 
 	@Override
 	public void filter(RepositoryEntry entry, List<Identity> identities, ReminderRule rule) {
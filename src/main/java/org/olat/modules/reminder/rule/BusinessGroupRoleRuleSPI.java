@@ -31,9 +31,11 @@ import org.olat.group.manager.BusinessGroupRelationDAO;
 import org.olat.group.model.BusinessGroupRefImpl;
 import org.olat.group.model.BusinessGroupReference;
 import org.olat.modules.reminder.IdentitiesProviderRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.ui.BusinessGroupRoleEditor;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,7 +48,7 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class BusinessGroupRoleRuleSPI implements IdentitiesProviderRuleSPI {
+public class BusinessGroupRoleRuleSPI implements IdentitiesProviderRuleSPI, QueryRuleSPI {
 
 	@Autowired
 	private BusinessGroupRelationDAO businessGroupRelationDao;
@@ -101,4 +103,23 @@ public class BusinessGroupRoleRuleSPI implements IdentitiesProviderRuleSPI {
 		
 		return identities == null ? Collections.<Identity>emptyList() : identities;
 	}
+	
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String groupKey = r.getRightOperand();
+			if(StringHelper.isLong(groupKey)) {
+				List<String> roles = List.of(GroupRoles.coach.name(), GroupRoles.participant.name());
+				query.and().append("exists (select bmembership.key from businessgroup as bgroup")
+				  .append(" inner join bgroup.baseGroup as bBaseGroup")
+				  .append(" inner join bBaseGroup.members as bmembership")
+				  .append(" where bgroup.key=").append(query.parameter(Long.valueOf(groupKey)))
+				  .append(" and bmembership.identity.key=ident.key and bmembership.role in (").append(query.parameter(roles)).append("))");
+				query.setMembers(true);
+				return true;
+			}
+		}
+		return false;
+	}
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ import org.olat.core.id.Identity;
 import org.olat.course.export.CourseEnvironmentMapper;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.manager.ReminderDAO;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -57,4 +58,18 @@ public class CourseEnrollmentDateRuleSPI extends AbstractLaunchDateRuleSPI {
 	protected Map<Long, Date> getLaunchDates(ReminderRule rule, RepositoryEntry entry, List<Identity> identities) {
 		return reminderDao.getCourseEnrollmentDates(entry, identities);
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected boolean appendToQuery(ReminderRule rule, RepositoryEntry entry, Date before, ReminderRuleQuery query) {
+		// same memberships as the enrollment dates: default group and business groups
+		query.and().append("exists (select enrollment.key from repositoryentry as enrollmentEntry")
+		  .append(" inner join enrollmentEntry.groups as enrollmentRelGroup")
+		  .append(" inner join enrollmentRelGroup.group as enrollmentGroup")
+		  .append(" inner join enrollmentGroup.members as enrollment")
+		  .append(" left join businessgroup as enrollmentBusinessGroup on (enrollmentBusinessGroup.baseGroup.key=enrollmentGroup.key)")
+		  .append(" where enrollmentEntry.key=").append(query.parameter(entry.getKey()))
+		  .append(" and (enrollmentRelGroup.defaultGroup=true or enrollmentBusinessGroup.key is not null)")
+		  .append(" and enrollment.identity.key=ident.key and enrollment.creationDate<").append(query.parameter(before)).append(")");
+		return true;
+	}
+}
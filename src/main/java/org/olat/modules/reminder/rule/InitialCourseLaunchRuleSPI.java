@@ -27,6 +27,7 @@ import org.olat.core.id.Identity;
 import org.olat.course.assessment.manager.UserCourseInformationsManager;
 import org.olat.course.export.CourseEnvironmentMapper;
 import org.olat.modules.reminder.ReminderRule;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.repository.RepositoryEntry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -57,4 +58,12 @@ public class InitialCourseLaunchRuleSPI extends AbstractLaunchDateRuleSPI {
 	protected Map<Long, Date> getLaunchDates(ReminderRule rule, RepositoryEntry entry, List<Identity> identities) {
 		return userCourseInformationsManager.getInitialLaunchDates(entry.getOlatResource(), identities);
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected boolean appendToQuery(ReminderRule rule, RepositoryEntry entry, Date before, ReminderRuleQuery query) {
+		query.and().append("exists (select infos.key from usercourseinfos as infos")
+		  .append(" where infos.resource.key=").append(query.parameter(entry.getOlatResource().getKey()))
+		  .append(" and infos.identity.key=ident.key and infos.initialLaunch<").append(query.parameter(before)).append(")");
+		return true;
+	}
+}
@@ -27,9 +27,11 @@ import org.olat.core.id.Identity;
 import org.olat.core.util.StringHelper;
 import org.olat.course.export.CourseEnvironmentMapper;
 import org.olat.modules.reminder.IdentitiesProviderRuleSPI;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.ui.RepositoryEntryRoleEditor;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRelationType;
@@ -44,7 +46,7 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class RepositoryEntryRoleRuleSPI implements IdentitiesProviderRuleSPI  {
+public class RepositoryEntryRoleRuleSPI implements IdentitiesProviderRuleSPI, QueryRuleSPI  {
 
 	@Autowired
 	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
@@ -108,6 +110,52 @@ public class RepositoryEntryRoleRuleSPI implements IdentitiesProviderRuleSPI  {
 		return identities == null ? Collections.<Identity>emptyList() : identities;
 	}
 	
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String roles = r.getRightOperand();
+			if(StringHelper.containsNonWhitespace(roles)) {
+				appendToQuery(entry, Roles.valueOf(roles), query);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Restrict the query to the members of the repository entry with the
+	 * specified roles, same relations as the evaluation of the rule.
+	 * 
+	 * @param entry The repository entry
+	 * @param roles The roles
+	 * @param query The query
+	 */
+	public void appendToQuery(RepositoryEntry entry, Roles roles, ReminderRuleQuery query) {
+		List<String> groupRoles;
+		switch(roles) {
+			case owner: groupRoles = List.of(GroupRoles.owner.name()); break;
+			case coach: groupRoles = List.of(GroupRoles.coach.name()); break;
+			case participant: groupRoles = List.of(GroupRoles.participant.name()); break;
+			case participantAndCoach: groupRoles = List.of(GroupRoles.coach.name(), GroupRoles.participant.name()); break;
+			case ownerAndCoach: groupRoles = List.of(GroupRoles.coach.name(), GroupRoles.owner.name()); break;
+			default: groupRoles = List.of(GroupRoles.owner.name(), GroupRoles.coach.name(), GroupRoles.participant.name()); break;
+		}
+		
+		// the owners are only searched in the entry and the curriculums
+		boolean entryAndCurriculums = roles == Roles.owner;
+		query.and().append("exists (select membership.key from repositoryentry as v")
+		  .append(" inner join v.groups as relGroup")
+		  .append(" inner join relGroup.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" left join curriculumelement as curEl on (curEl.group.key=baseGroup.key)", entryAndCurriculums)
+		  .append(" where v.key=").append(query.parameter(entry.getKey()))
+		  .append(" and membership.identity.key=ident.key and membership.role in (").append(query.parameter(groupRoles)).append(")")
+		  .append(" and (relGroup.defaultGroup=true or curEl.key is not null)", entryAndCurriculums)
+		  .append(")");
+		query.setMembers(true);
+	}
+	
 	public enum Roles {
 		owner,
 		coach,
@@ -19,14 +19,24 @@
  */
 package org.olat.modules.reminder.rule;
 
+import java.util.Locale;
+
 import org.olat.core.id.Identity;
+import org.olat.core.id.User;
+import org.olat.core.util.StringHelper;
 import org.olat.course.export.CourseEnvironmentMapper;
+import org.olat.modules.reminder.QueryRuleSPI;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.RuleEditorFragment;
-import org.olat.modules.reminder.RuleSPI;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
+import org.olat.modules.reminder.model.ReminderRuleQuery;
 import org.olat.modules.reminder.ui.UserPropertyEditor;
 import org.olat.repository.RepositoryEntry;
+import org.olat.user.AbstractUserPropertyHandler;
+import org.olat.user.UserManager;
+import org.olat.user.propertyhandlers.Generic127CharTextPropertyHandler;
+import org.olat.user.propertyhandlers.UserPropertyHandler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -36,9 +46,12 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class UserPropertyRuleSPI implements RuleSPI {
+public class UserPropertyRuleSPI implements QueryRuleSPI {
 	
 	public static final String USER_PROPS_ID = UserPropertyRuleSPI.class.getName();
+	
+	@Autowired
+	private UserManager userManager;
 
 	@Override
 	public String getLabelI18nKey() {
@@ -73,4 +86,50 @@ public class UserPropertyRuleSPI implements RuleSPI {
 		}
 		return allOk;
 	}
+
+	@Override
+	public boolean appendToQuery(RepositoryEntry entry, ReminderRule rule, ReminderRuleQuery query) {
+		if(rule instanceof ReminderRuleImpl) {
+			ReminderRuleImpl r = (ReminderRuleImpl)rule;
+			String propertyName = r.getLeftOperand();
+			String reference = r.getRightOperand();
+			if(reference != null && isQueryableUserProperty(propertyName)) {
+				query.and().append("lower(usr.").append(propertyName).append(")=")
+				  .append(query.parameter(reference.toLowerCase(Locale.ROOT)));
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The rule compares the value of the property as shown to the user. Only
+	 * the plain text properties saved as they are in a column of the user
+	 * can be compiled. Gender, dates, selections... are formatted or
+	 * translated and are evaluated in memory.
+	 * 
+	 * @param propertyName The name of the property
+	 * @return true if the rule can be compiled in the query
+	 */
+	private boolean isQueryableUserProperty(String propertyName) {
+		if(propertyName == null) return false;
+		
+		for(UserPropertyHandler handler:userManager.getAllUserPropertyHandlers()) {
+			if(propertyName.equals(handler.getName())) {
+				return handler instanceof Generic127CharTextPropertyHandler
+						&& StringHelper.containsNonWhitespace(((Generic127CharTextPropertyHandler)handler).getDatabaseColumnName())
+						&& isStoredValue(handler);
+			}
+		}
+		return false;
+	}
+	
+	private boolean isStoredValue(UserPropertyHandler handler) {
+		try {
+			return handler.getClass().getMethod("getUserProperty", User.class, Locale.class)
+					.getDeclaringClass() == AbstractUserPropertyHandler.class;
+		} catch (NoSuchMethodException | SecurityException e) {
+			return false;
+		}
+	}
 }
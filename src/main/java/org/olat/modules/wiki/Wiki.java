@@ -267,16 +267,32 @@ public class Wiki implements WikiContainer, Serializable {
 	}
 
 	public static WikiPage assignPropertiesToPage(VFSLeaf leaf) {
-		Properties p = new Properties();
 		if (leaf != null) {
+			return assignPropertiesToPage(loadPageProperties(leaf), leaf.getName());
+		} else {
+			return new WikiPage("dummy");
+		}
+	}
+	
+	protected static Properties loadPageProperties(VFSLeaf leaf) {
+		Properties p = new Properties();
 		try(InputStream is =leaf.getInputStream()) {
 			p.load(is);
 		} catch (IOException e) {
 			throw new OLATRuntimeException("Wiki page couldn't be read! Pagename:"+leaf.getName(), e);
 		}
+		return p;
+	}
+	
+	/**
+	 * @param p The properties of the page
+	 * @param name The name of the properties file (for logging purpose)
+	 * @return The page or null if the properties doesn't have a page name
+	 */
+	protected static WikiPage assignPropertiesToPage(Properties p, String name) {
 		String pageName = p.getProperty(WikiManager.PAGENAME);
 		if(pageName == null){
-			log.warn("wiki properties page is persent but without content. Name:"+leaf.getName());
+			log.warn("wiki properties page is persent but without content. Name:"+name);
 			return null;
 		}
 		
@@ -298,9 +314,6 @@ public class Wiki implements WikiContainer, Serializable {
 		page.setViewCount(p.getProperty(WikiManager.VIEW_COUNT));
 		page.setUpdateComment(p.getProperty(WikiManager.UPDATE_COMMENT));
 		return page;
-		} else {
-			return new WikiPage("dummy");
-		}
 	}
 
 	protected List<VFSItem> getMediaFileListWithMetadata() {
@@ -932,6 +932,7 @@ public class WikiMainController extends BasicController implements CloneableCont
 			if (event.getCommand().equals(FolderEvent.UPLOAD_EVENT)) {
 				FolderEvent fEvent = (FolderEvent) event;
 				createMediaMetadataFile(fEvent.getFilename(), ureq.getIdentity().getKey());
+				WikiManager.getInstance().clearRenderedPages(ores);
 				updateFileAndLinkList(wiki);
 			}
 			cmc.deactivate();
@@ -1147,6 +1148,7 @@ public class WikiMainController extends BasicController implements CloneableCont
 				}
 			}
 		}
+		WikiManager.getInstance().clearRenderedPages(ores);
 		getWindowControl().pop();
 	}
 
@@ -1234,7 +1236,7 @@ public class WikiMainController extends BasicController implements CloneableCont
 		if (page.getPageName().equals(WikiPage.WIKI_ERROR)) {
 			wikiArticleComp.setWikiContent(translate(page.getContent()));
 		} else {
-			wikiArticleComp.setWikiContent(page.getContent());
+			wikiArticleComp.setWikiPage(page);
 		}
 
 		wikiEditForm.setPage(page);
@@ -45,6 +45,7 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.commons.services.notifications.SubscriptionContext;
 import org.olat.core.gui.UserRequest;
+import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.AssertException;
@@ -56,6 +57,7 @@ import org.olat.core.util.FileUtils;
 import org.olat.core.util.PathUtils;
 import org.olat.core.util.cache.CacheWrapper;
 import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.core.util.vfs.LocalFolderImpl;
 import org.olat.core.util.vfs.VFSContainer;
@@ -87,7 +89,7 @@ import org.olat.resource.OLATResourceManager;
  * 
  * @author guido
  */
-public class WikiManager {
+public class WikiManager implements GenericEventListener {
 	
 	private static final Logger log = Tracing.createLoggerFor(WikiManager.class);
 
@@ -109,9 +111,11 @@ public class WikiManager {
 	public static final String WIKI_PROPERTIES_SUFFIX = "properties";
 	public static final String WIKI_DOT_PROPERTIES_SUFFIX = "." + WIKI_PROPERTIES_SUFFIX;
 	public static final String UPDATE_COMMENT = "update.comment";
+	private static final OLATResourceable RENDERED_PAGES_ORES = OresHelper.createOLATResourceableType("WikiRenderedPages");
 	
   //o_clusterNOK cache : 08.04.08/cg Not tested in cluster-mode 
 	CacheWrapper<String,Wiki> wikiCache;
+	private CacheWrapper<WikiRenderedPageKey,String> renderedPageCache;
 	
 	OLATResourceManager resourceManager;
 	FileResourceManager fileResourceManager;
@@ -154,6 +158,20 @@ public class WikiManager {
 			coordinator = coord;
 	}
 	
+	/**
+	 * [used by Spring]
+	 */
+	public void init() {
+		coordinator.getCoordinator().getEventBus().registerFor(this, null, RENDERED_PAGES_ORES);
+	}
+	
+	@Override
+	public void event(Event event) {
+		if(event instanceof WikiRenderedPagesEvent) {
+			removeRenderedPages(((WikiRenderedPagesEvent)event).getWikiKey());
+		}
+	}
+	
 	public boolean importWiki(File file, String filename, File targetDirectory) {
 		try {
 			Path path = FileResource.getResource(file, filename);
@@ -423,12 +441,15 @@ public class WikiManager {
 			}
 			
 			// folders should be present, create the wiki
-			Wiki wiki = new Wiki(getWikiRootContainer(ores));
+			LocalFolderImpl rootContainer = getWikiRootContainer(ores);
+			Wiki wiki = new Wiki(rootContainer);
+			// the page index prevents to read every xyz.properties files
+			WikiPageIndex pageIndex = WikiPageIndex.load(rootContainer);
 			// filter for xyz.properties files
 			List<VFSItem> wikiLeaves = folder.getItems(new PropertiesFilter());
 			for (Iterator<VFSItem> iter = wikiLeaves.iterator(); iter.hasNext();) {
 				VFSLeaf propertiesFile = (VFSLeaf) iter.next();
-				WikiPage page = Wiki.assignPropertiesToPage(propertiesFile);
+				WikiPage page = pageIndex.getPage(propertiesFile);
 				if (page == null) {
 					// broken pages get automatically cleaned from filesystem
 					String contentFileToBeDeleted = (propertiesFile.getName().substring(0,
@@ -456,6 +477,7 @@ public class WikiManager {
 
 				wiki.addPage(page);
 			}
+			pageIndex.save();
 			
 			// if index and menu page not present create the first page and save it
 			if (wiki.getNumberOfPages() == 0) {
@@ -545,6 +567,8 @@ public class WikiManager {
 			throw new OLATRuntimeException(WikiManager.class, "failed to save wiki page properties for page with id: " + page.getPageId() + " and olatresource: " + ores.getResourceableId(), e);
 		}
 		page.setViewCount(0); //reset view count of the page
+		// the links to the page in the rendered pages may change
+		clearRenderedPages(ores);
 		
 		//update cache to inform all nodes about the change
 		if (cache && wikiCache != null) {
@@ -587,6 +611,7 @@ public class WikiManager {
 			}
 		}
 		log.info(Tracing.M_AUDIT, "Deleted wiki page with name: " + page.getPageName() + " from resourcable id: "+ ores.getResourceableId());
+		clearRenderedPages(ores);
 		if (wikiCache!=null) {
 			wikiCache.update(OresHelper.createStringRepresenting(ores), getOrLoadWiki(ores));
 		}
@@ -600,9 +625,52 @@ public class WikiManager {
 		if (wikiCache!=null) {
 			wikiCache.remove(OresHelper.createStringRepresenting(ores));
 		}
+		clearRenderedPages(ores);
 		getResourceManager().deleteOLATResourceable(ores);
 	}
 
+	/**
+	 * @param key The key of the rendered page
+	 * @return The HTML of the page or null if not in the cache
+	 */
+	public String getRenderedPage(WikiRenderedPageKey key) {
+		return getRenderedPageCache().get(key);
+	}
+	
+	public void putRenderedPage(WikiRenderedPageKey key, String html) {
+		getRenderedPageCache().put(key, html);
+	}
+	
+	/**
+	 * Remove all the rendered pages of the wiki from the cache of all the
+	 * nodes of the cluster. The HTML of a page depends on the other pages
+	 * (links to existing or new pages) and the media files of the wiki.
+	 * 
+	 * @param ores The wiki
+	 */
+	public void clearRenderedPages(OLATResourceable ores) {
+		String wikiKey = OresHelper.createStringRepresenting(ores);
+		removeRenderedPages(wikiKey);
+		coordinator.getCoordinator().getEventBus()
+			.fireEventToListenersOf(new WikiRenderedPagesEvent(wikiKey), RENDERED_PAGES_ORES);
+	}
+	
+	private void removeRenderedPages(String wikiKey) {
+		CacheWrapper<WikiRenderedPageKey,String> cache = getRenderedPageCache();
+		for(WikiRenderedPageKey key:cache.getKeys()) {
+			if(wikiKey.equals(key.getWikiKey())) {
+				cache.remove(key);
+			}
+		}
+	}
+	
+	private CacheWrapper<WikiRenderedPageKey,String> getRenderedPageCache() {
+		if (renderedPageCache == null) {
+			renderedPageCache = coordinator.getCoordinator().getCacher().getCache(WikiManager.class.getSimpleName(), "renderedpages");
+		}
+		return renderedPageCache;
+	}
+
 	/**
 	 * @param ores
 	 * @param page
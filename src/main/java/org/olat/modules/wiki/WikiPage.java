@@ -169,7 +169,7 @@ public class WikiPage {
 	 * @return a calculated one way hash used for persisting the pages to the
 	 *         filesystem.
 	 */
-	protected String getPageId() {
+	public String getPageId() {
 		if (pageId == null) {
 			if(StringHelper.containsNonWhitespace(initialPageName)) {
 				pageId = WikiManager.generatePageId(initialPageName);
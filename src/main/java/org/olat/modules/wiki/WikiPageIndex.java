@@ -0,0 +1,168 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.wiki;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.vfs.VFSContainer;
+import org.olat.core.util.vfs.VFSItem;
+import org.olat.core.util.vfs.VFSLeaf;
+
+/**
+ * Compact index of the pages of a wiki, saved in a single file at the root
+ * of the wiki. It holds the properties of every page with the modification
+ * date and the size of its properties file. The wiki can be loaded with a
+ * listing of the directory, only the properties files which changed since
+ * the index was written are read.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+class WikiPageIndex {
+	
+	private static final Logger log = Tracing.createLoggerFor(WikiPageIndex.class);
+	
+	protected static final String PAGE_INDEX_FILENAME = ".pageindex";
+	private static final String LAST_MODIFIED = "_index.lastmodified";
+	private static final String SIZE = "_index.size";
+	
+	private boolean dirty;
+	private final VFSContainer rootContainer;
+	private final Set<String> visited = new HashSet<>();
+	private final Map<String,Properties> entries = new HashMap<>();
+	
+	private WikiPageIndex(VFSContainer rootContainer) {
+		this.rootContainer = rootContainer;
+	}
+	
+	/**
+	 * Load the index of the wiki. A missing or unreadable index is
+	 * simply empty.
+	 * 
+	 * @param rootContainer The root container of the wiki
+	 * @return The index
+	 */
+	protected static WikiPageIndex load(VFSContainer rootContainer) {
+		WikiPageIndex pageIndex = new WikiPageIndex(rootContainer);
+		VFSItem indexItem = rootContainer.resolve(PAGE_INDEX_FILENAME);
+		if(indexItem instanceof VFSLeaf) {
+			Properties p = new Properties();
+			try(InputStream in = ((VFSLeaf)indexItem).getInputStream()) {
+				p.load(in);
+			} catch(IOException | IllegalArgumentException e) {
+				log.warn("Cannot read the page index of the wiki: {}", rootContainer, e);
+				p.clear();
+			}
+			
+			for(String key:p.stringPropertyNames()) {
+				int index = key.indexOf('.');
+				if(index > 0) {
+					String pageKey = key.substring(0, index);
+					pageIndex.entries
+						.computeIfAbsent(pageKey, k -> new Properties())
+						.setProperty(key.substring(index + 1), p.getProperty(key));
+				}
+			}
+		}
+		return pageIndex;
+	}
+	
+	/**
+	 * Return the page described by the properties file. The properties are
+	 * read from the index if the file didn't change, else from the file.
+	 * 
+	 * @param propertiesFile The properties file of the page
+	 * @return The page or null if the properties file is broken
+	 */
+	protected WikiPage getPage(VFSLeaf propertiesFile) {
+		String pageKey = getPageKey(propertiesFile);
+		visited.add(pageKey);
+		
+		String lastModified = Long.toString(propertiesFile.getLastModified());
+		String size = Long.toString(propertiesFile.getSize());
+		Properties p = entries.get(pageKey);
+		if(p != null && lastModified.equals(p.getProperty(LAST_MODIFIED)) && size.equals(p.getProperty(SIZE))) {
+			return Wiki.assignPropertiesToPage(p, propertiesFile.getName());
+		}
+		
+		p = Wiki.loadPageProperties(propertiesFile);
+		WikiPage page = Wiki.assignPropertiesToPage(p, propertiesFile.getName());
+		if(page == null) {
+			entries.remove(pageKey);
+		} else {
+			p.setProperty(LAST_MODIFIED, lastModified);
+			p.setProperty(SIZE, size);
+			entries.put(pageKey, p);
+		}
+		dirty = true;
+		return page;
+	}
+	
+	private String getPageKey(VFSLeaf propertiesFile) {
+		String name = propertiesFile.getName();
+		int index = name.indexOf('.');
+		return index > 0 ? name.substring(0, index) : name;
+	}
+	
+	/**
+	 * Remove the pages which were not requested since the index was
+	 * loaded and write the index if something changed.
+	 */
+	protected void save() {
+		if(entries.keySet().retainAll(visited)) {
+			dirty = true;
+		}
+		if(!dirty) return;
+		
+		Properties p = new Properties();
+		for(Map.Entry<String, Properties> entry:entries.entrySet()) {
+			String pageKey = entry.getKey();
+			Properties pageProperties = entry.getValue();
+			for(String key:pageProperties.stringPropertyNames()) {
+				p.setProperty(pageKey + "." + key, pageProperties.getProperty(key));
+			}
+		}
+		
+		VFSItem indexItem = rootContainer.resolve(PAGE_INDEX_FILENAME);
+		VFSLeaf indexLeaf = indexItem instanceof VFSLeaf
+				? (VFSLeaf)indexItem : rootContainer.createChildLeaf(PAGE_INDEX_FILENAME);
+		if(indexLeaf == null) {
+			log.warn("Cannot create the page index of the wiki: {}", rootContainer);
+			return;
+		}
+		
+		try(OutputStream out = indexLeaf.getOutputStream(false)) {
+			p.store(out, "wiki page index");
+			dirty = false;
+		} catch(IOException e) {
+			log.warn("Cannot write the page index of the wiki: {}", rootContainer, e);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.wiki;
+
+import java.io.Serializable;
+
+/**
+ * Key of a rendered wiki page in the cache: the wiki, the page, its
+ * version and the context used to resolve the links and the media
+ * files.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class WikiRenderedPageKey implements Serializable {
+
+	private static final long serialVersionUID = -2937706434410362412L;
+	
+	private final String wikiKey;
+	private final String pageId;
+	private final int version;
+	private final String context;
+	
+	public WikiRenderedPageKey(String wikiKey, String pageId, int version, String context) {
+		this.wikiKey = wikiKey;
+		this.pageId = pageId;
+		this.version = version;
+		this.context = context;
+	}
+
+	public String getWikiKey() {
+		return wikiKey;
+	}
+
+	public String getPageId() {
+		return pageId;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public String getContext() {
+		return context;
+	}
+
+	@Override
+	public int hashCode() {
+		return wikiKey.hashCode() + pageId.hashCode() + version
+				+ (context == null ? 7286 : context.hashCode());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof WikiRenderedPageKey) {
+			WikiRenderedPageKey key = (WikiRenderedPageKey)obj;
+			return wikiKey.equals(key.wikiKey)
+					&& pageId.equals(key.pageId)
+					&& version == key.version
+					&& ((context == null && key.context == null) || (context != null && context.equals(key.context)));
+		}
+		return false;
+	}
+}
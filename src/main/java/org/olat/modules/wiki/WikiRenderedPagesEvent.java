@@ -0,0 +1,48 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.wiki;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Sent to all the nodes of the cluster to remove the rendered pages
+ * of a wiki from their cache.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class WikiRenderedPagesEvent extends MultiUserEvent {
+
+	private static final long serialVersionUID = 5281037712473370166L;
+	
+	public static final String CLEAR_RENDERED_PAGES = "clear-rendered-pages";
+	
+	private final String wikiKey;
+	
+	public WikiRenderedPagesEvent(String wikiKey) {
+		super(CLEAR_RENDERED_PAGES);
+		this.wikiKey = wikiKey;
+	}
+
+	public String getWikiKey() {
+		return wikiKey;
+	}
+}
@@ -65,6 +65,8 @@ public class WikiMarkupComponent extends AbstractComponent implements Disposable
 	// this class.
 	private static final ComponentRenderer RENDERER = new WikiMarkupRenderer();
 	private String wikiContent;
+	private String pageId;
+	private int pageVersion;
 	private int minHeight;
 	private ParserInput parserInput;
 	private JFlexParser parser;
@@ -134,8 +136,34 @@ public class WikiMarkupComponent extends AbstractComponent implements Disposable
 
 	public void setWikiContent(String wikiContent) {
 		this.wikiContent = wikiContent;
+		this.pageId = null;
+		this.pageVersion = 0;
 		setDirty(true);
 	}
+	
+	/**
+	 * Set the content of a saved page. The rendered HTML is cached
+	 * by the id and version of the page.
+	 * 
+	 * @param page The page
+	 */
+	public void setWikiPage(WikiPage page) {
+		this.wikiContent = page.getContent();
+		this.pageId = page.getPageId();
+		this.pageVersion = page.getVersion();
+		setDirty(true);
+	}
+	
+	/**
+	 * @return The id of the page or null if the content is not a saved page
+	 */
+	protected String getPageId() {
+		return pageId;
+	}
+	
+	protected int getPageVersion() {
+		return pageVersion;
+	}
 
 	/**
 	 * if the wiki need to serve images you have to set the image mapper uri first!
@@ -45,7 +45,10 @@ import org.olat.core.helpers.Settings;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.util.Formatter;
 import org.olat.core.util.filter.FilterFactory;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.modules.wiki.WikiManager;
 import org.olat.modules.wiki.WikiModule;
+import org.olat.modules.wiki.WikiRenderedPageKey;
 
 /**
  * Description:<br>
@@ -57,6 +60,13 @@ import org.olat.modules.wiki.WikiModule;
  * @author guido
  */
 public class WikiMarkupRenderer extends DefaultComponentRenderer {
+	
+	/**
+	 * The URL of the component is specific to the window of the user. The
+	 * cached pages are rendered with this placeholder as virtual wiki which
+	 * is replaced by the URL of the component.
+	 */
+	private static final String VIRTUAL_WIKI_PLACEHOLDER = "oowikivirtualwiki";
 
 	@Override
 	public void render(Renderer renderer, StringOutput sb, Component source, URLBuilder ubu, Translator translator,
@@ -65,52 +75,44 @@ public class WikiMarkupRenderer extends DefaultComponentRenderer {
 		
 		AJAXFlags flags = renderer.getGlobalSettings().getAjaxFlags();
 		boolean iframePostEnabled = flags.isIframePostEnabled();
-		
-		ParserInput input = new ParserInput();
-		input.setWikiUser(null);
-		input.setAllowSectionEdit(false);
-		input.setDepth(10);
-		input.setContext(Settings.createServerURI());
-		input.setLocale(new Locale("en"));
-		input.setTopicName("dummy");
-		input.setUserIpAddress("0.0.0.0");
-		OlatWikiDataHandler dataHandler = new OlatWikiDataHandler(wikiComp.getOres(), wikiComp.getImageBaseUri());
-		input.setDataHandler(dataHandler);
     
 		StringOutput out = new StringOutput(100);
 		ubu.buildURI(out, null , null, iframePostEnabled ? AJAXFlags.MODE_TOBGIFRAME : AJAXFlags.MODE_NORMAL);
 		String uri = out.toString();
 		
-		ParserDocument parsedDoc = null;
+		String content = null;
 		String uniqueId = "o_wiki".concat(wikiComp.getDispatchID());
 		try {
 			uri = URLDecoder.decode(uri, "utf-8");
 			uri = uri.substring(1, uri.length() - 1);
-			input.setVirtualWiki(uri);
-			if (iframePostEnabled) {
-				String targetUrl = " onclick=\"o_XHRWikiEvent(this);return(false);\"";
-				input.setURLTarget(targetUrl);
-			}
 			sb.append("<div style=\"min-height:").append(wikiComp.getMinHeight()).append("px\" id=\"")
 			  .append(uniqueId)
 			  .append("\">");
-		
-			JFlexParser parser = new JFlexParser(input);
-			parsedDoc = parser.parseHTML(wikiComp.getWikiContent());
+			
+			String pageId = wikiComp.getPageId();
+			if(pageId == null) {
+				content = renderContent(wikiComp, uri, iframePostEnabled);
+			} else {
+				WikiManager wikiManager = WikiManager.getInstance();
+				String context = iframePostEnabled + ":" + wikiComp.getImageBaseUri();
+				WikiRenderedPageKey key = new WikiRenderedPageKey(OresHelper.createStringRepresenting(wikiComp.getOres()),
+						pageId, wikiComp.getPageVersion(), context);
+				content = wikiManager.getRenderedPage(key);
+				if(content == null) {
+					content = renderContent(wikiComp, VIRTUAL_WIKI_PLACEHOLDER, iframePostEnabled);
+					if(content != null) {
+						wikiManager.putRenderedPage(key, content);
+					}
+				}
+				if(content != null) {
+					content = content.replace(VIRTUAL_WIKI_PLACEHOLDER, uri);
+				}
+			}
 		} catch (UnsupportedEncodingException e) {
 			//encoding utf-8 should be ok
-		} catch (Exception e) {
-			throw new OLATRuntimeException(this.getClass(), "error while rendering wiki page with content:"+ wikiComp.getWikiContent(), e);
 		}
-		if(parsedDoc != null) {
-			// Use global js math formatter for latex formulas
-			String content = parsedDoc.getContent();
-			
-			boolean xssScan = CoreSpringFactory.getImpl(WikiModule.class).isXSScanEnabled();
-			if(xssScan) {
-				content = FilterFactory.getXSSFilter().filter(content);
-			}
-			sb.append(Formatter.formatLatexFormulas(content));
+		if(content != null) {
+			sb.append(content);
 		}
 		
 		sb.append("</div>");
@@ -120,4 +122,49 @@ public class WikiMarkupRenderer extends DefaultComponentRenderer {
 		  .append("wikiMediaPlayer('").append(uniqueId).append("','").append(Settings.createServerURI()).append("');")
 		  .append("</script>");
 	}
+	
+	/**
+	 * Parse the wiki syntax and filter the resulting HTML.
+	 * 
+	 * @param wikiComp The component
+	 * @param virtualWiki The virtual wiki used to build the links
+	 * @param iframePostEnabled If the links are send to the background iframe
+	 * @return The HTML
+	 */
+	private String renderContent(WikiMarkupComponent wikiComp, String virtualWiki, boolean iframePostEnabled) {
+		ParserInput input = new ParserInput();
+		input.setWikiUser(null);
+		input.setAllowSectionEdit(false);
+		input.setDepth(10);
+		input.setContext(Settings.createServerURI());
+		input.setLocale(new Locale("en"));
+		input.setTopicName("dummy");
+		input.setUserIpAddress("0.0.0.0");
+		OlatWikiDataHandler dataHandler = new OlatWikiDataHandler(wikiComp.getOres(), wikiComp.getImageBaseUri());
+		input.setDataHandler(dataHandler);
+		input.setVirtualWiki(virtualWiki);
+		if (iframePostEnabled) {
+			String targetUrl = " onclick=\"o_XHRWikiEvent(this);return(false);\"";
+			input.setURLTarget(targetUrl);
+		}
+		
+		ParserDocument parsedDoc = null;
+		try {
+			JFlexParser parser = new JFlexParser(input);
+			parsedDoc = parser.parseHTML(wikiComp.getWikiContent());
+		} catch (Exception e) {
+			throw new OLATRuntimeException(this.getClass(), "error while rendering wiki page with content:"+ wikiComp.getWikiContent(), e);
+		}
+		if(parsedDoc == null) {
+			return null;
+		}
+		
+		String content = parsedDoc.getContent();
+		boolean xssScan = CoreSpringFactory.getImpl(WikiModule.class).isXSScanEnabled();
+		if(xssScan) {
+			content = FilterFactory.getXSSFilter().filter(content);
+		}
+		// Use global js math formatter for latex formulas
+		return Formatter.formatLatexFormulas(content);
+	}
 }
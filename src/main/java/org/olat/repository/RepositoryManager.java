@@ -78,9 +78,11 @@ import org.olat.core.util.vfs.VFSManager;
 import org.olat.course.PersistingCourseImpl;
 import org.olat.fileresource.FileResourceManager;
 import org.olat.group.GroupLoggingAction;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.modules.curriculum.CurriculumRoles;
 import org.olat.modules.taxonomy.TaxonomyLevel;
 import org.olat.repository.manager.RepositoryEntryDAO;
+import org.olat.repository.manager.RepositoryEntryMyCourseDAO;
 import org.olat.repository.manager.RepositoryEntryQueries;
 import org.olat.repository.manager.RepositoryEntryRelationDAO;
 import org.olat.repository.manager.RepositoryEntryToOrganisationDAO;
@@ -97,6 +99,7 @@ import org.olat.resource.OLATResourceManager;
 import org.olat.resource.accesscontrol.ResourceReservation;
 import org.olat.resource.accesscontrol.manager.ACReservationDAO;
 import org.olat.resource.accesscontrol.provider.auto.AutoAccessManager;
+import org.olat.search.manager.SearchIndexQueue;
 import org.olat.search.service.document.RepositoryEntryDocument;
 import org.olat.search.service.indexer.LifeFullIndexer;
 import org.olat.user.UserImpl;
@@ -139,6 +142,12 @@ public class RepositoryManager {
 	@Autowired
 	private LifeFullIndexer lifeIndexer;
 	@Autowired
+	private SearchIndexQueue searchIndexQueue;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
 	private AutoAccessManager autoAccessManager;
 	@Autowired
 	private RepositoryEntryQueries repositoryEntryQueries;
@@ -655,11 +664,17 @@ public class RepositoryManager {
 		if(reloadedRe == null) {
 			return null;
 		}
+		boolean wasOpen = isOpen(reloadedRe);
 		reloadedRe.setEntryStatus(status);
 		reloadedRe.setAllUsers(allUsers);
 		reloadedRe.setGuests(guests);
 		reloadedRe.setLastModified(new Date());
 		RepositoryEntry updatedRe = dbInstance.getCurrentEntityManager().merge(reloadedRe);
+		searchIndexQueue.markChanged(updatedRe);
+		coachingStatisticsWorkDao.markEntry(updatedRe);
+		if(!wasOpen && isOpen(updatedRe)) {
+			myCourseDao.invalidateMembersOfEntry(updatedRe);
+		}
 		dbInstance.commit();
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, updatedRe.getKey());
 		return updatedRe;
@@ -694,6 +709,7 @@ public class RepositoryManager {
 		if(reloadedRe == null) {
 			return null;
 		}
+		boolean wasOpen = isOpen(reloadedRe);
 		reloadedRe.setAllUsers(allUsers);
 		reloadedRe.setGuests(guests);
 		reloadedRe.setBookable(bookable);
@@ -738,6 +754,10 @@ public class RepositoryManager {
 		}
 		
 		RepositoryEntry updatedRe = dbInstance.getCurrentEntityManager().merge(reloadedRe);
+		searchIndexQueue.markChanged(updatedRe);
+		if(!wasOpen && isOpen(updatedRe)) {
+			myCourseDao.invalidateMembersOfEntry(updatedRe);
+		}
 		dbInstance.commit();
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, updatedRe.getKey());
 		return updatedRe;
@@ -750,6 +770,7 @@ public class RepositoryManager {
 		if(reloadedRe == null) {
 			return null;
 		}
+		boolean wasOpen = isOpen(reloadedRe);
 		reloadedRe.setEntryStatus(status);
 		reloadedRe.setAllUsers(allUsers);
 		reloadedRe.setGuests(guests);
@@ -764,11 +785,23 @@ public class RepositoryManager {
 		if(updatedRe.getLifecycle() != null) {
 			updatedRe.getLifecycle().getCreationDate();
 		}
-
+		coachingStatisticsWorkDao.markEntry(updatedRe);
+		if(!wasOpen && isOpen(updatedRe)) {
+			myCourseDao.invalidateMembersOfEntry(updatedRe);
+		}
+		searchIndexQueue.markChanged(updatedRe);
 		dbInstance.commit();
 		return updatedRe;
 	}
 	
+	/**
+	 * The members of an entry open to all users or bookable have it in "My courses",
+	 * the read models of the members need to be built again if it's opened.
+	 */
+	private boolean isOpen(RepositoryEntry re) {
+		return re.isAllUsers() || re.isBookable();
+	}
+	
 	public RepositoryEntry setStatus(final RepositoryEntry re, RepositoryEntryStatusEnum status) {
 		RepositoryEntry reloadedRe = repositoryEntryDao.loadForUpdate(re);
 		if(reloadedRe == null) {
@@ -784,6 +817,8 @@ public class RepositoryManager {
 		if(updatedRe.getLifecycle() != null) {
 			updatedRe.getLifecycle().getCreationDate();
 		}
+		searchIndexQueue.markChanged(updatedRe);
+		coachingStatisticsWorkDao.markEntry(updatedRe);
 		dbInstance.commit();
 		return updatedRe;
 	}
@@ -867,6 +902,7 @@ public class RepositoryManager {
 			dbInstance.getCurrentEntityManager().remove(cycleToDelete);
 		}
 
+		searchIndexQueue.markMetadataChanged(updatedRe);
 		dbInstance.commit();
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, updatedRe.getKey());
 		autoAccessManager.grantAccess(updatedRe);
@@ -1006,6 +1042,7 @@ public class RepositoryManager {
 			updatedRe.getLifecycle().getCreationDate();
 		}
 
+		searchIndexQueue.markMetadataChanged(updatedRe);
 		dbInstance.commit();
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, updatedRe.getKey());
 		autoAccessManager.grantAccess(updatedRe);
@@ -1013,6 +1050,8 @@ public class RepositoryManager {
 	}
 
 	public void triggerIndexer(RepositoryEntryRef re) {
+		// queued in the transaction of the caller
+		searchIndexQueue.markChanged(re);
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, re.getKey());
 	}
 
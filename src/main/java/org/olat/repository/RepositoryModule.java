@@ -85,6 +85,8 @@ public class RepositoryModule extends AbstractSpringModule {
 	private boolean myCoursesSearchEnabled;
 	@Value("${mycourses.all.resources.enabled:true}")
 	private boolean listAllResourceTypes;
+	@Value("${mycourses.read.model.enabled:true}")
+	private boolean myCoursesReadModelEnabled;
 	@Value("${repo.comment.enabled:true}")
 	private boolean commentEnabled;
 	@Value("${repo.rating.enabled:true}")
@@ -297,6 +299,18 @@ public class RepositoryModule extends AbstractSpringModule {
 		setStringProperty(MYCOURSES_SEARCH_ENABLED, Boolean.toString(enabled), true);
 	}
 
+	/**
+	 * @return true if "My courses" is read from the model of the memberships
+	 * 		of the users when the model is valid
+	 */
+	public boolean isMyCoursesReadModelEnabled() {
+		return myCoursesReadModelEnabled;
+	}
+
+	public void setMyCoursesReadModelEnabled(boolean enabled) {
+		myCoursesReadModelEnabled = enabled;
+	}
+
 	public boolean isCommentEnabled() {
 		return commentEnabled;
 	}
@@ -0,0 +1,181 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.basesecurity.OrganisationRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.persistence.PersistenceHelper;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.DateUtils;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryModule;
+import org.olat.repository.model.RepositoryEntryMyCourseItem;
+import org.olat.repository.model.RepositoryEntryMyCourseState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Build the read model of "My courses" of the users which logged in
+ * recently and have an invalid or no model at all.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class RepositoryEntryMyCourseBuilder {
+	
+	private static final Logger log = Tracing.createLoggerFor(RepositoryEntryMyCourseBuilder.class);
+	
+	private static final int MAX_BUILDS = 1000;
+	private static final int LOGGED_IN_DAYS = 7;
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private RepositoryModule repositoryModule;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	
+	public void process() {
+		if(!repositoryModule.isMyCoursesReadModelEnabled()) return;
+		
+		long start = System.nanoTime();
+		Date loggedInSince = DateUtils.addDays(new Date(), -LOGGED_IN_DAYS);
+		List<Long> identityKeys = new ArrayList<>(myCourseDao.getIdentityKeysToBuild(loggedInSince, MAX_BUILDS));
+		if(identityKeys.size() < MAX_BUILDS) {
+			identityKeys.addAll(myCourseDao.getIdentityKeysWithoutState(loggedInSince, MAX_BUILDS - identityKeys.size()));
+		}
+		dbInstance.commitAndCloseSession();
+		
+		int built = 0;
+		for(Long identityKey:identityKeys) {
+			if(build(identityKey)) {
+				built++;
+			}
+		}
+		
+		if(!identityKeys.isEmpty()) {
+			log.info("My courses of {} users built ({} valid) in (ms): {}", identityKeys.size(), built, CodeHelper.nanoToMilliTime(start));
+		}
+	}
+	
+	/**
+	 * Build the read model of the specified user.
+	 * 
+	 * @param identityKey The primary key of the user
+	 * @return true if the model is valid after the build
+	 */
+	public boolean build(Long identityKey) {
+		try {
+			RepositoryEntryMyCourseState state = myCourseDao.getState(identityKey);
+			if(state == null) {
+				state = myCourseDao.createState(identityKey);
+				dbInstance.commit();
+			}
+			// every change after this point invalidate the build
+			long buildVersion = state.getBuildVersion();
+			
+			myCourseDao.deleteItems(identityKey);
+			for(RepositoryEntryMyCourseItem item:loadItems(identityKey)) {
+				myCourseDao.persistItem(item);
+			}
+			boolean valid = myCourseDao.validate(identityKey, buildVersion);
+			dbInstance.commitAndCloseSession();
+			return valid;
+		} catch (Exception e) {
+			log.error("Cannot build my courses of: {}", identityKey, e);
+			dbInstance.rollbackAndCloseSession();
+			return false;
+		}
+	}
+	
+	private List<RepositoryEntryMyCourseItem> loadItems(Long identityKey) {
+		Date now = new Date();
+		Map<Long,RepositoryEntryMyCourseItem> items = new HashMap<>();
+		for(Object[] membership:myCourseDao.getMemberships(identityKey)) {
+			Long entryKey = PersistenceHelper.extractLong(membership, 0);
+			String role = PersistenceHelper.extractString(membership, 1);
+			boolean open = PersistenceHelper.extractBoolean(membership, 2, false)
+					|| PersistenceHelper.extractBoolean(membership, 3, false);
+			
+			boolean owner = GroupRoles.owner.name().equals(role);
+			boolean coach = GroupRoles.coach.name().equals(role);
+			boolean participant = GroupRoles.participant.name().equals(role);
+			// the other memberships only open the entries for all users or bookable
+			boolean member = open && !OrganisationRoles.guest.name().equals(role)
+					&& !GroupRoles.invitee.name().equals(role) && !GroupRoles.waiting.name().equals(role);
+			if(!owner && !coach && !participant && !member) {
+				continue;
+			}
+			
+			RepositoryEntryMyCourseItem item = items.computeIfAbsent(entryKey, key -> {
+				RepositoryEntryMyCourseItem newItem = new RepositoryEntryMyCourseItem();
+				newItem.setCreationDate(now);
+				newItem.setLastModified(now);
+				newItem.setIdentityKey(identityKey);
+				newItem.setEntry(dbInstance.getCurrentEntityManager().getReference(RepositoryEntry.class, key));
+				return newItem;
+			});
+			item.setOwner(item.isOwner() || owner);
+			item.setCoach(item.isCoach() || coach);
+			item.setParticipant(item.isParticipant() || participant);
+			item.setMember(item.isMember() || member);
+		}
+		
+		if(!items.isEmpty()) {
+			for(Long markedKey:myCourseDao.getMarkedEntryKeys(identityKey)) {
+				RepositoryEntryMyCourseItem item = items.get(markedKey);
+				if(item != null) {
+					item.setMarked(true);
+				}
+			}
+			for(Object[] launch:myCourseDao.getRecentLaunches(identityKey)) {
+				RepositoryEntryMyCourseItem item = items.get(PersistenceHelper.extractLong(launch, 0));
+				if(item != null) {
+					item.setRecentLaunch((Date)launch[1]);
+				}
+			}
+			for(Object[] statement:myCourseDao.getEfficiencyStatements(identityKey)) {
+				RepositoryEntryMyCourseItem item = items.get(PersistenceHelper.extractLong(statement, 0));
+				if(item != null) {
+					item.setPassed((Boolean)statement[1]);
+					item.setScore((Float)statement[2]);
+				}
+			}
+			for(Object[] completion:myCourseDao.getCompletions(identityKey)) {
+				RepositoryEntryMyCourseItem item = items.get(PersistenceHelper.extractLong(completion, 0));
+				if(item != null) {
+					item.setCompletion((Double)completion[1]);
+				}
+			}
+		}
+		return new ArrayList<>(items.values());
+	}
+}
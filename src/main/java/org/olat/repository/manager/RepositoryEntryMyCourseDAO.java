@@ -0,0 +1,375 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.Date;
+import java.util.List;
+
+import org.olat.basesecurity.Group;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.basesecurity.IdentityImpl;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.persistence.QueryBuilder;
+import org.olat.core.commons.services.mark.impl.MarkImpl;
+import org.olat.core.id.Identity;
+import org.olat.repository.RepositoryEntryRef;
+import org.olat.repository.model.RepositoryEntryMyCourseItem;
+import org.olat.repository.model.RepositoryEntryMyCourseState;
+import org.olat.resource.OLATResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the read model of "My courses". The changes of the memberships
+ * invalidate the model of the users, the values of the users (bookmarks, launch
+ * dates, efficiency statements and completion) are updated in place.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class RepositoryEntryMyCourseDAO {
+	
+	@Autowired
+	private DB dbInstance;
+	
+	/**
+	 * @param identity The user
+	 * @return true if the read model of the user can be used
+	 */
+	public boolean isValid(IdentityRef identity) {
+		List<Boolean> valid = dbInstance.getCurrentEntityManager()
+				.createQuery("select state.valid from repoentrymycoursestate as state where state.identityKey=:identityKey", Boolean.class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		return !valid.isEmpty() && Boolean.TRUE.equals(valid.get(0));
+	}
+	
+	public RepositoryEntryMyCourseState getState(Long identityKey) {
+		List<RepositoryEntryMyCourseState> states = dbInstance.getCurrentEntityManager()
+				.createQuery("select state from repoentrymycoursestate as state where state.identityKey=:identityKey", RepositoryEntryMyCourseState.class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+		return states.isEmpty() ? null : states.get(0);
+	}
+	
+	public RepositoryEntryMyCourseState createState(Long identityKey) {
+		RepositoryEntryMyCourseState state = new RepositoryEntryMyCourseState();
+		state.setCreationDate(new Date());
+		state.setLastModified(state.getCreationDate());
+		state.setIdentityKey(identityKey);
+		state.setValid(false);
+		state.setBuildVersion(0l);
+		dbInstance.getCurrentEntityManager().persist(state);
+		return state;
+	}
+	
+	/**
+	 * Mark the model as valid if it wasn't invalidated since the
+	 * specified version.
+	 * 
+	 * @param identityKey The user
+	 * @param buildVersion The version of the state at the start of the build
+	 * @return true if the model is valid
+	 */
+	public boolean validate(Long identityKey, long buildVersion) {
+		int rows = dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycoursestate set valid=true, lastModified=:now where identityKey=:identityKey and buildVersion=:buildVersion")
+				.setParameter("identityKey", identityKey)
+				.setParameter("buildVersion", Long.valueOf(buildVersion))
+				.setParameter("now", new Date())
+				.executeUpdate();
+		return rows > 0;
+	}
+	
+	public void invalidate(IdentityRef identity) {
+		if(identity == null || identity.getKey() == null) return;
+		
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycoursestate set valid=false, buildVersion=buildVersion+1, lastModified=:now where identityKey=:identityKey")
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * Invalidate the model of all the members of the group.
+	 * 
+	 * @param group The group
+	 */
+	public void invalidateMembersOfGroup(Group group) {
+		if(group == null || group.getKey() == null) return;
+		
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("update repoentrymycoursestate set valid=false, buildVersion=buildVersion+1, lastModified=:now")
+		  .append(" where identityKey in (select membership.identity.key from bgroupmember as membership")
+		  .append("  where membership.group.key=:groupKey")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("groupKey", group.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * Invalidate the model of the members of the group after a change of its
+	 * relation to the repository entry. Only the owners, coaches and participants
+	 * are concerned, or all the members if the entry is open to all users or
+	 * bookable. It spares the members of the organisations.
+	 * 
+	 * @param group The group
+	 * @param entry The repository entry
+	 */
+	public void invalidateMembersOfGroup(Group group, RepositoryEntryRef entry) {
+		if(group == null || group.getKey() == null || entry == null || entry.getKey() == null) return;
+		
+		QueryBuilder sb = new QueryBuilder(512);
+		sb.append("update repoentrymycoursestate set valid=false, buildVersion=buildVersion+1, lastModified=:now")
+		  .append(" where identityKey in (select membership.identity.key from bgroupmember as membership")
+		  .append("  where membership.group.key=:groupKey and (membership.role ").in(GroupRoles.owner, GroupRoles.coach, GroupRoles.participant)
+		  .append("   or exists (select v.key from repositoryentry as v where v.key=:entryKey and (v.allUsers=true or v.bookable=true))")
+		  .append(" ))");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("groupKey", group.getKey())
+				.setParameter("entryKey", entry.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * Invalidate the model of all the members of all the groups
+	 * linked to the repository entry.
+	 * 
+	 * @param entry The repository entry
+	 */
+	public void invalidateMembersOfEntry(RepositoryEntryRef entry) {
+		if(entry == null || entry.getKey() == null) return;
+		
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("update repoentrymycoursestate set valid=false, buildVersion=buildVersion+1, lastModified=:now")
+		  .append(" where identityKey in (select membership.identity.key from repoentrytogroup as rel, bgroupmember as membership")
+		  .append("  where rel.entry.key=:entryKey and rel.group.key=membership.group.key")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("entryKey", entry.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	public void updateMarked(IdentityRef identity, Long entryKey, boolean marked) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycourse set marked=:marked, lastModified=:now where identityKey=:identityKey and entry.key=:entryKey")
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("entryKey", entryKey)
+				.setParameter("marked", Boolean.valueOf(marked))
+				.setParameter("now", new Date())
+				.executeUpdate();
+		touchBuild(identity);
+	}
+	
+	public void updateRecentLaunch(IdentityRef identity, OLATResource resource, Date recentLaunch) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("update repoentrymycourse set recentLaunch=:recentLaunch, lastModified=:now")
+		  .append(" where identityKey=:identityKey and entry.key in (select v.key from repositoryentry as v")
+		  .append("  where v.olatResource.key=:resourceKey")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("resourceKey", resource.getKey())
+				.setParameter("recentLaunch", recentLaunch)
+				.setParameter("now", new Date())
+				.executeUpdate();
+		touchBuild(identity);
+	}
+	
+	public void updateEfficiencyStatement(IdentityRef identity, RepositoryEntryRef entry, Boolean passed, Float score) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycourse set passed=:passed, score=:score, lastModified=:now where identityKey=:identityKey and entry.key=:entryKey")
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("entryKey", entry.getKey())
+				.setParameter("passed", passed)
+				.setParameter("score", score)
+				.setParameter("now", new Date())
+				.executeUpdate();
+		touchBuild(identity);
+	}
+	
+	public void updateCompletion(IdentityRef identity, RepositoryEntryRef entry, Double completion) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycourse set completion=:completion, lastModified=:now where identityKey=:identityKey and entry.key=:entryKey")
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("entryKey", entry.getKey())
+				.setParameter("completion", completion)
+				.setParameter("now", new Date())
+				.executeUpdate();
+		touchBuild(identity);
+	}
+	
+	/**
+	 * A value updated during a build can be lost, the version is
+	 * incremented to prevent the build to validate the model.
+	 */
+	private void touchBuild(IdentityRef identity) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update repoentrymycoursestate set buildVersion=buildVersion+1 where identityKey=:identityKey and valid=false")
+				.setParameter("identityKey", identity.getKey())
+				.executeUpdate();
+	}
+	
+	public void persistItem(RepositoryEntryMyCourseItem item) {
+		dbInstance.getCurrentEntityManager().persist(item);
+	}
+	
+	public int deleteItems(Long identityKey) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from repoentrymycourse where identityKey=:identityKey")
+				.setParameter("identityKey", identityKey)
+				.executeUpdate();
+	}
+	
+	public int deleteItems(RepositoryEntryRef entry) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from repoentrymycourse where entry.key=:entryKey")
+				.setParameter("entryKey", entry.getKey())
+				.executeUpdate();
+	}
+	
+	/**
+	 * @param loggedInSince The oldest login date
+	 * @param maxResults The max. number of users
+	 * @return The users with an invalid model and a recent login
+	 */
+	public List<Long> getIdentityKeysToBuild(Date loggedInSince, int maxResults) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select state.identityKey from repoentrymycoursestate as state")
+		  .append(" inner join ").append(IdentityImpl.class.getName()).append(" as ident on (ident.key=state.identityKey)")
+		  .append(" where state.valid=false and ident.lastLogin>=:loggedInSince and ident.status<:statusLimit")
+		  .append(" order by state.lastModified asc");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("loggedInSince", loggedInSince)
+				.setParameter("statusLimit", Identity.STATUS_VISIBLE_LIMIT)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	/**
+	 * @param loggedInSince The oldest login date
+	 * @param maxResults The max. number of users
+	 * @return The users with a recent login and without model
+	 */
+	public List<Long> getIdentityKeysWithoutState(Date loggedInSince, int maxResults) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select ident.key from ").append(IdentityImpl.class.getName()).append(" as ident")
+		  .append(" where ident.lastLogin>=:loggedInSince and ident.status<:statusLimit")
+		  .append(" and not exists (select state.key from repoentrymycoursestate as state")
+		  .append("  where state.identityKey=ident.key")
+		  .append(" )");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("loggedInSince", loggedInSince)
+				.setParameter("statusLimit", Identity.STATUS_VISIBLE_LIMIT)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	/**
+	 * @param identityKey The user
+	 * @return Arrays with the key of the repository entry, the role, the flags all users and bookable
+	 */
+	public List<Object[]> getMemberships(Long identityKey) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select v.key, membership.role, v.allUsers, v.bookable from repoentrytogroup as rel")
+		  .append(" inner join rel.entry as v")
+		  .append(" inner join bgroupmember as membership on (membership.group.key=rel.group.key)")
+		  .append(" where membership.identity.key=:identityKey");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+	}
+	
+	public List<Long> getMarkedEntryKeys(Long identityKey) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select mark.resId from ").append(MarkImpl.class.getName()).append(" as mark")
+		  .append(" where mark.creator.key=:identityKey and mark.resName='RepositoryEntry'");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+	}
+	
+	/**
+	 * @param identityKey The user
+	 * @return Arrays with the key of the repository entry and the recent launch date
+	 */
+	public List<Object[]> getRecentLaunches(Long identityKey) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select v.key, infos.recentLaunch from usercourseinfos as infos, repositoryentry as v")
+		  .append(" where v.olatResource.key=infos.resource.key and infos.identity.key=:identityKey");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+	}
+	
+	/**
+	 * @param identityKey The user
+	 * @return Arrays with the key of the repository entry, passed and score
+	 */
+	public List<Object[]> getEfficiencyStatements(Long identityKey) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select v.key, eff.passed, eff.score from effstatement as eff, repositoryentry as v")
+		  .append(" where v.olatResource.key=eff.resource.key and eff.identity.key=:identityKey");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+	}
+	
+	/**
+	 * @param identityKey The user
+	 * @return Arrays with the key of the repository entry and the completion
+	 */
+	public List<Object[]> getCompletions(Long identityKey) {
+		QueryBuilder sb = new QueryBuilder(256);
+		sb.append("select ae.repositoryEntry.key, ae.completion from assessmententry as ae")
+		  .append(" where ae.identity.key=:identityKey and ae.entryRoot=true and ae.completion is not null");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identityKey)
+				.getResultList();
+	}
+	
+	public List<RepositoryEntryMyCourseItem> getItems(IdentityRef identity) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select item from repoentrymycourse as item where item.identityKey=:identityKey", RepositoryEntryMyCourseItem.class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+	}
+}
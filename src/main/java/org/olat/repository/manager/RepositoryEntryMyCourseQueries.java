@@ -65,7 +65,9 @@ import org.springframework.stereotype.Service;
 /**
  * 
  * Queries for the view "RepositoryEntryMyCourseView" dedicated to the "My course" feature.
- * The identity is a mandatory parameter.
+ * The identity is a mandatory parameter. If the read model of the user
+ * is valid, the memberships and the values of the user are read from it
+ * instead of the sub-queries.
  * 
  * 
  * Initial date: 12.03.2014<br>
@@ -83,6 +85,8 @@ public class RepositoryEntryMyCourseQueries {
 	private RepositoryModule repositoryModule;
 	@Autowired
 	private AssessmentService assessmentService;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
 	
 	public int countViews(SearchMyRepositoryEntryViewParams params) {
 		if(params.getIdentity() == null) {
@@ -166,17 +170,25 @@ public class RepositoryEntryMyCourseQueries {
 		boolean needIdentityKey = false;
 		boolean count = Number.class.equals(type);
 		boolean oracle = "oracle".equals(dbInstance.getDbVendor());
+		boolean readModel = useReadModel(params);
 		QueryBuilder sb = new QueryBuilder(2048);
 		
 		if(count) {
-			sb.append("select count(v.key) ")
-			  .append(" from repositoryentry as v")
-			  .append(" inner join v.olatResource as res")
+			sb.append("select count(v.key) ");
+			if(readModel) {
+				sb.append(" from repoentrymycourse as my")
+				  .append(" inner join my.entry as v");
+			} else {
+				sb.append(" from repositoryentry as v");
+			}
+			sb.append(" inner join v.olatResource as res")
 			  .append(" left join v.lifecycle as lifecycle ");
 		} else {
 			sb.append("select v, ");
 			if(params.getMarked() != null && params.getMarked().booleanValue()) {
 				sb.append(" 1 as marks,");
+			} else if(readModel) {
+				sb.append(" case when my.marked=true then 1 else 0 end as marks,");
 			} else {
 				needIdentityKey = true;
 				sb.append(" (select count(mark.key) from ").append(MarkImpl.class.getName()).append(" as mark ")
@@ -197,9 +209,14 @@ public class RepositoryEntryMyCourseQueries {
 			}
 			needIdentityKey = true;
 			
-			needIdentityKey |= appendOrderByInSelect(params, sb);
-			sb.append(" from repositoryentry as v")
-			  .append(" inner join ").append(oracle ? "" : "fetch").append(" v.olatResource as res");
+			needIdentityKey |= appendOrderByInSelect(params, sb, readModel);
+			if(readModel) {
+				sb.append(" from repoentrymycourse as my")
+				  .append(" inner join my.entry as v");
+			} else {
+				sb.append(" from repositoryentry as v");
+			}
+			sb.append(" inner join ").append(oracle ? "" : "fetch").append(" v.olatResource as res");
 			if(repositoryModule.isRatingEnabled() || repositoryModule.isCommentEnabled()) {
 				sb.append(" inner join fetch v.statistics as stats");
 			}
@@ -211,12 +228,19 @@ public class RepositoryEntryMyCourseQueries {
 		}
 		
 		// join seems to be quicker
-		if(params.getMarked() != null && params.getMarked().booleanValue()) {
+		if(!readModel && params.getMarked() != null && params.getMarked().booleanValue()) {
 			sb.append(" inner join ").append(MarkImpl.class.getName()).append(" as mark2 on (mark2.creator.key=:identityKey and mark2.resId=v.key and mark2.resName='RepositoryEntry')");
 		}
 
 		sb.append(" where ");
-		needIdentityKey |= appendMyViewAccessSubSelect(sb, roles, params.getFilters(), params.isMembershipMandatory());
+		if(readModel) {
+			needIdentityKey |= appendMyCourseItemAccess(sb, params.getFilters(), params.isMembershipMandatory());
+			if(params.getMarked() != null && params.getMarked().booleanValue()) {
+				sb.append(" and my.marked=true");
+			}
+		} else {
+			needIdentityKey |= appendMyViewAccessSubSelect(sb, roles, params.getFilters(), params.isMembershipMandatory());
+		}
 
 		if(params.getEntryStatus() != null) {
 			sb.append(" and v.status ").in(params.getEntryStatus());
@@ -368,12 +392,59 @@ public class RepositoryEntryMyCourseQueries {
 		return dbQuery;
 	}
 	
-	private boolean appendMyViewAccessSubSelect(QueryBuilder sb, Roles roles, List<Filter> filters, boolean membershipMandatory) {
-		if(roles.isGuestOnly()) {
-			sb.append(" v.guests=true and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed());
-			return false;
+	/**
+	 * The read model is used if enabled and valid for the user. Guests don't
+	 * have any membership and use always the query.
+	 * 
+	 * @param params The search parameters
+	 * @return true if the query can use the read model of the user
+	 */
+	private boolean useReadModel(SearchMyRepositoryEntryViewParams params) {
+		return repositoryModule.isMyCoursesReadModelEnabled()
+				&& params.getRoles() != null && !params.getRoles().isGuestOnly()
+				&& myCourseDao.isValid(params.getIdentity());
+	}
+	
+	/**
+	 * The same conditions as the sub select but with the memberships
+	 * saved in the read model. The status and the access flags are
+	 * always the current ones of the repository entry.
+	 */
+	private boolean appendMyCourseItemAccess(QueryBuilder sb, List<Filter> filters, boolean membershipMandatory) {
+		List<GroupRoles> inRoles = getInRoles(filters);
+		boolean emptyRoles = inRoles.isEmpty();
+		if(emptyRoles) {
+			inRoles.add(GroupRoles.owner);
+			inRoles.add(GroupRoles.coach);
+			inRoles.add(GroupRoles.participant);
 		}
-
+		
+		sb.append(" my.identityKey=:identityKey and (");
+		boolean or = false;
+		if(inRoles.contains(GroupRoles.owner)) {
+			sb.append(" (my.owner=true and v.status ").in(RepositoryEntryStatusEnum.preparationToClosed()).append(")");
+			or = true;
+		}
+		if(inRoles.contains(GroupRoles.coach)) {
+			if(or) sb.append(" or ");
+			sb.append(" (my.coach=true and v.status ").in(RepositoryEntryStatusEnum.coachPublishedToClosed()).append(")");
+			or = true;
+		}
+		if(inRoles.contains(GroupRoles.participant)) {
+			if(or) sb.append(" or ");
+			sb.append(" (my.participant=true and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed()).append(")");
+			or = true;
+		}
+		if(emptyRoles && !membershipMandatory) {
+			if(or) sb.append(" or ");
+			sb.append(" (my.member=true and (v.allUsers=true or v.bookable=true)")
+			  .append(" and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed()).append(")");
+		}
+		sb.append(")");
+		return true;
+	}
+	
+	private List<GroupRoles> getInRoles(List<Filter> filters) {
 		List<GroupRoles> inRoles = new ArrayList<>();
 		if(filters != null && !filters.isEmpty()) {
 			for(Filter filter: filters) {
@@ -386,6 +457,16 @@ public class RepositoryEntryMyCourseQueries {
 				}
 			}
 		}
+		return inRoles;
+	}
+	
+	private boolean appendMyViewAccessSubSelect(QueryBuilder sb, Roles roles, List<Filter> filters, boolean membershipMandatory) {
+		if(roles.isGuestOnly()) {
+			sb.append(" v.guests=true and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed());
+			return false;
+		}
+
+		List<GroupRoles> inRoles = getInRoles(filters);
 		//+ membership
 		boolean emptyRoles = inRoles.isEmpty();
 		if(emptyRoles) {
@@ -479,12 +560,30 @@ public class RepositoryEntryMyCourseQueries {
 	 * 
 	 * @param params
 	 * @param sb
+	 * @param readModel The values are read from the read model of the user
 	 * @return
 	 */
-	private boolean appendOrderByInSelect(SearchMyRepositoryEntryViewParams params, QueryBuilder sb) {
+	private boolean appendOrderByInSelect(SearchMyRepositoryEntryViewParams params, QueryBuilder sb, boolean readModel) {
 		boolean needIdentityKey = false;
 		OrderBy orderBy = params.getOrderBy();
-		if(orderBy != null) {
+		if(orderBy != null && readModel) {
+			switch(orderBy) {
+				case automatic://need lastVisited
+				case lastVisited:
+					sb.append(" ,my.recentLaunch as recentLaunch");
+					break;
+				case passed:
+					sb.append(" ,my.passed as passed");
+					break;
+				case score:
+					sb.append(" ,my.score as score");
+					break;
+				case completion:
+					sb.append(" ,my.completion as completion");
+					break;
+				default: //do nothing
+			}
+		} else if(orderBy != null) {
 			switch(orderBy) {
 				case automatic://need lastVisited
 				case lastVisited:
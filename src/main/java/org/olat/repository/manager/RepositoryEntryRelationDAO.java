@@ -44,12 +44,14 @@ import org.olat.core.commons.persistence.PersistenceHelper;
 import org.olat.core.id.Identity;
 import org.olat.core.id.Organisation;
 import org.olat.core.id.OrganisationRef;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.modules.curriculum.CurriculumElementRef;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
 import org.olat.repository.RepositoryEntryRelationType;
 import org.olat.repository.model.MembershipInfos;
 import org.olat.repository.model.RepositoryEntryToGroupRelation;
+import org.olat.search.manager.SearchIndexQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -66,6 +68,12 @@ public class RepositoryEntryRelationDAO {
 	private DB dbInstance;
 	@Autowired
 	private GroupDAO groupDao;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
+	@Autowired
+	private SearchIndexQueue searchIndexQueue;
 	
 	/**
 	 * Get roles in the repository entry, with business groups and curriculums
@@ -554,10 +562,17 @@ public class RepositoryEntryRelationDAO {
 		rel.setGroup(group);
 		rel.setEntry(re);
 		dbInstance.getCurrentEntityManager().persist(rel);
+		coachingStatisticsWorkDao.markGroup(group);
+		myCourseDao.invalidateMembersOfGroup(group, re);
+		// the access terms of the documents are the groups of the entry
+		searchIndexQueue.markChanged(re);
 		return rel;
 	}
 	
 	public int removeRelation(Group group, RepositoryEntryRef re) {
+		coachingStatisticsWorkDao.markCoachesOfEntries(Collections.singletonList(re.getKey()));
+		myCourseDao.invalidateMembersOfGroup(group, re);
+		searchIndexQueue.markChanged(re);
 		EntityManager em = dbInstance.getCurrentEntityManager();
 		List<RepositoryEntryToGroupRelation> rels = em.createNamedQuery("relationByRepositoryEntryAndGroup", RepositoryEntryToGroupRelation.class)
 			.setParameter("repoKey", re.getKey())
@@ -578,6 +593,9 @@ public class RepositoryEntryRelationDAO {
 	 * @return
 	 */
 	public int removeRelations(RepositoryEntryRef re) {
+		coachingStatisticsWorkDao.markCoachesOfEntries(Collections.singletonList(re.getKey()));
+		// without relations, the entry is in "My courses" of nobody
+		myCourseDao.deleteItems(re);
 		EntityManager em = dbInstance.getCurrentEntityManager();
 		List<RepositoryEntryToGroupRelation> rels = em.createNamedQuery("relationByRepositoryEntry", RepositoryEntryToGroupRelation.class)
 			.setParameter("repoKey", re.getKey())
@@ -594,6 +612,15 @@ public class RepositoryEntryRelationDAO {
 			.setParameter("groupKey", group.getKey())
 			.getResultList();
 		
+		List<Long> entryKeys = rels.stream()
+				.filter(rel -> !rel.isDefaultGroup())
+				.map(rel -> rel.getEntry().getKey())
+				.collect(Collectors.toList());
+		coachingStatisticsWorkDao.markCoachesOfEntries(entryKeys);
+		if(!entryKeys.isEmpty()) {
+			myCourseDao.invalidateMembersOfGroup(group);
+		}
+		
 		int count = 0;
 		for(RepositoryEntryToGroupRelation rel:rels) {
 			if(!rel.isDefaultGroup()) {
@@ -605,6 +632,9 @@ public class RepositoryEntryRelationDAO {
 	}
 	
 	public void removeRelation(RepositoryEntryToGroupRelation rel) {
+		coachingStatisticsWorkDao.markCoachesOfEntries(Collections.singletonList(rel.getEntry().getKey()));
+		myCourseDao.invalidateMembersOfGroup(rel.getGroup(), rel.getEntry());
+		searchIndexQueue.markChanged(rel.getEntry());
 		dbInstance.getCurrentEntityManager().remove(rel);
 	}
 	
@@ -68,6 +68,7 @@ import org.olat.course.certificate.CertificatesManager;
 import org.olat.course.disclaimer.CourseDisclaimerManager;
 import org.olat.ims.qti21.manager.AssessmentTestSessionDAO;
 import org.olat.modules.assessment.manager.AssessmentEntryDAO;
+import org.olat.modules.coach.manager.CoachingStatisticsWorkDAO;
 import org.olat.modules.curriculum.CurriculumService;
 import org.olat.modules.lecture.LectureService;
 import org.olat.modules.portfolio.PortfolioService;
@@ -103,6 +104,7 @@ import org.olat.resource.OLATResourceManager;
 import org.olat.resource.accesscontrol.manager.ACReservationDAO;
 import org.olat.resource.accesscontrol.provider.auto.AutoAccessManager;
 import org.olat.resource.references.ReferenceManager;
+import org.olat.search.manager.SearchIndexQueue;
 import org.olat.search.service.document.RepositoryEntryDocument;
 import org.olat.search.service.indexer.LifeFullIndexer;
 import org.olat.util.logging.activity.LoggingResourceable;
@@ -175,6 +177,10 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 
 	@Autowired
 	private LifeFullIndexer lifeIndexer;
+	@Autowired
+	private SearchIndexQueue searchIndexQueue;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
 
 	@Override
 	public RepositoryEntry create(Identity initialAuthor, String initialAuthorAlt, String resourceName,
@@ -323,6 +329,7 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 				LoggingResourceable.wrap(copyEntry, OlatResourceableType.genRepoEntry));
 
 
+		searchIndexQueue.markChanged(copyEntry);
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, copyEntry.getKey());
 		return copyEntry;
 	}
@@ -331,6 +338,7 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 	public RepositoryEntry update(RepositoryEntry re) {
 		re.setLastModified(new Date());
 		RepositoryEntry mergedRe = dbInstance.getCurrentEntityManager().merge(re);
+		searchIndexQueue.markMetadataChanged(mergedRe);
 		dbInstance.commit();
 		lifeIndexer.indexDocument(RepositoryEntryDocument.TYPE, mergedRe.getKey());
 		autoAccessManager.grantAccess(re);
@@ -443,6 +451,8 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 			reloadedRe.setDeletionDate(new Date());
 		}
 		reloadedRe = dbInstance.getCurrentEntityManager().merge(reloadedRe);
+		searchIndexQueue.markChanged(reloadedRe);
+		coachingStatisticsWorkDao.markEntry(reloadedRe);
 		List<Identity> ownerList = reToGroupDao.getMembers(reloadedRe, RepositoryEntryRelationType.entryAndCurriculums, GroupRoles.owner.name());
 		dbInstance.commit();
 		// first stop assessment mode if needed
@@ -493,6 +503,7 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 			reloadedRe.setEntryStatus(RepositoryEntryStatusEnum.preparation);
 		}
 		reloadedRe = dbInstance.getCurrentEntityManager().merge(reloadedRe);
+		coachingStatisticsWorkDao.markEntry(reloadedRe);
 		dbInstance.commit();
 		return reloadedRe;
 	}
@@ -620,6 +631,7 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 		RepositoryEntry reloadedEntry = repositoryEntryDAO.loadForUpdate(entry);
 		reloadedEntry.setEntryStatus(RepositoryEntryStatusEnum.closed);
 		reloadedEntry = dbInstance.getCurrentEntityManager().merge(reloadedEntry);
+		coachingStatisticsWorkDao.markEntry(reloadedEntry);
 		List<Identity> ownerList = reToGroupDao.getMembers(reloadedEntry, RepositoryEntryRelationType.entryAndCurriculums, GroupRoles.owner.name());
 		dbInstance.commit();
 		if(sendNotifications && closedBy != null) {
@@ -636,6 +648,7 @@ public class RepositoryServiceImpl implements RepositoryService, OrganisationDat
 		RepositoryEntry reloadedEntry = repositoryEntryDAO.loadForUpdate(entry);
 		reloadedEntry.setEntryStatus(RepositoryEntryStatusEnum.published);
 		reloadedEntry = dbInstance.getCurrentEntityManager().merge(reloadedEntry);
+		coachingStatisticsWorkDao.markEntry(reloadedEntry);
 		dbInstance.commit();
 		return reloadedEntry;
 	}
@@ -0,0 +1,246 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.ModifiedInfo;
+import org.olat.core.id.Persistable;
+import org.olat.repository.RepositoryEntry;
+
+/**
+ * A row of the read model of "My courses": the memberships of a user
+ * in a repository entry and the values of the user needed to filter
+ * and sort the list. The status of the entry is not saved, it's always
+ * read from the entry.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Entity(name="repoentrymycourse")
+@Table(name="o_re_my_course")
+public class RepositoryEntryMyCourseItem implements CreateInfo, ModifiedInfo, Persistable {
+
+	private static final long serialVersionUID = 5140275473606281539L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="lastmodified", nullable=false, insertable=true, updatable=true)
+	private Date lastModified;
+	
+	@Column(name="fk_identity_id", nullable=false, insertable=true, updatable=false)
+	private Long identityKey;
+	@ManyToOne(targetEntity=RepositoryEntry.class,fetch=FetchType.LAZY,optional=false)
+	@JoinColumn(name="fk_entry_id", nullable=false, insertable=true, updatable=false)
+	private RepositoryEntry entry;
+	
+	@Column(name="c_owner", nullable=false, insertable=true, updatable=true)
+	private boolean owner;
+	@Column(name="c_coach", nullable=false, insertable=true, updatable=true)
+	private boolean coach;
+	@Column(name="c_participant", nullable=false, insertable=true, updatable=true)
+	private boolean participant;
+	@Column(name="c_member", nullable=false, insertable=true, updatable=true)
+	private boolean member;
+	
+	@Column(name="c_marked", nullable=false, insertable=true, updatable=true)
+	private boolean marked;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="c_recent_launch", nullable=true, insertable=true, updatable=true)
+	private Date recentLaunch;
+	@Column(name="c_passed", nullable=true, insertable=true, updatable=true)
+	private Boolean passed;
+	@Column(name="c_score", nullable=true, insertable=true, updatable=true)
+	private Float score;
+	@Column(name="c_completion", nullable=true, insertable=true, updatable=true)
+	private Double completion;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public Long getIdentityKey() {
+		return identityKey;
+	}
+
+	public void setIdentityKey(Long identityKey) {
+		this.identityKey = identityKey;
+	}
+
+	public RepositoryEntry getEntry() {
+		return entry;
+	}
+
+	public void setEntry(RepositoryEntry entry) {
+		this.entry = entry;
+	}
+
+	public boolean isOwner() {
+		return owner;
+	}
+
+	public void setOwner(boolean owner) {
+		this.owner = owner;
+	}
+
+	public boolean isCoach() {
+		return coach;
+	}
+
+	public void setCoach(boolean coach) {
+		this.coach = coach;
+	}
+
+	public boolean isParticipant() {
+		return participant;
+	}
+
+	public void setParticipant(boolean participant) {
+		this.participant = participant;
+	}
+
+	/**
+	 * @return true if the user has a membership which opens the entry
+	 * 		if it's available for all users or bookable
+	 */
+	public boolean isMember() {
+		return member;
+	}
+
+	public void setMember(boolean member) {
+		this.member = member;
+	}
+
+	public boolean isMarked() {
+		return marked;
+	}
+
+	public void setMarked(boolean marked) {
+		this.marked = marked;
+	}
+
+	public Date getRecentLaunch() {
+		return recentLaunch;
+	}
+
+	public void setRecentLaunch(Date recentLaunch) {
+		this.recentLaunch = recentLaunch;
+	}
+
+	/**
+	 * @return The passed of the efficiency statement
+	 */
+	public Boolean getPassed() {
+		return passed;
+	}
+
+	public void setPassed(Boolean passed) {
+		this.passed = passed;
+	}
+
+	/**
+	 * @return The score of the efficiency statement
+	 */
+	public Float getScore() {
+		return score;
+	}
+
+	public void setScore(Float score) {
+		this.score = score;
+	}
+
+	/**
+	 * @return The completion of the root assessment entry
+	 */
+	public Double getCompletion() {
+		return completion;
+	}
+
+	public void setCompletion(Double completion) {
+		this.completion = completion;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 263791 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof RepositoryEntryMyCourseItem) {
+			RepositoryEntryMyCourseItem item = (RepositoryEntryMyCourseItem)obj;
+			return getKey() != null && getKey().equals(item.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
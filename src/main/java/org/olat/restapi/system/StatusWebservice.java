@@ -33,10 +33,12 @@ import javax.ws.rs.core.Response;
 import org.olat.admin.sysinfo.manager.SessionStatsManager;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.dispatcher.mapper.MapperService;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
+import org.olat.core.logging.activity.UserActivityLogWriter;
 import org.olat.core.util.CodeHelper;
 import org.olat.core.util.FileUtils;
 import org.olat.core.util.SessionInfo;
@@ -151,6 +153,18 @@ public class StatusWebservice {
 		//Concurrent dispatch threads
 		SessionStatsManager sessionStatsManager = CoreSpringFactory.getImpl(SessionStatsManager.class);
 		stats.setConcurrentDispatchThreads(sessionStatsManager.getConcurrentCounter());
+		
+		//User activity log writer
+		UserActivityLogWriter activityLogWriter = CoreSpringFactory.getImpl(UserActivityLogWriter.class);
+		stats.setActivityLogQueueSize(activityLogWriter.getQueueDepth());
+		stats.setActivityLogDroppedCount(activityLogWriter.getDroppedCount());
+		stats.setActivityLogFlushInMilliseconds(activityLogWriter.getLastFlushDuration());
+		
+		//Mappers
+		MapperService mapperService = CoreSpringFactory.getImpl(MapperService.class);
+		stats.setMappersInMemory(mapperService.inMemoryCount());
+		stats.setMappersPending(mapperService.pendingCount());
+		stats.setMappersPersisted(mapperService.persistedCount());
 
 		return Response.ok(stats).build();
 	}
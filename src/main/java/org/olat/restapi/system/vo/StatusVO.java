@@ -46,6 +46,18 @@ public class StatusVO {
 	private int secureAuthenticatedCount;
 	@XmlAttribute(name="concurrentDispatchThreads", required=true)
 	private long concurrentDispatchThreads;
+	@XmlAttribute(name="activityLogQueueSize", required=true)
+	private int activityLogQueueSize;
+	@XmlAttribute(name="activityLogDroppedCount", required=true)
+	private long activityLogDroppedCount;
+	@XmlAttribute(name="activityLogFlushInMilliseconds", required=true)
+	private long activityLogFlushInMilliseconds;
+	@XmlAttribute(name="mappersInMemory", required=true)
+	private int mappersInMemory;
+	@XmlAttribute(name="mappersPending", required=true)
+	private int mappersPending;
+	@XmlAttribute(name="mappersPersisted", required=true)
+	private long mappersPersisted;
 	
 	public boolean isWriteFile() {
 		return writeFile;
@@ -94,5 +106,53 @@ public class StatusVO {
 	public void setConcurrentDispatchThreads(long concurrentDispatchThreads) {
 		this.concurrentDispatchThreads = concurrentDispatchThreads;
 	}
+
+	public int getActivityLogQueueSize() {
+		return activityLogQueueSize;
+	}
+
+	public void setActivityLogQueueSize(int activityLogQueueSize) {
+		this.activityLogQueueSize = activityLogQueueSize;
+	}
+
+	public long getActivityLogDroppedCount() {
+		return activityLogDroppedCount;
+	}
+
+	public void setActivityLogDroppedCount(long activityLogDroppedCount) {
+		this.activityLogDroppedCount = activityLogDroppedCount;
+	}
+
+	public long getActivityLogFlushInMilliseconds() {
+		return activityLogFlushInMilliseconds;
+	}
+
+	public void setActivityLogFlushInMilliseconds(long activityLogFlushInMilliseconds) {
+		this.activityLogFlushInMilliseconds = activityLogFlushInMilliseconds;
+	}
+
+	public int getMappersInMemory() {
+		return mappersInMemory;
+	}
+
+	public void setMappersInMemory(int mappersInMemory) {
+		this.mappersInMemory = mappersInMemory;
+	}
+
+	public int getMappersPending() {
+		return mappersPending;
+	}
+
+	public void setMappersPending(int mappersPending) {
+		this.mappersPending = mappersPending;
+	}
+
+	public long getMappersPersisted() {
+		return mappersPersisted;
+	}
+
+	public void setMappersPersisted(long mappersPersisted) {
+		this.mappersPersisted = mappersPersisted;
+	}
 	
 }
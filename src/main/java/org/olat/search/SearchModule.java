@@ -94,6 +94,12 @@ public class SearchModule extends AbstractSpringModule {
 	private long indexInterval = 0;
 	@Value("${generate.index.at.startup:true}")
 	private boolean generateAtStartup;
+	@Value("${search.indexing.incremental:true}")
+	private boolean incrementalIndexing;
+	@Value("${search.indexing.incremental.max.age:7}")
+	private int incrementalIndexingMaxAge;
+	@Value("${search.indexing.cronjob:disabled}")
+	private String indexingCronjob;
 	private int maxHits = 32000;
 	private int maxResults = 100;
 
@@ -263,6 +269,27 @@ public class SearchModule extends AbstractSpringModule {
 		return generateAtStartup;
 	}
 
+	/**
+	 * @return true if the changes are queued and indexed incrementally
+	 */
+	public boolean isIncrementalIndexing() {
+		return incrementalIndexing;
+	}
+	
+	/**
+	 * @return true if this node runs the search service and consumes the queue of the changes
+	 */
+	public boolean isIncrementalIndexer() {
+		return incrementalIndexing && isSearchServiceEnabled() && "enabled".equals(indexingCronjob);
+	}
+	
+	/**
+	 * @return The max. age in days of the queued changes, older changes are purged
+	 */
+	public int getIncrementalIndexingMaxAge() {
+		return incrementalIndexingMaxAge;
+	}
+
 	/**
 	 * @return Sleep time in millisecond between indexing documents.
 	 */
@@ -0,0 +1,440 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.basesecurity.IdentityImpl;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.DateUtils;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.nodes.INode;
+import org.olat.core.util.tree.TreeVisitor;
+import org.olat.course.CourseFactory;
+import org.olat.course.CourseModule;
+import org.olat.course.ICourse;
+import org.olat.course.nodes.BCCourseNode;
+import org.olat.course.nodes.CourseNode;
+import org.olat.course.nodes.SPCourseNode;
+import org.olat.course.nodes.STCourseNode;
+import org.olat.course.nodes.sp.SPEditController;
+import org.olat.course.nodes.st.STCourseNodeEditController;
+import org.olat.group.ui.run.BusinessGroupMainRunController;
+import org.olat.modules.ModuleConfiguration;
+import org.olat.repository.RepositoryEntryRef;
+import org.olat.search.SearchModule;
+import org.olat.search.model.SearchIndexRoot;
+import org.olat.search.model.SearchIndexWorkImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The persistent queue of the changes which need to be indexed. The
+ * changes are saved in the same transaction as the change itself
+ * and consumed by the indexing node, which updates the documents
+ * of the smallest root of the change: a course node, a tool of a
+ * business group, the document of a repository entry or, if the
+ * access changed, a whole repository entry, business group or identity.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service("searchIndexQueue")
+public class SearchIndexQueue {
+
+	public static final String REPOSITORY_ENTRY = "RepositoryEntry";
+	public static final String COURSE_NODE = "CourseNode";
+	public static final String BUSINESS_GROUP = "BusinessGroup";
+	public static final String IDENTITY = "Identity";
+
+	private static final Logger log = Tracing.createLoggerFor(SearchIndexQueue.class);
+
+	private static final int MAX_PATH_LENGTH = 1024;
+	private static final String FILE_RESOURCE_TYPE_PREFIX = "FileResource.";
+	private static final Pattern CONTEXT_ENTRY = Pattern.compile("\\[([^:\\[\\]]+):([0-9]+)\\]");
+	// the tools of the business groups with their own documents
+	private static final List<String> GROUP_TOOLS = List.of(
+			BusinessGroupMainRunController.ORES_TOOLFOLDER.getResourceableTypeName(),
+			BusinessGroupMainRunController.ORES_TOOLFORUM.getResourceableTypeName(),
+			BusinessGroupMainRunController.ORES_TOOLWIKI.getResourceableTypeName());
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private SearchModule searchModule;
+	@Autowired
+	private SearchIndexWorkDAO searchIndexWorkDao;
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+
+	/**
+	 * Queue the change of something with the specified business path,
+	 * typically the business path of a publisher.
+	 *
+	 * @param businessPath The business path
+	 */
+	public void markChanged(String businessPath) {
+		if(!isQueueEnabled()) return;
+
+		String root = resolveBusinessPath(businessPath);
+		if(root != null) {
+			searchIndexWorkDao.createWork(SearchIndexWorkImpl.TYPE_BUSINESS_PATH, root);
+		}
+	}
+
+	/**
+	 * Queue the change of the access, the status or the relations of a
+	 * repository entry. All the documents of the entry are indexed again.
+	 * 
+	 * @param entry The repository entry
+	 */
+	public void markChanged(RepositoryEntryRef entry) {
+		markEntryChanged(entry, SearchIndexWorkImpl.TYPE_ENTRY);
+	}
+	
+	/**
+	 * Queue the change of the metadata of a repository entry. Only the
+	 * document of the entry is indexed again.
+	 * 
+	 * @param entry The repository entry
+	 */
+	public void markMetadataChanged(RepositoryEntryRef entry) {
+		markEntryChanged(entry, SearchIndexWorkImpl.TYPE_ENTRY_DOCUMENT);
+	}
+	
+	private void markEntryChanged(RepositoryEntryRef entry, String type) {
+		if(entry == null || entry.getKey() == null || !isQueueEnabled()) return;
+		searchIndexWorkDao.createWork(type, "[" + REPOSITORY_ENTRY + ":" + entry.getKey() + "]");
+	}
+
+	/**
+	 * Queue the change of a file. Only the paths of the folders which
+	 * are indexed are queued.
+	 *
+	 * @param relativePath The path of the container of the file, relative to bcroot
+	 */
+	public void markFileChanged(String relativePath) {
+		if(!isQueueEnabled()) return;
+
+		String path = normalizeRelativePath(relativePath);
+		if(path != null && path.length() <= MAX_PATH_LENGTH && isIndexedFolder(path)) {
+			searchIndexWorkDao.createWork(SearchIndexWorkImpl.TYPE_FILE, path);
+		}
+	}
+
+	/**
+	 * The changes are only queued if an indexer consumes them: this node
+	 * or, in a cluster, the node which runs the search service. The works
+	 * which are never consumed are purged.
+	 * 
+	 * @return true if the changes need to be queued
+	 */
+	private boolean isQueueEnabled() {
+		if(!searchModule.isIncrementalIndexing()) return false;
+		return searchModule.isIncrementalIndexer() || coordinatorManager.getCoordinator().isClusterMode();
+	}
+
+	private boolean isIndexedFolder(String path) {
+		return path.startsWith("course/coursed/")
+				|| path.startsWith("cts/folders/BusinessGroup/")
+				|| path.startsWith("cts/wikis/BusinessGroup/")
+				|| path.startsWith("repository/")
+				|| (path.startsWith("homes/") && path.contains("/public"));
+	}
+
+	private String normalizeRelativePath(String relativePath) {
+		if(!StringHelper.containsNonWhitespace(relativePath)) return null;
+
+		String path = relativePath.replace('\\', '/');
+		while(path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		return path;
+	}
+
+	public List<SearchIndexWorkImpl> nextWorks(int maxResults) {
+		return searchIndexWorkDao.loadWorks(maxResults);
+	}
+
+	public void done(List<SearchIndexWorkImpl> works) {
+		searchIndexWorkDao.deleteWorks(works);
+		dbInstance.commit();
+	}
+	
+	/**
+	 * Delete the changes older than the max. age, if there is no indexer
+	 * or it's too late to index them. The full index repairs them.
+	 */
+	public void purge() {
+		Date limit = DateUtils.addDays(new Date(), -searchModule.getIncrementalIndexingMaxAge());
+		int rows = searchIndexWorkDao.deleteWorksBefore(limit);
+		dbInstance.commit();
+		if(rows > 0) {
+			log.info("{} changes of the search index purged", rows);
+		}
+	}
+
+	/**
+	 * @param work The work
+	 * @return The roots to index, an empty list if the work cannot be resolved
+	 */
+	public List<SearchIndexRoot> resolveRoots(SearchIndexWorkImpl work) {
+		String type = work.getType();
+		if(SearchIndexWorkImpl.TYPE_BUSINESS_PATH.equals(type)) {
+			return resolveBusinessPathRoots(work.getPath());
+		}
+		if(SearchIndexWorkImpl.TYPE_ENTRY.equals(type)) {
+			return List.of(new SearchIndexRoot(work.getPath(), true));
+		}
+		if(SearchIndexWorkImpl.TYPE_ENTRY_DOCUMENT.equals(type)) {
+			return List.of(new SearchIndexRoot(work.getPath(), false));
+		}
+		if(SearchIndexWorkImpl.TYPE_FILE.equals(type)) {
+			return resolveFile(work.getPath());
+		}
+		return Collections.emptyList();
+	}
+	
+	private List<SearchIndexRoot> resolveBusinessPathRoots(String businessPath) {
+		String root = resolveBusinessPath(businessPath);
+		if(root == null) {
+			return Collections.emptyList();
+		}
+		
+		Matcher matcher = CONTEXT_ENTRY.matcher(root);
+		if(matcher.matches() && REPOSITORY_ENTRY.equals(matcher.group(1))
+				&& CourseModule.getCourseTypeName().equals(getResourceName(Long.valueOf(matcher.group(2))))) {
+			// the documents of a course are under its course nodes
+			return List.of(new SearchIndexRoot(root, false));
+		}
+		return List.of(new SearchIndexRoot(root, true));
+	}
+
+	/**
+	 * Reduce the business path to the root of its documents in the index:
+	 * the repository entry, optionally followed by the course node, the
+	 * business group, optionally followed by its tool, or the identity.
+	 *
+	 * @param businessPath The business path
+	 * @return The root or null
+	 */
+	public String resolveBusinessPath(String businessPath) {
+		if(!StringHelper.containsNonWhitespace(businessPath)) return null;
+
+		Matcher matcher = CONTEXT_ENTRY.matcher(businessPath);
+		if(!matcher.lookingAt()) return null;
+
+		String type = matcher.group(1);
+		String root = matcher.group();
+		if(REPOSITORY_ENTRY.equals(type)) {
+			matcher.region(matcher.end(), businessPath.length());
+			if(matcher.lookingAt() && COURSE_NODE.equals(matcher.group(1))) {
+				root += matcher.group();
+			}
+			return root;
+		}
+		if(BUSINESS_GROUP.equals(type)) {
+			matcher.region(matcher.end(), businessPath.length());
+			if(matcher.lookingAt() && GROUP_TOOLS.contains(matcher.group(1))) {
+				root += matcher.group();
+			}
+			return root;
+		}
+		if(IDENTITY.equals(type)) {
+			return root;
+		}
+		return null;
+	}
+
+	private List<SearchIndexRoot> resolveFile(String path) {
+		String[] segments = path.split("/");
+		if(segments.length >= 3 && "course".equals(segments[0]) && "coursed".equals(segments[1])) {
+			Long entryKey = getRepositoryEntryKey(segments[2], CourseModule.getCourseTypeName(), false);
+			if(entryKey == null) {
+				return Collections.emptyList();
+			}
+			String entryRoot = "[" + REPOSITORY_ENTRY + ":" + entryKey + "]";
+			if(segments.length >= 5 && "foldernodes".equals(segments[3]) && StringHelper.isLong(segments[4])) {
+				return List.of(new SearchIndexRoot(entryRoot + "[" + COURSE_NODE + ":" + segments[4] + "]", true));
+			}
+			if(segments.length >= 4 && "coursefolder".equals(segments[3])) {
+				String folderPath = String.join("/", List.of(segments).subList(4, segments.length));
+				List<SearchIndexRoot> roots = new ArrayList<>();
+				for(String courseNodeIdent:getCourseNodesOfCourseFolder(Long.valueOf(segments[2]), folderPath)) {
+					roots.add(new SearchIndexRoot(entryRoot + "[" + COURSE_NODE + ":" + courseNodeIdent + "]", true));
+				}
+				return roots;
+			}
+			return Collections.emptyList();
+		}
+		if(segments.length >= 4 && "cts".equals(segments[0]) && BUSINESS_GROUP.equals(segments[2])
+				&& StringHelper.isLong(segments[3])) {
+			String groupRoot = "[" + BUSINESS_GROUP + ":" + segments[3] + "]";
+			if("folders".equals(segments[1])) {
+				groupRoot += "[" + BusinessGroupMainRunController.ORES_TOOLFOLDER.getResourceableTypeName() + ":0]";
+			} else if("wikis".equals(segments[1])) {
+				groupRoot += "[" + BusinessGroupMainRunController.ORES_TOOLWIKI.getResourceableTypeName() + ":0]";
+			}
+			return List.of(new SearchIndexRoot(groupRoot, true));
+		}
+		if(segments.length >= 2 && "repository".equals(segments[0])) {
+			// the folders of the file resources, see FileResourceManager
+			Long entryKey = getRepositoryEntryKey(segments[1], FILE_RESOURCE_TYPE_PREFIX, true);
+			return entryKey == null ? Collections.emptyList()
+					: List.of(new SearchIndexRoot("[" + REPOSITORY_ENTRY + ":" + entryKey + "]", true));
+		}
+		if(segments.length >= 3 && "homes".equals(segments[0]) && "public".equals(segments[2])) {
+			Long identityKey = getIdentityKey(segments[1]);
+			return identityKey == null ? Collections.emptyList()
+					: List.of(new SearchIndexRoot("[" + IDENTITY + ":" + identityKey + "]", true));
+		}
+		return Collections.emptyList();
+	}
+	
+	/**
+	 * Search the course nodes which index the files of the specified folder of
+	 * the course folder: the folders linked to the course folder, the single
+	 * pages and the structure nodes which show a page.
+	 * 
+	 * @param courseResourceId The resource id of the course
+	 * @param folderPath The path of the folder, relative to the course folder
+	 * @return A list of identifiers of course nodes
+	 */
+	private List<String> getCourseNodesOfCourseFolder(Long courseResourceId, String folderPath) {
+		ICourse course;
+		try {
+			course = CourseFactory.loadCourse(courseResourceId);
+		} catch (Exception e) {
+			log.warn("Cannot load course to index: {}", courseResourceId, e);
+			return Collections.emptyList();
+		}
+		
+		List<String> courseNodeIdents = new ArrayList<>();
+		new TreeVisitor(node -> {
+			if(isCourseNodeOfCourseFolder(node, folderPath)) {
+				courseNodeIdents.add(node.getIdent());
+			}
+		}, course.getRunStructure().getRootNode(), false).visitAll();
+		return courseNodeIdents;
+	}
+	
+	private boolean isCourseNodeOfCourseFolder(INode node, String folderPath) {
+		if(!(node instanceof CourseNode)) return false;
+		
+		ModuleConfiguration config = ((CourseNode)node).getModuleConfiguration();
+		if(node instanceof BCCourseNode) {
+			return !config.getBooleanSafe(BCCourseNode.CONFIG_AUTO_FOLDER)
+					&& isInFolder(folderPath, config.getStringValue(BCCourseNode.CONFIG_SUBPATH));
+		}
+		if(node instanceof SPCourseNode) {
+			// the linked pages can be anywhere in the course folder
+			return config.getBooleanSafe(SPEditController.CONFIG_KEY_ALLOW_RELATIVE_LINKS)
+					|| isInFolder(folderPath, getParentPath(config.getStringValue(SPEditController.CONFIG_KEY_FILE)));
+		}
+		if(node instanceof STCourseNode) {
+			String fileName = STCourseNodeEditController.getFileName(config);
+			return fileName != null
+					&& STCourseNodeEditController.CONFIG_VALUE_DISPLAY_FILE.equals(config.getStringValue(STCourseNodeEditController.CONFIG_KEY_DISPLAY_TYPE))
+					&& normalizeFolderPath(folderPath).equals(getParentPath(fileName));
+		}
+		return false;
+	}
+	
+	private boolean isInFolder(String folderPath, String folder) {
+		if(folder == null) return false;
+		
+		String path = normalizeFolderPath(folderPath);
+		String normalizedFolder = normalizeFolderPath(folder);
+		return normalizedFolder.isEmpty() || path.equals(normalizedFolder) || path.startsWith(normalizedFolder + "/");
+	}
+	
+	private String getParentPath(String filePath) {
+		if(filePath == null) return null;
+		
+		String path = normalizeFolderPath(filePath);
+		int index = path.lastIndexOf('/');
+		return index < 0 ? "" : path.substring(0, index);
+	}
+	
+	private String normalizeFolderPath(String path) {
+		String normalizedPath = path.replace('\\', '/');
+		while(normalizedPath.startsWith("/")) {
+			normalizedPath = normalizedPath.substring(1);
+		}
+		while(normalizedPath.endsWith("/")) {
+			normalizedPath = normalizedPath.substring(0, normalizedPath.length() - 1);
+		}
+		return normalizedPath;
+	}
+
+	/**
+	 * @param resourceId The resource id of the repository entry
+	 * @param resourceName The type name of the resource or the prefix of the type names
+	 * @param prefix true if the resource name is a prefix
+	 * @return The primary key of the repository entry or null
+	 */
+	private Long getRepositoryEntryKey(String resourceId, String resourceName, boolean prefix) {
+		if(!StringHelper.isLong(resourceId)) return null;
+
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("select v.key from repositoryentry as v")
+		  .append(" inner join v.olatResource as ores")
+		  .append(" where ores.resId=:resId");
+		if(prefix) {
+			sb.append(" and ores.resName like :resName");
+		} else {
+			sb.append(" and ores.resName=:resName");
+		}
+
+		List<Long> keys = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("resId", Long.valueOf(resourceId))
+				.setParameter("resName", prefix ? resourceName + "%" : resourceName)
+				.getResultList();
+		return keys.isEmpty() ? null : keys.get(0);
+	}
+
+	private String getResourceName(Long entryKey) {
+		List<String> names = dbInstance.getCurrentEntityManager()
+				.createQuery("select ores.resName from repositoryentry as v inner join v.olatResource as ores where v.key=:entryKey", String.class)
+				.setParameter("entryKey", entryKey)
+				.getResultList();
+		return names.isEmpty() ? null : names.get(0);
+	}
+
+	private Long getIdentityKey(String name) {
+		List<Long> keys = dbInstance.getCurrentEntityManager()
+				.createQuery("select ident.key from " + IdentityImpl.class.getName() + " as ident where ident.name=:name", Long.class)
+				.setParameter("name", name)
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		return keys.isEmpty() ? null : keys.get(0);
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.manager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.TemporalType;
+
+import org.olat.core.commons.persistence.DB;
+import org.olat.search.model.SearchIndexWorkImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class SearchIndexWorkDAO {
+	
+	@Autowired
+	private DB dbInstance;
+	
+	public SearchIndexWorkImpl createWork(String type, String path) {
+		SearchIndexWorkImpl work = new SearchIndexWorkImpl();
+		work.setCreationDate(new Date());
+		work.setType(type);
+		work.setPath(path);
+		dbInstance.getCurrentEntityManager().persist(work);
+		return work;
+	}
+	
+	/**
+	 * @param maxResults The max. number of works
+	 * @return The oldest works first
+	 */
+	public List<SearchIndexWorkImpl> loadWorks(int maxResults) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select work from searchindexwork work order by work.key asc", SearchIndexWorkImpl.class)
+				.setFirstResult(0)
+				.setMaxResults(maxResults)
+				.getResultList();
+	}
+	
+	public long countWorks() {
+		List<Long> count = dbInstance.getCurrentEntityManager()
+				.createQuery("select count(work.key) from searchindexwork work", Long.class)
+				.getResultList();
+		return count == null || count.isEmpty() || count.get(0) == null ? 0l : count.get(0).longValue();
+	}
+	
+	/**
+	 * @param date The limit
+	 * @return The number of works created before the specified date and deleted
+	 */
+	public int deleteWorksBefore(Date date) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from searchindexwork work where work.creationDate<:date")
+				.setParameter("date", date, TemporalType.TIMESTAMP)
+				.executeUpdate();
+	}
+	
+	public int deleteWorks(List<SearchIndexWorkImpl> works) {
+		if(works == null || works.isEmpty()) return 0;
+		
+		List<Long> keys = works.stream()
+				.map(SearchIndexWorkImpl::getKey)
+				.collect(Collectors.toList());
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from searchindexwork work where work.key in (:keys)")
+				.setParameter("keys", keys)
+				.executeUpdate();
+	}
+}
@@ -87,6 +87,9 @@ public abstract class AbstractOlatDocument implements Serializable {
 
 	public static final String LICENSE_TYPE_FIELD_NAME = "licensetype";
 	
+	/** Coarse access terms, indexed but not stored, used to pre-filter the hits */
+	public static final String ACCESS_FIELD_NAME = "access";
+	
 	public static final Set<String> getFields() {
 		Set<String> fields = new HashSet<>();
 		fields.add(DB_ID_NAME);
@@ -0,0 +1,84 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.model;
+
+/**
+ * A root of documents in the index which need to be indexed again:
+ * the document with the resource URL of the root and, optionally, all
+ * the documents under it.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class SearchIndexRoot {
+	
+	private final String resourceUrl;
+	private final boolean children;
+	
+	public SearchIndexRoot(String resourceUrl, boolean children) {
+		this.resourceUrl = resourceUrl;
+		this.children = children;
+	}
+
+	public String getResourceUrl() {
+		return resourceUrl;
+	}
+
+	/**
+	 * @return true if the documents under the root are indexed too
+	 */
+	public boolean isChildren() {
+		return children;
+	}
+	
+	/**
+	 * @param root An other root
+	 * @return true if the documents of the specified root are indexed with this one
+	 */
+	public boolean contains(SearchIndexRoot root) {
+		if(resourceUrl.equals(root.resourceUrl)) {
+			return children || !root.children;
+		}
+		return children && root.resourceUrl.startsWith(resourceUrl + "[");
+	}
+
+	@Override
+	public int hashCode() {
+		return resourceUrl.hashCode() + (children ? 1 : 0);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof SearchIndexRoot) {
+			SearchIndexRoot root = (SearchIndexRoot)obj;
+			return resourceUrl.equals(root.resourceUrl) && children == root.children;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return resourceUrl + (children ? "*" : "");
+	}
+}
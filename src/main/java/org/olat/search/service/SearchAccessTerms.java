@@ -0,0 +1,274 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.core.util.StringHelper;
+import org.olat.repository.RepositoryEntry;
+import org.olat.search.model.AbstractOlatDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calculate the coarse access terms of the documents and the filter
+ * which restricts the hits of a search to the documents which the user
+ * can possibly see. The terms are an over-approximation of the
+ * permissions: the access to every hit is still checked by the
+ * indexers, but only for documents which the user can probably see.<br>
+ * The terms are derived from the root of the business path of the
+ * document:
+ * <ul>
+ *  <li>RepositoryEntry: the groups related to the entry (owners, members of
+ *  	the business groups and curriculum elements), open if the entry is available
+ *  	to all users or bookable and the guests if the entry is open to them</li>
+ *  <li>BusinessGroup: the base group of the business group, the group itself
+ *  	(name and description) is open because of the offers</li>
+ *  <li>everything else is open</li>
+ * </ul>
+ * The terms are written in the documents, a change of the access or of the
+ * relations of an entry queues the entry to be indexed again.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+@Service
+public class SearchAccessTerms {
+
+	public static final String OPEN = "open";
+	public static final String GUEST = "guest";
+	public static final String GROUP_PREFIX = "group:";
+
+	private static final String REPOSITORY_ENTRY_PREFIX = "[RepositoryEntry:";
+	private static final String BUSINESS_GROUP_PREFIX = "[BusinessGroup:";
+
+	private static final int MAX_CACHED_ROOTS = 512;
+	private static final long CACHE_DURATION = 5l * 60l * 1000l;
+
+	private final Map<String,CachedTerms> rootTermsCache = new LinkedHashMap<String,CachedTerms>(64, 0.75f, true) {
+		private static final long serialVersionUID = -3164263290768604815L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,CachedTerms> eldest) {
+			return size() > MAX_CACHED_ROOTS;
+		}
+	};
+
+	@Autowired
+	private DB dbInstance;
+
+	/**
+	 * Add the access terms to the document, based on its resource URL.
+	 *
+	 * @param document The Lucene document
+	 */
+	public void appendAccessTerms(Document document) {
+		if(document.getField(AbstractOlatDocument.ACCESS_FIELD_NAME) != null) {
+			return;// already done
+		}
+		String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
+		for(String term:getAccessTerms(resourceUrl)) {
+			document.add(new StringField(AbstractOlatDocument.ACCESS_FIELD_NAME, term, Field.Store.NO));
+		}
+	}
+
+	/**
+	 * @param resourceUrl The resource URL of a document
+	 * @return The list of access terms
+	 */
+	public List<String> getAccessTerms(String resourceUrl) {
+		if(!StringHelper.containsNonWhitespace(resourceUrl)) {
+			return Collections.singletonList(OPEN);
+		}
+
+		int rootEnd = resourceUrl.indexOf(']');
+		if(resourceUrl.startsWith(REPOSITORY_ENTRY_PREFIX) && rootEnd > 0) {
+			String root = resourceUrl.substring(0, rootEnd + 1);
+			Long entryKey = parseKey(resourceUrl, REPOSITORY_ENTRY_PREFIX, rootEnd);
+			return entryKey == null ? Collections.singletonList(OPEN) : getCachedTerms(root, entryKey);
+		}
+		if(resourceUrl.startsWith(BUSINESS_GROUP_PREFIX) && rootEnd > 0) {
+			if(rootEnd == resourceUrl.length() - 1) {
+				// name and description of the group can be seen by everyone if the group has offers
+				return Collections.singletonList(OPEN);
+			}
+			String root = resourceUrl.substring(0, rootEnd + 1);
+			Long groupKey = parseKey(resourceUrl, BUSINESS_GROUP_PREFIX, rootEnd);
+			return groupKey == null ? Collections.singletonList(OPEN) : getCachedTerms(root, groupKey);
+		}
+		return Collections.singletonList(OPEN);
+	}
+
+	private Long parseKey(String resourceUrl, String prefix, int rootEnd) {
+		String key = resourceUrl.substring(prefix.length(), rootEnd);
+		return StringHelper.isLong(key) ? Long.valueOf(key) : null;
+	}
+
+	private List<String> getCachedTerms(String root, Long key) {
+		long now = System.currentTimeMillis();
+		CachedTerms cachedTerms;
+		synchronized(rootTermsCache) {
+			cachedTerms = rootTermsCache.get(root);
+		}
+		if(cachedTerms == null || cachedTerms.getTimestamp() + CACHE_DURATION < now) {
+			List<String> terms = root.startsWith(REPOSITORY_ENTRY_PREFIX)
+					? loadRepositoryEntryTerms(key) : loadBusinessGroupTerms(key);
+			cachedTerms = new CachedTerms(terms, now);
+			synchronized(rootTermsCache) {
+				rootTermsCache.put(root, cachedTerms);
+			}
+		}
+		return cachedTerms.getTerms();
+	}
+
+	private List<String> loadRepositoryEntryTerms(Long entryKey) {
+		List<RepositoryEntry> entries = dbInstance.getCurrentEntityManager()
+				.createQuery("select v from repositoryentry as v where v.key=:entryKey", RepositoryEntry.class)
+				.setParameter("entryKey", entryKey)
+				.getResultList();
+		if(entries.isEmpty()) {
+			return Collections.singletonList(OPEN);
+		}
+
+		List<Long> groupKeys = dbInstance.getCurrentEntityManager()
+				.createQuery("select rel.group.key from repoentrytogroup as rel where rel.entry.key=:entryKey", Long.class)
+				.setParameter("entryKey", entryKey)
+				.getResultList();
+		List<String> terms = new ArrayList<>(groupKeys.size() + 2);
+		for(Long groupKey:groupKeys) {
+			terms.add(GROUP_PREFIX + groupKey);
+		}
+		RepositoryEntry entry = entries.get(0);
+		if(entry.isAllUsers() || entry.isBookable()) {
+			// same rules as the access check of the repository indexer
+			terms.add(OPEN);
+		}
+		if(entry.isGuests()) {
+			terms.add(GUEST);
+		}
+		return terms;
+	}
+
+	private List<String> loadBusinessGroupTerms(Long businessGroupKey) {
+		List<Long> groupKeys = dbInstance.getCurrentEntityManager()
+				.createQuery("select bgi.baseGroup.key from businessgroup as bgi where bgi.key=:groupKey", Long.class)
+				.setParameter("groupKey", businessGroupKey)
+				.getResultList();
+		if(groupKeys.isEmpty()) {
+			return Collections.singletonList(OPEN);
+		}
+		return Collections.singletonList(GROUP_PREFIX + groupKeys.get(0));
+	}
+
+	/**
+	 * Create the filter for the specified user. Administrators, managers and
+	 * authors have extended rights which cannot be expressed with the terms,
+	 * they don't have a filter.
+	 *
+	 * @param identity The user
+	 * @param roles The roles of the user
+	 * @param reader The reader of the index
+	 * @return A query to use as filter or null
+	 */
+	public Query createAccessFilter(Identity identity, Roles roles, IndexReader reader) {
+		if(roles == null || identity == null || roles.isAdministrator() || roles.isSystemAdmin()
+				|| roles.isPrincipal() || roles.isManager() || roles.isAuthor()) {
+			return null;
+		}
+		if(FieldInfos.getMergedFieldInfos(reader).fieldInfo(AbstractOlatDocument.ACCESS_FIELD_NAME) == null) {
+			return null;// index without access terms, wait the next full index
+		}
+
+		List<BytesRef> terms = new ArrayList<>();
+		terms.add(new BytesRef(OPEN));
+		if(roles.isGuestOnly()) {
+			terms.add(new BytesRef(GUEST));
+		} else {
+			List<Long> groupKeys = dbInstance.getCurrentEntityManager()
+					.createQuery("select distinct membership.group.key from bgroupmember as membership where membership.identity.key=:identityKey", Long.class)
+					.setParameter("identityKey", identity.getKey())
+					.getResultList();
+			for(Long groupKey:groupKeys) {
+				terms.add(new BytesRef(GROUP_PREFIX + groupKey));
+			}
+		}
+		return new TermInSetQuery(AbstractOlatDocument.ACCESS_FIELD_NAME, terms);
+	}
+
+	/**
+	 * Forget the terms of the specified root, e.g. before indexing it again.
+	 *
+	 * @param resourceUrl The resource URL of the root or of one of its documents
+	 */
+	public void evict(String resourceUrl) {
+		if(!StringHelper.containsNonWhitespace(resourceUrl)) return;
+
+		int rootEnd = resourceUrl.indexOf(']');
+		if(rootEnd > 0) {
+			synchronized(rootTermsCache) {
+				rootTermsCache.remove(resourceUrl.substring(0, rootEnd + 1));
+			}
+		}
+	}
+
+	/**
+	 * Forget the terms, e.g. before a full index.
+	 */
+	public void clearCache() {
+		synchronized(rootTermsCache) {
+			rootTermsCache.clear();
+		}
+	}
+
+	private static class CachedTerms {
+
+		private final List<String> terms;
+		private final long timestamp;
+
+		public CachedTerms(List<String> terms, long timestamp) {
+			this.terms = terms;
+			this.timestamp = timestamp;
+		}
+
+		public List<String> getTerms() {
+			return terms;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+	}
+}
@@ -24,10 +24,12 @@ import java.util.Locale;
 import java.util.concurrent.Callable;
 
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.id.Identity;
 import org.olat.core.id.Roles;
@@ -95,7 +97,18 @@ class SearchCallable implements Callable<SearchResults> {
 			int n = SearchServiceFactory.getService().getSearchModuleConfig().getMaxHits();
 	
 			Query query = queryBuilder.build();
-			TopDocs docs = searcher.search(query, n);
+			// restrict the hits to the documents the user can probably see, the access
+			// is checked document by document by the search results
+			Query accessFilter = CoreSpringFactory.getImpl(SearchAccessTerms.class)
+					.createAccessFilter(identity, roles, searcher.getIndexReader());
+			Query filteredQuery = query;
+			if(accessFilter != null) {
+				filteredQuery = new BooleanQuery.Builder()
+						.add(query, Occur.MUST)
+						.add(accessFilter, Occur.FILTER)
+						.build();
+			}
+			TopDocs docs = searcher.search(filteredQuery, n);
 			long queryTime = System.currentTimeMillis() - startTime;
 			if(debug) log.debug("hits.length()=" + docs.totalHits);
 			SearchResultsImpl searchResult = new SearchResultsImpl(searchService.getMainIndexer(), searcher, docs, query, searchService.getAnalyzer(), identity, roles, firstResult, maxResults, doHighlighting, false);
@@ -0,0 +1,50 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.io.IOException;
+
+import org.olat.search.service.SearchResourceContext;
+
+/**
+ * Implemented by the indexers at the top of the tree which can index
+ * a single object and its children, used by the incremental indexer.
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public interface IncrementalIndexer extends Indexer {
+	
+	/**
+	 * Index the object with the specified key and optionally its children.
+	 * 
+	 * @param parentResourceContext The parent context
+	 * @param key The primary key of the object
+	 * @param subIdent An optional sub-identifier to restrict the indexing (the identifier
+	 * 		of a course node or the type of a tool of a business group)
+	 * @param children If false, only the document of the object is indexed
+	 * @param indexWriter The writer
+	 */
+	public void doIndexByKey(SearchResourceContext parentResourceContext, Long key, String subIdent,
+			boolean children, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException;
+
+}
@@ -27,10 +27,15 @@ package org.olat.search.service.indexer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.helpers.Settings;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
@@ -38,6 +43,9 @@ import org.olat.core.util.FileUtils;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.search.SearchModule;
 import org.olat.search.SearchService;
+import org.olat.search.manager.SearchIndexQueue;
+import org.olat.search.model.SearchIndexRoot;
+import org.olat.search.model.SearchIndexWorkImpl;
 import org.olat.search.service.spell.SearchSpellChecker;
 
 /**
@@ -49,11 +57,15 @@ public class Index {
 	
 	private static final Logger log = Tracing.createLoggerFor(Index.class);
 	
+	private static final int INCREMENTAL_BATCH_SIZE = 100;
+	private static final int INCREMENTAL_MAX_BATCHES = 50;
+	
 	private String indexPath;
 	private String tempIndexPath;
 	private String permanentIndexPath;
 	
 	private OlatFullIndexer fullIndexer;
+	private OlatIncrementalIndexer incrementalIndexer;
 	private SearchSpellChecker spellChecker;
 	private LifeFullIndexer lifeIndexer;
 
@@ -69,6 +81,7 @@ public class Index {
 		this.lifeIndexer = lifeIndexer;
 		
 		fullIndexer = new OlatFullIndexer(this, searchModule, searchService, mainIndexer, coordinatorManager);
+		incrementalIndexer = new OlatIncrementalIndexer(this, searchModule, searchService, mainIndexer, coordinatorManager);
 	}
 
 	/**
@@ -120,7 +133,9 @@ public class Index {
 	 * Check if indexing is complete done.
 	 * @return true : Indexing is done.
 	 */
-	public void indexingIsDone() {
+	public synchronized void indexingIsDone() {
+		// the files of the index will be replaced
+		incrementalIndexer.closeWriter();
 		// Full indexing is done => move tempIndex to index dir
 		File indexDir = new File(indexPath);
 		if (!indexDir.exists()) {
@@ -136,6 +151,73 @@ public class Index {
 		spellChecker.createSpellIndex();
 	}
 	
+	/**
+	 * Index the changes saved in the queue. The changes are not processed
+	 * while a full index is running, they stay in the queue until the
+	 * new index is in place.
+	 * 
+	 * @return The number of roots indexed
+	 */
+	public synchronized int indexIncremental() {
+		if(FullIndexerStatus.STATUS_RUNNING.equals(fullIndexer.getStatus().getStatus())) {
+			return 0;
+		}
+		
+		SearchIndexQueue searchIndexQueue = CoreSpringFactory.getImpl(SearchIndexQueue.class);
+		boolean indexExists = existIndex();
+
+		int count = 0;
+		for(int i=0; i<INCREMENTAL_MAX_BATCHES; i++) {
+			List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(INCREMENTAL_BATCH_SIZE);
+			if(works.isEmpty()) {
+				break;
+			}
+			
+			if(indexExists) {
+				Set<SearchIndexRoot> roots = new LinkedHashSet<>();
+				for(SearchIndexWorkImpl work:works) {
+					roots.addAll(searchIndexQueue.resolveRoots(work));
+				}
+				try {
+					count += incrementalIndexer.indexRoots(removeChildren(roots));
+				} catch (InterruptedException e) {
+					log.info("Incremental indexing interrupted");
+					break;
+				} catch (Exception e) {
+					log.error("Error during incremental indexing", e);
+					break;
+				}
+			}
+			// without index, the next full index will do the job
+			searchIndexQueue.done(works);
+			if(works.size() < INCREMENTAL_BATCH_SIZE) {
+				break;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Remove the roots which are indexed with an other root
+	 * of the list, e.g. the course node of an indexed course.
+	 */
+	private List<SearchIndexRoot> removeChildren(Set<SearchIndexRoot> roots) {
+		List<SearchIndexRoot> parentRoots = new ArrayList<>(roots.size());
+		for(SearchIndexRoot root:roots) {
+			boolean child = false;
+			for(SearchIndexRoot otherRoot:roots) {
+				if(!otherRoot.equals(root) && otherRoot.contains(root)) {
+					child = true;
+					break;
+				}
+			}
+			if(!child) {
+				parentRoots.add(root);
+			}
+		}
+		return parentRoots;
+	}
+	
 	public OlatFullIndexer getIndexer() {
 		return fullIndexer;
 	}
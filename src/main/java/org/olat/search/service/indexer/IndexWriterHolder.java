@@ -70,7 +70,7 @@ public class IndexWriterHolder {
 	}
 
 	public synchronized IndexWriter getAndLock() throws IOException {
-		if(writerRef == null) {
+		if(writerRef == null || !writerRef.isOpen()) {
 			long start = System.nanoTime();
 			IndexWriter indexWriter = new IndexWriter(indexPath, indexer.newIndexWriterConfig());
 			if(!DirectoryReader.indexExists(indexPath)) {
@@ -88,11 +88,10 @@ public class IndexWriterHolder {
 			try {
 				int used = counter.decrementAndGet();
 				if(used == 0) {
+					// the writer is shared and stays open, commit to make the changes visible
 					long start = System.nanoTime();
 					indexWriter.commit();
-					indexWriter.close();
-					writerRef = null;
-					log.info("Close writer takes (ms): " + CodeHelper.nanoToMilliTime(start));
+					if(log.isDebugEnabled()) log.debug("Commit writer takes (ms): " + CodeHelper.nanoToMilliTime(start));
 				}
 			} catch (Exception e) {
 				log.error("", e);
@@ -108,6 +107,8 @@ public class IndexWriterHolder {
 				indexWriter.close();
 			} catch (IOException e) {
 				log.error("", e);
+			} finally {
+				writerRef = null;
 			}
 		}
 	}
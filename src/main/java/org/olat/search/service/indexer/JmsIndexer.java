@@ -40,16 +40,12 @@ import javax.jms.Session;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.LogMergePolicy;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.olat.core.commons.persistence.DBFactory;
@@ -59,6 +55,7 @@ import org.olat.core.logging.Tracing;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.search.SearchModule;
 import org.olat.search.model.AbstractOlatDocument;
+import org.olat.search.service.SearchAccessTerms;
 
 /**
  * 
@@ -80,7 +77,6 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	private CoordinatorManager coordinatorManager;
 
 	private String permanentIndexPath;
-	private DirectoryReader reader;
 	private IndexWriterHolder permanentIndexWriter;
 	
 	private double ramBufferSizeMB;
@@ -89,6 +85,7 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	private FullIndexerStatus fullIndexerStatus;
 
 	private List<LifeIndexer> indexers = new ArrayList<>();
+	private SearchAccessTerms searchAccessTerms;
 	
 	public JmsIndexer(SearchModule searchModuleConfig, CoordinatorManager coordinatorManager) {
 		indexingNode = searchModuleConfig.isSearchServiceEnabled();
@@ -131,6 +128,14 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		return enabled != null && "enabled".equalsIgnoreCase(enabled);
 	}
 
+	/**
+	 * [used by Spring]
+	 * @param searchAccessTerms
+	 */
+	public void setSearchAccessTerms(SearchAccessTerms searchAccessTerms) {
+		this.searchAccessTerms = searchAccessTerms;
+	}
+
 	public void setIndexers(List<LifeIndexer> indexers) {
 		if(indexers != null) {
 			for(LifeIndexer indexer:indexers){
@@ -188,7 +193,6 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 					coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, IndexerEvent.INDEX_ORES);
 				}
 			}
-			reader = DirectoryReader.open(indexPath);
 		} catch (IOException e) {
 			log.error("", e);
 		}
@@ -345,20 +349,6 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		}
 	}
 	
-	private DirectoryReader getReader() throws IOException {
-		if(reader == null) {
-			File tempIndexDir = new File(permanentIndexPath);
-			Directory indexPath = FSDirectory.open(tempIndexDir.toPath());
-			reader = DirectoryReader.open(indexPath);
-		} else {
-			DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
-			if(newReader != null) {
-				reader = newReader;
-			}
-		}
-		return reader;
-	}
-
 	@Override
 	public IndexWriter getAndLockWriter() throws IOException {
 		return permanentIndexWriter.getAndLock();
@@ -392,22 +382,21 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	public void addDocuments(List<Document> documents) {
 		if(documents == null || documents.isEmpty()) return;//nothing to do
 		
+		for(Document document:documents) {
+			if(document != null) {
+				searchAccessTerms.appendAccessTerms(document);
+			}
+		}
+		
 		IndexWriter writer = null;
 		try {
-			DirectoryReader currentReader = getReader();
-			IndexSearcher searcher = new IndexSearcher(currentReader);
 			writer = permanentIndexWriter.getAndLock();
-			
 			for(Document document:documents) {
 				if(document != null) {
+					// update by the resource URL, add the document if not found
 					String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
 					Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-					TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-					if(hits.totalHits > 0) {
-						writer.updateDocument(uuidTerm, document);
-					} else {
-						writer.addDocument(document);
-					}
+					writer.updateDocument(uuidTerm, document);
 				}
 			}
 		} catch (IOException e) {
@@ -420,16 +409,10 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	@Override
 	public void addDocument(Document document, IndexWriter writer) {
 		try {
+			searchAccessTerms.appendAccessTerms(document);
 			String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
 			Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-			DirectoryReader currentReader = getReader();
-			IndexSearcher searcher = new IndexSearcher(currentReader);
-			TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-			if(hits.totalHits > 0) {
-				writer.updateDocument(uuidTerm, document);
-			} else {
-				writer.addDocument(document);
-			}
+			writer.updateDocument(uuidTerm, document);
 		} catch (IOException e) {
 			log.error("", e);
 		}
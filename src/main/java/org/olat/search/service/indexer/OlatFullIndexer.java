@@ -57,6 +57,7 @@ import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.LogMergePolicy;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
@@ -64,6 +65,7 @@ import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.search.SearchModule;
 import org.olat.search.SearchService;
 import org.olat.search.model.OlatDocument;
+import org.olat.search.service.SearchAccessTerms;
 import org.olat.search.service.SearchResourceContext;
 
 /**
@@ -115,6 +117,7 @@ public class OlatFullIndexer {
 
 	private final MainIndexer mainIndexer;
 	private final SearchService searchService;
+	private final SearchAccessTerms searchAccessTerms;
 	private final CoordinatorManager coordinatorManager;
 
 	private static final Object indexerWriterBlock = new Object();
@@ -134,6 +137,7 @@ public class OlatFullIndexer {
 		this.mainIndexer = mainIndexer;
 		this.searchService = searchService;
 		this.coordinatorManager = coordinatorManager;
+		searchAccessTerms = CoreSpringFactory.getImpl(SearchAccessTerms.class);
 		// -1 because the thread pool used a CallerRunPolicy, which means the main thread
 		// will do the work if the queue of the poll is full.
 		if(searchModule.getFolderPoolSize() <= 2) {
@@ -188,6 +192,7 @@ public class OlatFullIndexer {
 			log.info("start full indexing thread...");
 			stopIndexing = false;
 			resetDocumentCounters();
+			searchAccessTerms.clearCache();
 			run();
 		}
 	}
@@ -353,6 +358,7 @@ public class OlatFullIndexer {
 	 * @throws IOException
 	 */
 	public void addDocument(Document document) throws InterruptedException {
+		searchAccessTerms.appendAccessTerms(document);
 		DBFactory.getInstance().commitAndCloseSession();
 		
 		if (!stopIndexing && indexerWriterExecutor != null && !indexerWriterExecutor.isShutdown()) {
@@ -0,0 +1,245 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.search.SearchModule;
+import org.olat.search.SearchService;
+import org.olat.search.manager.SearchIndexQueue;
+import org.olat.search.model.AbstractOlatDocument;
+import org.olat.search.model.SearchIndexRoot;
+import org.olat.search.service.SearchAccessTerms;
+import org.olat.search.service.SearchResourceContext;
+
+/**
+ * Update the documents of some roots (course node, tool of a business group,
+ * repository entry, business group or identity) directly in the main index.
+ * The root is indexed again by its indexer, the new documents are marked with
+ * a generation and the previous documents of the root are deleted by their
+ * resource URL only after success. A root without its children replaces only
+ * the document with exactly its resource URL.
+ * If the indexing fails, the new documents are deleted and the previous ones kept.
+ * The writer is opened once and shared between the runs, the changes are
+ * visible after the commit at the end of every run, the searcher manager
+ * of the search service see them at its next refresh.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class OlatIncrementalIndexer extends OlatFullIndexer {
+
+	private static final Logger log = Tracing.createLoggerFor(OlatIncrementalIndexer.class);
+	static final String GENERATION_FIELD_NAME = "indexgeneration";
+	private static final Pattern ROOT_PATTERN = Pattern.compile("\\[([^:\\[\\]]+):([0-9]+)\\](?:\\[([^:\\[\\]]+):([0-9]+)\\])?");
+
+	private final String indexPath;
+	private final MainIndexer mainIndexer;
+	private final SearchAccessTerms searchAccessTerms;
+
+	private IndexWriter indexWriter;
+	private volatile String currentGeneration;
+
+	public OlatIncrementalIndexer(Index index, SearchModule searchModule, SearchService searchService,
+			MainIndexer mainIndexer, CoordinatorManager coordinatorManager) {
+		super(index, searchModule, searchService, mainIndexer, coordinatorManager);
+		this.mainIndexer = mainIndexer;
+		indexPath = searchModule.getFullIndexPath();
+		searchAccessTerms = CoreSpringFactory.getImpl(SearchAccessTerms.class);
+	}
+
+	@Override
+	public IndexWriterConfig newIndexWriterConfig() {
+		IndexWriterConfig indexWriterConfig = super.newIndexWriterConfig();
+		// small segments are written often, merge them by size
+		indexWriterConfig.setMergePolicy(new TieredMergePolicy());
+		return indexWriterConfig;
+	}
+
+	/**
+	 * Delete and index again the documents of the specified roots
+	 * and commit the changes.
+	 *
+	 * @param roots A collection of roots
+	 * @return The number of roots indexed
+	 */
+	public int indexRoots(Collection<SearchIndexRoot> roots) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		IndexWriter writer = getWriter();
+
+		int count = 0;
+		for(SearchIndexRoot root:roots) {
+			// the access or the relations of the root may have changed
+			searchAccessTerms.evict(root.getResourceUrl());
+			String generation = UUID.randomUUID().toString();
+			currentGeneration = generation;
+			try {
+				if(indexRoot(root)) {
+					count++;
+				}
+				// the old documents are deleted only if the root was indexed successfully
+				writer.deleteDocuments(previousGenerationsQuery(root, generation));
+				DBFactory.getInstance().commitAndCloseSession();
+			} catch (InterruptedException e) {
+				writer.deleteDocuments(new Term(GENERATION_FIELD_NAME, generation));
+				throw e;
+			} catch (Exception e) {
+				log.warn("Exception while indexing: " + root, e);
+				writer.deleteDocuments(new Term(GENERATION_FIELD_NAME, generation));
+				DBFactory.getInstance().rollbackAndCloseSession();
+			} finally {
+				currentGeneration = null;
+			}
+		}
+		writer.commit();
+		if(log.isDebugEnabled()) log.debug(count + " roots indexed in (ms): " + CodeHelper.nanoToMilliTime(start));
+		return count;
+	}
+
+	private boolean indexRoot(SearchIndexRoot root) throws IOException, InterruptedException {
+		Matcher matcher = ROOT_PATTERN.matcher(root.getResourceUrl());
+		if(!matcher.matches()) {
+			return false;
+		}
+
+		Long key = Long.valueOf(matcher.group(2));
+		String subIdent = null;
+		if(SearchIndexQueue.COURSE_NODE.equals(matcher.group(3))) {
+			subIdent = matcher.group(4);
+		} else if(matcher.group(3) != null) {
+			subIdent = matcher.group(3);
+		}
+		List<Indexer> indexers = mainIndexer.getIndexerByType(matcher.group(1));
+		for(Indexer indexer:indexers) {
+			if(indexer instanceof IncrementalIndexer) {
+				((IncrementalIndexer)indexer).doIndexByKey(new SearchResourceContext(), key, subIdent, root.isChildren(), this);
+			}
+		}
+		return !indexers.isEmpty();
+	}
+
+	/**
+	 * @param root The root
+	 * @return A query which match the document of the root and, if needed, all its children
+	 */
+	protected static Query rootQuery(SearchIndexRoot root) {
+		Query documentQuery = new TermQuery(new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, root.getResourceUrl()));
+		if(!root.isChildren()) {
+			return documentQuery;
+		}
+		return new BooleanQuery.Builder()
+				.add(documentQuery, Occur.SHOULD)
+				.add(new PrefixQuery(new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, root.getResourceUrl() + "[")), Occur.SHOULD)
+				.build();
+	}
+
+	/**
+	 * @param root The root
+	 * @param generation The generation of the new documents
+	 * @return A query which match the documents of the root and its children, except the new ones
+	 */
+	protected static Query previousGenerationsQuery(SearchIndexRoot root, String generation) {
+		return new BooleanQuery.Builder()
+				.add(rootQuery(root), Occur.MUST)
+				.add(new TermQuery(new Term(GENERATION_FIELD_NAME, generation)), Occur.MUST_NOT)
+				.build();
+	}
+
+	private synchronized IndexWriter getWriter() throws IOException {
+		if(indexWriter == null || !indexWriter.isOpen()) {
+			indexWriter = new IndexWriter(FSDirectory.open(new File(indexPath).toPath()), newIndexWriterConfig());
+		}
+		return indexWriter;
+	}
+
+	/**
+	 * Close the writer, the full indexer replace the files of the index.
+	 */
+	public synchronized void closeWriter() {
+		if(indexWriter != null) {
+			try {
+				indexWriter.close();
+			} catch (IOException e) {
+				log.error("", e);
+			} finally {
+				indexWriter = null;
+			}
+		}
+	}
+
+	@Override
+	public void addDocument(Document document) throws InterruptedException {
+		searchAccessTerms.appendAccessTerms(document);
+		String generation = currentGeneration;
+		if(generation != null) {
+			document.add(new StringField(GENERATION_FIELD_NAME, generation, Field.Store.NO));
+		}
+		DBFactory.getInstance().commitAndCloseSession();
+		try {
+			getWriter().addDocument(document);
+		} catch (IOException e) {
+			log.error("", e);
+		}
+	}
+
+	/**
+	 * The roots are small, the tasks are run in the current thread.
+	 */
+	@Override
+	public Future<Boolean> submit(Callable<Boolean> task) {
+		FutureTask<Boolean> future = new FutureTask<>(task);
+		future.run();
+		return future;
+	}
+
+	@Override
+	public boolean isInterupted() {
+		return false;
+	}
+}
@@ -48,13 +48,15 @@ import org.olat.resource.accesscontrol.AccessControlModule;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.document.GroupDocument;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
+import org.olat.search.service.indexer.IncrementalIndexer;
+import org.olat.search.service.indexer.Indexer;
 import org.olat.search.service.indexer.OlatFullIndexer;
 
 /**
  * Index all business-groups. Includes group-forums and groups-folders. 
  * @author Christian Guretzki
  */
-public class GroupIndexer extends AbstractHierarchicalIndexer {
+public class GroupIndexer extends AbstractHierarchicalIndexer implements IncrementalIndexer {
 	
 	private static final Logger log = Tracing.createLoggerFor(GroupIndexer.class);
 	
@@ -93,12 +95,7 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 				businessGroup = reloadedBusinessGroup;
 				
 				if (log.isDebugEnabled()) log.debug("Index BusinessGroup=" + businessGroup);
-				SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
-				searchResourceContext.setBusinessControlFor(businessGroup);
-				Document document = GroupDocument.createDocument(searchResourceContext, businessGroup);
-				indexWriter.addDocument(document);
-		    // Do index child 
-			  super.doIndex(searchResourceContext, businessGroup, indexWriter);
+				doIndexBusinessGroup(parentResourceContext, businessGroup, indexWriter);
 			} catch(Exception ex) {
 				log.error("Exception indexing group=" + businessGroup, ex);
 				DBFactory.getInstance().rollbackAndCloseSession();
@@ -112,6 +109,47 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 		if (log.isDebugEnabled()) log.debug("GroupIndexer finished in {} ms", indexTime);
 	}
 
+	/**
+	 * Index a single business group, used by the incremental indexer.
+	 * If a tool is specified, only the documents of the tool are indexed.
+	 * Without the children, only the document of the group is indexed.
+	 */
+	@Override
+	public void doIndexByKey(SearchResourceContext parentResourceContext, Long key, String subIdent,
+			boolean children, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		BusinessGroup businessGroup = businessGroupService.loadBusinessGroup(key);
+		if(businessGroup == null) {
+			return;
+		}
+		
+		if(subIdent != null) {
+			SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+			searchResourceContext.setBusinessControlFor(businessGroup);
+			for(Indexer indexer:getChildIndexers()) {
+				if(subIdent.equals(indexer.getSupportedTypeName())) {
+					indexer.doIndex(searchResourceContext, businessGroup, indexWriter);
+				}
+			}
+		} else if(children) {
+			doIndexBusinessGroup(parentResourceContext, businessGroup, indexWriter);
+		} else {
+			SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+			searchResourceContext.setBusinessControlFor(businessGroup);
+			indexWriter.addDocument(GroupDocument.createDocument(searchResourceContext, businessGroup));
+		}
+	}
+	
+	private void doIndexBusinessGroup(SearchResourceContext parentResourceContext, BusinessGroup businessGroup, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+		searchResourceContext.setBusinessControlFor(businessGroup);
+		Document document = GroupDocument.createDocument(searchResourceContext, businessGroup);
+		indexWriter.addDocument(document);
+		// Do index child 
+		super.doIndex(searchResourceContext, businessGroup, indexWriter);
+	}
+
 	@Override
 	public boolean checkAccess(ContextEntry contextEntry, BusinessControl businessControl, Identity identity, Roles roles) {
 		if(roles.isGuestOnly()) {
@@ -40,6 +40,7 @@ import org.olat.core.logging.Tracing;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
+import org.olat.search.service.indexer.IncrementalIndexer;
 import org.olat.search.service.indexer.Indexer;
 import org.olat.search.service.indexer.OlatFullIndexer;
 
@@ -53,7 +54,7 @@ import org.olat.search.service.indexer.OlatFullIndexer;
  * 
  * @author gnaegi, gnaegi@frentix.com, www.frentix.com
  */
-public class IdentityIndexer extends AbstractHierarchicalIndexer {
+public class IdentityIndexer extends AbstractHierarchicalIndexer implements IncrementalIndexer {
 	private static final Logger log = Tracing.createLoggerFor(IdentityIndexer.class);
 	
 	public static final String TYPE = "type.identity";
@@ -83,15 +84,7 @@ public class IdentityIndexer extends AbstractHierarchicalIndexer {
 				}
 
 				if (log.isDebugEnabled()) log.debug("Indexing identity::" + identity.getKey() + " and counter::" + counter);  	  	
-				// Create a search context for this identity. The search context will open the users visiting card in a new tab
-				SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
-				searchResourceContext.setBusinessControlFor(OresHelper.createOLATResourceableInstance(Identity.class, identity.getKey()));
-				searchResourceContext.setParentContextType(TYPE);
-
-				// delegate indexing work to all configured indexers
-				for (Indexer indexer : getChildIndexers()) {
-					indexer.doIndex(searchResourceContext, identity, indexWriter);
-				}
+				doIndexIdentity(parentResourceContext, identity, indexWriter);
 				
 				counter++;
 			} catch (Exception ex) {
@@ -103,6 +96,33 @@ public class IdentityIndexer extends AbstractHierarchicalIndexer {
 		if (log.isDebugEnabled()) log.debug("IdentityIndexer finished with counter::" + counter);
 	}
 	
+	/**
+	 * Index the documents of a single identity, used by the incremental
+	 * indexer. The identity has no document of its own.
+	 */
+	@Override
+	public void doIndexByKey(SearchResourceContext parentResourceContext, Long key, String subIdent,
+			boolean children, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		Identity identity = BaseSecurityManager.getInstance().loadIdentityByKey(key);
+		if (children && identity != null && identity.getStatus() < Identity.STATUS_VISIBLE_LIMIT) {
+			doIndexIdentity(parentResourceContext, identity, indexWriter);
+		}
+	}
+	
+	private void doIndexIdentity(SearchResourceContext parentResourceContext, Identity identity, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		// Create a search context for this identity. The search context will open the users visiting card in a new tab
+		SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+		searchResourceContext.setBusinessControlFor(OresHelper.createOLATResourceableInstance(Identity.class, identity.getKey()));
+		searchResourceContext.setParentContextType(TYPE);
+
+		// delegate indexing work to all configured indexers
+		for (Indexer indexer : getChildIndexers()) {
+			indexer.doIndex(searchResourceContext, identity, indexWriter);
+		}
+	}
+	
 	@Override
 	public boolean checkAccess(ContextEntry contextEntry, BusinessControl businessControl, Identity identity, Roles roles) {
 		if(roles.isGuestOnly()) {
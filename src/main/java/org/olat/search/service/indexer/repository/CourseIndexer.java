@@ -104,6 +104,36 @@ public class CourseIndexer extends AbstractHierarchicalIndexer {
 		}
 	}
 
+	/**
+	 * Index only a course node of the course, used by the incremental indexer.
+	 * 
+	 * @param parentResourceContext The context of the repository entry
+	 * @param repositoryEntry The repository entry of the course
+	 * @param courseNodeIdent The identifier of the course node
+	 * @param indexWriter The writer
+	 */
+	public void doIndexCourseNode(SearchResourceContext parentResourceContext, RepositoryEntry repositoryEntry, String courseNodeIdent, OlatFullIndexer indexWriter) {
+		try {
+			RepositoryEntryStatusEnum status = repositoryEntry.getEntryStatus();
+			if(status.decommissioned()) {
+				return;
+			}
+
+			ICourse course = CourseFactory.loadCourse(repositoryEntry);
+			CourseNode courseNode = course.getRunStructure().getNode(courseNodeIdent);
+			CourseNodeIndexer courseNodeIndexer = courseNode == null ? null : getCourseNodeIndexer(courseNode);
+			if(courseNodeIndexer != null) {
+				parentResourceContext.setParentContextType(TYPE);
+				parentResourceContext.setParentContextName(course.getCourseTitle());
+				courseNodeIndexer.doIndex(parentResourceContext, course, courseNode, indexWriter);
+			}
+		} catch(CorruptedCourseException ex) {
+			log.warn("Can not index repositoryEntry (" + repositoryEntry.getKey() + ")", ex);
+		} catch (Exception ex) {
+			log.warn("Can not index course node=" + courseNodeIdent + " of repositoryEntry=" + repositoryEntry, ex);
+		}
+	}
+
 	/**
 	 * 
 	 * @param repositoryResourceContext
@@ -55,6 +55,7 @@ import org.olat.resource.accesscontrol.provider.paypal.PaypalAccessHandler;
 import org.olat.search.SearchModule;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
+import org.olat.search.service.indexer.IncrementalIndexer;
 import org.olat.search.service.indexer.Indexer;
 import org.olat.search.service.indexer.OlatFullIndexer;
 
@@ -63,7 +64,7 @@ import org.olat.search.service.indexer.OlatFullIndexer;
  * @author Christian Guretzki
  * 
  */
-public class RepositoryIndexer extends AbstractHierarchicalIndexer {
+public class RepositoryIndexer extends AbstractHierarchicalIndexer implements IncrementalIndexer {
 
 	private static final Logger log = Tracing.createLoggerFor(RepositoryIndexer.class);
 	
@@ -153,26 +154,7 @@ public class RepositoryIndexer extends AbstractHierarchicalIndexer {
 					if (debug) {
 						log.debug("Index repositoryEntry=" + repositoryEntry + "  counter=" + counter++ + " with ResourceableId=" + repositoryEntry.getOlatResource().getResourceableId());
 					}
-					if (!isOnBlacklist(repositoryEntry.getOlatResource().getResourceableId()) ) {
-						SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
-						searchResourceContext.setBusinessControlFor(repositoryEntry);
-						searchResourceContext.setTitle(repositoryEntry.getDisplayname());
-						searchResourceContext.setDescription(repositoryEntry.getDescription());
-						Document document = documentFactory.createDocument(searchResourceContext, repositoryEntry);
-						indexWriter.addDocument(document);
-						// Pass created-date & modified-date in context to child indexer because the child have no dates
-						searchResourceContext.setLastModified(repositoryEntry.getLastModified());
-						searchResourceContext.setCreatedDate(repositoryEntry.getCreationDate());
-						// go further with resource
-						Indexer repositoryEntryIndexer = getRepositoryEntryIndexer(repositoryEntry);
-						if (repositoryEntryIndexer != null) {
-							repositoryEntryIndexer.doIndex(searchResourceContext, repositoryEntry, indexWriter);
-						} else if (debug) {
-							log.debug("No RepositoryEntryIndexer for " + repositoryEntry.getOlatResource()); // e.g. RepositoryEntry				
-						}
-					} else {
-						log.warn("RepositoryEntry is on black-list and excluded from search-index, repositoryEntry=" + repositoryEntry);
-					}
+					doIndexRepositoryEntry(parentResourceContext, repositoryEntry, null, true, indexWriter);
 				} catch (Throwable ex) {
 					// create meaninfull debugging output to find repo entry that is somehow broken
 					String entryDebug = "NULL";
@@ -192,6 +174,56 @@ public class RepositoryIndexer extends AbstractHierarchicalIndexer {
 		}
 	}
 
+	/**
+	 * Index a single repository entry, used by the incremental indexer.
+	 * If a course node is specified, only the course node is indexed.
+	 * Without the children, only the document of the entry is indexed.
+	 */
+	@Override
+	public void doIndexByKey(SearchResourceContext parentResourceContext, Long key, String subIdent,
+			boolean children, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		RepositoryEntry repositoryEntry = repositoryService.loadByKey(key);
+		if(repositoryEntry == null || repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.trash
+				|| repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.deleted) {
+			return;
+		}
+		doIndexRepositoryEntry(parentResourceContext, repositoryEntry, subIdent, children, indexWriter);
+	}
+	
+	private void doIndexRepositoryEntry(SearchResourceContext parentResourceContext, RepositoryEntry repositoryEntry,
+			String courseNodeIdent, boolean children, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		if (isOnBlacklist(repositoryEntry.getOlatResource().getResourceableId())) {
+			log.warn("RepositoryEntry is on black-list and excluded from search-index, repositoryEntry=" + repositoryEntry);
+			return;
+		}
+		
+		SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+		searchResourceContext.setBusinessControlFor(repositoryEntry);
+		searchResourceContext.setTitle(repositoryEntry.getDisplayname());
+		searchResourceContext.setDescription(repositoryEntry.getDescription());
+		if(courseNodeIdent == null) {
+			Document document = documentFactory.createDocument(searchResourceContext, repositoryEntry);
+			indexWriter.addDocument(document);
+		}
+		if(!children) {
+			return;
+		}
+		// Pass created-date & modified-date in context to child indexer because the child have no dates
+		searchResourceContext.setLastModified(repositoryEntry.getLastModified());
+		searchResourceContext.setCreatedDate(repositoryEntry.getCreationDate());
+		// go further with resource
+		Indexer repositoryEntryIndexer = getRepositoryEntryIndexer(repositoryEntry);
+		if (repositoryEntryIndexer instanceof CourseIndexer && courseNodeIdent != null) {
+			((CourseIndexer)repositoryEntryIndexer).doIndexCourseNode(searchResourceContext, repositoryEntry, courseNodeIdent, indexWriter);
+		} else if (repositoryEntryIndexer != null && courseNodeIdent == null) {
+			repositoryEntryIndexer.doIndex(searchResourceContext, repositoryEntry, indexWriter);
+		} else if (log.isDebugEnabled()) {
+			log.debug("No RepositoryEntryIndexer for " + repositoryEntry.getOlatResource()); // e.g. RepositoryEntry				
+		}
+	}
+
 	private boolean isOnBlacklist(Long key) {
 		return repositoryBlackList.contains(key);
 	}
@@ -2403,6 +2403,8 @@ create table o_ex_task (
    e_task mediumtext not null,
    e_scheduled datetime,
    e_ressubpath varchar(2048),
+   e_progress decimal(65,30),
+   e_checkpoint varchar(255),
    fk_resource_id bigint,
    fk_identity_id bigint,
    primary key (id)
@@ -3069,6 +3071,145 @@ create table o_ap_participation (
    primary key (id)
 );
 
+-- search
+create table o_search_index_work (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   s_type varchar(16) not null,
+   s_path varchar(1024) not null,
+   primary key (id)
+);
+
+-- quota usage
+create table o_vfs_quota_usage (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   f_relative_path varchar(255) not null,
+   f_usage bigint default 0 not null,
+   f_reconciled datetime not null,
+   unique(f_relative_path),
+   primary key (id)
+);
+
+-- calendar event store
+create table o_cal_calendar (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   c_calendar_id varchar(255) not null,
+   c_calendar_type varchar(16) not null,
+   c_window_begin datetime not null,
+   c_window_end datetime not null,
+   c_ics_dirty bool default true not null,
+   unique(c_calendar_type, c_calendar_id),
+   primary key (id)
+);
+create table o_cal_event (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   c_uid varchar(1024) not null,
+   c_recurrence_id varchar(128),
+   c_begin datetime not null,
+   c_end datetime not null,
+   c_recurring bool default false not null,
+   c_recurrence_end datetime,
+   c_vevent mediumtext not null,
+   fk_calendar bigint not null,
+   primary key (id)
+);
+create table o_cal_event_occurrence (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   c_uid varchar(1024) not null,
+   c_begin datetime not null,
+   c_end datetime not null,
+   fk_event bigint not null,
+   fk_calendar bigint not null,
+   primary key (id)
+);
+
+-- coaching statistics
+create table o_coach_statistics_work (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   c_type varchar(16) not null,
+   c_key bigint not null,
+   c_identity_key bigint,
+   primary key (id)
+);
+create table o_coach_course_stat (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   c_coach_key bigint not null,
+   c_entry_key bigint not null,
+   c_students bigint default 0 not null,
+   c_initial_launch bigint default 0 not null,
+   c_passed bigint default 0 not null,
+   c_failed bigint default 0 not null,
+   c_not_attempted bigint default 0 not null,
+   c_average_score float(65,30),
+   c_average_completion float(65,30),
+   unique(c_coach_key, c_entry_key),
+   primary key (id)
+);
+create table o_coach_student_stat (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   c_coach_key bigint not null,
+   c_student_key bigint not null,
+   c_courses bigint default 0 not null,
+   c_initial_launch bigint default 0 not null,
+   c_passed bigint default 0 not null,
+   c_failed bigint default 0 not null,
+   c_not_attempted bigint default 0 not null,
+   c_average_completion float(65,30),
+   unique(c_coach_key, c_student_key),
+   primary key (id)
+);
+
+-- my courses
+create table o_re_my_course (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   fk_identity_id bigint not null,
+   fk_entry_id bigint not null,
+   c_owner bit default 0 not null,
+   c_coach bit default 0 not null,
+   c_participant bit default 0 not null,
+   c_member bit default 0 not null,
+   c_marked bit default 0 not null,
+   c_recent_launch datetime,
+   c_passed bit,
+   c_score float(65,30),
+   c_completion float(65,30),
+   primary key (id)
+);
+create table o_re_my_course_state (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   fk_identity_id bigint not null,
+   c_valid bit default 0 not null,
+   c_build_version bigint default 0 not null,
+   primary key (id)
+);
+
+-- mail outbox
+create table o_mail_outbox (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   m_status varchar(16) not null,
+   m_attempts bigint default 0 not null,
+   m_next_attempt datetime not null,
+   m_last_error varchar(2000),
+   m_message mediumblob not null,
+   primary key (id)
+);
+
 -- user view
 create view o_bs_identity_short_v as (
    select
@@ -3407,6 +3548,17 @@ alter table o_ap_topic ENGINE = InnoDB;
 alter table o_ap_organizer ENGINE = InnoDB;
 alter table o_ap_appointment ENGINE = InnoDB;
 alter table o_ap_participation ENGINE = InnoDB;
+alter table o_search_index_work ENGINE = InnoDB;
+alter table o_vfs_quota_usage ENGINE = InnoDB;
+alter table o_cal_calendar ENGINE = InnoDB;
+alter table o_cal_event ENGINE = InnoDB;
+alter table o_cal_event_occurrence ENGINE = InnoDB;
+alter table o_coach_statistics_work ENGINE = InnoDB;
+alter table o_coach_course_stat ENGINE = InnoDB;
+alter table o_coach_student_stat ENGINE = InnoDB;
+alter table o_re_my_course ENGINE = InnoDB;
+alter table o_re_my_course_state ENGINE = InnoDB;
+alter table o_mail_outbox ENGINE = InnoDB;
 
 -- rating
 alter table o_userrating add constraint FKF26C8375236F20X foreign key (creator_id) references o_bs_identity (id);
@@ -3784,6 +3936,20 @@ alter table o_cal_import add constraint cal_imp_to_ident_idx foreign key (fk_ide
 create index idx_cal_imp_cal_id_idx on o_cal_import (c_calendar_id);
 create index idx_cal_imp_cal_type_idx on o_cal_import (c_calendar_type);
 
+alter table o_cal_event add constraint cal_event_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_event_period_idx on o_cal_event (fk_calendar, c_begin, c_end);
+alter table o_cal_event_occurrence add constraint cal_occ_to_event_idx foreign key (fk_event) references o_cal_event (id);
+alter table o_cal_event_occurrence add constraint cal_occ_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_occ_period_idx on o_cal_event_occurrence (fk_calendar, c_begin, c_end);
+
+-- my courses
+create unique index idx_my_course_ident_entry_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+create index idx_my_course_entry_idx on o_re_my_course (fk_entry_id);
+create unique index idx_my_course_state_ident_idx on o_re_my_course_state (fk_identity_id);
+
+-- mail outbox
+create index idx_mail_outbox_status_idx on o_mail_outbox (m_status, m_next_attempt);
+
 create index idx_cal_imp_to_cal_id_idx on o_cal_import_to (c_to_calendar_id);
 create index idx_cal_imp_to_cal_type_idx on o_cal_import_to (c_to_calendar_type);
 
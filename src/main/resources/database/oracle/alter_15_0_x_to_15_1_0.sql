@@ -60,3 +60,159 @@ create index idx_ap_part_identitiy_idx on o_ap_participation(fk_identity_id);
 -- Quality management
 create index idx_eva_part_survey_idx on o_eva_form_participation (fk_survey);
 
+-- Search
+create table o_search_index_work (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   s_type varchar2(16 char) not null,
+   s_path varchar2(1024 char) not null,
+   primary key (id)
+);
+
+-- Quota usage
+create table o_vfs_quota_usage (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   f_relative_path varchar2(255 char) not null,
+   f_usage number(20) default 0 not null,
+   f_reconciled date not null,
+   unique(f_relative_path),
+   primary key (id)
+);
+
+-- Calendar event store
+create table o_cal_calendar (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   c_calendar_id varchar2(255 char) not null,
+   c_calendar_type varchar2(16 char) not null,
+   c_window_begin date not null,
+   c_window_end date not null,
+   c_ics_dirty number default 1 not null,
+   unique(c_calendar_type, c_calendar_id),
+   primary key (id)
+);
+create table o_cal_event (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   c_uid varchar2(1024 char) not null,
+   c_recurrence_id varchar2(128 char),
+   c_begin date not null,
+   c_end date not null,
+   c_recurring number default 0 not null,
+   c_recurrence_end date,
+   c_vevent CLOB not null,
+   fk_calendar number(20) not null,
+   primary key (id)
+);
+create table o_cal_event_occurrence (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   c_uid varchar2(1024 char) not null,
+   c_begin date not null,
+   c_end date not null,
+   fk_event number(20) not null,
+   fk_calendar number(20) not null,
+   primary key (id)
+);
+
+alter table o_cal_event add constraint cal_event_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_event_period_idx on o_cal_event (fk_calendar, c_begin, c_end);
+alter table o_cal_event_occurrence add constraint cal_occ_to_event_idx foreign key (fk_event) references o_cal_event (id);
+create index idx_cal_occ_to_event_idx on o_cal_event_occurrence (fk_event);
+alter table o_cal_event_occurrence add constraint cal_occ_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_occ_period_idx on o_cal_event_occurrence (fk_calendar, c_begin, c_end);
+
+-- Task executor progress
+alter table o_ex_task add e_progress decimal;
+alter table o_ex_task add e_checkpoint varchar2(255 char);
+
+-- Coaching statistics
+create table o_coach_statistics_work (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   c_type varchar2(16 char) not null,
+   c_key number(20) not null,
+   c_identity_key number(20),
+   primary key (id)
+);
+create table o_coach_course_stat (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   c_coach_key number(20) not null,
+   c_entry_key number(20) not null,
+   c_students number(20) default 0 not null,
+   c_initial_launch number(20) default 0 not null,
+   c_passed number(20) default 0 not null,
+   c_failed number(20) default 0 not null,
+   c_not_attempted number(20) default 0 not null,
+   c_average_score float,
+   c_average_completion float,
+   unique(c_coach_key, c_entry_key),
+   primary key (id)
+);
+create table o_coach_student_stat (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   c_coach_key number(20) not null,
+   c_student_key number(20) not null,
+   c_courses number(20) default 0 not null,
+   c_initial_launch number(20) default 0 not null,
+   c_passed number(20) default 0 not null,
+   c_failed number(20) default 0 not null,
+   c_not_attempted number(20) default 0 not null,
+   c_average_completion float,
+   unique(c_coach_key, c_student_key),
+   primary key (id)
+);
+
+-- My courses
+create table o_re_my_course (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   fk_identity_id number(20) not null,
+   fk_entry_id number(20) not null,
+   c_owner number default 0 not null,
+   c_coach number default 0 not null,
+   c_participant number default 0 not null,
+   c_member number default 0 not null,
+   c_marked number default 0 not null,
+   c_recent_launch date,
+   c_passed number,
+   c_score float,
+   c_completion float,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   fk_identity_id number(20) not null,
+   c_valid number default 0 not null,
+   c_build_version number(20) default 0 not null,
+   primary key (id)
+);
+
+create unique index idx_my_course_ident_entry_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+create index idx_my_course_entry_idx on o_re_my_course (fk_entry_id);
+create unique index idx_my_course_state_ident_idx on o_re_my_course_state (fk_identity_id);
+
+
+-- mail outbox
+create table o_mail_outbox (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   m_status varchar2(16 char) not null,
+   m_attempts number(20) default 0 not null,
+   m_next_attempt date not null,
+   m_last_error varchar2(2000 char),
+   m_message blob not null,
+   primary key (id)
+);
+
+create index idx_mail_outbox_status_idx on o_mail_outbox (m_status, m_next_attempt);
@@ -2425,6 +2425,8 @@ create table o_ex_task (
    e_task text not null,
    e_scheduled timestamp,
    e_status_before_edit varchar(16),
+   e_progress decimal,
+   e_checkpoint varchar(255),
    fk_resource_id int8,
    fk_identity_id int8,
    primary key (id)
@@ -3091,6 +3093,145 @@ create table o_ap_participation (
    primary key (id)
 );
 
+-- search
+create table o_search_index_work (
+   id bigserial,
+   creationdate timestamp not null,
+   s_type varchar(16) not null,
+   s_path varchar(1024) not null,
+   primary key (id)
+);
+
+-- quota usage
+create table o_vfs_quota_usage (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   f_relative_path varchar(255) not null,
+   f_usage int8 default 0 not null,
+   f_reconciled timestamp not null,
+   unique(f_relative_path),
+   primary key (id)
+);
+
+-- calendar event store
+create table o_cal_calendar (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   c_calendar_id varchar(255) not null,
+   c_calendar_type varchar(16) not null,
+   c_window_begin timestamp not null,
+   c_window_end timestamp not null,
+   c_ics_dirty bool default true not null,
+   unique(c_calendar_type, c_calendar_id),
+   primary key (id)
+);
+create table o_cal_event (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   c_uid varchar(1024) not null,
+   c_recurrence_id varchar(128),
+   c_begin timestamp not null,
+   c_end timestamp not null,
+   c_recurring bool default false not null,
+   c_recurrence_end timestamp,
+   c_vevent text not null,
+   fk_calendar int8 not null,
+   primary key (id)
+);
+create table o_cal_event_occurrence (
+   id bigserial,
+   creationdate timestamp not null,
+   c_uid varchar(1024) not null,
+   c_begin timestamp not null,
+   c_end timestamp not null,
+   fk_event int8 not null,
+   fk_calendar int8 not null,
+   primary key (id)
+);
+
+-- coaching statistics
+create table o_coach_statistics_work (
+   id bigserial,
+   creationdate timestamp not null,
+   c_type varchar(16) not null,
+   c_key int8 not null,
+   c_identity_key int8,
+   primary key (id)
+);
+create table o_coach_course_stat (
+   id bigserial,
+   creationdate timestamp not null,
+   c_coach_key int8 not null,
+   c_entry_key int8 not null,
+   c_students int8 default 0 not null,
+   c_initial_launch int8 default 0 not null,
+   c_passed int8 default 0 not null,
+   c_failed int8 default 0 not null,
+   c_not_attempted int8 default 0 not null,
+   c_average_score float(24),
+   c_average_completion float(24),
+   unique(c_coach_key, c_entry_key),
+   primary key (id)
+);
+create table o_coach_student_stat (
+   id bigserial,
+   creationdate timestamp not null,
+   c_coach_key int8 not null,
+   c_student_key int8 not null,
+   c_courses int8 default 0 not null,
+   c_initial_launch int8 default 0 not null,
+   c_passed int8 default 0 not null,
+   c_failed int8 default 0 not null,
+   c_not_attempted int8 default 0 not null,
+   c_average_completion float(24),
+   unique(c_coach_key, c_student_key),
+   primary key (id)
+);
+
+-- my courses
+create table o_re_my_course (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   fk_identity_id int8 not null,
+   fk_entry_id int8 not null,
+   c_owner bool default false not null,
+   c_coach bool default false not null,
+   c_participant bool default false not null,
+   c_member bool default false not null,
+   c_marked bool default false not null,
+   c_recent_launch timestamp,
+   c_passed bool,
+   c_score float(24),
+   c_completion float(24),
+   primary key (id)
+);
+create table o_re_my_course_state (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   fk_identity_id int8 not null,
+   c_valid bool default false not null,
+   c_build_version int8 default 0 not null,
+   primary key (id)
+);
+
+-- mail outbox
+create table o_mail_outbox (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   m_status varchar(16) not null,
+   m_attempts int8 default 0 not null,
+   m_next_attempt timestamp not null,
+   m_last_error varchar(2000),
+   m_message bytea not null,
+   primary key (id)
+);
+
 -- user view
 create view o_bs_identity_short_v as (
    select
@@ -3700,6 +3841,21 @@ create index idx_cal_imp_to_ident_idx on o_cal_import (fk_identity);
 create index idx_cal_imp_cal_id_idx on o_cal_import (c_calendar_id);
 create index idx_cal_imp_cal_type_idx on o_cal_import (c_calendar_type);
 
+alter table o_cal_event add constraint cal_event_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_event_period_idx on o_cal_event (fk_calendar, c_begin, c_end);
+alter table o_cal_event_occurrence add constraint cal_occ_to_event_idx foreign key (fk_event) references o_cal_event (id);
+create index idx_cal_occ_to_event_idx on o_cal_event_occurrence (fk_event);
+alter table o_cal_event_occurrence add constraint cal_occ_to_cal_idx foreign key (fk_calendar) references o_cal_calendar (id);
+create index idx_cal_occ_period_idx on o_cal_event_occurrence (fk_calendar, c_begin, c_end);
+
+-- my courses
+create unique index idx_my_course_ident_entry_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+create index idx_my_course_entry_idx on o_re_my_course (fk_entry_id);
+create unique index idx_my_course_state_ident_idx on o_re_my_course_state (fk_identity_id);
+
+-- mail outbox
+create index idx_mail_outbox_status_idx on o_mail_outbox (m_status, m_next_attempt);
+
 create index idx_cal_imp_to_cal_id_idx on o_cal_import_to (c_to_calendar_id);
 create index idx_cal_imp_to_cal_type_idx on o_cal_import_to (c_to_calendar_type);
 
@@ -0,0 +1,149 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.manager;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.commons.calendar.model.StoredCalendar;
+import org.olat.commons.calendar.model.StoredCalendarEvent;
+import org.olat.commons.calendar.model.StoredCalendarOccurrence;
+import org.olat.core.commons.persistence.DB;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class CalendarEventStoreDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private CalendarEventStoreDAO calendarEventStoreDao;
+	
+	@Test
+	public void createCalendar() {
+		String calendarId = UUID.randomUUID().toString();
+		StoredCalendar calendar = calendarEventStoreDao.createCalendar("store-test", calendarId, date(2020, 1, 1), date(2022, 1, 1));
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertNotNull(calendar.getKey());
+		Assert.assertNotNull(calendar.getCreationDate());
+		Assert.assertNotNull(calendar.getLastModified());
+		Assert.assertTrue(calendar.isIcsDirty());
+		
+		StoredCalendar reloadedCalendar = calendarEventStoreDao.getCalendar("store-test", calendarId);
+		Assert.assertEquals(calendar, reloadedCalendar);
+		Assert.assertEquals(calendarId, reloadedCalendar.getCalendarId());
+		Assert.assertEquals("store-test", reloadedCalendar.getType());
+		Assert.assertTrue(reloadedCalendar.isInWindow(date(2020, 3, 1), date(2020, 4, 1)));
+		Assert.assertFalse(reloadedCalendar.isInWindow(date(2019, 12, 1), date(2020, 2, 1)));
+		Assert.assertNull(calendarEventStoreDao.getCalendar("store-test", UUID.randomUUID().toString()));
+	}
+	
+	@Test
+	public void getEventUidsInPeriod() {
+		StoredCalendar calendar = calendarEventStoreDao.createCalendar("store-test", UUID.randomUUID().toString(), date(2020, 1, 1), date(2022, 1, 1));
+		calendarEventStoreDao.createEvent(calendar, "ev-1", null, date(2020, 3, 2), date(2020, 3, 3), false, null, "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "ev-2", null, date(2020, 3, 10), date(2020, 3, 20), false, null, "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "ev-3", null, date(2020, 5, 2), date(2020, 5, 3), false, null, "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "ev-2", "20200315T100000", date(2020, 3, 15), date(2020, 3, 16), false, null, "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "ev-4", null, date(2020, 1, 6), date(2020, 1, 7), true, null, "VEVENT");
+		dbInstance.commitAndCloseSession();
+		
+		List<String> uids = calendarEventStoreDao.getEventUidsInPeriod(calendar, date(2020, 3, 1), date(2020, 3, 12));
+		Assert.assertEquals(2, uids.size());
+		Assert.assertTrue(uids.contains("ev-1"));
+		Assert.assertTrue(uids.contains("ev-2"));
+		
+		List<String> overlappingUids = calendarEventStoreDao.getEventUidsInPeriod(calendar, date(2020, 3, 19), date(2020, 4, 1));
+		Assert.assertEquals(Collections.singletonList("ev-2"), overlappingUids);
+		
+		List<String> recurringUids = calendarEventStoreDao.getRecurringEventUidsInPeriod(calendar, date(2020, 3, 1), date(2020, 3, 12));
+		Assert.assertEquals(Collections.singletonList("ev-4"), recurringUids);
+	}
+	
+	@Test
+	public void getRecurringEventUidsInPeriod() {
+		StoredCalendar calendar = calendarEventStoreDao.createCalendar("store-test", UUID.randomUUID().toString(), date(2020, 1, 1), date(2022, 1, 1));
+		calendarEventStoreDao.createEvent(calendar, "rec-1", null, date(2020, 1, 6), date(2020, 1, 7), true, date(2020, 2, 1), "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "rec-2", null, date(2020, 1, 6), date(2020, 1, 7), true, date(2020, 6, 1), "VEVENT");
+		calendarEventStoreDao.createEvent(calendar, "rec-3", null, date(2020, 4, 6), date(2020, 4, 7), true, null, "VEVENT");
+		dbInstance.commitAndCloseSession();
+		
+		List<String> uids = calendarEventStoreDao.getRecurringEventUidsInPeriod(calendar, date(2020, 3, 1), date(2020, 3, 31));
+		Assert.assertEquals(Collections.singletonList("rec-2"), uids);
+		
+		List<String> laterUids = calendarEventStoreDao.getRecurringEventUidsInPeriod(calendar, date(2020, 5, 1), date(2020, 7, 1));
+		Assert.assertEquals(2, laterUids.size());
+		Assert.assertTrue(laterUids.contains("rec-2"));
+		Assert.assertTrue(laterUids.contains("rec-3"));
+	}
+	
+	@Test
+	public void getOccurrencesInPeriod() {
+		StoredCalendar calendar = calendarEventStoreDao.createCalendar("store-test", UUID.randomUUID().toString(), date(2020, 1, 1), date(2022, 1, 1));
+		StoredCalendarEvent event = calendarEventStoreDao.createEvent(calendar, "rec-occ-1", null, date(2020, 1, 6), date(2020, 1, 7), true, null, "VEVENT");
+		for(int i=0; i<10; i++) {
+			Date begin = date(2020, 1, 6 + (i * 7));
+			calendarEventStoreDao.createOccurrence(event, begin, new Date(begin.getTime() + 3600000l));
+		}
+		dbInstance.commitAndCloseSession();
+		
+		List<StoredCalendarOccurrence> occurrences = calendarEventStoreDao.getOccurrencesInPeriod(calendar, date(2020, 1, 10), date(2020, 1, 31));
+		Assert.assertEquals(3, occurrences.size());
+		Assert.assertTrue(occurrences.stream().allMatch(occ -> "rec-occ-1".equals(occ.getUid())));
+		
+		calendarEventStoreDao.deleteOccurrences(event);
+		dbInstance.commitAndCloseSession();
+		Assert.assertTrue(calendarEventStoreDao.getOccurrencesInPeriod(calendar, date(2020, 1, 1), date(2021, 1, 1)).isEmpty());
+	}
+	
+	@Test
+	public void deleteCalendar() {
+		String calendarId = UUID.randomUUID().toString();
+		StoredCalendar calendar = calendarEventStoreDao.createCalendar("store-test", calendarId, date(2020, 1, 1), date(2022, 1, 1));
+		StoredCalendarEvent event = calendarEventStoreDao.createEvent(calendar, "del-1", null, date(2020, 1, 6), date(2020, 1, 7), true, null, "VEVENT");
+		calendarEventStoreDao.createOccurrence(event, date(2020, 1, 6), date(2020, 1, 7));
+		dbInstance.commitAndCloseSession();
+		
+		calendarEventStoreDao.deleteCalendar(calendar);
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertNull(calendarEventStoreDao.getCalendar("store-test", calendarId));
+		Assert.assertTrue(calendarEventStoreDao.getEvents(calendar).isEmpty());
+	}
+	
+	private Date date(int year, int month, int day) {
+		Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set(year, month - 1, day, 10, 0, 0);
+		return cal.getTime();
+	}
+}
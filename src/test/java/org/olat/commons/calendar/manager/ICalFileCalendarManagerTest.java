@@ -57,11 +57,13 @@ import org.junit.Assume;
 import org.junit.Test;
 import org.olat.commons.calendar.CalendarImportTest;
 import org.olat.commons.calendar.CalendarManager;
+import org.olat.commons.calendar.CalendarModule;
 import org.olat.commons.calendar.CalendarUtils;
 import org.olat.commons.calendar.model.Kalendar;
 import org.olat.commons.calendar.model.KalendarEvent;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.id.Identity;
 import org.apache.logging.log4j.Logger;
@@ -83,7 +85,13 @@ public class ICalFileCalendarManagerTest extends OlatTestCase {
 	@Autowired
 	private ICalFileCalendarManager calendarManager;
 	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private CalendarModule calendarModule;
+	@Autowired
 	private ImportCalendarManager importCalendarManager;
+	@Autowired
+	private CalendarEventStoreDAO calendarEventStoreDao;
 	
 	private final void emptyCalendarCache() {
 		CoordinatorManager coordinator = CoreSpringFactory.getImpl(CoordinatorManager.class);
@@ -146,6 +154,62 @@ public class ICalFileCalendarManagerTest extends OlatTestCase {
 		assertNull("Found removed event", removedEvent);
 	}
 	
+	@Test
+	public void getEventsFromStore_notLoaded() {
+		Assume.assumeTrue(calendarModule.isEventStoreEnabled());
+		Identity test = JunitTestHelper.createAndPersistIdentityAsRndUser("ical-1-");
+		Kalendar cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		
+		Calendar calendar = Calendar.getInstance();
+		Date start = calendar.getTime();
+		calendarManager.addEventTo(cal, new KalendarEvent("id-store-1", "Stored event", start, 60 * 60 * 1000));
+		calendar.add(Calendar.MONTH, 2);
+		calendarManager.addEventTo(cal, new KalendarEvent("id-store-2", "Later event", calendar.getTime(), 60 * 60 * 1000));
+		dbInstance.commitAndCloseSession();
+		
+		emptyCalendarCache();
+		cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		Assert.assertFalse(cal.isLoaded());
+		
+		calendar.setTime(start);
+		calendar.add(Calendar.DATE, -1);
+		Date from = calendar.getTime();
+		calendar.add(Calendar.DATE, 2);
+		List<KalendarEvent> events = calendarManager.getEvents(cal, from, calendar.getTime(), true);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals("id-store-1", events.get(0).getID());
+		Assert.assertFalse(cal.isLoaded());
+		
+		// the first access to the events loads the whole calendar
+		Assert.assertNotNull(cal.getEvent("id-store-2", null));
+		Assert.assertTrue(cal.isLoaded());
+	}
+	
+	@Test
+	public void exportEventStore() {
+		Assume.assumeTrue(calendarModule.isEventStoreEnabled());
+		Identity test = JunitTestHelper.createAndPersistIdentityAsRndUser("ical-1-");
+		Kalendar cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		calendarManager.addEventTo(cal, new KalendarEvent("id-export-1", "Exported event", new Date(), 60 * 60 * 1000));
+		dbInstance.commitAndCloseSession();
+		Assert.assertNotNull(calendarEventStoreDao.getCalendar(cal.getType(), cal.getCalendarID()));
+		
+		try {
+			calendarModule.setEventStoreEnabled(false);
+			calendarManager.exportEventStore();
+			dbInstance.commitAndCloseSession();
+			
+			Assert.assertNull(calendarEventStoreDao.getCalendar(cal.getType(), cal.getCalendarID()));
+			emptyCalendarCache();
+			Kalendar reloadedCal = calendarManager.getPersonalCalendar(test).getKalendar();
+			KalendarEvent exportedEvent = reloadedCal.getEvent("id-export-1", null);
+			Assert.assertNotNull(exportedEvent);
+			Assert.assertEquals("Exported event", exportedEvent.getSubject());
+		} finally {
+			calendarModule.setEventStoreEnabled(true);
+		}
+	}
+	
 	@Test
 	public void testAddChangeEvent_v2() {
 		Identity test = JunitTestHelper.createAndPersistIdentityAsRndUser("ical-1-");	
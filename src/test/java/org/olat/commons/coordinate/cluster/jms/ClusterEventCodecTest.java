@@ -0,0 +1,132 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OLATResourceableJustBeforeDeletedEvent;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.course.config.CourseConfigEvent;
+import org.olat.course.config.CourseConfigEvent.CourseConfigType;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ClusterEventCodecTest {
+
+	@Test
+	public void encodeDecodeKnownEvents() throws Exception {
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("CodecTest", 34l);
+		MultiUserEvent event = new MultiUserEvent("changed");
+		event.setNodeMarker(3);
+		OLATResourceableJustBeforeDeletedEvent deletedEvent = new OLATResourceableJustBeforeDeletedEvent(ores);
+		CourseConfigEvent configEvent = new CourseConfigEvent(CourseConfigType.calendar, 35l);
+
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(2, 1l, ores, event));
+		wrappers.add(new JMSWrapper(2, 2l, ores, deletedEvent));
+		wrappers.add(new JMSWrapper(2, 3l, ores, configEvent));
+
+		byte[] data = ClusterEventCodec.encode(2, wrappers);
+		List<JMSWrapper> decodedWrappers = ClusterEventCodec.decode(data);
+		Assert.assertEquals(3, decodedWrappers.size());
+
+		JMSWrapper decodedWrapper = decodedWrappers.get(0);
+		Assert.assertEquals(Integer.valueOf(2), decodedWrapper.getNodeId());
+		Assert.assertEquals(1l, decodedWrapper.getMsgId());
+		Assert.assertTrue(OresHelper.equals(ores, decodedWrapper.getOres()));
+		Assert.assertEquals(MultiUserEvent.class, decodedWrapper.getMultiUserEvent().getClass());
+		Assert.assertEquals("changed", decodedWrapper.getMultiUserEvent().getCommand());
+		Assert.assertEquals(3, decodedWrapper.getMultiUserEvent().getNodeMarker());
+
+		OLATResourceableJustBeforeDeletedEvent decodedDeletedEvent = (OLATResourceableJustBeforeDeletedEvent)decodedWrappers.get(1).getMultiUserEvent();
+		Assert.assertTrue(decodedDeletedEvent.targetEquals(ores));
+
+		CourseConfigEvent decodedConfigEvent = (CourseConfigEvent)decodedWrappers.get(2).getMultiUserEvent();
+		Assert.assertEquals(CourseConfigType.calendar, decodedConfigEvent.getType());
+		Assert.assertEquals(Long.valueOf(35l), decodedConfigEvent.getResourceableId());
+	}
+
+	@Test
+	public void encodeDecodeSerializedEvent() throws Exception {
+		OLATResourceable ores = OresHelper.createOLATResourceableType("CodecTest");
+		TestEvent event = new TestEvent("payload");
+
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(1, 7l, ores, event));
+		wrappers.add(new JMSWrapper(1, 8l, ores, event));
+
+		byte[] data = ClusterEventCodec.encode(1, wrappers);
+		List<JMSWrapper> decodedWrappers = ClusterEventCodec.decode(data);
+		// serialized events are never collapsed
+		Assert.assertEquals(2, decodedWrappers.size());
+		Assert.assertNull(decodedWrappers.get(0).getOres().getResourceableId());
+		Assert.assertEquals("payload", ((TestEvent)decodedWrappers.get(0).getMultiUserEvent()).getPayload());
+		Assert.assertEquals(8l, decodedWrappers.get(1).getMsgId());
+	}
+
+	@Test
+	public void collapseDuplicates() throws Exception {
+		OLATResourceable ores1 = OresHelper.createOLATResourceableInstance("CodecTest", 36l);
+		OLATResourceable ores2 = OresHelper.createOLATResourceableInstance("CodecTest", 37l);
+
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(1, 1l, ores1, new MultiUserEvent("invalidate")));
+		wrappers.add(new JMSWrapper(1, 2l, ores2, new MultiUserEvent("invalidate")));
+		wrappers.add(new JMSWrapper(1, 3l, ores1, new MultiUserEvent("invalidate")));
+		wrappers.add(new JMSWrapper(1, 4l, ores1, new MultiUserEvent("other")));
+		wrappers.add(new JMSWrapper(1, 5l, ores2, new MultiUserEvent("invalidate")));
+
+		List<JMSWrapper> decodedWrappers = ClusterEventCodec.decode(ClusterEventCodec.encode(1, wrappers));
+		// the last occurrence of a duplicate is kept at its position
+		Assert.assertEquals(3, decodedWrappers.size());
+		Assert.assertEquals(3l, decodedWrappers.get(0).getMsgId());
+		Assert.assertTrue(OresHelper.equals(ores1, decodedWrappers.get(0).getOres()));
+		Assert.assertEquals("invalidate", decodedWrappers.get(0).getMultiUserEvent().getCommand());
+		Assert.assertEquals(4l, decodedWrappers.get(1).getMsgId());
+		Assert.assertEquals("other", decodedWrappers.get(1).getMultiUserEvent().getCommand());
+		Assert.assertEquals(5l, decodedWrappers.get(2).getMsgId());
+		Assert.assertTrue(OresHelper.equals(ores2, decodedWrappers.get(2).getOres()));
+	}
+
+	public static class TestEvent extends MultiUserEvent {
+
+		private static final long serialVersionUID = 6213597536262413962L;
+
+		private final String payload;
+
+		public TestEvent(String payload) {
+			super("test-event");
+			this.payload = payload;
+		}
+
+		public String getPayload() {
+			return payload;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.singlevm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.gui.control.Event;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.GenericEventListener;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.event.businfo.BusListenerInfo;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * Test the listener registry of the event bus without the cluster.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class SingleVMEventBusTest {
+
+	@Test
+	public void registerFireDeregister() {
+		SingleVMEventBus bus = new SingleVMEventBus();
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("EventBusTest", 27l);
+		CountingListener listener = new CountingListener();
+
+		bus.registerFor(listener, null, ores);
+		bus.registerFor(listener, null, ores);// twice doesn't matter
+		Assert.assertEquals(1, bus.getListeningIdentityCntFor(ores));
+
+		bus.fireEventToListenersOf(new MultiUserEvent("test"), ores);
+		Assert.assertEquals(1, listener.getCount());
+
+		bus.deregisterFor(listener, ores);
+		Assert.assertEquals(0, bus.getListeningIdentityCntFor(ores));
+
+		bus.fireEventToListenersOf(new MultiUserEvent("test"), ores);
+		Assert.assertEquals(1, listener.getCount());
+	}
+
+	@Test
+	public void fireToTypeListeners() {
+		SingleVMEventBus bus = new SingleVMEventBus();
+		OLATResourceable typeOres = OresHelper.createOLATResourceableType("EventBusTypeTest");
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("EventBusTypeTest", 28l);
+		CountingListener typeListener = new CountingListener();
+		CountingListener listener = new CountingListener();
+
+		bus.registerFor(typeListener, null, typeOres);
+		bus.registerFor(listener, null, ores);
+
+		bus.fireEventToListenersOf(new MultiUserEvent("test"), ores);
+		Assert.assertEquals(1, typeListener.getCount());
+		Assert.assertEquals(1, listener.getCount());
+
+		bus.deregisterFor(typeListener, typeOres);
+		Assert.assertEquals(0, bus.getListeningIdentityCntFor(typeOres));
+		Assert.assertEquals(1, bus.getListeningIdentityCntFor(ores));
+	}
+
+	@Test
+	public void busListenerInfo() {
+		InfoEventBus bus = new InfoEventBus();
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("EventBusInfoTest", 29l);
+		CountingListener listener1 = new CountingListener();
+		CountingListener listener2 = new CountingListener();
+		bus.registerFor(listener1, null, ores);
+		bus.registerFor(listener2, null, ores);
+
+		BusListenerInfo info = bus.info();
+		Assert.assertEquals(2, info.getCountFor(ores));
+	}
+
+	/**
+	 * Register, fire and deregister concurrently on a set of channels
+	 * and check that every registration is consistent at the end.
+	 */
+	@Test
+	public void concurrentRegisterFireDeregister() throws Exception {
+		final SingleVMEventBus bus = new SingleVMEventBus();
+		final int numOfThreads = 8;
+		final int numOfChannels = 16;
+		final int numOfLoops = 2000;
+
+		final List<OLATResourceable> channels = new ArrayList<>();
+		for(int i=0; i<numOfChannels; i++) {
+			channels.add(OresHelper.createOLATResourceableInstance("EventBusConcurrentTest", Long.valueOf(i)));
+		}
+
+		final List<Throwable> errors = new ArrayList<>();
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountingListener firedListener = new CountingListener();
+		final List<CountingListener> keptListeners = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		for(int i=0; i<numOfThreads; i++) {
+			final CountingListener keptListener = new CountingListener();
+			keptListeners.add(keptListener);
+			final int threadIndex = i;
+			executor.execute(() -> {
+				try {
+					start.await();
+					for(int j=0; j<numOfLoops; j++) {
+						OLATResourceable ores = channels.get((threadIndex + j) % numOfChannels);
+						CountingListener listener = new CountingListener();
+						bus.registerFor(listener, null, ores);
+						bus.fireEventToListenersOf(new MultiUserEvent("test"), ores);
+						bus.deregisterFor(listener, ores);
+					}
+					bus.registerFor(keptListener, null, channels.get(threadIndex % numOfChannels));
+				} catch (Throwable e) {
+					synchronized(errors) {
+						errors.add(e);
+					}
+				}
+			});
+		}
+		bus.registerFor(firedListener, null, OresHelper.createOLATResourceableType("EventBusConcurrentTest"));
+
+		start.countDown();
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+		Assert.assertTrue(errors.isEmpty());
+
+		// every fire reached the type listener
+		Assert.assertEquals(numOfThreads * numOfLoops, firedListener.getCount());
+		// only the kept listeners are still registered
+		int registered = 0;
+		for(OLATResourceable channel:channels) {
+			registered += bus.getListeningIdentityCntFor(channel);
+		}
+		// the kept listeners are hold by the list, the bus only references them weakly
+		Assert.assertEquals(keptListeners.size(), registered);
+	}
+
+	private static class InfoEventBus extends SingleVMEventBus {
+
+		public BusListenerInfo info() {
+			return createBusListenerInfo();
+		}
+	}
+
+	private static class CountingListener implements GenericEventListener {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		public int getCount() {
+			return count.get();
+		}
+
+		@Override
+		public void event(Event event) {
+			count.incrementAndGet();
+		}
+	}
+}
@@ -34,6 +34,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -54,6 +55,7 @@ import org.olat.core.logging.DBRuntimeException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
+import org.olat.core.util.DateUtils;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
@@ -139,6 +141,36 @@ public class NotificationsManagerTest extends OlatTestCase {
 		Assert.assertTrue(publisher.getLatestNewsDate().before(reloadedPublisher.getLatestNewsDate()));
 	}
 	
+	@Test
+	public void getIdentityKeysWithNews() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("news-");
+		SubscriptionContext context = new SubscriptionContext("News", Long.valueOf(125), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData("testNews", "e.g. forumdata=keyofforum", null);
+		notificationManager.subscribe(id, context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		NotificationsManagerImpl notificationManagerImpl = (NotificationsManagerImpl)notificationManager;
+		Date compareDate = DateUtils.addDays(new Date(), -30);
+		List<Long> identityKeysBeforeNews = notificationManagerImpl.getIdentityKeysWithNews(compareDate);
+		Assert.assertFalse(identityKeysBeforeNews.contains(id.getKey()));
+		
+		sleep(1100);
+		notificationManager.markPublisherNews(context, null, false);
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> identityKeysWithNews = notificationManagerImpl.getIdentityKeysWithNews(compareDate);
+		Assert.assertTrue(identityKeysWithNews.contains(id.getKey()));
+		
+		// email sent
+		sleep(1100);
+		Subscriber subscriber = notificationManager.getSubscriber(id, context);
+		notificationManagerImpl.updateSubscriberLatestEmail(Collections.singletonList(subscriber));
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> identityKeysAfterEmail = notificationManagerImpl.getIdentityKeysWithNews(compareDate);
+		Assert.assertFalse(identityKeysAfterEmail.contains(id.getKey()));
+	}
+	
 	@Test
 	public void  testAllPublishers() {
 		String identifier = UUID.randomUUID().toString().replace("-", "");
@@ -121,6 +121,23 @@ public class PersistentTaskDAOTest extends OlatTestCase  {
 		Assert.assertEquals(TaskStatus.inWork, todo.getStatus());
 	}
 	
+	@Test
+	public void updateProgress() {
+		String taskName = "Task with progress";
+		PersistentTask task = persistentTaskDao.createTask(taskName, new DummyTask());
+		dbInstance.commitAndCloseSession();
+		
+		PersistentTask todo = persistentTaskDao.pickTaskForRun(task);
+		int rows = persistentTaskDao.updateProgress(todo, 0.5d, "50/100");
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(1, rows);
+		
+		PersistentTask reloadedTask = persistentTaskDao.loadTaskById(task.getKey());
+		Assert.assertEquals(0.5d, reloadedTask.getProgress().doubleValue(), 0.0001);
+		Assert.assertEquals("50/100", reloadedTask.getCheckpoint());
+		Assert.assertEquals(TaskStatus.inWork, reloadedTask.getStatus());
+	}
+	
 	@Test
 	public void updateTask() {
 		//create
@@ -0,0 +1,105 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.vfs.model.VFSQuotaUsageImpl;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class VFSQuotaUsageDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private VFSQuotaUsageDAO quotaUsageDao;
+	
+	@Test
+	public void getPathAndParents() {
+		Assert.assertEquals(Arrays.asList("course", "course/123", "course/123/coursefolder"),
+				VFSQuotaUsageDAO.getPathAndParents("course/123/coursefolder"));
+		Assert.assertEquals(Arrays.asList("course", "course/123"),
+				VFSQuotaUsageDAO.getPathAndParents("/course/123/"));
+		Assert.assertEquals(Collections.singletonList("course"),
+				VFSQuotaUsageDAO.getPathAndParents("course"));
+		Assert.assertTrue(VFSQuotaUsageDAO.getPathAndParents("/").isEmpty());
+		Assert.assertTrue(VFSQuotaUsageDAO.getPathAndParents(null).isEmpty());
+	}
+	
+	@Test
+	public void createUsage() {
+		String relativePath = "quota/" + UUID.randomUUID();
+		VFSQuotaUsageImpl usage = quotaUsageDao.createUsage(relativePath, 1234l);
+		dbInstance.commitAndCloseSession();
+		Assert.assertNotNull(usage.getKey());
+		
+		VFSQuotaUsageImpl reloadedUsage = quotaUsageDao.getUsage(relativePath);
+		Assert.assertEquals(usage, reloadedUsage);
+		Assert.assertEquals(relativePath, reloadedUsage.getRelativePath());
+		Assert.assertEquals(1234l, reloadedUsage.getUsage());
+		Assert.assertNotNull(reloadedUsage.getReconciled());
+	}
+	
+	@Test
+	public void addUsage() {
+		String relativePath = "quota/" + UUID.randomUUID();
+		VFSQuotaUsageImpl parentUsage = quotaUsageDao.createUsage(relativePath, 1000l);
+		VFSQuotaUsageImpl childUsage = quotaUsageDao.createUsage(relativePath + "/child", 100l);
+		VFSQuotaUsageImpl siblingUsage = quotaUsageDao.createUsage(relativePath + "/sibling", 10l);
+		dbInstance.commitAndCloseSession();
+		
+		List<String> paths = VFSQuotaUsageDAO.getPathAndParents(relativePath + "/child/images");
+		int updated = quotaUsageDao.addUsage(paths, 50l);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(2, updated);
+		
+		Assert.assertEquals(1050l, quotaUsageDao.getUsage(parentUsage.getRelativePath()).getUsage());
+		Assert.assertEquals(150l, quotaUsageDao.getUsage(childUsage.getRelativePath()).getUsage());
+		Assert.assertEquals(10l, quotaUsageDao.getUsage(siblingUsage.getRelativePath()).getUsage());
+	}
+	
+	@Test
+	public void reconcileUsage() {
+		String relativePath = "quota/" + UUID.randomUUID();
+		VFSQuotaUsageImpl usage = quotaUsageDao.createUsage(relativePath, 1000l);
+		dbInstance.commitAndCloseSession();
+		
+		quotaUsageDao.reconcileUsage(usage, 800l);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(800l, quotaUsageDao.getUsage(relativePath).getUsage());
+		
+		quotaUsageDao.deleteUsage(usage);
+		dbInstance.commitAndCloseSession();
+		Assert.assertNull(quotaUsageDao.getUsage(relativePath));
+	}
+}
@@ -22,6 +22,7 @@ package org.olat.core.commons.services.vfs.manager;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.UUID;
@@ -38,11 +39,14 @@ import org.olat.core.commons.services.license.LicenseType;
 import org.olat.core.commons.services.license.manager.LicenseCleaner;
 import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.id.Identity;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.vfs.VFSConstants;
+import org.olat.core.util.vfs.LocalFolderImpl;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.core.util.vfs.VFSManager;
+import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -166,6 +170,72 @@ public class VFSRepositoryServiceTest extends OlatTestCase {
 		Assert.assertEquals("A little comment", comment);
 	}
 	
+	@Test
+	public void getQuotaUsage() {
+		VFSContainer quotaContainer = VFSManager.olatRootContainer(VFS_TEST_DIR + "/quota_" + UUID.randomUUID(), null);
+		File directory = ((LocalFolderImpl)quotaContainer).getBasefile();
+		VFSLeaf existingLeaf = quotaContainer.createChildLeaf("existing.txt");
+		int size = copyTestTxt(existingLeaf);
+		Assert.assertTrue(size > 0);
+		
+		// the counter is created with a walk through the directory
+		Assert.assertEquals(size, vfsRepositoryService.getQuotaUsage(directory));
+		dbInstance.commitAndCloseSession();
+		
+		// a new file in a sub directory
+		VFSContainer subContainer = quotaContainer.createChildContainer("sub");
+		VFSLeaf newLeaf = subContainer.createChildLeaf("new.txt");
+		copyTestTxt(newLeaf);
+		vfsRepositoryService.itemSaved(newLeaf);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(2l * size, vfsRepositoryService.getQuotaUsage(directory));
+		
+		// delete it
+		newLeaf.deleteSilently();
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(size, vfsRepositoryService.getQuotaUsage(directory));
+		
+		// a file written without notification is counted by the reconciliation
+		VFSLeaf unnoticedLeaf = subContainer.createChildLeaf("unnoticed.txt");
+		copyTestTxt(unnoticedLeaf);
+		Assert.assertEquals(size, vfsRepositoryService.getQuotaUsage(directory));
+		dbInstance.commitAndCloseSession();
+		
+		vfsRepositoryService.reconcileQuotaUsages();
+		Assert.assertEquals(2l * size, vfsRepositoryService.getQuotaUsage(directory));
+		dbInstance.commitAndCloseSession();
+	}
+	
+	/**
+	 * The WebDAV move copies the file, saves it and moves the metadata.
+	 */
+	@Test
+	public void moveQuotaUsage() {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("move-quota-1");
+		VFSContainer quotaContainer = VFSManager.olatRootContainer(VFS_TEST_DIR + "/quota_" + UUID.randomUUID(), null);
+		VFSContainer sourceContainer = quotaContainer.createChildContainer("source");
+		VFSContainer targetContainer = quotaContainer.createChildContainer("target");
+		File sourceDirectory = ((LocalFolderImpl)sourceContainer).getBasefile();
+		File targetDirectory = ((LocalFolderImpl)targetContainer).getBasefile();
+		VFSLeaf sourceLeaf = sourceContainer.createChildLeaf("moved.txt");
+		int size = copyTestTxt(sourceLeaf);
+		vfsRepositoryService.itemSaved(sourceLeaf);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(size, vfsRepositoryService.getQuotaUsage(sourceDirectory));
+		Assert.assertEquals(0l, vfsRepositoryService.getQuotaUsage(targetDirectory));
+		dbInstance.commitAndCloseSession();
+		
+		VFSLeaf targetLeaf = targetContainer.createChildLeaf("moved.txt");
+		copyTestTxt(targetLeaf);
+		vfsRepositoryService.itemSaved(targetLeaf);
+		vfsRepositoryService.move(sourceLeaf, targetLeaf, author);
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertFalse(sourceLeaf.exists());
+		Assert.assertEquals(0l, vfsRepositoryService.getQuotaUsage(sourceDirectory));
+		Assert.assertEquals(size, vfsRepositoryService.getQuotaUsage(targetDirectory));
+	}
+	
 	private VFSLeaf createFile() {
 		String filename = UUID.randomUUID() + ".txt";
 		VFSContainer testContainer = VFSManager.olatRootContainer(VFS_TEST_DIR, null);
@@ -19,6 +19,9 @@
  */
 package org.olat.core.dispatcher.mapper;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -215,6 +218,81 @@ public class MapperServiceTest extends OlatTestCase {
 		Assert.assertEquals(modKey, reloadedMapper2.getKey());
 	}
 	
+	@Test
+	public void persistPendingMappers() {
+		UserSession session = createUserSession();
+		PersistentMapper mapper = new PersistentMapper(UUID.randomUUID().toString());
+		MapperKey mapperKey = mapperService.register(session, mapper);
+		dbInstance.commitAndCloseSession();
+		
+		// write the queue now
+		long persistedCount = mapperService.persistedCount();
+		mapperService.persistPendingMappers();
+		Assert.assertEquals(0, mapperService.pendingCount());
+		Assert.assertTrue(mapperService.persistedCount() > persistedCount);
+		
+		PersistentMapper persistedMapper = (PersistentMapper)mapperDao.retrieveMapperById(mapperKey.getMapperId());
+		Assert.assertNotNull(persistedMapper);
+		Assert.assertEquals(mapper.getKey(), persistedMapper.getKey());
+		
+		// change the mapper and clean up, the change is written with the queue
+		String modKey = UUID.randomUUID().toString();
+		mapper.setKey(modKey);
+		mapperService.cleanUp(Collections.<MapperKey>singletonList(mapperKey));
+		mapperService.persistPendingMappers();
+		dbInstance.commitAndCloseSession();
+		
+		PersistentMapper updatedMapper = (PersistentMapper)mapperDao.retrieveMapperById(mapperKey.getMapperId());
+		Assert.assertEquals(modKey, updatedMapper.getKey());
+	}
+	
+	@Test
+	public void persistPendingMappers_dropOnlyBadMapper() {
+		UserSession session = createUserSession();
+		PersistentMapper mapper = new PersistentMapper(UUID.randomUUID().toString());
+		MapperKey mapperKey = mapperService.register(session, mapper);
+		MapperKey badMapperKey = mapperService.register(session, new BadPersistentMapper());
+		dbInstance.commitAndCloseSession();
+		
+		// the batch fails, it's retried mapper by mapper
+		mapperService.persistPendingMappers();
+		Assert.assertEquals(0, mapperService.pendingCount());
+		
+		PersistentMapper persistedMapper = (PersistentMapper)mapperDao.retrieveMapperById(mapperKey.getMapperId());
+		Assert.assertNotNull(persistedMapper);
+		Assert.assertEquals(mapper.getKey(), persistedMapper.getKey());
+		Assert.assertNull(mapperDao.retrieveMapperById(badMapperKey.getMapperId()));
+	}
+	
+	@Test
+	public void persistPendingMappers_cacheable() {
+		UserSession session = createUserSession();
+		String mapperId = UUID.randomUUID().toString();
+		PersistentMapper mapper = new PersistentMapper(UUID.randomUUID().toString());
+		MapperKey mapperKey = mapperService.register(session, mapperId, mapper);
+		dbInstance.commitAndCloseSession();
+		
+		// queued, but available for the other sessions
+		UserSession session2 = createUserSession();
+		PersistentMapper queuedMapper = (PersistentMapper)mapperService.getMapperById(session2, mapperKey.getMapperId());
+		Assert.assertEquals(mapper.getKey(), queuedMapper.getKey());
+		
+		mapperService.persistPendingMappers();
+		PersistentMapper persistedMapper = (PersistentMapper)mapperDao.retrieveMapperById(mapperKey.getMapperId());
+		Assert.assertNotNull(persistedMapper);
+		Assert.assertEquals(mapper.getKey(), persistedMapper.getKey());
+		dbInstance.commitAndCloseSession();
+		
+		// register a new configuration, the existing mapper is updated
+		PersistentMapper updatedMapper = new PersistentMapper(UUID.randomUUID().toString());
+		mapperService.register(session, mapperId, updatedMapper);
+		mapperService.persistPendingMappers();
+		dbInstance.commitAndCloseSession();
+		
+		PersistentMapper reloadedMapper = (PersistentMapper)mapperDao.retrieveMapperById(mapperKey.getMapperId());
+		Assert.assertEquals(updatedMapper.getKey(), reloadedMapper.getKey());
+	}
+	
 	private UserSession createUserSession() {
 		HttpSession httpSession = new MockHttpSession();
 		UserSession userSession = sessionManager.getUserSession(null, httpSession);
@@ -233,4 +311,18 @@ public class MapperServiceTest extends OlatTestCase {
 			return null;
 		}
 	}
+	
+	private static class BadPersistentMapper implements Mapper, Serializable {
+
+		private static final long serialVersionUID = -3456328571650219127L;
+
+		@Override
+		public MediaResource handle(String relPath, HttpServletRequest request) {
+			return null;
+		}
+		
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			throw new IOException("Cannot be serialized");
+		}
+	}
 }
@@ -0,0 +1,147 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.components.form.flexible.impl.elements.table;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+import org.olat.core.commons.persistence.SortKey;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class SortableFlexiTableModelDelegateTest {
+	
+	@Test
+	public void sortStrings() {
+		TestDataModel model = createModel(row("Zoë"), row("zoe"), row("Émile"), row(null), row("emile"), row("Anna"));
+		
+		List<Object[]> rows = new SortableFlexiTableModelDelegate<>(new SortKey("name", true), model, Locale.FRENCH).sort();
+		
+		assertThat(names(rows)).containsExactly(null, "Anna", "emile", "Émile", "zoe", "Zoë");
+	}
+	
+	@Test
+	public void sortStringsDesc() {
+		TestDataModel model = createModel(row("b"), row("c"), row("a"));
+		
+		List<Object[]> rows = new SortableFlexiTableModelDelegate<>(new SortKey("name", false), model, Locale.ENGLISH).sort();
+		
+		assertThat(names(rows)).containsExactly("c", "b", "a");
+	}
+	
+	@Test
+	public void sortDatesAndNumbers() {
+		Date now = new Date();
+		Date before = new Date(now.getTime() - 10000);
+		TestDataModel model = createModel(row(now), row(null), row(before));
+		
+		List<Object[]> rows = new SortableFlexiTableModelDelegate<>(new SortKey("name", true), model, Locale.ENGLISH).sort();
+		assertThat(names(rows)).containsExactly(null, before, now);
+		
+		model = createModel(row(Long.valueOf(12)), row(Long.valueOf(3)), row(Long.valueOf(7)));
+		rows = new SortableFlexiTableModelDelegate<>(new SortKey("name", true), model, Locale.ENGLISH).sort();
+		assertThat(names(rows)).containsExactly(3l, 7l, 12l);
+	}
+	
+	/**
+	 * Above the threshold, the rows are sorted in parallel with the
+	 * same result as the collator.
+	 */
+	@Test
+	public void sortLargeModel() {
+		Random random = new Random(42);
+		int numOfRows = SortableFlexiTableModelDelegate.PARALLEL_SORT_THRESHOLD * 4;
+		String[] letters = new String[] { "a", "A", "à", "e", "É", "è", "o", "Ö", "z", "ß", " " };
+		Object[][] data = new Object[numOfRows][];
+		List<String> expected = new ArrayList<>(numOfRows);
+		for(int i=0; i<numOfRows; i++) {
+			StringBuilder sb = new StringBuilder();
+			for(int j=random.nextInt(8) + 1; j-->0; ) {
+				sb.append(letters[random.nextInt(letters.length)]);
+			}
+			data[i] = row(sb.toString());
+			expected.add(sb.toString());
+		}
+		expected.sort(Collator.getInstance(Locale.GERMAN));
+		
+		TestDataModel model = createModel(data);
+		List<Object[]> rows = new SortableFlexiTableModelDelegate<>(new SortKey("name", true), model, Locale.GERMAN).sort();
+		
+		assertThat(names(rows)).containsExactlyElementsOf(expected);
+	}
+	
+	private static Object[] row(Object value) {
+		return new Object[] { value };
+	}
+	
+	private static List<Object> names(List<Object[]> rows) {
+		List<Object> names = new ArrayList<>(rows.size());
+		for(Object[] row:rows) {
+			names.add(row[0]);
+		}
+		return names;
+	}
+	
+	private static TestDataModel createModel(Object[]... rows) {
+		FlexiTableColumnModel columnsModel = FlexiTableDataModelFactory.createFlexiTableColumnModel();
+		columnsModel.addFlexiColumnModel(new DefaultFlexiColumnModel("name", 0, true, "name"));
+		return new TestDataModel(Arrays.asList(rows), columnsModel);
+	}
+	
+	private static class TestDataModel extends DefaultFlexiTableDataModel<Object[]>
+	implements SortableFlexiTableDataModel<Object[]> {
+		
+		public TestDataModel(List<Object[]> rows, FlexiTableColumnModel columnModel) {
+			super(rows, columnModel);
+		}
+
+		@Override
+		public void sort(SortKey sortKey) {
+			//
+		}
+
+		@Override
+		public Object getValueAt(int row, int col) {
+			return getValueAt(getObject(row), col);
+		}
+
+		@Override
+		public Object getValueAt(Object[] row, int col) {
+			return row[col];
+		}
+
+		@Override
+		public DefaultFlexiTableDataModel<Object[]> createCopyWithEmptyList() {
+			return new TestDataModel(new ArrayList<>(), getTableColumnModel());
+		}
+	}
+}
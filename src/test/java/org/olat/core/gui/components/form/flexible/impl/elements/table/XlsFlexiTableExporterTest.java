@@ -0,0 +1,188 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.components.form.flexible.impl.elements.table;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.olat.core.commons.persistence.DefaultResultInfos;
+import org.olat.core.commons.persistence.ResultInfos;
+import org.olat.core.commons.persistence.SortKey;
+import org.olat.core.gui.components.form.flexible.elements.FlexiTableFilter;
+import org.olat.core.gui.translator.Translator;
+import org.olat.core.util.openxml.OpenXMLWorkbook;
+import org.olat.core.util.openxml.OpenXMLWorksheet;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class XlsFlexiTableExporterTest {
+	
+	private static final int TABLE_PAGE_SIZE = 20;
+	
+	/**
+	 * The table has loaded its first page, the export loads
+	 * every row of the data source once.
+	 */
+	@Test
+	public void exportPagedData() {
+		TestDataSource source = new TestDataSource(150);
+		TestDataModel model = new TestDataModel(source);
+		SortKey[] orderBy = new SortKey[] { new SortKey("key", true) };
+		model.load(null, null, null, 0, TABLE_PAGE_SIZE, orderBy);
+		
+		List<String> exportedRows = export(model, orderBy);
+		
+		assertThat(exportedRows).containsExactlyElementsOf(source.getAllRows());
+		assertThat(model.getRowCount()).isEqualTo(150);
+		assertThat(source.getMaxResults()).containsExactly(TABLE_PAGE_SIZE, XlsFlexiTableExporter.EXPORT_PAGE_SIZE);
+	}
+	
+	@Test
+	public void exportPagedDataMultiplePages() {
+		TestDataSource source = new TestDataSource(1234);
+		TestDataModel model = new TestDataModel(source);
+		SortKey[] orderBy = new SortKey[] { new SortKey("key", true) };
+		model.load(null, null, null, 0, TABLE_PAGE_SIZE, orderBy);
+		
+		List<String> exportedRows = export(model, orderBy);
+		
+		assertThat(exportedRows).containsExactlyElementsOf(source.getAllRows());
+		assertThat(model.getRowCount()).isEqualTo(1234);
+		assertThat(source.getMaxResults()).containsExactly(TABLE_PAGE_SIZE, XlsFlexiTableExporter.EXPORT_PAGE_SIZE,
+				XlsFlexiTableExporter.EXPORT_PAGE_SIZE, XlsFlexiTableExporter.EXPORT_PAGE_SIZE);
+	}
+	
+	/**
+	 * Without sort order, the pages are not stable and all rows
+	 * are loaded at once.
+	 */
+	@Test
+	public void exportDataWithoutOrder() {
+		TestDataSource source = new TestDataSource(1234);
+		TestDataModel model = new TestDataModel(source);
+		model.load(null, null, null, 0, TABLE_PAGE_SIZE);
+		
+		List<String> exportedRows = export(model, null);
+		
+		assertThat(exportedRows).containsExactlyElementsOf(source.getAllRows());
+		assertThat(source.getMaxResults()).containsExactly(TABLE_PAGE_SIZE, -1);
+	}
+	
+	/**
+	 * Load all the rows with the first page already loaded.
+	 */
+	@Test
+	public void loadWithFirstPageLoaded() {
+		TestDataSource source = new TestDataSource(150);
+		TestDataModel model = new TestDataModel(source);
+		model.load(null, null, null, 0, TABLE_PAGE_SIZE);
+		model.load(null, null, null, 0, XlsFlexiTableExporter.EXPORT_PAGE_SIZE);
+		
+		assertThat(model.getRowCount()).isEqualTo(150);
+		assertThat(model.isRowLoaded(149)).isTrue();
+	}
+	
+	private List<String> export(TestDataModel model, SortKey[] orderBy) {
+		FlexiTableElementImpl tableEl = mock(FlexiTableElementImpl.class);
+		when(tableEl.getOrderBy()).thenReturn(orderBy);
+		FlexiTableComponent ftC = mock(FlexiTableComponent.class);
+		when(ftC.getFlexiTableElement()).thenReturn(tableEl);
+		
+		List<String> exportedRows = new ArrayList<>();
+		XlsFlexiTableExporter exporter = new XlsFlexiTableExporter() {
+			@Override
+			protected void createRows(FlexiTableComponent component, int firstRow, int lastRow, List<FlexiColumnModel> columns,
+					Translator translator, OpenXMLWorksheet sheet, OpenXMLWorkbook workbook) {
+				for(int r=firstRow; r<lastRow; r++) {
+					exportedRows.add(model.getObject(r));
+				}
+			}
+		};
+		exporter.createPagedData(ftC, model, Collections.emptyList(), null, null, null);
+		return exportedRows;
+	}
+	
+	private static class TestDataModel extends DefaultFlexiTableDataSourceModel<String> {
+		
+		public TestDataModel(TestDataSource source) {
+			super(source, new FlexiTableColumnModelImpl());
+		}
+
+		@Override
+		public Object getValueAt(int row, int col) {
+			return getObject(row);
+		}
+
+		@Override
+		public DefaultFlexiTableDataSourceModel<String> createCopyWithEmptyList() {
+			return new TestDataModel((TestDataSource)getSourceDelegate());
+		}
+	}
+	
+	private static class TestDataSource implements FlexiTableDataSourceDelegate<String> {
+		
+		private final List<String> allRows;
+		private final List<Integer> maxResultsList = new ArrayList<>();
+		
+		public TestDataSource(int numOfRows) {
+			allRows = new ArrayList<>(numOfRows);
+			for(int i=0; i<numOfRows; i++) {
+				allRows.add("row-" + i);
+			}
+		}
+		
+		public List<String> getAllRows() {
+			return allRows;
+		}
+		
+		public List<Integer> getMaxResults() {
+			return maxResultsList;
+		}
+
+		@Override
+		public int getRowCount() {
+			return allRows.size();
+		}
+
+		@Override
+		public List<String> reload(List<String> rows) {
+			return rows;
+		}
+
+		@Override
+		public ResultInfos<String> getRows(String query, List<FlexiTableFilter> filters, List<String> condQueries,
+				int firstResult, int maxResults, SortKey... orderBy) {
+			maxResultsList.add(maxResults);
+			int lastResult = maxResults < 0 ? allRows.size() : Math.min(allRows.size(), firstResult + maxResults);
+			List<String> rows = new ArrayList<>(allRows.subList(Math.min(firstResult, lastResult), lastResult));
+			return new DefaultResultInfos<>(lastResult, -1, rows);
+		}
+	}
+}
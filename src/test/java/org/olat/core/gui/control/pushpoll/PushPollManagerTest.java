@@ -0,0 +1,169 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class PushPollManagerTest {
+	
+	private PushPollManager pushPollManager;
+	
+	@Before
+	public void startManager() {
+		pushPollManager = new PushPollManager();
+		pushPollManager.setEnabled(true);
+		pushPollManager.setTimeout(2000);
+		pushPollManager.init();
+	}
+	
+	@After
+	public void stopManager() {
+		pushPollManager.destroy();
+	}
+	
+	@Test
+	public void parkUntilUpdates() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		TestChannel channel = new TestChannel();
+		
+		boolean parked = pushPollManager.park(request, channel);
+		Assert.assertTrue(parked);
+		Assert.assertEquals(1, pushPollManager.getParkedCount());
+		verify(asyncContext).addListener(any(AsyncListener.class));
+		
+		// an update without signal doesn't resume the poll
+		channel.updates = true;
+		verify(asyncContext, after(200).never()).dispatch();
+		
+		pushPollManager.signal(channel);
+		verify(asyncContext, timeout(1000)).dispatch();
+		Assert.assertEquals(0, pushPollManager.getParkedCount());
+	}
+	
+	@Test
+	public void parkWithPendingUpdates() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		TestChannel channel = new TestChannel();
+		channel.updates = true;
+		
+		// the signal was sent before the request was parked
+		Assert.assertTrue(pushPollManager.park(request, channel));
+		verify(asyncContext, timeout(1000)).dispatch();
+		Assert.assertEquals(0, pushPollManager.getParkedCount());
+	}
+	
+	@Test
+	public void signalNotParkedChannel() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		TestChannel channel = new TestChannel();
+		
+		pushPollManager.signal(channel);
+		Assert.assertTrue(pushPollManager.park(request, channel));
+		verify(asyncContext, after(200).never()).dispatch();
+		Assert.assertEquals(1, pushPollManager.getParkedCount());
+	}
+	
+	@Test
+	public void parkUntilTimeout() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		
+		Assert.assertTrue(pushPollManager.park(request, new TestChannel()));
+		verify(asyncContext, never()).dispatch();
+		verify(asyncContext, timeout(3000)).dispatch();
+	}
+	
+	@Test
+	public void releaseChannel() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		TestChannel channel = new TestChannel();
+		
+		Assert.assertTrue(pushPollManager.park(request, channel));
+		pushPollManager.release(channel);
+		verify(asyncContext).dispatch();
+		Assert.assertEquals(0, pushPollManager.getParkedCount());
+	}
+	
+	@Test
+	public void notParkTwice() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.ASYNC);
+		
+		Assert.assertFalse(pushPollManager.park(request, new TestChannel()));
+		verify(request, never()).startAsync();
+	}
+	
+	@Test
+	public void notParkWithoutAsyncSupport() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		HttpServletRequest request = mockRequest(asyncContext, DispatcherType.REQUEST);
+		when(request.isAsyncSupported()).thenReturn(Boolean.FALSE);
+		
+		Assert.assertFalse(pushPollManager.park(request, new TestChannel()));
+		verify(request, never()).startAsync();
+	}
+	
+	private HttpServletRequest mockRequest(AsyncContext asyncContext, DispatcherType type) {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		when(asyncContext.getResponse()).thenReturn(response);
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.isAsyncSupported()).thenReturn(Boolean.TRUE);
+		when(request.getDispatcherType()).thenReturn(type);
+		when(request.startAsync()).thenReturn(asyncContext);
+		return request;
+	}
+	
+	private static class TestChannel implements PushChannel {
+		
+		private volatile boolean updates = false;
+
+		@Override
+		public boolean hasUpdates() {
+			return updates;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.test.OlatTestCase;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ServletUtilTest extends OlatTestCase {
+	
+	private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+	
+	private File file;
+	
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("servlet-util", ".txt");
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	@After
+	public void deleteFile() {
+		FileUtils.deleteFile(file);
+	}
+	
+	@Test
+	public void serveFile() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+		Assert.assertEquals(CONTENT.length(), response.getContentLength());
+		String eTag = response.getHeader("ETag");
+		Assert.assertNotNull(eTag);
+		Assert.assertFalse(eTag.startsWith("W/"));
+	}
+	
+	@Test
+	public void serveFile_ifNoneMatch() throws Exception {
+		FileMediaResource resource = new FileMediaResource(file);
+		String eTag = ServletUtil.getETag(resource);
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("If-None-Match", "\"other\", W/" + eTag);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, resource);
+		
+		Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+		Assert.assertEquals(0, response.getContentAsByteArray().length);
+	}
+	
+	@Test
+	public void serveFile_ifNoneMatchChanged() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("If-None-Match", "\"other\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+	}
+	
+	@Test
+	public void serveFile_range() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=10-15");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertEquals("abcdef", response.getContentAsString());
+		Assert.assertEquals("bytes 10-15/36", response.getHeader("Content-Range"));
+	}
+	
+	@Test
+	public void serveFile_multipleRanges() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=0-1,-2");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+		String body = response.getContentAsString();
+		Assert.assertEquals(body.length(), response.getContentLength());
+		Assert.assertTrue(body.contains("Content-Range: bytes 0-1/36\r\n\r\n01\r\n"));
+		Assert.assertTrue(body.contains("Content-Range: bytes 34-35/36\r\n\r\nyz\r\n"));
+		Assert.assertTrue(body.endsWith("--\r\n"));
+	}
+	
+	@Test
+	public void serveFile_ifRangeChanged() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=10-15");
+		request.addHeader("If-Range", "\"other\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(CONTENT, response.getContentAsString());
+	}
+	
+	@Test
+	public void serveFile_sendfile() throws Exception {
+		byte[] data = new byte[64 * 1024];
+		Files.write(file.toPath(), data);
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new FileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(data.length, response.getContentLength());
+		Assert.assertEquals(0, response.getContentAsByteArray().length);
+		Assert.assertEquals(file.getAbsolutePath(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		Assert.assertEquals(Long.valueOf(data.length), request.getAttribute("org.apache.tomcat.sendfile.end"));
+	}
+	
+	@Test
+	public void matchETag() {
+		Assert.assertTrue(ServletUtil.matchETag("\"1-2\"", "\"1-2\"", true));
+		Assert.assertTrue(ServletUtil.matchETag("W/\"1-2\"", "\"1-2\"", false));
+		Assert.assertFalse(ServletUtil.matchETag("W/\"1-2\"", "\"1-2\"", true));
+		Assert.assertFalse(ServletUtil.matchETag("\"1-2\"", "W/\"1-2\"", true));
+		Assert.assertTrue(ServletUtil.matchETag("\"0-0\", \"1-2\"", "\"1-2\"", false));
+		Assert.assertTrue(ServletUtil.matchETag("*", "\"1-2\"", false));
+		Assert.assertFalse(ServletUtil.matchETag("\"1-3\"", "\"1-2\"", false));
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class UserActivityLogWriterTest extends OlatTestCase {
+
+	@Autowired
+	private DB dbInstance;
+
+	@Test
+	public void writeAsynchronously() {
+		UserActivityLogWriter writer = new UserActivityLogWriter();
+		writer.setDbInstance(dbInstance);
+		writer.setAsynchronous(true);
+		writer.setQueueSize(1000);
+		writer.setBatchSize(10);
+		writer.setFlushInterval(100);
+		writer.setOfferTimeout(1000);
+		writer.init();
+		Assert.assertTrue(writer.isAsynchronous());
+
+		String sessionId = UUID.randomUUID().toString();
+		for(int i=0; i<35; i++) {
+			writer.log(new LoggingObject(sessionId, 123l, "r", "launch", "node"));
+		}
+		// the logs are not in the transaction of the caller
+		dbInstance.rollbackAndCloseSession();
+
+		writer.shutdown();
+		Assert.assertEquals(0, writer.getQueueDepth());
+		Assert.assertEquals(0l, writer.getDroppedCount());
+		Assert.assertEquals(35l, writer.getWrittenCount());
+
+		List<LoggingObject> logs = loadLogs(sessionId);
+		Assert.assertEquals(35, logs.size());
+		Assert.assertTrue(logs.stream().allMatch(logObj -> logObj.getCreationDate() != null));
+	}
+
+	@Test
+	public void writeSynchronously() {
+		UserActivityLogWriter writer = new UserActivityLogWriter();
+		writer.setDbInstance(dbInstance);
+		writer.setAsynchronous(false);
+		writer.init();
+		Assert.assertFalse(writer.isAsynchronous());
+
+		String sessionId = UUID.randomUUID().toString();
+		writer.log(new LoggingObject(sessionId, 123l, "r", "launch", "node"));
+		dbInstance.commitAndCloseSession();
+
+		Assert.assertEquals(1, loadLogs(sessionId).size());
+		writer.shutdown();
+	}
+
+	private List<LoggingObject> loadLogs(String sessionId) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select log from loggingobject log where log.sessionId=:sessionId", LoggingObject.class)
+				.setParameter("sessionId", sessionId)
+				.getResultList();
+	}
+}
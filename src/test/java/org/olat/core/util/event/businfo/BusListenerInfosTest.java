@@ -0,0 +1,105 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.event.businfo;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class BusListenerInfosTest {
+
+	private final OLATResourceable ores1 = OresHelper.createOLATResourceableInstance("BusInfo", 1l);
+	private final OLATResourceable ores2 = OresHelper.createOLATResourceableInstance("BusInfo", 2l);
+	private final OLATResourceable ores3 = OresHelper.createOLATResourceableInstance("BusInfo", 3l);
+
+	@Test
+	public void createDelta() {
+		BusListenerInfo previous = info(1, 4, 2, 0);
+		BusListenerInfo current = info(2, 4, 0, 5);
+
+		BusListenerInfo delta = current.createDelta(previous);
+		Assert.assertTrue(delta.isDelta());
+		// ores1 unchanged, ores2 removed, ores3 added
+		Assert.assertEquals(2, delta.size());
+		Assert.assertEquals(0, delta.getCountFor(ores2));
+		Assert.assertEquals(5, delta.getCountFor(ores3));
+		Assert.assertTrue(delta.getAllDerivedStrings().contains(OresHelper.createStringRepresenting(ores2)));
+	}
+
+	@Test
+	public void applyDeltas() {
+		BusListenerInfos infos = new BusListenerInfos();
+		BusListenerInfo first = info(1, 4, 2, 0);
+		Assert.assertTrue(infos.updateInfoFor(1, first));
+
+		BusListenerInfo second = info(2, 4, 0, 5);
+		BusListenerInfo delta = second.createDelta(first);
+		delta.setSequence(2);
+		Assert.assertTrue(infos.updateInfoFor(1, delta));
+
+		Assert.assertEquals(4, infos.getListenerCountFor(ores1));
+		Assert.assertEquals(0, infos.getListenerCountFor(ores2));
+		Assert.assertEquals(5, infos.getListenerCountFor(ores3));
+		Assert.assertTrue(infos.getOutOfSyncNodeIds().isEmpty());
+	}
+
+	@Test
+	public void missingDelta() {
+		BusListenerInfos infos = new BusListenerInfos();
+		BusListenerInfo first = info(1, 4, 2, 0);
+		infos.updateInfoFor(1, first);
+		infos.updateInfoFor(2, info(1, 1, 1, 1));
+
+		// the delta with sequence 2 is lost
+		BusListenerInfo third = info(3, 6, 2, 0);
+		BusListenerInfo delta = third.createDelta(first);
+		delta.setSequence(3);
+		Assert.assertFalse(infos.updateInfoFor(1, delta));
+		Assert.assertTrue(infos.getOutOfSyncNodeIds().contains(1));
+		Assert.assertEquals(7, infos.getListenerCountFor(ores1));
+
+		// a full snapshot resync the node
+		Assert.assertTrue(infos.updateInfoFor(1, info(4, 6, 2, 0)));
+		Assert.assertTrue(infos.getOutOfSyncNodeIds().isEmpty());
+		Assert.assertEquals(3, infos.getListenerCountFor(ores2));
+	}
+
+	private BusListenerInfo info(long sequence, int cnt1, int cnt2, int cnt3) {
+		BusListenerInfo info = new BusListenerInfo();
+		info.setSequence(sequence);
+		addEntry(info, ores1, cnt1);
+		addEntry(info, ores2, cnt2);
+		addEntry(info, ores3, cnt3);
+		return info;
+	}
+
+	private void addEntry(BusListenerInfo info, OLATResourceable ores, int cnt) {
+		if(cnt > 0) {
+			info.addEntry(OresHelper.createStringRepresenting(ores), cnt);
+		}
+	}
+}
@@ -679,6 +679,42 @@ public class I18nTest extends OlatTestCase {
 		
 		i18nMgr.setCachingEnabled(true);
 	}
+	
+	/**
+	 * The translation tables must return the same strings as the complete
+	 * lookup with all the fallbacks, for found and missing keys.
+	 */
+	@Test public void testTranslationTable() {
+		i18nMgr.setCachingEnabled(true);
+		String bundleName = "org.olat.core.util.i18n.junittestdata.subtest";
+		String[] keys = new String[] { "recursive.test", "recursive.test2", "recursive.test3", "recursive.test4", "not.existing.key" };
+		for(Locale locale:new Locale[] { Locale.GERMAN, Locale.ENGLISH, Locale.FRENCH }) {
+			I18nTable table = i18nMgr.getTable(bundleName, locale, false, true);
+			for(String key:keys) {
+				String expected = i18nMgr.getLocalizedString(bundleName, key, null, locale, false, true, true, true, 0);
+				assertEquals(expected, table.getLocalizedString(key, null));
+				assertEquals(expected, i18nMgr.getLocalizedString(bundleName, key, null, locale, false, true));
+			}
+		}
+		assertNull(i18nMgr.getLocalizedString(bundleName, "not.existing.key", null, Locale.GERMAN, false, true));
+		
+		// with arguments
+		String coreBundle = "org.olat.core";
+		Object[] args = new Object[] { "12" };
+		String expected = i18nMgr.getLocalizedString(coreBundle, "form.error.toolong", args, Locale.ENGLISH, false, true, true, true, 0);
+		assertNotNull(expected);
+		assertTrue(expected.contains("12"));
+		assertEquals(expected, i18nMgr.getLocalizedString(coreBundle, "form.error.toolong", args, Locale.ENGLISH, false, true));
+		// arguments without placeholder
+		assertEquals(i18nMgr.getLocalizedString(coreBundle, "form.error.toolong", null, Locale.ENGLISH, false, true),
+				i18nMgr.getTable(coreBundle, Locale.ENGLISH, false, true).getLocalizedString("form.error.toolong", null));
+		
+		// changing the caching drops the tables
+		I18nTable table = i18nMgr.getTable(bundleName, Locale.GERMAN, false, true);
+		assertTrue(table == i18nMgr.getTable(bundleName, Locale.GERMAN, false, true));
+		i18nMgr.clearCaches();
+		assertFalse(table == i18nMgr.getTable(bundleName, Locale.GERMAN, false, true));
+	}
 
 	
 	/**
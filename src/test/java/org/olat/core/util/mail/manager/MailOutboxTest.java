@@ -0,0 +1,207 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.mail.Address;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.mail.MailBundle;
+import org.olat.core.util.mail.MailManager;
+import org.olat.core.util.mail.MailModule;
+import org.olat.core.util.mail.MailerResult;
+import org.olat.core.util.mail.model.MailOutboxMessageImpl;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.dumbster.smtp.SmtpMessage;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class MailOutboxTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private MailModule mailModule;
+	@Autowired
+	private MailManager mailManager;
+	@Autowired
+	private MailOutboxDAO mailOutboxDao;
+	@Autowired
+	private MailOutboxSender mailOutboxSender;
+	
+	private boolean outbox;
+	
+	@Before
+	public void setOutbox() {
+		outbox = mailModule.isOutboxEnabled();
+		if(!outbox) {
+			mailModule.setOutboxEnabled(true);
+		}
+	}
+	
+	@After
+	public void resetOutbox() {
+		if(!outbox) {
+			mailModule.setOutboxEnabled(outbox);
+		}
+	}
+	
+	@Test
+	public void sendExternMessage() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("outbox-1");
+		
+		MailBundle bundle = new MailBundle();
+		bundle.setToId(id);
+		bundle.setContent("Hello outbox", "Hello world");
+		
+		MailerResult result = new MailerResult();
+		mailManager.sendExternMessage(bundle, result, false);
+		Assert.assertEquals(MailerResult.OK, result.getReturnCode());
+		// queued, not sent
+		Assert.assertTrue(getSmtpServer().getReceivedEmails().isEmpty());
+		Assert.assertTrue(mailOutboxDao.countMessages(MailOutboxMessageImpl.STATUS_NEW) > 0);
+		dbInstance.commitAndCloseSession();
+		
+		mailOutboxSender.process();
+		
+		List<SmtpMessage> messages = getSmtpServer().getReceivedEmails();
+		Assert.assertEquals(1, messages.size());
+		SmtpMessage message = messages.get(0);
+		Assert.assertEquals(id.getUser().getEmail(), message.getHeaderValue("To"));
+		Assert.assertEquals("Hello outbox", message.getHeaderValue("Subject"));
+		Assert.assertEquals(0l, mailOutboxDao.countMessages(MailOutboxMessageImpl.STATUS_NEW));
+	}
+	
+	@Test
+	public void sendMessageAsync() {
+		long queued = mailOutboxDao.countMessages(MailOutboxMessageImpl.STATUS_NEW);
+		
+		MailBundle bundle = new MailBundle();
+		bundle.setTo("outbox-async@openolat.com");
+		bundle.setContent("Hello async outbox", "Hello world");
+		mailManager.sendMessageAsync(bundle);
+		// in the outbox with the transaction of the caller
+		Assert.assertEquals(queued + 1, mailOutboxDao.countMessages(MailOutboxMessageImpl.STATUS_NEW));
+		dbInstance.commitAndCloseSession();
+		
+		mailOutboxSender.process();
+		
+		List<SmtpMessage> messages = getSmtpServer().getReceivedEmails();
+		Assert.assertEquals(1, messages.size());
+		Assert.assertEquals("Hello async outbox", messages.get(0).getHeaderValue("Subject"));
+	}
+	
+	@Test
+	public void sendMessages() throws Exception {
+		Address from = new InternetAddress(WebappHelper.getMailConfig("mailFrom"));
+		for(int i=0; i<5; i++) {
+			Address[] to = new Address[] { new InternetAddress("outbox-" + i + "@openolat.com") };
+			MimeMessage msg = mailManager.createMimeMessage(from, to, null, null, "Outbox " + i, "Hello", null, new MailerResult());
+			mailOutboxSender.queueMessage(msg);
+		}
+		dbInstance.commitAndCloseSession();
+		
+		long sent = mailOutboxSender.getSentMessages();
+		mailOutboxSender.process();
+		
+		Assert.assertEquals(5, getSmtpServer().getReceivedEmails().size());
+		Assert.assertEquals(sent + 5, mailOutboxSender.getSentMessages());
+		Assert.assertEquals(0l, mailOutboxDao.countMessages(MailOutboxMessageImpl.STATUS_NEW));
+	}
+	
+	@Test
+	public void retryMessage() throws Exception {
+		Address from = new InternetAddress(WebappHelper.getMailConfig("mailFrom"));
+		Address[] to = new Address[] { new InternetAddress("outbox-retry@openolat.com") };
+		MimeMessage msg = mailManager.createMimeMessage(from, to, null, null, "Outbox retry", "Hello", null, new MailerResult());
+		MailOutboxMessageImpl outboxMessage = mailOutboxSender.queueMessage(msg);
+		dbInstance.commitAndCloseSession();
+		
+		String mailport = WebappHelper.getMailConfig("mailport");
+		try {
+			// nobody listen on this port
+			WebappHelper.setMailConfig("mailport", "1");
+			mailOutboxSender.process();
+		} finally {
+			WebappHelper.setMailConfig("mailport", mailport);
+		}
+		
+		MailOutboxMessageImpl reloadedMessage = mailOutboxDao.loadMessageByKey(outboxMessage.getKey());
+		Assert.assertNotNull(reloadedMessage);
+		Assert.assertEquals(MailOutboxMessageImpl.STATUS_NEW, reloadedMessage.getStatus());
+		Assert.assertEquals(1, reloadedMessage.getAttempts());
+		Assert.assertTrue(reloadedMessage.getNextAttempt().after(new Date()));
+		Assert.assertNotNull(reloadedMessage.getLastError());
+		Assert.assertTrue(getSmtpServer().getReceivedEmails().isEmpty());
+		
+		mailOutboxDao.deleteMessage(outboxMessage.getKey());
+		dbInstance.commitAndCloseSession();
+	}
+	
+	@Test
+	public void claimMessage() throws Exception {
+		MailOutboxMessageImpl outboxMessage = mailOutboxDao.createMessage("Hello".getBytes());
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertTrue(mailOutboxDao.claimMessage(outboxMessage.getKey()));
+		dbInstance.commitAndCloseSession();
+		// only once
+		Assert.assertFalse(mailOutboxDao.claimMessage(outboxMessage.getKey()));
+		dbInstance.commitAndCloseSession();
+		
+		mailOutboxDao.deleteMessage(outboxMessage.getKey());
+		dbInstance.commitAndCloseSession();
+	}
+	
+	@Test
+	public void getRetryDelay() {
+		Assert.assertEquals(60000l, MailOutboxSender.getRetryDelay(1));
+		Assert.assertEquals(120000l, MailOutboxSender.getRetryDelay(2));
+		Assert.assertEquals(240000l, MailOutboxSender.getRetryDelay(3));
+		Assert.assertEquals(6l * 60l * 60000l, MailOutboxSender.getRetryDelay(12));
+		Assert.assertEquals(6l * 60l * 60000l, MailOutboxSender.getRetryDelay(Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void isTemporaryError() {
+		Assert.assertTrue(MailOutboxSender.isTemporaryError(new SMTPSendFailedException("RCPT", 451, "Try again", null, null, null, null)));
+		Assert.assertFalse(MailOutboxSender.isTemporaryError(new SMTPSendFailedException("RCPT", 550, "Unknown user", null, null, null, null)));
+		Assert.assertFalse(MailOutboxSender.isTemporaryError(new SendFailedException("Invalid addresses")));
+	}
+}
@@ -49,6 +49,7 @@ import org.olat.repository.RepositoryService;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
  * 
@@ -67,6 +68,9 @@ public class EfficiencyStatementManagerTest extends OlatTestCase {
 	@Autowired
 	private BusinessGroupService businessGroupService;
 	
+	@Value("${efficiency.statement.recalculation.threads}")
+	private int recalculationThreads;
+	
 	/**
 	 * Create and reload an efficiency statement.
 	 * 
@@ -598,6 +602,44 @@ public class EfficiencyStatementManagerTest extends OlatTestCase {
 		Assert.assertEquals(participant, assessedIdentities.get(0));
 	}
 	
+	/**
+	 * Update the statements of enough users to have several batches
+	 * processed by the pool of threads.
+	 * 
+	 * @throws URISyntaxException
+	 */
+	@Test
+	public void updateEfficiencyStatements_multiThreads() throws URISyntaxException {
+		Assert.assertTrue(recalculationThreads > 1);
+		
+		RepositoryEntry re = deployTestcourse();
+		
+		List<Identity> participants = new ArrayList<>();
+		List<UserEfficiencyStatement> statements = new ArrayList<>();
+		for(int i=0; i<120; i++) {
+			Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("Eff-Multi-" + i);
+			repositoryService.addRole(participant, re, GroupRoles.participant.name());
+			participants.add(participant);
+			statements.add(effManager.createUserEfficiencyStatement(new Date(), 102.3f, true, participant, re.getOlatResource()));
+		}
+		dbInstance.commitAndCloseSession();
+		// this will reset score to 0 and passed to false
+		effManager.updateEfficiencyStatements(re, participants);
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> statementKeys = statements.stream()
+				.map(UserEfficiencyStatement::getKey)
+				.collect(Collectors.toList());
+		List<UserEfficiencyStatementLight> lightStatements = effManager.findEfficiencyStatementsLight(statementKeys);
+		Assert.assertEquals(120, lightStatements.size());
+		for(UserEfficiencyStatementLight lightStatement:lightStatements) {
+			Assert.assertTrue(participants.contains(lightStatement.getIdentity()));
+			Assert.assertEquals(re.getKey(), lightStatement.getCourseRepoKey());
+			Assert.assertFalse(lightStatement.getPassed());
+			Assert.assertEquals(0f, lightStatement.getScore(), 0.00001);
+		}
+	}
+	
 	@Test
 	public void deleteUserData() throws URISyntaxException {
 		RepositoryEntry re1 = deployTestcourse();
@@ -0,0 +1,242 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import static org.mockito.Mockito.mock;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.course.condition.interpreter.ConditionCompiler.UndefinedNameException;
+import org.olat.course.condition.interpreter.ConditionCompiler.UnsupportedEvaluationException;
+import org.olat.course.run.userview.UserCourseEnvironment;
+
+import com.neemsoft.jmep.Expression;
+
+/**
+ * Compare the results of the compiled expressions with jmep.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class ConditionCompilerTest {
+
+	@Test
+	public void sameResultsAsJmep() throws Exception {
+		TestInterpreter interpreter = new TestInterpreter();
+		String[] expressions = new String[] {
+				"true", "false", "!true", "1 + 2 * 3", "(1 + 2) * 3", "7 / 2", "7.0 / 2", "-3 + 5",
+				"2 < 3 & 3 >= 4 | !0", "1 = 1.0", "2 != 3", "2d", "now >= 3d",
+				"getScore(\"node\") >= 2.5", "getScore(\"node\") * 2 + 1",
+				"inGroup(\"a\") | inGroup(\"b\") & !inGroup(\"c\")",
+				"(inGroup(\"a\") & getScore(\"node\") > 1) | false"
+		};
+		assertSameResultsAsJmep(interpreter, expressions);
+	}
+	
+	@Test
+	public void sameResultsAsJmep_precedence() throws Exception {
+		TestInterpreter interpreter = new TestInterpreter();
+		String[] expressions = new String[] {
+				"1 | 0 & 0", "0 & 1 | 1", "0 | 1 & 1", "1 & 0 | 0 & 1",
+				"!1 | 1", "!0 & 0", "!1 & 0 | 1", "!(1 | 0) & 1", "!(1 & 0) | 0",
+				"0 | !0 & !1", "1 & !0 | 0 & !1",
+				"2 < 3 | 3 < 2 & 0", "!(2 > 3) & 1 >= 1 | 0", "1 + 1 = 2 & !(2 * 2 = 5) | 0",
+				"!inGroup(\"a\") | inGroup(\"a\") & !inGroup(\"b\")",
+				"inGroup(\"b\") & inGroup(\"a\") | !inGroup(\"b\") & getScore(\"node\") > 2"
+		};
+		assertSameResultsAsJmep(interpreter, expressions);
+	}
+	
+	/**
+	 * Negative zero and NaN compared with the primitive operators.
+	 */
+	@Test
+	public void sameResultsAsJmep_negativeZeroAndNaN() throws Exception {
+		TestInterpreter interpreter = new TestInterpreter();
+		String[] expressions = new String[] {
+				"-0.0 = 0.0", "-0.0 != 0.0", "-0.0 < 0.0", "-0.0 <= 0.0", "-0.0 > 0.0", "0.0 >= -0.0",
+				"0.0 * -1.0 = 0", "0.0 * -1.0 < 0",
+				"0.0 / 0.0 = 0.0 / 0.0", "0.0 / 0.0 != 0.0 / 0.0", "0.0 / 0.0 = 1", "0.0 / 0.0 != 1",
+				"0.0 / 0.0 < 1", "0.0 / 0.0 <= 1", "0.0 / 0.0 > 1", "0.0 / 0.0 >= 1",
+				"!(0.0 / 0.0 > 1) & getScore(\"node\") >= 0.0 / 0.0 | 1"
+		};
+		assertSameResultsAsJmep(interpreter, expressions);
+	}
+	
+	private void assertSameResultsAsJmep(TestInterpreter interpreter, String[] expressions) throws Exception {
+		for(String expression:expressions) {
+			CompiledCondition condition = ConditionCompiler.compile(expression);
+			Assert.assertNotNull(expression, condition);
+			Object expected = new Expression(expression, interpreter.env).evaluate();
+			Assert.assertEquals(expression, expected, condition.evaluate(interpreter));
+		}
+	}
+
+	@Test
+	public void unsupportedSyntax() {
+		Assert.assertNull(ConditionCompiler.compile(null));
+		Assert.assertNull(ConditionCompiler.compile(""));
+		Assert.assertNull(ConditionCompiler.compile("1 ^ 2"));
+		Assert.assertNull(ConditionCompiler.compile("1 == 2"));
+		Assert.assertNull(ConditionCompiler.compile("inGroup(\"a\\\"b\")"));
+		Assert.assertNull(ConditionCompiler.compile("(1 + 2"));
+		Assert.assertNull(ConditionCompiler.compile("inGroup(\"a\",)"));
+		Assert.assertNull(ConditionCompiler.compile("1 2"));
+	}
+
+	@Test(expected = UndefinedNameException.class)
+	public void undefinedFunction() {
+		CompiledCondition condition = ConditionCompiler.compile("notDefined(\"a\")");
+		condition.evaluate(new TestInterpreter());
+	}
+
+	@Test(expected = UnsupportedEvaluationException.class)
+	public void unsupportedOperands() {
+		CompiledCondition condition = ConditionCompiler.compile("\"a\" = \"a\"");
+		condition.evaluate(new TestInterpreter());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void divideByZero() {
+		CompiledCondition condition = ConditionCompiler.compile("2 / 0");
+		condition.evaluate(new TestInterpreter());
+	}
+	
+	@Test
+	public void divideByZero_condition() {
+		TestInterpreter interpreter = new TestInterpreter();
+		Assert.assertFalse(interpreter.evaluateCondition("2 / 0 = 1"));
+	}
+	
+	/**
+	 * The compiled form calls the function, fails at the division and
+	 * jmep evaluates the expression again with the result of the function.
+	 */
+	@Test
+	public void fallbackReusesFunctionResults() {
+		TestInterpreter interpreter = new TestInterpreter();
+		CountFunction countFunction = new CountFunction();
+		interpreter.addFunction("count", countFunction);
+		
+		interpreter.evaluateCondition("count(\"a\") + 2 / 0 > 1");
+		Assert.assertEquals(1, countFunction.getCount());
+		
+		// a new evaluation calls the function again
+		interpreter.evaluateCondition("count(\"a\") > 1");
+		Assert.assertEquals(2, countFunction.getCount());
+	}
+
+	private static class TestInterpreter extends ConditionInterpreter {
+
+		public TestInterpreter() {
+			super(mock(UserCourseEnvironment.class));
+
+			resetEnvironment();
+			addConstant("true", 1);
+			addConstant("false", 0);
+			addVariable("now", new ValueVariable(Double.valueOf(4 * 24 * 60 * 60 * 1000d)));
+			addFunction("getScore", new ValueFunction(Double.valueOf(2.5)));
+			addFunction("inGroup", new InGroupFunction());
+			addUnit("d", new DayUnit());
+		}
+
+		@Override
+		protected CompiledCondition getCompiledCondition(String expression) {
+			return ConditionCompiler.compile(expression);
+		}
+	}
+
+	private static class ValueVariable extends AbstractVariable {
+
+		private final Object value;
+
+		public ValueVariable(Object value) {
+			super(null);
+			this.value = value;
+		}
+
+		@Override
+		public Object getValue() {
+			return value;
+		}
+	}
+
+	private static class ValueFunction extends AbstractFunction {
+
+		private final Object value;
+
+		public ValueFunction(Object value) {
+			super(null);
+			this.value = value;
+		}
+
+		@Override
+		public Object call(Object[] inStack) {
+			return value;
+		}
+
+		@Override
+		protected Object defaultValue() {
+			return value;
+		}
+	}
+
+	private static class InGroupFunction extends AbstractFunction {
+
+		public InGroupFunction() {
+			super(null);
+		}
+
+		@Override
+		public Object call(Object[] inStack) {
+			return "a".equals(inStack[0]) ? ConditionInterpreter.INT_TRUE : ConditionInterpreter.INT_FALSE;
+		}
+
+		@Override
+		protected Object defaultValue() {
+			return ConditionInterpreter.INT_FALSE;
+		}
+	}
+
+	private static class CountFunction extends AbstractFunction {
+		
+		private int count = 0;
+
+		public CountFunction() {
+			super(null);
+		}
+		
+		public int getCount() {
+			return count;
+		}
+
+		@Override
+		public Object call(Object[] inStack) {
+			count++;
+			return Integer.valueOf(count);
+		}
+
+		@Override
+		protected Object defaultValue() {
+			return ConditionInterpreter.INT_FALSE;
+		}
+	}
+}
@@ -104,10 +104,13 @@ public class DailyStatisticUpdateManagerTest extends AbstractStatisticUpdateMana
 		addLogEntry(re1, rootNode1, ref, 0, now.get(Calendar.HOUR_OF_DAY), now.get(Calendar.MINUTE), now.get(Calendar.SECOND) + 2);
 		addLogEntry(re2, firstNode2, ref, 0, now.get(Calendar.HOUR_OF_DAY), now.get(Calendar.MINUTE), now.get(Calendar.SECOND) + 2);
 		dbInstance.commitAndCloseSession();
-		sleep(5000);
+		// wait the write delay of the activity logs and the lag of the update
+		sleep(8000);
 
 		//update stats incremental
 		updateStatistics();
+		// the watermark is after the last logs
+		Assert.assertTrue(statisticUpdateManager.getLastUpdated() > now.getTimeInMillis() + 2000l);
 		checkStatistics(course1, rootNode1, date);
 		checkStatistics(course1, firstNode1, date);
 		checkStatistics(course1, firstNode1, date1);
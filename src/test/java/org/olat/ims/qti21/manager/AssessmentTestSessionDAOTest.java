@@ -19,11 +19,14 @@
  */
 package org.olat.ims.qti21.manager;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -286,4 +289,57 @@ public class AssessmentTestSessionDAOTest extends OlatTestCase {
 		Assert.assertEquals(1, authorSessions.size());
 		Assert.assertEquals(testSession, authorSessions.get(0));
 	}
+	
+	@Test
+	public void getTestSessionKeysOfResponse() {
+		// prepare a test and 3 users
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity1 = JunitTestHelper.createAndPersistIdentityAsRndUser("session-10");
+		Identity assessedIdentity2 = JunitTestHelper.createAndPersistIdentityAsRndUser("session-11");
+		Identity assessedIdentity3 = JunitTestHelper.createAndPersistIdentityAsRndUser("session-12");
+		AssessmentEntry assessmentEntry1 = assessmentService.getOrCreateAssessmentEntry(assessedIdentity1, null, testEntry, null, null, testEntry);
+		AssessmentEntry assessmentEntry2 = assessmentService.getOrCreateAssessmentEntry(assessedIdentity2, null, testEntry, null, null, testEntry);
+		AssessmentEntry assessmentEntry3 = assessmentService.getOrCreateAssessmentEntry(assessedIdentity3, null, testEntry, null, null, testEntry);
+		dbInstance.commit();
+		
+		//create 3 finished test sessions with 2, 1 and no responses
+		AssessmentTestSession testSession1 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, null, assessmentEntry1, assessedIdentity1, null, false);
+		AssessmentItemSession itemSession1 = itemSessionDao.createAndPersistAssessmentItemSession(testSession1, null, UUID.randomUUID().toString());
+		AssessmentResponse response11 = responseDao.createAssessmentResponse(testSession1, itemSession1, UUID.randomUUID().toString(), ResponseLegality.VALID, ResponseDataType.FILE);
+		AssessmentResponse response12 = responseDao.createAssessmentResponse(testSession1, itemSession1, UUID.randomUUID().toString(), ResponseLegality.VALID, ResponseDataType.FILE);
+		AssessmentTestSession testSession2 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, null, assessmentEntry2, assessedIdentity2, null, false);
+		AssessmentItemSession itemSession2 = itemSessionDao.createAndPersistAssessmentItemSession(testSession2, null, UUID.randomUUID().toString());
+		AssessmentResponse response21 = responseDao.createAssessmentResponse(testSession2, itemSession2, UUID.randomUUID().toString(), ResponseLegality.VALID, ResponseDataType.FILE);
+		AssessmentTestSession testSession3 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, null, assessmentEntry3, assessedIdentity3, null, false);
+		responseDao.save(List.of(response11, response12, response21));
+		dbInstance.commitAndCloseSession();
+		
+		testSession1.setFinishTime(new Date());
+		testSession1 = testSessionDao.update(testSession1);
+		testSession2.setFinishTime(new Date());
+		testSession2 = testSessionDao.update(testSession2);
+		testSession3.setFinishTime(new Date());
+		testSession3 = testSessionDao.update(testSession3);
+		dbInstance.commitAndCloseSession();
+		
+		ArchiveOptions options = new ArchiveOptions();
+		options.setIdentities(List.of(assessedIdentity1, assessedIdentity2, assessedIdentity3));
+		QTI21StatisticSearchParams searchParams = new QTI21StatisticSearchParams(options, testEntry, null, null);
+		
+		// same sessions in the same order as the full list
+		List<Long> sessionKeys = testSessionDao.getTestSessionKeysOfResponse(searchParams);
+		List<Long> expectedKeys = testSessionDao.getTestSessionsOfResponse(searchParams).stream()
+				.map(AssessmentTestSession::getKey).collect(Collectors.toList());
+		Assert.assertEquals(3, sessionKeys.size());
+		Assert.assertEquals(expectedKeys, sessionKeys);
+		dbInstance.commitAndCloseSession();
+		
+		List<AssessmentTestSession> sessions = testSessionDao.loadTestSessionsWithUser(sessionKeys);
+		assertThat(sessions)
+			.containsExactlyInAnyOrder(testSession1, testSession2, testSession3);
+		
+		List<AssessmentResponse> responses = responseDao.getResponsesOfTestSessions(sessionKeys);
+		assertThat(responses)
+			.containsExactlyInAnyOrder(response11, response12, response21);
+	}
 }
@@ -0,0 +1,148 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class TestSessionStateJournalTest {
+
+	private static final String NS = "http://www.ph.ed.ac.uk/qtiworks";
+
+	private File dir;
+	private File journalFile;
+
+	@Before
+	public void createDirectory() throws Exception {
+		dir = Files.createTempDirectory("journal").toFile();
+		journalFile = new File(dir, TestSessionStateJournal.JOURNAL_FILENAME);
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteDirsAndFiles(dir, true, true);
+	}
+
+	@Test
+	public void storeAndLoad() throws Exception {
+		TestSessionStateJournal journal = new TestSessionStateJournal(50, 10);
+		journal.store(journalFile, state("1", "a", "b", "c"));
+		long snapshotLength = journalFile.length();
+		journal.store(journalFile, state("2", "a", "B", "c"));
+		// only the root and the changed item are appended
+		Assert.assertTrue(journalFile.length() - snapshotLength < snapshotLength);
+		journal.store(journalFile, state("3", "a", "B", "c", "d"));
+
+		Document document = journal.load(journalFile);
+		assertState(document, "3", "a", "B", "c", "d");
+
+		journal.store(journalFile, state("4", "a", "B"));
+		assertState(journal.load(journalFile), "4", "a", "B");
+	}
+
+	@Test
+	public void compaction() throws Exception {
+		TestSessionStateJournal journal = new TestSessionStateJournal(3, 10);
+		journal.store(journalFile, state("0", "a", "b"));
+		for(int i=1; i<=3; i++) {
+			journal.store(journalFile, state(Integer.toString(i), "a", "b" + i));
+		}
+		long lengthBeforeCompaction = journalFile.length();
+		journal.store(journalFile, state("4", "a", "b4"));
+		Assert.assertTrue(journalFile.length() < lengthBeforeCompaction);
+		assertState(journal.load(journalFile), "4", "a", "b4");
+	}
+
+	@Test
+	public void continueWithColdCache() throws Exception {
+		new TestSessionStateJournal(50, 10).store(journalFile, state("1", "a", "b"));
+
+		// an other node or after a restart
+		TestSessionStateJournal journal = new TestSessionStateJournal(50, 10);
+		journal.store(journalFile, state("2", "a", "c"));
+		assertState(journal.load(journalFile), "2", "a", "c");
+	}
+
+	@Test
+	public void incompleteRecord() throws Exception {
+		TestSessionStateJournal journal = new TestSessionStateJournal(50, 10);
+		journal.store(journalFile, state("1", "a", "b"));
+		journal.store(journalFile, state("2", "a", "c"));
+		long lengthOfValidRecords = journalFile.length();
+		journal.store(journalFile, state("3", "a", "d"));
+		try(RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+			raf.setLength(lengthOfValidRecords + 8);
+		}
+
+		// the last valid state is loaded
+		assertState(journal.load(journalFile), "2", "a", "c");
+		// the next store write a snapshot
+		journal.store(journalFile, state("4", "a", "e"));
+		assertState(journal.load(journalFile), "4", "a", "e");
+	}
+
+	private Document state(String version, String... items) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document document = factory.newDocumentBuilder().newDocument();
+		Element root = document.createElementNS(NS, "testSessionState");
+		root.setAttribute("version", version);
+		document.appendChild(root);
+		Element plan = document.createElementNS(NS, "testPlan");
+		plan.setTextContent("A large plan which never changes");
+		root.appendChild(plan);
+		for(String item:items) {
+			Element itemElement = document.createElementNS(NS, "item");
+			itemElement.setAttribute("key", item);
+			root.appendChild(itemElement);
+		}
+		return document;
+	}
+
+	private void assertState(Document document, String version, String... items) {
+		Element root = document.getDocumentElement();
+		Assert.assertEquals("testSessionState", root.getLocalName());
+		Assert.assertEquals(NS, root.getNamespaceURI());
+		Assert.assertEquals(version, root.getAttribute("version"));
+		Assert.assertEquals(1, root.getElementsByTagNameNS(NS, "testPlan").getLength());
+		Assert.assertEquals(items.length, root.getElementsByTagNameNS(NS, "item").getLength());
+		for(int i=0; i<items.length; i++) {
+			Element item = (Element)root.getElementsByTagNameNS(NS, "item").item(i);
+			Assert.assertEquals(items[i], item.getAttribute("key"));
+		}
+	}
+}
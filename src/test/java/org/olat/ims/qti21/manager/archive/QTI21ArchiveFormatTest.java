@@ -0,0 +1,112 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager.archive;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.ims.qti21.AssessmentResponse;
+import org.olat.ims.qti21.AssessmentTestSession;
+import org.olat.ims.qti21.manager.archive.QTI21ArchiveFormat.SessionResponses;
+import org.olat.ims.qti21.model.jpa.AssessmentItemSessionImpl;
+import org.olat.ims.qti21.model.jpa.AssessmentResponseImpl;
+import org.olat.ims.qti21.model.jpa.AssessmentTestSessionImpl;
+
+import uk.ac.ed.ph.jqtiplus.types.Identifier;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class QTI21ArchiveFormatTest {
+	
+	@Test
+	public void mergeResponses() {
+		AssessmentTestSession session1 = testSession(1l);
+		AssessmentTestSession session2 = testSession(2l);
+		AssessmentTestSession session3 = testSession(3l);
+		
+		AssessmentItemSessionImpl itemSession1 = itemSession(session1, "item-1");
+		AssessmentItemSessionImpl itemSession3 = itemSession(session3, "item-1");
+		AssessmentResponse response11 = response(itemSession1, "RESPONSE_1");
+		AssessmentResponse response12 = response(itemSession1, "RESPONSE_2");
+		AssessmentResponse response31 = response(itemSession3, "RESPONSE_1");
+		
+		// the order of the rows is the one of the keys, the session 2 has no response
+		List<SessionResponses> merged = QTI21ArchiveFormat.mergeResponses(List.of(3l, 2l, 1l),
+				List.of(session1, session2, session3), List.of(response31, response12, response11));
+		Assert.assertEquals(3, merged.size());
+		
+		SessionResponses sessionResponses3 = merged.get(0);
+		Assert.assertEquals(session3, sessionResponses3.getTestSession());
+		Assert.assertEquals(itemSession3, sessionResponses3.getItemSession("item-1"));
+		Assert.assertEquals(response31, sessionResponses3.getResponse("item-1", Identifier.parseString("RESPONSE_1")));
+		Assert.assertNull(sessionResponses3.getResponse("item-1", Identifier.parseString("RESPONSE_2")));
+		
+		SessionResponses sessionResponses2 = merged.get(1);
+		Assert.assertEquals(session2, sessionResponses2.getTestSession());
+		Assert.assertNull(sessionResponses2.getItemSession("item-1"));
+		Assert.assertNull(sessionResponses2.getResponse("item-1", Identifier.parseString("RESPONSE_1")));
+		
+		SessionResponses sessionResponses1 = merged.get(2);
+		Assert.assertEquals(session1, sessionResponses1.getTestSession());
+		Assert.assertEquals(itemSession1, sessionResponses1.getItemSession("item-1"));
+		Assert.assertEquals(response11, sessionResponses1.getResponse("item-1", Identifier.parseString("RESPONSE_1")));
+		Assert.assertEquals(response12, sessionResponses1.getResponse("item-1", Identifier.parseString("RESPONSE_2")));
+	}
+	
+	@Test
+	public void mergeResponses_missingSession() {
+		AssessmentTestSession session1 = testSession(11l);
+		AssessmentResponse response = response(itemSession(testSession(12l), "item-1"), "RESPONSE_1");
+		
+		// the session 12 was deleted between the queries
+		List<SessionResponses> merged = QTI21ArchiveFormat.mergeResponses(List.of(11l, 12l),
+				List.of(session1), List.of(response));
+		Assert.assertEquals(1, merged.size());
+		Assert.assertEquals(session1, merged.get(0).getTestSession());
+		Assert.assertNull(merged.get(0).getItemSession("item-1"));
+	}
+	
+	private static AssessmentTestSession testSession(Long key) {
+		AssessmentTestSessionImpl testSession = new AssessmentTestSessionImpl();
+		testSession.setKey(key);
+		return testSession;
+	}
+	
+	private static AssessmentItemSessionImpl itemSession(AssessmentTestSession testSession, String itemIdentifier) {
+		AssessmentItemSessionImpl itemSession = new AssessmentItemSessionImpl();
+		itemSession.setKey(testSession.getKey() * 100);
+		itemSession.setAssessmentTestSession(testSession);
+		itemSession.setAssessmentItemIdentifier(itemIdentifier);
+		return itemSession;
+	}
+	
+	private static AssessmentResponse response(AssessmentItemSessionImpl itemSession, String responseIdentifier) {
+		AssessmentResponseImpl response = new AssessmentResponseImpl();
+		response.setKey(itemSession.getKey() + responseIdentifier.hashCode());
+		response.setAssessmentItemSession(itemSession);
+		response.setResponseIdentifier(responseIdentifier);
+		return response;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.manager;
+
+import java.util.Date;
+
+import javax.naming.directory.BasicAttributes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class LDAPChangeMarkerTest {
+	
+	@Test
+	public void parseGeneralizedTime() {
+		// 2020-10-18T12:34:56Z
+		long expected = 1603024496000l;
+		Assert.assertEquals(new Date(expected), LDAPChangeMarker.parseGeneralizedTime("20201018123456Z"));
+		Assert.assertEquals(new Date(expected), LDAPChangeMarker.parseGeneralizedTime("20201018123456.0Z"));
+		Assert.assertEquals(new Date(expected + 123), LDAPChangeMarker.parseGeneralizedTime("20201018123456.123Z"));
+		Assert.assertEquals(new Date(expected), LDAPChangeMarker.parseGeneralizedTime("20201018143456+0200"));
+		Assert.assertEquals(new Date(expected), LDAPChangeMarker.parseGeneralizedTime("20201018103456-02"));
+	}
+	
+	@Test
+	public void parseGeneralizedTime_invalid() {
+		Assert.assertNull(LDAPChangeMarker.parseGeneralizedTime(null));
+		Assert.assertNull(LDAPChangeMarker.parseGeneralizedTime(""));
+		Assert.assertNull(LDAPChangeMarker.parseGeneralizedTime("20201018123456"));
+		Assert.assertNull(LDAPChangeMarker.parseGeneralizedTime("132470112000000000"));
+		Assert.assertNull(LDAPChangeMarker.parseGeneralizedTime("2020-10-18T12:34:56Z"));
+	}
+	
+	@Test
+	public void visit() {
+		LDAPChangeMarker marker = new LDAPChangeMarker("modifyTimestamp", "createTimestamp");
+		Assert.assertNull(marker.getLastModified());
+		
+		BasicAttributes first = new BasicAttributes(true);
+		first.put("modifyTimestamp", "20201018123456Z");
+		first.put("createTimestamp", "20190101000000Z");
+		marker.visit(first);
+		
+		BasicAttributes second = new BasicAttributes(true);
+		second.put("createTimestamp", "20201018123500Z");
+		marker.visit(second);
+		
+		BasicAttributes older = new BasicAttributes(true);
+		older.put("modifyTimestamp", "20201017000000Z");
+		marker.visit(older);
+		
+		Assert.assertEquals(LDAPChangeMarker.parseGeneralizedTime("20201018123500Z"), marker.getLastModified());
+	}
+	
+	@Test
+	public void getSyncMarker_serverTime() {
+		LDAPChangeMarker marker = new LDAPChangeMarker("modifyTimestamp");
+		marker.setServerTime(LDAPChangeMarker.parseGeneralizedTime("20201018120000Z"));
+		Assert.assertNull(marker.getSyncMarker());
+		
+		BasicAttributes user = new BasicAttributes(true);
+		user.put("modifyTimestamp", "20201018115000Z");
+		marker.visit(user);
+		Assert.assertEquals(LDAPChangeMarker.parseGeneralizedTime("20201018115000Z"), marker.getSyncMarker());
+		
+		// a group changed during the synchronization
+		BasicAttributes group = new BasicAttributes(true);
+		group.put("modifyTimestamp", "20201018120500Z");
+		marker.visit(group);
+		Assert.assertEquals(LDAPChangeMarker.parseGeneralizedTime("20201018120000Z"), marker.getSyncMarker());
+	}
+	
+	@Test
+	public void getSyncMarker_overlap() {
+		LDAPChangeMarker marker = new LDAPChangeMarker("modifyTimestamp");
+		BasicAttributes group = new BasicAttributes(true);
+		group.put("modifyTimestamp", "20201018120500Z");
+		marker.visit(group);
+		
+		// 5 minutes of synchronization and 1 minute of overlap
+		Date syncMarker = marker.getSyncMarker(5 * 60 * 1000l);
+		Assert.assertEquals(LDAPChangeMarker.parseGeneralizedTime("20201018115900Z"), syncMarker);
+	}
+}
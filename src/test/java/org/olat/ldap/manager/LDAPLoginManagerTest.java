@@ -33,6 +33,7 @@ import org.olat.basesecurity.BaseSecurity;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.services.webdav.manager.WebDAVAuthManager;
 import org.olat.core.id.Identity;
+import org.olat.core.id.UserConstants;
 import org.olat.ldap.LDAPError;
 import org.olat.ldap.LDAPLoginManager;
 import org.olat.ldap.LDAPLoginModule;
@@ -143,6 +144,50 @@ public class LDAPLoginManagerTest extends OlatTestCase {
 		Assert.assertEquals("Dupont", updatedIdentity.getUser().getLastName());
 	}
 	
+	/**
+	 * A delta synchronization only reads the users changed since the last
+	 * synchronization, a full one reads all of them.
+	 */
+	@Test
+	public void syncUsersDelta() throws Exception {
+		Assume.assumeTrue(ldapLoginModule.isLDAPEnabled());
+		
+		LDAPError errors = new LDAPError();
+		boolean allOk = ldapManager.doBatchSync(errors, true);
+		Assert.assertTrue(allOk);
+		
+		// the timestamps of LDAP have a precision of a second
+		String dn = "uid=updateme,ou=person,dc=olattest,dc=org";
+		Thread.sleep(1100);
+		embeddedLdapRule.ldapConnection().modify(dn, new Modification(ModificationType.REPLACE, "sn", "Delta"));
+		allOk = ldapManager.doBatchSync(errors, false);
+		Assert.assertTrue(allOk);
+		
+		// change the user locally, the LDAP entry is not modified
+		Identity kmeier = userManager.findUniqueIdentityByEmail("kmeier@openolat.com");
+		Assert.assertNotNull(kmeier);
+		kmeier.getUser().setProperty(UserConstants.LASTNAME, "Local");
+		userManager.updateUserFromIdentity(kmeier);
+		dbInstance.commitAndCloseSession();
+		
+		Thread.sleep(1100);
+		embeddedLdapRule.ldapConnection().modify(dn, new Modification(ModificationType.REPLACE, "givenname", "Delta"));
+		allOk = ldapManager.doBatchSync(errors, false);
+		Assert.assertTrue(allOk);
+		
+		Identity updateme = userManager.findUniqueIdentityByEmail("john.doe@openolat.com");
+		Assert.assertEquals("Delta", updateme.getUser().getFirstName());
+		Assert.assertEquals("Delta", updateme.getUser().getLastName());
+		Identity notSyncedKmeier = securityManager.loadIdentityByKey(kmeier.getKey());
+		Assert.assertEquals("Local", notSyncedKmeier.getUser().getLastName());
+		
+		// the full synchronization restores the value of LDAP
+		allOk = ldapManager.doBatchSync(errors, true);
+		Assert.assertTrue(allOk);
+		Identity syncedKmeier = securityManager.loadIdentityByKey(kmeier.getKey());
+		Assert.assertEquals("Meier", syncedKmeier.getUser().getLastName());
+	}
+	
 	@Test
 	public void updateDigestAutentications() throws LDAPException {
 		Assume.assumeTrue(ldapLoginModule.isLDAPEnabled());
@@ -631,6 +631,50 @@ public class AssessmentEntryDAOTest extends OlatTestCase {
 		Assert.assertEquals(0, assessmentEntriesId3.size());
 	}
 	
+	@Test
+	public void loadAssessmentEntriesByAssessedIdentities() {
+		Identity assessedIdentity1 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-13b");
+		Identity assessedIdentity2 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-14b");
+		Identity assessedIdentity3 = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-15b");
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry refEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		String subIdent = UUID.randomUUID().toString();
+		AssessmentEntry nodeAssessmentId1 = assessmentEntryDao.createAssessmentEntry(assessedIdentity1, null, entry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId2 = assessmentEntryDao.createAssessmentEntry(assessedIdentity2, null, entry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId3 = assessmentEntryDao.createAssessmentEntry(assessedIdentity2, null, entry,
+				null, null, entry);
+		AssessmentEntry nodeAssessmentId4 = assessmentEntryDao.createAssessmentEntry(assessedIdentity1, null, refEntry,
+				subIdent, null, refEntry);
+		AssessmentEntry nodeAssessmentId5 = assessmentEntryDao.createAssessmentEntry(assessedIdentity3, null, entry,
+				subIdent, null, refEntry);
+		dbInstance.commitAndCloseSession();
+		
+		List<AssessmentEntry> assessmentEntries = assessmentEntryDao.loadAssessmentEntriesByAssessedIdentities(entry,
+				Arrays.asList(assessedIdentity1.getKey(), assessedIdentity2.getKey()));
+		assertThat(assessmentEntries)
+			.containsExactlyInAnyOrder(nodeAssessmentId1, nodeAssessmentId2, nodeAssessmentId3)
+			.doesNotContain(nodeAssessmentId4, nodeAssessmentId5);
+	}
+	
+	@Test
+	public void hasAssessmentEntriesModifiedAfter() {
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("as-node-modified");
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry refEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Date before = new GregorianCalendar(2000, 1, 1).getTime();
+		AssessmentEntry nodeAssessment = assessmentEntryDao.createAssessmentEntry(assessedIdentity, null, entry,
+				random(), null, refEntry);
+		dbInstance.commitAndCloseSession();
+		Assert.assertNotNull(nodeAssessment);
+		
+		Date after = new GregorianCalendar(2100, 1, 1).getTime();
+		Assert.assertTrue(assessmentEntryDao.hasAssessmentEntriesModifiedAfter(assessedIdentity, entry, before));
+		Assert.assertFalse(assessmentEntryDao.hasAssessmentEntriesModifiedAfter(assessedIdentity, entry, after));
+		Assert.assertFalse(assessmentEntryDao.hasAssessmentEntriesModifiedAfter(assessedIdentity, refEntry, before));
+	}
+	
 	@Test
 	public void loadAssessmentEntryByGroup() {
 		// a simulated course with 2 groups
@@ -0,0 +1,238 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.coach.manager;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.course.assessment.manager.EfficiencyStatementManager;
+import org.olat.course.assessment.manager.UserCourseInformationsManager;
+import org.olat.group.BusinessGroup;
+import org.olat.group.BusinessGroupService;
+import org.olat.group.manager.BusinessGroupRelationDAO;
+import org.olat.modules.coach.CoachingLargeTest;
+import org.olat.modules.coach.model.CourseStatEntry;
+import org.olat.modules.coach.model.StudentStatEntry;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryService;
+import org.olat.resource.OLATResource;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class CoachingStatisticsDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private CoachingDAO coachingDao;
+	@Autowired
+	private RepositoryService repositoryService;
+	@Autowired
+	private EfficiencyStatementManager effManager;
+	@Autowired
+	private BusinessGroupService businessGroupService;
+	@Autowired
+	private CoachingStatisticsDAO coachingStatisticsDao;
+	@Autowired
+	private CoachingStatisticsQueue coachingStatisticsQueue;
+	@Autowired
+	private CoachingStatisticsWorkDAO coachingStatisticsWorkDao;
+	@Autowired
+	private BusinessGroupRelationDAO businessGroupRelationDao;
+	@Autowired
+	private UserCourseInformationsManager userCourseInformationsManager;
+	
+	@Test
+	public void updateStatistics() {
+		URL courseUrl = CoachingLargeTest.class.getResource("CoachingCourse.zip");
+		RepositoryEntry re = JunitTestHelper.deployCourse(null, "Coaching statistics", courseUrl);
+		Identity coach = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-1");
+		Identity participant1 = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-2");
+		Identity participant2 = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-3");
+		repositoryService.addRole(coach, re, GroupRoles.coach.name());
+		repositoryService.addRole(participant1, re, GroupRoles.participant.name());
+		repositoryService.addRole(participant2, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		OLATResource courseResource = re.getOlatResource();
+		effManager.createUserEfficiencyStatement(new Date(), 6.0f, true, participant1, courseResource);
+		effManager.createUserEfficiencyStatement(new Date(), 2.0f, false, participant2, courseResource);
+		userCourseInformationsManager.updateUserCourseInformations(courseResource, participant1);
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertFalse(coachingStatisticsDao.hasStatistics(coach));
+		coachingStatisticsQueue.updateStatistics(coach.getKey());
+		Assert.assertTrue(coachingStatisticsDao.hasStatistics(coach));
+		
+		// the pre-aggregated statistics are the same as the live ones
+		List<CourseStatEntry> liveCourses = coachingDao.getCoursesStatisticsNative(coach);
+		List<CourseStatEntry> courses = coachingStatisticsDao.getCoursesStatistics(coach);
+		Assert.assertEquals(1, courses.size());
+		Assert.assertEquals(liveCourses.size(), courses.size());
+		CourseStatEntry course = courses.get(0);
+		Assert.assertEquals(re.getKey(), course.getRepoKey());
+		Assert.assertEquals(2, course.getCountStudents());
+		Assert.assertEquals(1, course.getCountPassed());
+		Assert.assertEquals(1, course.getCountFailed());
+		Assert.assertEquals(0, course.getCountNotAttempted());
+		Assert.assertEquals(1, course.getInitialLaunch());
+		Assert.assertEquals(4.0f, course.getAverageScore().floatValue(), 0.0001);
+		
+		List<StudentStatEntry> students = coachingStatisticsDao.getStudentsStatistics(coach, Collections.emptyList(), null);
+		Assert.assertEquals(2, students.size());
+		for(StudentStatEntry student:students) {
+			Assert.assertEquals(1, student.getCountRepo());
+			if(participant1.getKey().equals(student.getIdentityKey())) {
+				Assert.assertEquals(1, student.getCountPassed());
+				Assert.assertEquals(1, student.getInitialLaunch());
+			} else if(participant2.getKey().equals(student.getIdentityKey())) {
+				Assert.assertEquals(1, student.getCountFailed());
+				Assert.assertEquals(0, student.getInitialLaunch());
+			} else {
+				Assert.fail("Unexpected student: " + student.getIdentityKey());
+			}
+		}
+	}
+	
+	@Test
+	public void deleteStatistics() {
+		URL courseUrl = CoachingLargeTest.class.getResource("CoachingCourse.zip");
+		RepositoryEntry re = JunitTestHelper.deployCourse(null, "Coaching statistics", courseUrl);
+		Identity coach = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-4");
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-5");
+		repositoryService.addRole(coach, re, GroupRoles.owner.name());
+		repositoryService.addRole(participant, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		coachingStatisticsQueue.updateStatistics(coach.getKey());
+		Assert.assertTrue(coachingStatisticsDao.hasStatistics(coach));
+		
+		coachingStatisticsDao.deleteStatistics(coach.getKey());
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(coachingStatisticsDao.hasStatistics(coach));
+	}
+	
+	@Test
+	public void getCoachKeysOfEntries() {
+		URL courseUrl = CoachingLargeTest.class.getResource("CoachingCourse.zip");
+		RepositoryEntry re = JunitTestHelper.deployCourse(null, "Coaching statistics", courseUrl);
+		Identity owner = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-6");
+		Identity coach = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-7");
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-8");
+		repositoryService.addRole(owner, re, GroupRoles.owner.name());
+		repositoryService.addRole(coach, re, GroupRoles.coach.name());
+		repositoryService.addRole(participant, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> coachKeys = coachingStatisticsDao.getCoachKeysOfEntries(Collections.singletonList(re.getKey()));
+		Assert.assertTrue(coachKeys.contains(owner.getKey()));
+		Assert.assertTrue(coachKeys.contains(coach.getKey()));
+		Assert.assertFalse(coachKeys.contains(participant.getKey()));
+		
+		List<Object[]> resourceToEntries = coachingStatisticsDao.getEntryKeysOfResources(Collections.singletonList(re.getOlatResource().getKey()));
+		Assert.assertEquals(1, resourceToEntries.size());
+		Assert.assertEquals(re.getOlatResource().getKey(), resourceToEntries.get(0)[0]);
+		Assert.assertEquals(re.getKey(), resourceToEntries.get(0)[1]);
+		
+		List<Long> participantKeys = coachingStatisticsDao.getParticipantKeysOfEntries(Collections.singletonList(re.getKey()));
+		Assert.assertEquals(Collections.singletonList(participant.getKey()), participantKeys);
+	}
+	
+	@Test
+	public void processParticipantChanges() {
+		URL courseUrl = CoachingLargeTest.class.getResource("CoachingCourse.zip");
+		RepositoryEntry re = JunitTestHelper.deployCourse(null, "Coaching statistics", courseUrl);
+		Identity coach = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-12");
+		Identity participant1 = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-13");
+		Identity participant2 = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-14");
+		repositoryService.addRole(coach, re, GroupRoles.coach.name());
+		repositoryService.addRole(participant1, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		processQueue();
+		
+		List<CourseStatEntry> courses = coachingStatisticsDao.getCoursesStatistics(coach);
+		Assert.assertEquals(1, courses.size());
+		Assert.assertEquals(1, courses.get(0).getCountStudents());
+		Assert.assertEquals(1, coachingStatisticsDao.getStudentsStatistics(coach, Collections.emptyList(), null).size());
+		
+		// a new participant updates the row of the course and adds the one of the participant
+		repositoryService.addRole(participant2, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		processQueue();
+		
+		courses = coachingStatisticsDao.getCoursesStatistics(coach);
+		Assert.assertEquals(1, courses.size());
+		Assert.assertEquals(2, courses.get(0).getCountStudents());
+		List<StudentStatEntry> students = coachingStatisticsDao.getStudentsStatistics(coach, Collections.emptyList(), null);
+		Assert.assertEquals(2, students.size());
+		
+		// a removed participant removes its row
+		repositoryService.removeRole(participant1, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		processQueue();
+		
+		courses = coachingStatisticsDao.getCoursesStatistics(coach);
+		Assert.assertEquals(1, courses.get(0).getCountStudents());
+		students = coachingStatisticsDao.getStudentsStatistics(coach, Collections.emptyList(), null);
+		Assert.assertEquals(1, students.size());
+		Assert.assertEquals(participant2.getKey(), students.get(0).getIdentityKey());
+	}
+	
+	@Test
+	public void getCoachKeysOfGroups() {
+		URL courseUrl = CoachingLargeTest.class.getResource("CoachingCourse.zip");
+		RepositoryEntry re = JunitTestHelper.deployCourse(null, "Coaching statistics", courseUrl);
+		Identity owner = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-9");
+		Identity coach = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-10");
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("Coach-stats-11");
+		repositoryService.addRole(owner, re, GroupRoles.owner.name());
+		dbInstance.commitAndCloseSession();
+		
+		BusinessGroup group = businessGroupService.createBusinessGroup(null, "Coaching-stats-grp", "tg", null, null, false, false, re);
+		businessGroupRelationDao.addRole(coach, group, GroupRoles.coach.name());
+		businessGroupRelationDao.addRole(participant, group, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> coachKeys = coachingStatisticsDao.getCoachKeysOfGroups(Collections.singletonList(group.getBaseGroup().getKey()));
+		Assert.assertTrue(coachKeys.contains(owner.getKey()));
+		Assert.assertTrue(coachKeys.contains(coach.getKey()));
+		Assert.assertFalse(coachKeys.contains(participant.getKey()));
+	}
+	
+	private void processQueue() {
+		while(coachingStatisticsWorkDao.countWorks() > 0) {
+			coachingStatisticsQueue.process();
+		}
+	}
+}
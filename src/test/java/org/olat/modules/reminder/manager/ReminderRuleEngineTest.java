@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Assert;
@@ -58,6 +59,7 @@ import org.olat.group.BusinessGroup;
 import org.olat.group.manager.BusinessGroupDAO;
 import org.olat.group.manager.BusinessGroupRelationDAO;
 import org.olat.modules.assessment.Role;
+import org.olat.modules.reminder.Reminder;
 import org.olat.modules.reminder.ReminderRule;
 import org.olat.modules.reminder.model.ReminderRuleImpl;
 import org.olat.modules.reminder.rule.BeforeDateRuleSPI;
@@ -109,6 +111,8 @@ public class ReminderRuleEngineTest extends OlatTestCase {
 	private UserCourseInformationsManager userCourseInformationsManager;
 	@Autowired
 	private CourseAssessmentService courseAssessmentService;
+	@Autowired
+	private ReminderDAO reminderDao;
 	
 	@Test
 	public void dateRule() {
@@ -1101,6 +1105,157 @@ public class ReminderRuleEngineTest extends OlatTestCase {
 		return testNode.getIdent();
 	}
 	
+	@Test
+	public void compiledRepositoryRules() {
+		Identity owner1 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-1");
+		Identity coach2 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-2");
+		Identity groupCoach3 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-3");
+		Identity participant4 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-4");
+		Identity groupParticipant5 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-5");
+		
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(owner1, re, GroupRoles.owner.name());
+		repositoryEntryRelationDao.addRole(coach2, re, GroupRoles.coach.name());
+		repositoryEntryRelationDao.addRole(participant4, re, GroupRoles.participant.name());
+		
+		BusinessGroup group = businessGroupDao.createAndPersist(groupCoach3, "grp-rule-c-1", "grp-rule-c-1-desc", 0, 5, true, false, true, false, false);
+		businessGroupRelationDao.addRole(groupParticipant5, group, GroupRoles.participant.name());
+		businessGroupRelationDao.addRelationToResource(group, re);
+		dbInstance.commitAndCloseSession();
+		
+		// the query select the same identities as the evaluation in memory
+		for(RepositoryEntryRoleRuleSPI.Roles role:RepositoryEntryRoleRuleSPI.Roles.values()) {
+			List<Identity> expected = ruleEngine.getIdentities(re, null, getRules(role), true);
+			List<Identity> compiled = ruleEngine.getIdentitiesByQuery(re, null, getRules(role), true);
+			Assert.assertEquals(role.name(), new HashSet<>(expected), new HashSet<>(compiled));
+		}
+		
+		// without rule, all the members
+		List<Identity> all = ruleEngine.getIdentitiesByQuery(re, null, new ArrayList<>(), true);
+		assertThat(all)
+			.containsExactlyInAnyOrder(owner1, coach2, groupCoach3, participant4, groupParticipant5);
+		
+		// role and user property
+		owner1.getUser().setProperty(UserConstants.LASTNAME, "Compiled");
+		userManager.updateUserFromIdentity(owner1);
+		coach2.getUser().setProperty(UserConstants.LASTNAME, "compiled");
+		userManager.updateUserFromIdentity(coach2);
+		dbInstance.commitAndCloseSession();
+		
+		List<ReminderRule> rules = getRules(UserConstants.LASTNAME, "COMPILED");
+		rules.addAll(getRules(RepositoryEntryRoleRuleSPI.Roles.ownerAndCoach));
+		List<Identity> ownersAndCoaches = ruleEngine.getIdentitiesByQuery(re, null, rules, true);
+		assertThat(ownersAndCoaches)
+			.containsExactlyInAnyOrder(owner1, coach2);
+		Assert.assertTrue(rules.isEmpty());
+	}
+	
+	@Test
+	public void compiledFormattedUserPropertyRules() {
+		Identity participant1 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-9");
+		Identity participant2 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-10");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(participant1, re, GroupRoles.participant.name());
+		repositoryEntryRelationDao.addRole(participant2, re, GroupRoles.participant.name());
+		dbInstance.commit();
+		
+		participant1.getUser().setProperty(UserConstants.GENDER, "female");
+		participant1.getUser().setProperty(UserConstants.BIRTHDAY, "20091212");
+		userManager.updateUserFromIdentity(participant1);
+		participant2.getUser().setProperty(UserConstants.GENDER, "male");
+		participant2.getUser().setProperty(UserConstants.BIRTHDAY, "20100101");
+		userManager.updateUserFromIdentity(participant2);
+		dbInstance.commitAndCloseSession();
+		
+		// the rules compare the value shown to the user, not the one in the database
+		String gender = participant1.getUser().getProperty(UserConstants.GENDER, null);
+		List<ReminderRule> genderRules = getRules(UserConstants.GENDER, gender);
+		List<Identity> expectedByGender = ruleEngine.getIdentities(re, null, getRules(UserConstants.GENDER, gender), true);
+		List<Identity> compiledByGender = ruleEngine.getIdentitiesByQuery(re, null, genderRules, true);
+		assertThat(compiledByGender)
+			.containsExactly(participant1)
+			.containsExactlyInAnyOrderElementsOf(expectedByGender);
+		
+		String birthDay = participant1.getUser().getProperty(UserConstants.BIRTHDAY, null);
+		List<ReminderRule> birthDayRules = getRules(UserConstants.BIRTHDAY, birthDay);
+		List<Identity> expectedByBirthDay = ruleEngine.getIdentities(re, null, getRules(UserConstants.BIRTHDAY, birthDay), true);
+		List<Identity> compiledByBirthDay = ruleEngine.getIdentitiesByQuery(re, null, birthDayRules, true);
+		assertThat(compiledByBirthDay)
+			.containsExactly(participant1)
+			.containsExactlyInAnyOrderElementsOf(expectedByBirthDay);
+	}
+	
+	@Test
+	public void compiledRulesWithSentReminders() {
+		Identity creator = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-6");
+		Identity participant1 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-7");
+		Identity participant2 = JunitTestHelper.createAndPersistIdentityAsRndUser("rule-c-8");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(participant1, re, GroupRoles.participant.name());
+		repositoryEntryRelationDao.addRole(participant2, re, GroupRoles.participant.name());
+		
+		Reminder reminder = reminderDao.createReminder(re, creator);
+		reminder.setConfiguration("<rules></rules>");
+		reminder.setDescription("Compiled reminder");
+		reminder.setEmailSubject("Compiled");
+		reminder.setEmailBody("Hello world");
+		reminder = reminderDao.save(reminder);
+		dbInstance.commit();
+		reminderDao.markAsSend(reminder, participant1, "ok");
+		dbInstance.commitAndCloseSession();
+		
+		List<ReminderRule> rules = getRules(RepositoryEntryRoleRuleSPI.Roles.participant);
+		List<Identity> notSent = ruleEngine.getIdentitiesByQuery(re, reminder, rules, false);
+		assertThat(notSent)
+			.containsExactly(participant2);
+		
+		List<ReminderRule> resendRules = getRules(RepositoryEntryRoleRuleSPI.Roles.participant);
+		List<Identity> resend = ruleEngine.getIdentitiesByQuery(re, reminder, resendRules, true);
+		assertThat(resend)
+			.containsExactlyInAnyOrder(participant1, participant2);
+	}
+	
+	@Test
+	public void compiledAssessmentRules() {
+		Identity tutor = JunitTestHelper.createAndPersistIdentityAsRndUser("compiled-tutor-");
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("compiled-1");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("compiled-2");
+		Identity id3 = JunitTestHelper.createAndPersistIdentityAsRndUser("compiled-3");
+		Identity id4 = JunitTestHelper.createAndPersistIdentityAsRndUser("compiled-4");
+		
+		RepositoryEntry re = JunitTestHelper.deployDemoCourse(id1);
+		repositoryEntryRelationDao.addRole(id1, re, GroupRoles.owner.name());
+		repositoryEntryRelationDao.addRole(id2, re, GroupRoles.coach.name());
+		repositoryEntryRelationDao.addRole(id3, re, GroupRoles.participant.name());
+		repositoryEntryRelationDao.addRole(id4, re, GroupRoles.participant.name());
+		dbInstance.commit();
+		
+		// id4 has no assessment data
+		String nodeIdent = assessmentData(tutor, id1, new ScoreEvaluation(1.0f, false), re);
+		assessmentData(tutor, id2, new ScoreEvaluation(5.0f, true), re);
+		assessmentData(tutor, id3, new ScoreEvaluation(10.0f, true), re);
+		dbInstance.commitAndCloseSession();
+		
+		List<List<ReminderRule>> rulesList = List.of(
+				getPassedRules("passed", nodeIdent),
+				getPassedRules("failed", nodeIdent),
+				getScoreRules(">", 4.0f, nodeIdent),
+				getScoreRules("=", 5.0f, nodeIdent),
+				getScoreRules("!=", 5.0f, nodeIdent),
+				getScoreRules("<=", 5.0f, nodeIdent),
+				getAttemptsRules("<", 1, nodeIdent),
+				getAttemptsRules("=>", 1, nodeIdent));
+		for(List<ReminderRule> rules:rulesList) {
+			List<Identity> expected = ruleEngine.getIdentities(re, null, new ArrayList<>(rules), true);
+			ruleEngine.filterByRules(re, expected, new ArrayList<>(rules));
+			
+			List<ReminderRule> compiledRules = new ArrayList<>(rules);
+			List<Identity> compiled = ruleEngine.getIdentitiesByQuery(re, null, compiledRules, true);
+			Assert.assertTrue(compiledRules.isEmpty());
+			Assert.assertEquals(new HashSet<>(expected), new HashSet<>(compiled));
+		}
+	}
+	
 	@Test
 	public void evaluateRuleListThrowsException() {
 		List<ReminderRule> ruleList = Collections.<ReminderRule>emptyList();
@@ -0,0 +1,120 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.wiki;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.vfs.LocalFileImpl;
+import org.olat.core.util.vfs.LocalFolderImpl;
+import org.olat.core.util.vfs.VFSLeaf;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class WikiPageIndexTest {
+	
+	private File dir;
+	private LocalFolderImpl rootContainer;
+	
+	@Before
+	public void createDirectory() throws Exception {
+		dir = Files.createTempDirectory("wiki").toFile();
+		rootContainer = new LocalFolderImpl(dir);
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteDirsAndFiles(dir, true, true);
+	}
+	
+	@Test
+	public void readPagesFromIndex() throws Exception {
+		File pageFile = writePage("Page-1", "3");
+		long lastModified = pageFile.lastModified();
+		
+		WikiPageIndex index = WikiPageIndex.load(rootContainer);
+		WikiPage page = index.getPage(new LocalFileImpl(pageFile));
+		Assert.assertEquals("Page-1", page.getPageName());
+		Assert.assertEquals(3, page.getViewCount());
+		index.save();
+		Assert.assertTrue(new File(dir, WikiPageIndex.PAGE_INDEX_FILENAME).exists());
+		
+		// same size, same date: the properties are read from the index
+		writePage("Page-1", "4");
+		Assert.assertTrue(pageFile.setLastModified(lastModified));
+		WikiPageIndex reloadedIndex = WikiPageIndex.load(rootContainer);
+		WikiPage indexedPage = reloadedIndex.getPage(new LocalFileImpl(pageFile));
+		Assert.assertEquals("Page-1", indexedPage.getPageName());
+		Assert.assertEquals(3, indexedPage.getViewCount());
+		
+		// the file changed: the properties are read again
+		Assert.assertTrue(pageFile.setLastModified(lastModified + 10000l));
+		WikiPageIndex changedIndex = WikiPageIndex.load(rootContainer);
+		WikiPage changedPage = changedIndex.getPage(new LocalFileImpl(pageFile));
+		Assert.assertEquals(4, changedPage.getViewCount());
+	}
+	
+	@Test
+	public void removeDeletedPages() throws Exception {
+		File pageFile1 = writePage("Page-1", "1");
+		File pageFile2 = writePage("Page-2", "2");
+		
+		WikiPageIndex index = WikiPageIndex.load(rootContainer);
+		index.getPage(new LocalFileImpl(pageFile1));
+		index.getPage(new LocalFileImpl(pageFile2));
+		index.save();
+		
+		Assert.assertTrue(pageFile2.delete());
+		WikiPageIndex reloadedIndex = WikiPageIndex.load(rootContainer);
+		reloadedIndex.getPage(new LocalFileImpl(pageFile1));
+		reloadedIndex.save();
+		
+		Properties p = new Properties();
+		VFSLeaf indexLeaf = (VFSLeaf)rootContainer.resolve(WikiPageIndex.PAGE_INDEX_FILENAME);
+		p.load(indexLeaf.getInputStream());
+		String pageKey1 = WikiManager.generatePageId("Page-1");
+		String pageKey2 = WikiManager.generatePageId("Page-2");
+		Assert.assertEquals("Page-1", p.getProperty(pageKey1 + "." + WikiManager.PAGENAME));
+		Assert.assertNull(p.getProperty(pageKey2 + "." + WikiManager.PAGENAME));
+	}
+	
+	private File writePage(String pageName, String viewCount) throws Exception {
+		File pageFile = new File(dir, WikiManager.generatePageId(pageName) + WikiManager.WIKI_DOT_PROPERTIES_SUFFIX);
+		Properties p = new Properties();
+		p.setProperty(WikiManager.PAGENAME, pageName);
+		p.setProperty(WikiManager.VERSION, "1");
+		p.setProperty(WikiManager.VIEW_COUNT, viewCount);
+		try(OutputStream out = Files.newOutputStream(pageFile.toPath())) {
+			p.store(out, null);
+		}
+		return pageFile;
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.mark.MarkManager;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryEntryMyView;
+import org.olat.repository.RepositoryEntryStatusEnum;
+import org.olat.repository.RepositoryManager;
+import org.olat.repository.RepositoryModule;
+import org.olat.repository.model.RepositoryEntryMyCourseItem;
+import org.olat.repository.model.RepositoryEntryMyCourseState;
+import org.olat.repository.model.SearchMyRepositoryEntryViewParams;
+import org.olat.repository.model.SearchMyRepositoryEntryViewParams.OrderBy;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class RepositoryEntryMyCourseDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private MarkManager markManager;
+	@Autowired
+	private RepositoryModule repositoryModule;
+	@Autowired
+	private RepositoryManager repositoryManager;
+	@Autowired
+	private RepositoryEntryMyCourseDAO myCourseDao;
+	@Autowired
+	private RepositoryEntryMyCourseBuilder myCourseBuilder;
+	@Autowired
+	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
+	@Autowired
+	private RepositoryEntryMyCourseQueries repositoryEntryMyCourseViewQueries;
+	
+	@Test
+	public void build() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-model-1-");
+		RepositoryEntry participantRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(participantRe, RepositoryEntryStatusEnum.published, false, false);
+		repositoryEntryRelationDao.addRole(id, participantRe, GroupRoles.participant.name());
+		RepositoryEntry ownerRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryEntryRelationDao.addRole(id, ownerRe, GroupRoles.owner.name());
+		RepositoryEntry otherRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(otherRe, RepositoryEntryStatusEnum.published, false, false);
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertFalse(myCourseDao.isValid(id));
+		Assert.assertTrue(myCourseBuilder.build(id.getKey()));
+		Assert.assertTrue(myCourseDao.isValid(id));
+		
+		List<RepositoryEntryMyCourseItem> items = myCourseDao.getItems(id);
+		Assert.assertEquals(2, items.size());
+		for(RepositoryEntryMyCourseItem item:items) {
+			if(participantRe.getKey().equals(item.getEntry().getKey())) {
+				Assert.assertTrue(item.isParticipant());
+				Assert.assertFalse(item.isOwner());
+			} else if(ownerRe.getKey().equals(item.getEntry().getKey())) {
+				Assert.assertTrue(item.isOwner());
+				Assert.assertFalse(item.isParticipant());
+			} else {
+				Assert.fail("Unexpected entry: " + item.getEntry().getKey());
+			}
+		}
+	}
+	
+	@Test
+	public void invalidateByMembership() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-model-2-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(re, RepositoryEntryStatusEnum.published, false, false);
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertTrue(myCourseBuilder.build(id.getKey()));
+		Assert.assertTrue(myCourseDao.isValid(id));
+		
+		RepositoryEntry newRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(newRe, RepositoryEntryStatusEnum.published, false, false);
+		repositoryEntryRelationDao.addRole(id, newRe, GroupRoles.coach.name());
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(myCourseDao.isValid(id));
+		
+		Assert.assertTrue(myCourseBuilder.build(id.getKey()));
+		Assert.assertTrue(myCourseDao.isValid(id));
+		Assert.assertEquals(2, myCourseDao.getItems(id).size());
+	}
+	
+	@Test
+	public void validate_changedDuringBuild() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-model-3-");
+		RepositoryEntryMyCourseState state = myCourseDao.createState(id.getKey());
+		dbInstance.commitAndCloseSession();
+		
+		long buildVersion = state.getBuildVersion();
+		myCourseDao.invalidate(id);
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertFalse(myCourseDao.validate(id.getKey(), buildVersion));
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(myCourseDao.isValid(id));
+	}
+	
+	@Test
+	public void updateMarked() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-model-4-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(re, RepositoryEntryStatusEnum.published, false, false);
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		Assert.assertTrue(myCourseBuilder.build(id.getKey()));
+		
+		markManager.setMark(re, id, null, "[RepositoryEntry:" + re.getKey() + "]");
+		dbInstance.commitAndCloseSession();
+		
+		List<RepositoryEntryMyCourseItem> items = myCourseDao.getItems(id);
+		Assert.assertEquals(1, items.size());
+		Assert.assertTrue(items.get(0).isMarked());
+		Assert.assertTrue(myCourseDao.isValid(id));
+		
+		SearchMyRepositoryEntryViewParams params = new SearchMyRepositoryEntryViewParams(id, Roles.userRoles());
+		params.setMarked(Boolean.TRUE);
+		List<RepositoryEntryMyView> views = repositoryEntryMyCourseViewQueries.searchViews(params, 0, -1);
+		Assert.assertEquals(1, views.size());
+		Assert.assertEquals(re.getKey(), views.get(0).getKey());
+		Assert.assertTrue(views.get(0).isMarked());
+	}
+	
+	/**
+	 * The read model and the complete query must return the same entries.
+	 */
+	@Test
+	public void searchViews_sameAsQuery() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-model-5-");
+		RepositoryEntry participantRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(participantRe, RepositoryEntryStatusEnum.published, false, false);
+		repositoryEntryRelationDao.addRole(id, participantRe, GroupRoles.participant.name());
+		RepositoryEntry participantPreparationRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryEntryRelationDao.addRole(id, participantPreparationRe, GroupRoles.participant.name());
+		RepositoryEntry coachRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryManager.setAccess(coachRe, RepositoryEntryStatusEnum.coachpublished, false, false);
+		repositoryEntryRelationDao.addRole(id, coachRe, GroupRoles.coach.name());
+		RepositoryEntry ownerRe = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryEntryRelationDao.addRole(id, ownerRe, GroupRoles.owner.name());
+		dbInstance.commitAndCloseSession();
+		
+		SearchMyRepositoryEntryViewParams params = new SearchMyRepositoryEntryViewParams(id, Roles.userRoles());
+		List<RepositoryEntryMyView> queryViews = repositoryEntryMyCourseViewQueries.searchViews(params, 0, -1);
+		int queryCount = repositoryEntryMyCourseViewQueries.countViews(params);
+		
+		Assert.assertTrue(myCourseBuilder.build(id.getKey()));
+		Assert.assertTrue(repositoryModule.isMyCoursesReadModelEnabled());
+		List<RepositoryEntryMyView> modelViews = repositoryEntryMyCourseViewQueries.searchViews(params, 0, -1);
+		int modelCount = repositoryEntryMyCourseViewQueries.countViews(params);
+		
+		Assert.assertEquals(queryCount, modelCount);
+		Assert.assertEquals(toKeys(queryViews), toKeys(modelViews));
+		Set<Long> keys = toKeys(modelViews);
+		Assert.assertTrue(keys.contains(participantRe.getKey()));
+		Assert.assertFalse(keys.contains(participantPreparationRe.getKey()));
+		Assert.assertTrue(keys.contains(coachRe.getKey()));
+		Assert.assertTrue(keys.contains(ownerRe.getKey()));
+		
+		// the sorting with the values of the read model
+		for(OrderBy orderBy:OrderBy.values()) {
+			params.setOrderBy(orderBy);
+			params.setOrderByAsc(true);
+			List<RepositoryEntryMyView> views = repositoryEntryMyCourseViewQueries.searchViews(params, 0, 10);
+			Assert.assertNotNull(views);
+		}
+	}
+	
+	private Set<Long> toKeys(List<RepositoryEntryMyView> views) {
+		return views.stream()
+				.map(RepositoryEntryMyView::getKey)
+				.collect(Collectors.toSet());
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.manager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.util.DateUtils;
+import org.olat.repository.RepositoryEntry;
+import org.olat.search.model.SearchIndexRoot;
+import org.olat.search.model.SearchIndexWorkImpl;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class SearchIndexQueueTest extends OlatTestCase {
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private SearchIndexQueue searchIndexQueue;
+
+	@Test
+	public void resolveBusinessPath() {
+		Assert.assertEquals("[RepositoryEntry:12][CourseNode:345]",
+				searchIndexQueue.resolveBusinessPath("[RepositoryEntry:12][CourseNode:345][Message:3]"));
+		Assert.assertEquals("[RepositoryEntry:12]",
+				searchIndexQueue.resolveBusinessPath("[RepositoryEntry:12][Infos:0]"));
+		Assert.assertEquals("[BusinessGroup:5][toolfolder:0]",
+				searchIndexQueue.resolveBusinessPath("[BusinessGroup:5][toolfolder:0]"));
+		Assert.assertEquals("[BusinessGroup:5][wiki:0]",
+				searchIndexQueue.resolveBusinessPath("[BusinessGroup:5][wiki:0][page=Index:0]"));
+		Assert.assertEquals("[BusinessGroup:5]",
+				searchIndexQueue.resolveBusinessPath("[BusinessGroup:5][toolcalendar:0]"));
+		Assert.assertEquals("[Identity:7]",
+				searchIndexQueue.resolveBusinessPath("[Identity:7]"));
+		Assert.assertNull(searchIndexQueue.resolveBusinessPath("[CalendarNotifications:1]"));
+		Assert.assertNull(searchIndexQueue.resolveBusinessPath(null));
+	}
+
+	@Test
+	public void markChanged() {
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		searchIndexQueue.markChanged(entry);
+		searchIndexQueue.markChanged("[BusinessGroup:4523][wiki:0]");
+		dbInstance.commitAndCloseSession();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		List<SearchIndexRoot> roots = works.stream()
+				.flatMap(work -> searchIndexQueue.resolveRoots(work).stream())
+				.collect(Collectors.toList());
+		Assert.assertTrue(roots.contains(new SearchIndexRoot("[RepositoryEntry:" + entry.getKey() + "]", true)));
+		Assert.assertTrue(roots.contains(new SearchIndexRoot("[BusinessGroup:4523][wiki:0]", true)));
+
+		searchIndexQueue.done(works);
+		Assert.assertTrue(searchIndexQueue.nextWorks(10000).isEmpty());
+	}
+
+	/**
+	 * The metadata of an entry only change the document of the entry,
+	 * not the documents of its course nodes.
+	 */
+	@Test
+	public void markMetadataChanged() {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("index-2");
+		RepositoryEntry course = JunitTestHelper.deployBasicCourse(author);
+		dbInstance.commitAndCloseSession();
+		searchIndexQueue.done(searchIndexQueue.nextWorks(10000));
+		
+		searchIndexQueue.markMetadataChanged(course);
+		searchIndexQueue.markChanged("[RepositoryEntry:" + course.getKey() + "][Infos:0]");
+		dbInstance.commitAndCloseSession();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		Assert.assertEquals(2, works.size());
+		SearchIndexRoot entryDocument = new SearchIndexRoot("[RepositoryEntry:" + course.getKey() + "]", false);
+		Assert.assertEquals(List.of(entryDocument), searchIndexQueue.resolveRoots(works.get(0)));
+		Assert.assertEquals(List.of(entryDocument), searchIndexQueue.resolveRoots(works.get(1)));
+		searchIndexQueue.done(works);
+	}
+
+	@Test
+	public void markFileChanged() {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("index-1");
+		RepositoryEntry entry = JunitTestHelper.createRandomRepositoryEntry(author);
+		dbInstance.commitAndCloseSession();
+		searchIndexQueue.done(searchIndexQueue.nextWorks(10000));
+
+		Long resourceId = entry.getOlatResource().getResourceableId();
+		searchIndexQueue.markFileChanged("/cts/folders/BusinessGroup/3456/documents");
+		searchIndexQueue.markFileChanged("/repository/" + resourceId + "/_sharedfolder_");
+		searchIndexQueue.markFileChanged("/transcodedVideos/1234");
+		dbInstance.commitAndCloseSession();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		Assert.assertEquals(2, works.size());
+		Assert.assertEquals(List.of(new SearchIndexRoot("[BusinessGroup:3456][toolfolder:0]", true)),
+				searchIndexQueue.resolveRoots(works.get(0)));
+		Assert.assertEquals(List.of(new SearchIndexRoot("[RepositoryEntry:" + entry.getKey() + "]", true)),
+				searchIndexQueue.resolveRoots(works.get(1)));
+		searchIndexQueue.done(works);
+	}
+	
+	/**
+	 * A file in the folder of a course node only changes the documents
+	 * of this course node.
+	 */
+	@Test
+	public void markFileChangedCourseNode() {
+		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("index-3");
+		RepositoryEntry course = JunitTestHelper.deployBasicCourse(author);
+		dbInstance.commitAndCloseSession();
+		searchIndexQueue.done(searchIndexQueue.nextWorks(10000));
+
+		Long resourceId = course.getOlatResource().getResourceableId();
+		searchIndexQueue.markFileChanged("/course/coursed/" + resourceId + "/foldernodes/9876543/subfolder");
+		dbInstance.commitAndCloseSession();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		Assert.assertEquals(1, works.size());
+		Assert.assertEquals(List.of(new SearchIndexRoot("[RepositoryEntry:" + course.getKey() + "][CourseNode:9876543]", true)),
+				searchIndexQueue.resolveRoots(works.get(0)));
+		searchIndexQueue.done(works);
+	}
+
+	@Test
+	public void markFileChangedNotFileResource() {
+		// the folder of the repository are only for the file resources
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		dbInstance.commitAndCloseSession();
+		searchIndexQueue.done(searchIndexQueue.nextWorks(10000));
+
+		Long resourceId = entry.getOlatResource().getResourceableId();
+		searchIndexQueue.markFileChanged("/repository/" + resourceId + "/_sharedfolder_");
+		dbInstance.commitAndCloseSession();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		Assert.assertEquals(1, works.size());
+		Assert.assertTrue(searchIndexQueue.resolveRoots(works.get(0)).isEmpty());
+		searchIndexQueue.done(works);
+	}
+
+	@Test
+	public void purge() {
+		searchIndexQueue.done(searchIndexQueue.nextWorks(10000));
+
+		SearchIndexWorkImpl oldWork = new SearchIndexWorkImpl();
+		oldWork.setCreationDate(DateUtils.addDays(new Date(), -30));
+		oldWork.setType(SearchIndexWorkImpl.TYPE_BUSINESS_PATH);
+		oldWork.setPath("[BusinessGroup:27]");
+		dbInstance.getCurrentEntityManager().persist(oldWork);
+		searchIndexQueue.markChanged("[BusinessGroup:28]");
+		dbInstance.commitAndCloseSession();
+
+		searchIndexQueue.purge();
+
+		List<SearchIndexWorkImpl> works = searchIndexQueue.nextWorks(10000);
+		Assert.assertEquals(1, works.size());
+		Assert.assertEquals("[BusinessGroup:28]", works.get(0).getPath());
+		searchIndexQueue.done(works);
+	}
+}
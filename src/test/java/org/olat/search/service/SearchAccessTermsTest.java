@@ -0,0 +1,172 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service;
+
+import java.util.List;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryEntryStatusEnum;
+import org.olat.repository.RepositoryManager;
+import org.olat.repository.manager.RepositoryEntryRelationDAO;
+import org.olat.search.model.AbstractOlatDocument;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class SearchAccessTermsTest extends OlatTestCase {
+
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private RepositoryManager repositoryManager;
+	@Autowired
+	private SearchAccessTerms searchAccessTerms;
+	@Autowired
+	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
+
+	@Test
+	public void getAccessTerms() {
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		dbInstance.commitAndCloseSession();
+
+		List<String> terms = searchAccessTerms.getAccessTerms("[RepositoryEntry:" + entry.getKey() + "][CourseNode:1234]");
+		Assert.assertFalse(terms.contains(SearchAccessTerms.OPEN));
+		Assert.assertTrue(terms.stream().allMatch(term -> term.startsWith(SearchAccessTerms.GROUP_PREFIX)));
+
+		Assert.assertEquals(List.of(SearchAccessTerms.OPEN), searchAccessTerms.getAccessTerms("[Identity:1234]"));
+		Assert.assertEquals(List.of(SearchAccessTerms.OPEN), searchAccessTerms.getAccessTerms("[BusinessGroup:1234]"));
+		Assert.assertEquals(List.of(SearchAccessTerms.OPEN), searchAccessTerms.getAccessTerms(null));
+	}
+
+	@Test
+	public void filterByMembership() throws Exception {
+		Identity participant = JunitTestHelper.createAndPersistIdentityAsRndUser("search-access-1");
+		RepositoryEntry memberEntry = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		RepositoryEntry otherEntry = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		repositoryEntryRelationDao.addRole(participant, memberEntry, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+
+		try(Directory directory = new RAMDirectory()) {
+			try(IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+				writer.addDocument(document("[RepositoryEntry:" + memberEntry.getKey() + "][CourseNode:1]"));
+				writer.addDocument(document("[RepositoryEntry:" + otherEntry.getKey() + "][CourseNode:2]"));
+				writer.addDocument(document("[Identity:" + participant.getKey() + "]"));
+			}
+
+			try(DirectoryReader reader = DirectoryReader.open(directory)) {
+				IndexSearcher searcher = new IndexSearcher(reader);
+				Query filter = searchAccessTerms.createAccessFilter(participant, Roles.userRoles(), reader);
+				Assert.assertNotNull(filter);
+
+				Query query = new BooleanQuery.Builder()
+						.add(new MatchAllDocsQuery(), Occur.MUST)
+						.add(filter, Occur.FILTER)
+						.build();
+				Assert.assertEquals(2, searcher.count(query));
+
+				// administrators are not filtered
+				Assert.assertNull(searchAccessTerms.createAccessFilter(participant, Roles.administratorRoles(), reader));
+			}
+		}
+	}
+
+	@Test
+	public void filterAllUsersEntry() throws Exception {
+		Identity user = JunitTestHelper.createAndPersistIdentityAsRndUser("search-access-2");
+		RepositoryEntry openEntry = JunitTestHelper.createAndPersistRepositoryEntry(false);
+		RepositoryEntry closedEntry = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		dbInstance.commitAndCloseSession();
+
+		String openUrl = "[RepositoryEntry:" + openEntry.getKey() + "][CourseNode:3]";
+		Assert.assertTrue(searchAccessTerms.getAccessTerms(openUrl).contains(SearchAccessTerms.OPEN));
+
+		try(Directory directory = new RAMDirectory()) {
+			try(IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+				writer.addDocument(document(openUrl));
+				writer.addDocument(document("[RepositoryEntry:" + closedEntry.getKey() + "][CourseNode:4]"));
+			}
+
+			try(DirectoryReader reader = DirectoryReader.open(directory)) {
+				IndexSearcher searcher = new IndexSearcher(reader);
+				Query filter = searchAccessTerms.createAccessFilter(user, Roles.userRoles(), reader);
+				Query query = new BooleanQuery.Builder()
+						.add(new TermQuery(new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, openUrl)), Occur.MUST)
+						.add(filter, Occur.FILTER)
+						.build();
+				Assert.assertEquals(1, searcher.count(query));
+
+				Query allQuery = new BooleanQuery.Builder()
+						.add(new MatchAllDocsQuery(), Occur.MUST)
+						.add(filter, Occur.FILTER)
+						.build();
+				Assert.assertEquals(1, searcher.count(allQuery));
+			}
+		}
+	}
+
+	@Test
+	public void evict() {
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry(true);
+		dbInstance.commitAndCloseSession();
+
+		String resourceUrl = "[RepositoryEntry:" + entry.getKey() + "][CourseNode:5]";
+		Assert.assertFalse(searchAccessTerms.getAccessTerms(resourceUrl).contains(SearchAccessTerms.OPEN));
+
+		repositoryManager.setAccess(entry, RepositoryEntryStatusEnum.published, true, false);
+		dbInstance.commitAndCloseSession();
+		searchAccessTerms.evict("[RepositoryEntry:" + entry.getKey() + "]");
+		Assert.assertTrue(searchAccessTerms.getAccessTerms(resourceUrl).contains(SearchAccessTerms.OPEN));
+	}
+
+	private Document document(String resourceUrl) {
+		Document document = new Document();
+		document.add(new StringField(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl, Field.Store.YES));
+		searchAccessTerms.appendAccessTerms(document);
+		return document;
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.search.model.AbstractOlatDocument;
+import org.olat.search.model.SearchIndexRoot;
+
+/**
+ * Check that the incremental indexer replaces only the documents
+ * of the changed root.
+ *
+ * Initial date: 18 oct. 2020<br>
+ * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ *
+ */
+public class OlatIncrementalIndexerTest {
+	
+	private static final String ENTRY = "[RepositoryEntry:27]";
+	private static final String NODE_1 = ENTRY + "[CourseNode:1001]";
+	private static final String NODE_1_FILE = NODE_1 + "[path=/docs/test.pdf:0]";
+	private static final String NODE_2 = ENTRY + "[CourseNode:1002]";
+	private static final String NODE_2_MESSAGE = NODE_2 + "[Message:3]";
+	private static final String OTHER_ENTRY = "[RepositoryEntry:270]";
+	
+	@Test
+	public void replaceCourseNode() throws Exception {
+		SearchIndexRoot root = new SearchIndexRoot(NODE_1, true);
+		List<String> resourceUrls = deletePreviousGenerations(root, NODE_1);
+		// the documents of the other course nodes and of the entry are not touched
+		Assert.assertEquals(List.of(ENTRY, NODE_2, NODE_2_MESSAGE, OTHER_ENTRY, NODE_1), resourceUrls);
+	}
+	
+	@Test
+	public void replaceEntryDocument() throws Exception {
+		SearchIndexRoot root = new SearchIndexRoot(ENTRY, false);
+		List<String> resourceUrls = deletePreviousGenerations(root, ENTRY);
+		// only the document of the entry is replaced
+		Assert.assertEquals(List.of(NODE_1, NODE_1_FILE, NODE_2, NODE_2_MESSAGE, OTHER_ENTRY, ENTRY), resourceUrls);
+	}
+	
+	@Test
+	public void replaceEntry() throws Exception {
+		SearchIndexRoot root = new SearchIndexRoot(ENTRY, true);
+		List<String> resourceUrls = deletePreviousGenerations(root, ENTRY);
+		// the entry with all its documents, but not the entry with a similar key
+		Assert.assertEquals(List.of(OTHER_ENTRY, ENTRY), resourceUrls);
+	}
+	
+	@Test
+	public void rootContains() {
+		SearchIndexRoot entry = new SearchIndexRoot(ENTRY, true);
+		SearchIndexRoot entryDocument = new SearchIndexRoot(ENTRY, false);
+		SearchIndexRoot node = new SearchIndexRoot(NODE_1, true);
+		
+		Assert.assertTrue(entry.contains(entryDocument));
+		Assert.assertTrue(entry.contains(node));
+		Assert.assertFalse(entryDocument.contains(entry));
+		Assert.assertFalse(entryDocument.contains(node));
+		Assert.assertFalse(node.contains(entry));
+		Assert.assertFalse(entry.contains(new SearchIndexRoot(OTHER_ENTRY, true)));
+	}
+	
+	/**
+	 * Index the documents of a course, add a new generation of the root and
+	 * delete its previous generations.
+	 * 
+	 * @return The resource URL of the remaining documents in the order of the index
+	 */
+	private List<String> deletePreviousGenerations(SearchIndexRoot root, String newDocument) throws Exception {
+		try(Directory directory = new RAMDirectory()) {
+			String generation = "gen-1";
+			try(IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+				for(String resourceUrl:List.of(ENTRY, NODE_1, NODE_1_FILE, NODE_2, NODE_2_MESSAGE, OTHER_ENTRY)) {
+					writer.addDocument(document(resourceUrl, null));
+				}
+				writer.addDocument(document(newDocument, generation));
+				writer.deleteDocuments(OlatIncrementalIndexer.previousGenerationsQuery(root, generation));
+			}
+
+			try(DirectoryReader reader = DirectoryReader.open(directory)) {
+				IndexSearcher searcher = new IndexSearcher(reader);
+				List<String> resourceUrls = new ArrayList<>();
+				for(ScoreDoc scoreDoc:searcher.search(new MatchAllDocsQuery(), 100).scoreDocs) {
+					resourceUrls.add(searcher.doc(scoreDoc.doc).get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME));
+				}
+				return resourceUrls;
+			}
+		}
+	}
+	
+	private Document document(String resourceUrl, String generation) {
+		Document document = new Document();
+		document.add(new StringField(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl, Field.Store.YES));
+		if(generation != null) {
+			document.add(new StringField(OlatIncrementalIndexer.GENERATION_FIELD_NAME, generation, Field.Store.NO));
+		}
+		return document;
+	}
+}
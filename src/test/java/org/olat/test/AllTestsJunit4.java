@@ -74,9 +74,12 @@ import org.junit.runners.Suite;
 	org.olat.core.util.IPUtilsTest.class,
 	org.olat.core.util.IPUtilsValidRangeTest.class,
 	org.olat.core.util.ZipUtilConcatTest.class,
+	org.olat.core.util.event.businfo.BusListenerInfosTest.class,
 	org.olat.core.util.mail.EmailAddressValidatorTest.class,
 	org.olat.core.util.mail.manager.MailManagerTest.class,
+	org.olat.core.util.mail.manager.MailOutboxTest.class,
 	org.olat.core.util.mail.manager.MailUserDataManagerTest.class,
+	org.olat.core.logging.activity.UserActivityLogWriterTest.class,
 	org.olat.core.util.openxml.OpenXmlWorkbookTest.class,
 	org.olat.core.util.openxml.OpenXMLDocumentTest.class,
 	org.olat.core.util.pdf.PdfDocumentTest.class,
@@ -86,20 +89,25 @@ import org.junit.runners.Suite;
 	org.olat.core.id.context.HistoryManagerTest.class,
 	org.olat.core.id.IdentityEnvironmentTest.class,
 	org.olat.core.gui.render.VelocityTemplateTest.class,
+	org.olat.core.gui.media.ServletUtilTest.class,
 	org.olat.core.gui.control.generic.iframe.IFrameDeliveryMapperTest.class,
+	org.olat.core.gui.control.pushpoll.PushPollManagerTest.class,
 	org.olat.note.NoteTest.class,
 	org.olat.user.UserTest.class,
 	org.olat.user.UserPropertiesTest.class,
 	org.olat.commons.calendar.CalendarImportTest.class,
 	org.olat.commons.calendar.CalendarUtilsTest.class,
 	org.olat.commons.calendar.manager.ImportedCalendarDAOTest.class,
+	org.olat.commons.calendar.manager.CalendarEventStoreDAOTest.class,
 	org.olat.commons.calendar.manager.ImportedToCalendarDAOTest.class,
 	org.olat.commons.calendar.manager.ICalFileCalendarManagerTest.class,
 	org.olat.commons.calendar.manager.CalendarUserConfigurationDAOTest.class,
 	org.olat.commons.lifecycle.LifeCycleManagerTest.class,
 	org.olat.commons.coordinate.cluster.jms.JMSTest.class,
+	org.olat.commons.coordinate.cluster.jms.ClusterEventCodecTest.class,
 	org.olat.commons.coordinate.cluster.lock.LockTest.class,
 	org.olat.commons.coordinate.CoordinatorTest.class,
+	org.olat.commons.coordinate.singlevm.SingleVMEventBusTest.class,
 	org.olat.core.commons.services.csp.manager.CSPManagerTest.class,
 	org.olat.core.commons.services.doceditor.manager.DocEditorIdentityServiceTest.class,
 	org.olat.core.commons.services.doceditor.wopi.manager.AccessDAOTest.class,
@@ -109,6 +117,7 @@ import org.junit.runners.Suite;
 	org.olat.core.commons.services.vfs.manager.VFSRevisionDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSStatsDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSThumbnailDAOTest.class,
+	org.olat.core.commons.services.vfs.manager.VFSQuotaUsageDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSRepositoryServiceTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSLockManagerTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSVersioningTest.class,
@@ -163,6 +172,7 @@ import org.junit.runners.Suite;
 	org.olat.repository.manager.RepositoryEntryStatisticsDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryAuthorQueriesTest.class,
 	org.olat.repository.manager.RepositoryEntryMyCourseQueriesTest.class,
+	org.olat.repository.manager.RepositoryEntryMyCourseDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryMembershipProcessorTest.class,
 	org.olat.repository.manager.RepositoryEntryToOrganisationDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryToTaxonomyLevelDAOTest.class,
@@ -174,6 +184,7 @@ import org.junit.runners.Suite;
 	org.olat.instantMessaging.InstantMessageServiceTest.class,
 	org.olat.course.archiver.FormatConfigHelperTest.class,
 	org.olat.course.condition.ConditionTest.class,
+	org.olat.course.condition.interpreter.ConditionCompilerTest.class,
 	org.olat.course.condition.KeyAndNameConverterTest.class,
 	org.olat.course.disclaimer.CourseDisclaimerManagerTest.class,
 	org.olat.course.highscore.HighScoreManagerTest.class,
@@ -216,9 +227,11 @@ import org.junit.runners.Suite;
 	org.olat.modules.iq.IQManagerTest.class,
 	org.olat.modules.fo.ForumManagerTest.class,//fail
 	org.olat.modules.wiki.WikiUnitTest.class,
+	org.olat.modules.wiki.WikiPageIndexTest.class,
 	org.olat.modules.wiki.versioning.diff.CookbookDiffTest.class,
 	org.olat.modules.wiki.gui.components.wikiToHtml.FilterUtilTest.class,
 	org.olat.modules.coach.manager.CoachingDAOTest.class,
+	org.olat.modules.coach.manager.CoachingStatisticsDAOTest.class,
 	org.olat.modules.coach.CoachingLargeTest.class,
 	org.olat.modules.curriculum.manager.CurriculumDAOTest.class,
 	org.olat.modules.curriculum.manager.CurriculumMemberQueriesTest.class,
@@ -329,6 +342,9 @@ import org.junit.runners.Suite;
 	org.olat.properties.PropertyTest.class,
 	org.olat.search.service.document.file.FileDocumentFactoryTest.class,
 	org.olat.search.service.indexer.repository.course.SPCourseNodeIndexerTest.class,
+	org.olat.search.service.SearchAccessTermsTest.class,
+	org.olat.search.manager.SearchIndexQueueTest.class,
+	org.olat.search.service.indexer.OlatIncrementalIndexerTest.class,
 	org.olat.search.service.document.file.HtmlDocumentTest.class,
 	org.olat.search.service.document.file.PDFDocumentTest.class,
 	org.olat.search.service.document.file.OfficeDocumentTest.class,
@@ -350,6 +366,8 @@ import org.junit.runners.Suite;
 	org.olat.ims.qti21.manager.AssessmentItemSessionDAOTest.class,
 	org.olat.ims.qti21.manager.AssessmentResponseDAOTest.class,
 	org.olat.ims.qti21.manager.CorrectResponsesUtilTest.class,
+	org.olat.ims.qti21.manager.TestSessionStateJournalTest.class,
+	org.olat.ims.qti21.manager.archive.QTI21ArchiveFormatTest.class,
 	org.olat.ims.qti21.model.xml.AssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.MultipleChoiceAssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.SingleChoiceAssessmentItemBuilderTest.class,
@@ -387,6 +405,7 @@ import org.junit.runners.Suite;
 	org.olat.login.oauth.OAuthDispatcherTest.class,
 	org.olat.ldap.LDAPLoginTest.class,
 	org.olat.ldap.manager.LDAPLoginManagerTest.class,
+	org.olat.ldap.manager.LDAPChangeMarkerTest.class,
 	org.olat.core.commons.services.mark.MarksTest.class,
 	org.olat.test.SpringInitDestroyVerficationTest.class,
 	//org.olat.course.statistic.weekly.TestWeeklyStatisticManager_fillGaps.class, don't know what it tests
@@ -480,6 +499,8 @@ import org.junit.runners.Suite;
 	org.olat.core.gui.components.form.flexible.impl.elements.richText.TextModeTest.class,
 	org.olat.core.gui.components.form.flexible.impl.elements.SelectboxSelectionImplTest.class,
 	org.olat.core.gui.components.form.flexible.impl.elements.TextElementRendererTest.class,
+	org.olat.core.gui.components.form.flexible.impl.elements.table.SortableFlexiTableModelDelegateTest.class,
+	org.olat.core.gui.components.form.flexible.impl.elements.table.XlsFlexiTableExporterTest.class,
 	org.olat.core.util.DateUtilsTest.class,
 	org.olat.course.learningpath.evaluation.ConfigEndDateEvaluatorTest.class,
 	org.olat.course.learningpath.evaluation.ConfigStartDateEvaluatorTest.class,